@@ -28,7 +28,11 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
+
 import nonapi.io.github.classgraph.types.ParseException;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 
 /**
  * Stores the type descriptor of a {@code Class<?>}, as found in an annotation parameter value.
@@ -217,4 +221,28 @@ public class AnnotationClassRef extends ScanResultObject {
         /* prefix + */
         buf.append(getTypeSignature().toString(useSimpleNames)).append(".class");
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write this class reference in the binary serialization format.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        out.writeString(typeDescriptorStr);
+    }
+
+    /**
+     * Read this class reference in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        typeDescriptorStr = in.readString();
+    }
 }
\ No newline at end of file
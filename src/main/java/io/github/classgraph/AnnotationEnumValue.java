@@ -28,8 +28,12 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
+
 /**
  * Class for wrapping an enum constant value (split into class name and constant name), as used as an annotation
  * parameter value.
@@ -180,4 +184,30 @@ public class AnnotationEnumValue extends ScanResultObject implements Comparable<
         buf.append('.');
         buf.append(valueName);
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write this enum value in the binary serialization format.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        out.writeString(className);
+        out.writeString(valueName);
+    }
+
+    /**
+     * Read this enum value in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        className = in.readString();
+        valueName = in.readString();
+    }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.IncompleteAnnotationException;
 import java.lang.annotation.Inherited;
@@ -41,6 +42,8 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import nonapi.io.github.classgraph.reflection.ReflectionUtils;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /** Holds metadata about a specific annotation instance on a class, method, method parameter or field. */
@@ -560,4 +563,30 @@ public class AnnotationInfo extends ScanResultObject implements Comparable<Annot
             buf.append(')');
         }
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write this annotation in the binary serialization format.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        out.writeString(name);
+        AnnotationParameterValueList.writeBinary(annotationParamValues, out);
+    }
+
+    /**
+     * Read this annotation in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        name = in.readString();
+        annotationParamValues = AnnotationParameterValueList.readBinary(in);
+    }
 }
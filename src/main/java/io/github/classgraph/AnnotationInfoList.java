@@ -28,9 +28,11 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Repeatable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +40,8 @@ import java.util.Set;
 
 import io.github.classgraph.ClassInfo.RelType;
 import nonapi.io.github.classgraph.utils.Assert;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.CollectionUtils;
 import nonapi.io.github.classgraph.utils.LogNode;
 
@@ -414,4 +418,46 @@ public class AnnotationInfoList extends MappableInfoList<AnnotationInfo> {
     public int hashCode() {
         return super.hashCode() ^ (directlyRelatedAnnotations == null ? 0 : directlyRelatedAnnotations.hashCode());
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write a list of annotations in the binary serialization format.
+     *
+     * @param list
+     *            the list, or null
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    static void writeBinary(final Collection<AnnotationInfo> list, final BinaryWriter out) {
+        out.writeLength(list == null ? -1 : list.size());
+        if (list != null) {
+            for (final AnnotationInfo item : list) {
+                item.writeBinary(out);
+            }
+        }
+    }
+
+    /**
+     * Read a list of annotations in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @return the list, or null
+     * @throws IOException
+     *             if the input is invalid
+     */
+    static AnnotationInfoList readBinary(final BinaryReader in) throws IOException {
+        final int length = in.readLength();
+        if (length < 0) {
+            return null;
+        }
+        final AnnotationInfoList list = new AnnotationInfoList(length);
+        for (int i = 0; i < length; i++) {
+            final AnnotationInfo item = new AnnotationInfo();
+            item.readBinary(in);
+            list.add(item);
+        }
+        return list;
+    }
 }
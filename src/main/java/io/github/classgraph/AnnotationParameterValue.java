@@ -28,11 +28,14 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /** A wrapper used to pair annotation parameter names with annotation parameter values. */
@@ -302,4 +305,36 @@ public class AnnotationParameterValue extends ScanResultObject
         toStringParamValueOnly(false, buf);
         return buf.toString();
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write this annotation parameter value in the binary serialization format.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        out.writeString(name);
+        out.writeBoolean(value != null);
+        if (value != null) {
+            value.writeBinary(out);
+        }
+    }
+
+    /**
+     * Read this annotation parameter value in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        name = in.readString();
+        if (in.readBoolean()) {
+            value = new ObjectTypedValueWrapper();
+            value.readBinary(in);
+        }
+    }
 }
@@ -28,10 +28,13 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /** A list of {@link AnnotationParameterValue} objects. */
@@ -149,4 +152,46 @@ public class AnnotationParameterValueList extends MappableInfoList<AnnotationPar
         final AnnotationParameterValue apv = get(parameterName);
         return apv == null ? null : apv.getValue();
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write a list of annotation parameter values in the binary serialization format.
+     *
+     * @param list
+     *            the list, or null
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    static void writeBinary(final AnnotationParameterValueList list, final BinaryWriter out) {
+        out.writeLength(list == null ? -1 : list.size());
+        if (list != null) {
+            for (final AnnotationParameterValue item : list) {
+                item.writeBinary(out);
+            }
+        }
+    }
+
+    /**
+     * Read a list of annotation parameter values in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @return the list, or null
+     * @throws IOException
+     *             if the input is invalid
+     */
+    static AnnotationParameterValueList readBinary(final BinaryReader in) throws IOException {
+        final int length = in.readLength();
+        if (length < 0) {
+            return null;
+        }
+        final AnnotationParameterValueList list = new AnnotationParameterValueList(length);
+        for (int i = 0; i < length; i++) {
+            final AnnotationParameterValue item = new AnnotationParameterValue();
+            item.readBinary(in);
+            list.add(item);
+        }
+        return list;
+    }
 }
@@ -28,9 +28,13 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 
+import nonapi.io.github.classgraph.types.ParseException;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /**
@@ -248,4 +252,39 @@ public class ArrayClassInfo extends ClassInfo {
     public int hashCode() {
         return super.hashCode();
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /* (non-Javadoc)
+     * @see io.github.classgraph.ClassInfo#writeBinary(nonapi.io.github.classgraph.utils.BinaryWriter)
+     */
+    @Override
+    void writeBinary(final BinaryWriter out) {
+        super.writeBinary(out);
+        out.writeString(arrayTypeSignature.getTypeSignatureStr());
+        out.writeObjectRef(elementClassInfo);
+    }
+
+    /* (non-Javadoc)
+     * @see io.github.classgraph.ClassInfo#readBinary(nonapi.io.github.classgraph.utils.BinaryReader)
+     */
+    @Override
+    void readBinary(final BinaryReader in) throws IOException {
+        super.readBinary(in);
+        final String arrayTypeSignatureStr = in.readString();
+        if (arrayTypeSignatureStr == null) {
+            throw new IOException("Array class " + name + " has no type signature");
+        }
+        final TypeSignature typeSignature;
+        try {
+            typeSignature = TypeSignature.parse(arrayTypeSignatureStr, /* definingClass = */ null);
+        } catch (final ParseException e) {
+            throw new IOException("Invalid array type signature: " + arrayTypeSignatureStr, e);
+        }
+        if (!(typeSignature instanceof ArrayTypeSignature)) {
+            throw new IOException("Not an array type signature: " + arrayTypeSignatureStr);
+        }
+        arrayTypeSignature = (ArrayTypeSignature) typeSignature;
+        elementClassInfo = in.readObjectRef(ClassInfo.class);
+    }
 }
@@ -36,7 +36,10 @@ import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -49,6 +52,7 @@ import java.util.regex.Pattern;
 import nonapi.io.github.classgraph.classpath.SystemJarFinder;
 import nonapi.io.github.classgraph.concurrency.AutoCloseableExecutorService;
 import nonapi.io.github.classgraph.concurrency.InterruptionChecker;
+import nonapi.io.github.classgraph.fastzipfilereader.ZipFileCache;
 import nonapi.io.github.classgraph.reflection.ReflectionUtils;
 import nonapi.io.github.classgraph.scanspec.AcceptReject;
 import nonapi.io.github.classgraph.scanspec.ScanSpec;
@@ -415,6 +419,36 @@ public class ClassGraph {
         return this;
     }
 
+    /**
+     * Causes the class hierarchy to be indexed after the scan, so that {@link ClassInfo#extendsSuperclass(String)},
+     * {@link ClassInfo#implementsInterface(String)} and {@link ClassInfo#isAssignableTo(String)} take constant
+     * time, and {@link ClassInfo#getSubclasses()} and {@link ClassInfoList#getAssignableTo(ClassInfo)} for a
+     * superclass do not need to walk the class hierarchy. Worthwhile if many subtype tests are made against the
+     * scan result. (Automatically calls {@link #enableClassInfo()}.)
+     *
+     * @return this (for method chaining).
+     */
+    public ClassGraph enableClassHierarchyIndex() {
+        enableClassInfo();
+        scanSpec.enableClassHierarchyIndex = true;
+        return this;
+    }
+
+    /**
+     * Causes the relationships between classes (superclasses, subclasses, implemented interfaces, annotations,
+     * etc.) to be frozen into compact adjacency arrays after the scan, rather than being kept as a set of related
+     * classes per class and relationship type. Greatly reduces the memory retained by a {@link ScanResult} with
+     * many classes, which is useful if the {@link ScanResult} is kept for the life of the process. Queries give
+     * the same results. (Automatically calls {@link #enableClassInfo()}.)
+     *
+     * @return this (for method chaining).
+     */
+    public ClassGraph enableCompactClassGraph() {
+        enableClassInfo();
+        scanSpec.enableCompactClassGraph = true;
+        return this;
+    }
+
     /**
      * Causes classes loaded using {@link ClassInfo#loadClass()} to be are initialized after class loading (the
      * default is to not initialize classes).
@@ -1022,6 +1056,39 @@ public class ClassGraph {
         return rejectClasses(classNames);
     }
 
+    /**
+     * Only scan classes whose classfiles reference at least one of the named classes, e.g. classes annotated with
+     * a given annotation, or classes that extend, implement or otherwise use a given class. The constant pool of
+     * each classfile is searched for the class names as raw bytes, and classfiles that do not reference any of
+     * the named classes are abandoned before any class, field or method info is built for them. This can greatly
+     * speed up scanning for a rarely-used annotation, e.g. before calling
+     * {@link ScanResult#getClassesWithAnnotation(String)}.
+     * 
+     * <p>
+     * Classes that only reference the named classes indirectly, e.g. through a meta-annotation or an inherited
+     * superclass, are not scanned, and so will not be found. Superclasses, interfaces and annotations of scanned
+     * classes are only scanned if they are outside accepted packages (as usual), or if they also reference one of
+     * the named classes -- otherwise they are only known by name.
+     * 
+     * <p>
+     * N.B. Automatically calls {@link #enableClassInfo()}.
+     *
+     * @param classNames
+     *            The fully-qualified names of the classes (using '.' as a separator) that a class must reference
+     *            in order to be scanned.
+     * @return this (for method chaining).
+     */
+    public ClassGraph onlyClassesReferencing(final String... classNames) {
+        enableClassInfo();
+        if (scanSpec.onlyClassesReferencing == null) {
+            scanSpec.onlyClassesReferencing = new ArrayList<>();
+        }
+        for (final String className : classNames) {
+            scanSpec.onlyClassesReferencing.add(AcceptReject.normalizePackageOrClassName(className));
+        }
+        return this;
+    }
+
     /**
      * Accept one or more jars. This will cause only the accepted jars to be scanned.
      *
@@ -1425,6 +1492,157 @@ public class ClassGraph {
         return this;
     }
 
+    /**
+     * Set the central directory size at or above which only the central directory of a jarfile is memory-mapped,
+     * rather than being read into RAM, when the whole jarfile is not memory-mapped (see
+     * {@link #enableMemoryMapping()}). Smaller central directories are read into RAM with a single read, which is
+     * cheaper than mapping them, while mapping a large central directory avoids copying it, and only the parts of
+     * it that are used are paged in. (Central directories are never copied if the jarfile is memory-mapped or is a
+     * nested jar that is stored in RAM.) Central directories are not memory-mapped on Java 24+, for the same reason
+     * as {@link #enableMemoryMapping()}.
+     * 
+     * <p>
+     * Default: 1MB.
+     * 
+     * @param centralDirectoryMappingThreshold
+     *            The central directory size in bytes at or above which the central directory is memory-mapped, or
+     *            {@link Integer#MAX_VALUE} to always read central directories into RAM.
+     * @return this (for method chaining).
+     */
+    public ClassGraph setCentralDirectoryMappingThreshold(final int centralDirectoryMappingThreshold) {
+        if (centralDirectoryMappingThreshold < 0) {
+            throw new IllegalArgumentException("centralDirectoryMappingThreshold must be non-negative");
+        }
+        scanSpec.centralDirectoryMappingThreshold = centralDirectoryMappingThreshold;
+        return this;
+    }
+
+    /**
+     * Share the central directories of jarfiles, and the contents of deflated nested jars that are inflated to RAM,
+     * with other scans in the same process that also call this method, so that several differently-configured scans
+     * of the same classpath do not each need to re-read and re-index central directories or re-inflate nested jars.
+     * Entries are matched by the canonical path, size and last modified time of the jarfile, and the least recently
+     * used entries are evicted once the cache holds 64MB (see {@link #setZipFileCacheMaxSize(long)}). Cached entries
+     * are not tied to open files, so they remain reusable after the {@link ScanResult} that added them is closed.
+     * Call {@link #clearZipFileCache()} to release the memory used by the cache.
+     * 
+     * @return this (for method chaining).
+     */
+    public ClassGraph enableZipFileCache() {
+        scanSpec.enableZipFileCache = true;
+        return this;
+    }
+
+    /** Remove all entries from the zipfile cache shared by scans that call {@link #enableZipFileCache()}. */
+    public static void clearZipFileCache() {
+        ZipFileCache.clear();
+    }
+
+    /**
+     * Set the maximum size of the zipfile cache shared by scans that call {@link #enableZipFileCache()} (the
+     * default is 64MB). The least recently used entries are evicted if the cache is larger than the new maximum
+     * size. Since the cache is shared by all scans in the process, this applies to all of them.
+     * 
+     * @param maxSizeBytes
+     *            The maximum total size of the cached central directories and nested jars, in bytes, or 0 to
+     *            disable caching.
+     */
+    public static void setZipFileCacheMaxSize(final long maxSizeBytes) {
+        ZipFileCache.setMaxCachedBytes(maxSizeBytes);
+    }
+
+    /**
+     * Retain the parsed contents of each classfile in the {@link ScanResult}, so that {@link ScanResult#rescan()}
+     * only needs to re-read classfiles that have been added or modified since the previous scan. All classes are
+     * still re-linked on rescan. Increases the memory used by the {@link ScanResult}. Has no effect unless
+     * {@link #enableClassInfo()} is also called.
+     * 
+     * @return this (for method chaining).
+     */
+    public ClassGraph enableIncrementalRescan() {
+        scanSpec.enableIncrementalRescan = true;
+        return this;
+    }
+
+    /**
+     * Use a build-time scan index, if present, rather than parsing classfiles. A scan index is written into the
+     * classes directory of a project at build time by calling {@link ScanResult#writeScanIndex(Path)}, and is then
+     * packaged into the jar as {@code META-INF/classgraph/index.bin}.
+     * 
+     * <p>
+     * The index is only used if all accepted classfiles are found in a single jarfile containing an index, the
+     * index was written with the same accept/reject criteria and scanning options as the current scan, and the
+     * index lists exactly the accepted classfiles found in the jarfile. Otherwise classfiles are scanned as normal.
+     * Superclasses, interfaces and annotations outside the jarfile are as they were found at build time. Has no
+     * effect unless {@link #enableClassInfo()} is also called.
+     * 
+     * @return this (for method chaining).
+     */
+    public ClassGraph enableScanIndex() {
+        scanSpec.enableScanIndex = true;
+        return this;
+    }
+
+    /**
+     * Cache the parsed contents of classfiles in the given directory, so that subsequent scans with the same
+     * {@link ScanSpec} can skip reading classfiles that have not changed. There is one cache entry per classpath
+     * element, which is reused only if the path, size and last modified time of the classpath element's jarfile
+     * match, and each classfile is only reused if its own size and last modified time match. If some classpath
+     * elements change, the classfiles of the unchanged classpath elements are still read from the cache. Classfiles
+     * containing type annotations are always re-read. Stale entries are not removed automatically.
+     * 
+     * <p>
+     * Resources are still found by scanning paths within each classpath element, and classes are still linked, so
+     * only the classfile parsing phase is skipped. Has no effect unless {@link #enableClassInfo()} is also called.
+     * 
+     * @param scanCacheDir
+     *            The directory to store cache entries in. Created if it does not exist.
+     * @return this (for method chaining).
+     */
+    public ClassGraph enableScanCache(final Path scanCacheDir) {
+        if (scanCacheDir == null) {
+            throw new IllegalArgumentException("scanCacheDir cannot be null");
+        }
+        scanSpec.scanCacheDir = scanCacheDir;
+        return this;
+    }
+
+    /**
+     * Schedule the work of each parallel scanning phase using a separate deque of work units for each worker
+     * thread, with idle workers stealing work units from other workers, rather than passing all work units through
+     * a single shared queue. Each worker initially takes a contiguous chunk of the work units for a phase, so
+     * workers only contend with each other when stealing. This can reduce time spent waiting for the shared queue
+     * when a large number of threads are used to scan many small classfiles.
+     * 
+     * @return this (for method chaining).
+     */
+    public ClassGraph enableWorkStealing() {
+        scanSpec.enableWorkStealing = true;
+        return this;
+    }
+
+    /**
+     * Inflate the deflated nested lib jars of a jarfile (e.g. the {@code BOOT-INF/lib/*.jar} jars of a Spring-Boot
+     * jar) concurrently, in the given number of background threads, as soon as the jarfile is opened, rather than
+     * inflating each nested jar only when it is opened. The total size of the nested jars being inflated at any one
+     * time is limited to the value set by {@link #setMaxBufferedJarRAMSize(int)}.
+     * 
+     * <p>
+     * Default: 0 (nested jars are inflated when they are opened).
+     * 
+     * @param nestedJarInflationParallelism
+     *            The number of threads to inflate nested jars with, or 0 to inflate nested jars when they are
+     *            opened.
+     * @return this (for method chaining).
+     */
+    public ClassGraph setNestedJarInflationParallelism(final int nestedJarInflationParallelism) {
+        if (nestedJarInflationParallelism < 0) {
+            throw new IllegalArgumentException("nestedJarInflationParallelism must be non-negative");
+        }
+        scanSpec.nestedJarInflationParallelism = nestedJarInflationParallelism;
+        return this;
+    }
+
     /**
      * If true, provide all versions of a multi-release resource using their multi-release path prefix, instead of
      * just the one the running JVM would select. Implicitly disables {@link #enableClassInfo()} and all features
@@ -1466,6 +1684,80 @@ public class ClassGraph {
         return this;
     }
 
+    /**
+     * A listener for scan events, for feeding metrics or tracing systems. Callbacks may be made concurrently from
+     * multiple worker threads, so implementations must be threadsafe. Callbacks should return quickly and should not
+     * throw exceptions, since an exception may cause the corresponding classpath element or classfile to be
+     * skipped, or may cause the scan to fail.
+     */
+    public interface ScanListener {
+        /**
+         * Called when a classpath element has been opened. For jarfiles, this includes reading the central
+         * directory, and extracting the jarfile if it is nested and deflated.
+         *
+         * @param classpathElement
+         *            the classpath element path or URI.
+         * @param elapsedNanos
+         *            the time taken to open the classpath element, in nanoseconds.
+         */
+        void onClasspathElementOpened(String classpathElement, long elapsedNanos);
+
+        /**
+         * Called when a deflated nested jarfile has been inflated to memory or to a temporary file, so that its
+         * central directory can be read.
+         *
+         * @param nestedJarPath
+         *            the path of the nested jarfile within its parent jarfile.
+         * @param numBytes
+         *            the number of bytes in the inflated jarfile.
+         * @param elapsedNanos
+         *            the time taken to inflate the jarfile, in nanoseconds.
+         */
+        void onJarInflated(String nestedJarPath, long numBytes, long elapsedNanos);
+
+        /**
+         * Called when a classfile has been parsed.
+         *
+         * @param classfilePath
+         *            the path of the classfile relative to the package root of its classpath element.
+         * @param numBytes
+         *            the (uncompressed) length of the classfile, or -1 if unknown.
+         * @param elapsedNanos
+         *            the time taken to read and parse the classfile, in nanoseconds.
+         */
+        void onClassfileParsed(String classfilePath, long numBytes, long elapsedNanos);
+
+        /**
+         * Called when a phase of the scan is complete. Phases that are skipped (e.g. because classfile scanning is
+         * disabled, or because the results were loaded from a scan cache) are not reported.
+         *
+         * @param phase
+         *            the phase.
+         * @param elapsedNanos
+         *            the elapsed time of the phase, in nanoseconds.
+         */
+        void onPhaseComplete(ScanStatistics.Phase phase, long elapsedNanos);
+    }
+
+    /**
+     * Add a {@link ScanListener} to be notified of scan events. Unlike {@link #verbose()}, which builds a log tree in
+     * memory, events are passed directly to the listener, and there is no overhead when no listener is added.
+     *
+     * @param scanListener
+     *            the {@link ScanListener}.
+     * @return this (for method chaining).
+     */
+    public ClassGraph addScanListener(final ScanListener scanListener) {
+        if (scanListener == null) {
+            throw new IllegalArgumentException("scanListener cannot be null");
+        }
+        if (scanSpec.scanListeners == null) {
+            scanSpec.scanListeners = new ArrayList<>(2);
+        }
+        scanSpec.scanListeners.add(scanListener);
+        return this;
+    }
+
     // -------------------------------------------------------------------------------------------------------------
 
     /** A callback used to process the result of a successful asynchronous scan. */
@@ -1492,6 +1784,18 @@ public class ClassGraph {
         void onFailure(Throwable throwable);
     }
 
+    /** A callback used to process each class found by a streaming scan. */
+    @FunctionalInterface
+    public interface ClassInfoProcessor {
+        /**
+         * Process a class found by a streaming scan, as soon as its classfile has been scanned.
+         * 
+         * @param classInfo
+         *            the {@link ClassInfo} object for the class.
+         */
+        void processClassInfo(ClassInfo classInfo);
+    }
+
     /**
      * Asynchronously scans the classpath, calling a {@link ScanResultProcessor} callback on success or a
      * {@link FailureHandler} callback on failure.
@@ -1691,6 +1995,95 @@ public class ClassGraph {
         }
     }
 
+    /**
+     * Rescan the classpath, reusing the parsed contents of classfiles from a previous scan where the classfiles
+     * have not changed.
+     *
+     * @param previousClassfiles
+     *            the reusable {@link Classfile} objects from the previous scan, or null to re-read all classfiles.
+     * @param numThreads
+     *            The number of worker threads to start up (the number of threads the previous scan used).
+     * @param log
+     *            the log of the previous scan, or null if it was not logged.
+     * @return a {@link ScanResult} object representing the result of the scan.
+     * @throws ClassGraphException
+     *             if any of the worker threads throws an uncaught exception, or the scan was interrupted.
+     */
+    ScanResult scanIncremental(final Map<String, Classfile> previousClassfiles, final int numThreads,
+            final LogNode log) {
+        topLevelLog = log;
+        return scan(previousClassfiles, /* classInfoProcessor = */ null,
+                numThreads > 0 ? numThreads : DEFAULT_NUM_WORKER_THREADS);
+    }
+
+    /**
+     * Scans the classpath, passing each class to a {@link ClassInfoProcessor} as soon as its classfile has been
+     * scanned, rather than retaining all classes until the end of the scan. This allows very large classpaths to
+     * be processed with bounded memory. Blocks until the scan is complete. (Automatically calls
+     * {@link #enableClassInfo()}.)
+     * 
+     * <p>
+     * Each {@link ClassInfo} is linked on its own, so its superclass, interfaces and annotations are available,
+     * along with its fields and methods if they were enabled, but relationships that require the whole class graph
+     * are incomplete: for example {@link ClassInfo#getSubclasses()} is empty, and
+     * {@link ClassInfo#getSuperclasses()} only contains the direct superclass. The {@link ClassInfo} should only be
+     * used within the processor, since the resources of the scan are released once the scan is complete, after
+     * which loading the class throws {@link IllegalArgumentException}. Calls to the processor are made from the
+     * worker threads, one at a time, in no particular order. The scan cache, scan index and incremental rescan are
+     * not used by streaming scans.
+     *
+     * @param classInfoProcessor
+     *            The {@link ClassInfoProcessor} to pass each class to.
+     * @throws ClassGraphException
+     *             if any of the worker threads throws an uncaught exception, the processor throws an exception,
+     *             or the scan was interrupted.
+     */
+    public void scanStreaming(final ClassInfoProcessor classInfoProcessor) {
+        if (classInfoProcessor == null) {
+            throw new IllegalArgumentException("classInfoProcessor cannot be null");
+        }
+        enableClassInfo();
+        // Close the ScanResult immediately, since it contains no classes
+        scan(/* previousClassfiles = */ null, classInfoProcessor, DEFAULT_NUM_WORKER_THREADS).close();
+    }
+
+    /**
+     * Scans the classpath, optionally reusing classfiles from a previous scan, or streaming classes to a
+     * {@link ClassInfoProcessor}.
+     *
+     * @param previousClassfiles
+     *            the reusable {@link Classfile} objects from the previous scan, or null to re-read all classfiles.
+     * @param classInfoProcessor
+     *            the processor to pass each class to as soon as it is scanned, or null to retain classes in the
+     *            {@link ScanResult}.
+     * @param numThreads
+     *            The number of worker threads to start up.
+     * @return a {@link ScanResult} object representing the result of the scan.
+     * @throws ClassGraphException
+     *             if any of the worker threads throws an uncaught exception, or the scan was interrupted.
+     */
+    private ScanResult scan(final Map<String, Classfile> previousClassfiles,
+            final ClassInfoProcessor classInfoProcessor, final int numThreads) {
+        try (AutoCloseableExecutorService executorService = new AutoCloseableExecutorService(numThreads)) {
+            final Scanner scanner = new Scanner(/* performScan = */ true, scanSpec, executorService, numThreads,
+                    /* scanResultProcessor = */ null, /* failureHandler = */ null, reflectionUtils, topLevelLog);
+            scanner.previousClassfiles = previousClassfiles;
+            scanner.classInfoProcessor = classInfoProcessor;
+            final ScanResult scanResult = executorService.submit(scanner).get();
+
+            // The resulting scanResult cannot be null, but check for null to keep SpotBugs happy
+            if (scanResult == null) {
+                throw new NullPointerException();
+            }
+            return scanResult;
+
+        } catch (final InterruptedException | CancellationException e) {
+            throw new ClassGraphException("Scan interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new ClassGraphException("Uncaught exception during scan", InterruptionChecker.getCause(e));
+        }
+    }
+
     /**
      * Returns the list of all unique File objects representing directories or zip/jarfiles on the classpath, in
      * classloader resolution order. Classpath elements that do not exist as a file or directory are not included in
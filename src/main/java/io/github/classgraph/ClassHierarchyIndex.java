@@ -0,0 +1,337 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import io.github.classgraph.ClassInfo.RelType;
+import nonapi.io.github.classgraph.scanspec.ScanSpec;
+
+/**
+ * An index of the class hierarchy of a {@link ScanResult}, built if {@link ClassGraph#enableClassHierarchyIndex()}
+ * is called, that answers subclass and implemented interface queries in constant time.
+ * 
+ * <p>
+ * Since each class has at most one superclass, the superclass relationships form a forest. Each class is numbered
+ * in preorder, so that the subclasses of a class are exactly the classes numbered within the range of its subtree.
+ * The interfaces implemented by each class (directly, through superinterfaces, or through superclasses) are
+ * stored as a bitset over the interfaces. Classes with no interfaces of their own share the bitset of their
+ * superclass.
+ */
+final class ClassHierarchyIndex {
+    /** The indexed classes, in preorder of the superclass forest. */
+    private final ClassInfo[] classInfoInPreorder;
+
+    /** The end (exclusive) of the range of preorder numbers of the subtree rooted at each class. */
+    private final int[] subtreeEnd;
+
+    /** Whether each class is rejected by the scan spec. */
+    private final boolean[] rejected;
+
+    /** The bit for each class in {@link #implementedInterfaces}, or -1 if the class is not implemented. */
+    private final int[] interfaceBit;
+
+    /** The bits of the interfaces implemented by each class. */
+    private final BitSet[] implementedInterfaces;
+
+    /** The shared empty bitset, for classes that implement no interfaces. */
+    private static final BitSet NO_INTERFACES = new BitSet(0);
+
+    /**
+     * Constructor.
+     *
+     * @param classInfoInPreorder
+     *            the indexed classes, in preorder of the superclass forest
+     * @param subtreeEnd
+     *            the end (exclusive) of the range of preorder numbers of the subtree rooted at each class
+     * @param scanSpec
+     *            the scan spec
+     */
+    private ClassHierarchyIndex(final ClassInfo[] classInfoInPreorder, final int[] subtreeEnd,
+            final ScanSpec scanSpec) {
+        this.classInfoInPreorder = classInfoInPreorder;
+        this.subtreeEnd = subtreeEnd;
+        final int numClasses = classInfoInPreorder.length;
+        this.rejected = new boolean[numClasses];
+        this.interfaceBit = new int[numClasses];
+        Arrays.fill(interfaceBit, -1);
+        int numInterfaces = 0;
+        for (int i = 0; i < numClasses; i++) {
+            final ClassInfo classInfo = classInfoInPreorder[i];
+            rejected[i] = scanSpec.classOrPackageIsRejected(classInfo.getName());
+            for (final ClassInfo iface : classInfo.getDirectlyRelatedClasses(RelType.IMPLEMENTED_INTERFACES)) {
+                if (interfaceBit[iface.classHierarchyIndexId] < 0) {
+                    interfaceBit[iface.classHierarchyIndexId] = numInterfaces++;
+                }
+            }
+        }
+        this.implementedInterfaces = new BitSet[numClasses];
+        // Superclasses precede their subclasses in preorder, so the recursion only descends into superinterfaces
+        final byte[] state = new byte[numClasses];
+        for (int i = 0; i < numClasses; i++) {
+            findImplementedInterfaces(i, state);
+        }
+    }
+
+    /**
+     * Build the class hierarchy index.
+     *
+     * @param allClassInfo
+     *            all classes of the scan result
+     * @param scanSpec
+     *            the scan spec
+     * @return the class hierarchy index, or null if the superclass relationships do not form a forest, or refer
+     *         to a class that is not in allClassInfo.
+     */
+    static ClassHierarchyIndex build(final Collection<ClassInfo> allClassInfo, final ScanSpec scanSpec) {
+        final ClassInfo[] classInfos = allClassInfo.toArray(new ClassInfo[0]);
+        final int numClasses = classInfos.length;
+        for (int i = 0; i < numClasses; i++) {
+            classInfos[i].classHierarchyIndexId = i;
+        }
+
+        // Find the superclass of each class, and the roots of the superclass forest
+        final int[] parent = new int[numClasses];
+        final int[] numChildren = new int[numClasses];
+        for (int i = 0; i < numClasses; i++) {
+            final Set<ClassInfo> superclasses = classInfos[i]
+                    .getDirectlyRelatedClasses(RelType.SUPERCLASSES);
+            if (superclasses.isEmpty()) {
+                parent[i] = -1;
+            } else if (superclasses.size() > 1) {
+                return unindexed(classInfos);
+            } else {
+                final ClassInfo superclass = superclasses.iterator().next();
+                if (!isIndexed(superclass, classInfos)) {
+                    return unindexed(classInfos);
+                }
+                parent[i] = superclass.classHierarchyIndexId;
+                numChildren[parent[i]]++;
+            }
+            for (final ClassInfo iface : classInfos[i].getDirectlyRelatedClasses(RelType.IMPLEMENTED_INTERFACES)) {
+                if (!isIndexed(iface, classInfos)) {
+                    return unindexed(classInfos);
+                }
+            }
+        }
+
+        // Group the children of each class, in compressed sparse row form
+        final int[] childrenStart = new int[numClasses + 1];
+        for (int i = 0; i < numClasses; i++) {
+            childrenStart[i + 1] = childrenStart[i] + numChildren[i];
+        }
+        final int[] children = new int[childrenStart[numClasses]];
+        final int[] childrenEnd = Arrays.copyOf(childrenStart, numClasses);
+        for (int i = 0; i < numClasses; i++) {
+            if (parent[i] >= 0) {
+                children[childrenEnd[parent[i]]++] = i;
+            }
+        }
+
+        // Number the classes in preorder, starting from each root
+        final int[] preorder = new int[numClasses];
+        final ClassInfo[] classInfoInPreorder = new ClassInfo[numClasses];
+        final int[] stack = new int[numClasses];
+        int numNumbered = 0;
+        for (int root = 0; root < numClasses; root++) {
+            if (parent[root] < 0) {
+                int stackSize = 0;
+                stack[stackSize++] = root;
+                while (stackSize > 0) {
+                    final int curr = stack[--stackSize];
+                    preorder[curr] = numNumbered;
+                    classInfoInPreorder[numNumbered++] = classInfos[curr];
+                    for (int j = childrenStart[curr + 1] - 1; j >= childrenStart[curr]; --j) {
+                        stack[stackSize++] = children[j];
+                    }
+                }
+            }
+        }
+        if (numNumbered < numClasses) {
+            // Classes that were not reached from a root are in a superclass cycle
+            return unindexed(classInfos);
+        }
+
+        // Find the end of the subtree of each class, visiting subclasses before their superclasses
+        final int[] subtreeEnd = new int[numClasses];
+        for (int i = 0; i < numClasses; i++) {
+            subtreeEnd[preorder[i]] = preorder[i] + 1;
+        }
+        for (int p = numClasses - 1; p >= 0; --p) {
+            final int i = classInfoInPreorder[p].classHierarchyIndexId;
+            if (parent[i] >= 0) {
+                final int parentPreorder = preorder[parent[i]];
+                subtreeEnd[parentPreorder] = Math.max(subtreeEnd[parentPreorder], subtreeEnd[p]);
+            }
+        }
+        for (int p = 0; p < numClasses; p++) {
+            classInfoInPreorder[p].classHierarchyIndexId = p;
+        }
+        return new ClassHierarchyIndex(classInfoInPreorder, subtreeEnd, scanSpec);
+    }
+
+    /**
+     * Check whether a class was numbered by {@link #build(Collection, ScanSpec)}.
+     *
+     * @param classInfo
+     *            the class
+     * @param classInfos
+     *            the classes being indexed
+     * @return true if the class is being indexed
+     */
+    private static boolean isIndexed(final ClassInfo classInfo, final ClassInfo[] classInfos) {
+        final int id = classInfo.classHierarchyIndexId;
+        return id >= 0 && id < classInfos.length && classInfos[id] == classInfo;
+    }
+
+    /**
+     * Clear the index numbers of classes that could not be indexed.
+     *
+     * @param classInfos
+     *            the classes
+     * @return null
+     */
+    private static ClassHierarchyIndex unindexed(final ClassInfo[] classInfos) {
+        for (final ClassInfo classInfo : classInfos) {
+            classInfo.classHierarchyIndexId = -1;
+        }
+        return null;
+    }
+
+    /**
+     * Find the interfaces implemented by a class, including the interfaces implemented by its superclasses and the
+     * superinterfaces of its interfaces.
+     *
+     * @param id
+     *            the preorder number of the class
+     * @param state
+     *            the state of each class: 0 if not yet visited, 1 if being visited, 2 if visited
+     * @return the bits of the implemented interfaces
+     */
+    private BitSet findImplementedInterfaces(final int id, final byte[] state) {
+        if (state[id] == 2) {
+            return implementedInterfaces[id];
+        } else if (state[id] == 1) {
+            // Break interface cycles, which can only occur in malformed classfiles
+            return NO_INTERFACES;
+        }
+        state[id] = 1;
+        final ClassInfo classInfo = classInfoInPreorder[id];
+        final Set<ClassInfo> superclasses = classInfo.getDirectlyRelatedClasses(RelType.SUPERCLASSES);
+        BitSet bits = superclasses.isEmpty() ? NO_INTERFACES
+                : findImplementedInterfaces(superclasses.iterator().next().classHierarchyIndexId, state);
+        final Set<ClassInfo> ifaces = classInfo.getDirectlyRelatedClasses(RelType.IMPLEMENTED_INTERFACES);
+        if (!ifaces.isEmpty()) {
+            bits = (BitSet) bits.clone();
+            for (final ClassInfo iface : ifaces) {
+                bits.set(interfaceBit[iface.classHierarchyIndexId]);
+                bits.or(findImplementedInterfaces(iface.classHierarchyIndexId, state));
+            }
+        }
+        implementedInterfaces[id] = bits;
+        state[id] = 2;
+        return bits;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Check whether a class is in this index.
+     *
+     * @param classInfo
+     *            the class
+     * @return true if the class is in this index
+     */
+    boolean contains(final ClassInfo classInfo) {
+        final int id = classInfo.classHierarchyIndexId;
+        return id >= 0 && id < classInfoInPreorder.length && classInfoInPreorder[id] == classInfo;
+    }
+
+    /**
+     * Check whether a class is rejected by the scan spec.
+     *
+     * @param classInfo
+     *            the class, which must be in this index
+     * @return true if the class is rejected
+     */
+    boolean isRejected(final ClassInfo classInfo) {
+        return rejected[classInfo.classHierarchyIndexId];
+    }
+
+    /**
+     * Check whether a class extends a superclass, directly or indirectly.
+     *
+     * @param classInfo
+     *            the class, which must be in this index
+     * @param superclass
+     *            the superclass
+     * @return true if superclass is in this index, and is a superclass of classInfo
+     */
+    boolean extendsSuperclass(final ClassInfo classInfo, final ClassInfo superclass) {
+        if (!contains(superclass)) {
+            return false;
+        }
+        final int id = classInfo.classHierarchyIndexId;
+        final int superclassId = superclass.classHierarchyIndexId;
+        return superclassId < id && id < subtreeEnd[superclassId];
+    }
+
+    /**
+     * Check whether a class implements an interface, directly, through a superinterface, or through a superclass.
+     *
+     * @param classInfo
+     *            the class, which must be in this index
+     * @param iface
+     *            the interface
+     * @return true if iface is in this index, and is implemented by classInfo
+     */
+    boolean implementsInterface(final ClassInfo classInfo, final ClassInfo iface) {
+        if (!contains(iface)) {
+            return false;
+        }
+        final int bit = interfaceBit[iface.classHierarchyIndexId];
+        return bit >= 0 && implementedInterfaces[classInfo.classHierarchyIndexId].get(bit);
+    }
+
+    /**
+     * Get the direct and indirect subclasses of a class, as a range of the classes in preorder.
+     *
+     * @param classInfo
+     *            the class, which must be in this index
+     * @return the subclasses
+     */
+    List<ClassInfo> getSubclasses(final ClassInfo classInfo) {
+        final int id = classInfo.classHierarchyIndexId;
+        return Arrays.asList(classInfoInPreorder).subList(id + 1, subtreeEnd[id]);
+    }
+}
@@ -29,6 +29,7 @@
 package io.github.classgraph;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Inherited;
 import java.lang.annotation.Repeatable;
@@ -38,6 +39,7 @@ import java.net.URI;
 import java.net.URL;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -48,6 +50,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import io.github.classgraph.Classfile.ClassContainment;
 import io.github.classgraph.Classfile.ClassTypeAnnotationDecorator;
@@ -60,6 +64,8 @@ import nonapi.io.github.classgraph.types.Parser;
 import nonapi.io.github.classgraph.types.TypeUtils;
 import nonapi.io.github.classgraph.types.TypeUtils.ModifierType;
 import nonapi.io.github.classgraph.utils.Assert;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /** Holds metadata about a class encountered during a scan. */
@@ -179,6 +185,18 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
      */
     private transient List<ClassInfo> methodOverrideOrder;
 
+    /**
+     * The memoized results of {@link #filterClassInfo(RelType, boolean, ClassType...)}, keyed by
+     * {@link #filterClassInfoCacheKey(RelType, boolean, ClassType...)}, once any have been computed.
+     */
+    private transient volatile ConcurrentMap<Integer, ReachableAndDirectlyRelatedClasses> filterClassInfoCache;
+
+    /** The dense id of this class within the scan result, or -1 if this class was not numbered. */
+    transient int classInfoId = -1;
+
+    /** The number of this class in the {@link ClassHierarchyIndex} of the scan result, or -1 if not indexed. */
+    transient int classHierarchyIndexId = -1;
+
     /** The annotations, once they are loaded */
     private ClassInfoList annotationsRef;
 
@@ -326,14 +344,17 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
 
     /**
      * Add a class with a given relationship type. Return whether the collection changed as a result of the call.
+     * Synchronized, since classes may be linked in parallel.
      *
      * @param relType
      *            the {@link RelType}
      * @param classInfo
      *            the {@link ClassInfo}
      * @return true, if successful
+     * @throws UnsupportedOperationException
+     *             if the related classes have been frozen by {@link CompactClassGraph}
      */
-    boolean addRelatedClass(final RelType relType, final ClassInfo classInfo) {
+    synchronized boolean addRelatedClass(final RelType relType, final ClassInfo classInfo) {
         Set<ClassInfo> classInfoSet = relatedClasses.get(relType);
         if (classInfoSet == null) {
             relatedClasses.put(relType, classInfoSet = new LinkedHashSet<>(4));
@@ -341,11 +362,57 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
         return classInfoSet.add(classInfo);
     }
 
+    /**
+     * Replace the map of related classes, once all classes have been linked.
+     *
+     * @param relatedClasses
+     *            the related classes
+     */
+    void setRelatedClasses(final Map<RelType, Set<ClassInfo>> relatedClasses) {
+        this.relatedClasses = relatedClasses;
+    }
+
+    /**
+     * Get the classes directly related to this one for the given relationship type.
+     *
+     * @param relType
+     *            the {@link RelType}
+     * @return the directly related classes (not to be modified), or the empty set if none.
+     */
+    Set<ClassInfo> getDirectlyRelatedClasses(final RelType relType) {
+        final Set<ClassInfo> classInfoSet = relatedClasses.get(relType);
+        return classInfoSet == null ? Collections.<ClassInfo> emptySet() : classInfoSet;
+    }
+
     // -------------------------------------------------------------------------------------------------------------
 
     /**
-     * Get a ClassInfo object, or create it if it doesn't exist. N.B. not threadsafe, so ClassInfo objects should
-     * only ever be constructed by a single thread.
+     * Add a new ClassInfo object to the map, unless another thread has concurrently added a ClassInfo object for
+     * the same class name (only possible if classNameToClassInfo is a {@link ConcurrentMap}).
+     *
+     * @param className
+     *            the class name
+     * @param classInfo
+     *            the new {@link ClassInfo} object
+     * @param classNameToClassInfo
+     *            the map from class name to class info
+     * @return the {@link ClassInfo} object in the map.
+     */
+    private static ClassInfo putIfAbsent(final String className, final ClassInfo classInfo,
+            final Map<String, ClassInfo> classNameToClassInfo) {
+        if (classNameToClassInfo instanceof ConcurrentMap) {
+            final ClassInfo existingClassInfo = ((ConcurrentMap<String, ClassInfo>) classNameToClassInfo)
+                    .putIfAbsent(className, classInfo);
+            return existingClassInfo == null ? classInfo : existingClassInfo;
+        } else {
+            classNameToClassInfo.put(className, classInfo);
+            return classInfo;
+        }
+    }
+
+    /**
+     * Get a ClassInfo object, or create it if it doesn't exist. Threadsafe if classNameToClassInfo is a
+     * {@link ConcurrentMap}, since classes may be linked in parallel.
      *
      * @param className
      *            the class name
@@ -407,7 +474,7 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
                 classInfo = new ArrayClassInfo(
                         new ArrayTypeSignature(elementTypeSignature, numArrayDims, arrayTypeSigStrBuf.toString()));
             }
-            classNameToClassInfo.put(className, classInfo);
+            classInfo = putIfAbsent(className, classInfo, classNameToClassInfo);
         }
         return classInfo;
     }
@@ -426,12 +493,13 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
     }
 
     /**
-     * Set class modifiers.
+     * Set class modifiers. Synchronized, since placeholder classes may be modified by other classes that are being
+     * linked in parallel.
      *
      * @param modifiers
      *            the class modifiers
      */
-    void setModifiers(final int modifiers) {
+    synchronized void setModifiers(final int modifiers) {
         this.modifiers |= modifiers;
     }
 
@@ -441,7 +509,7 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
      * @param isInterface
      *            true if this is an interface
      */
-    void setIsInterface(final boolean isInterface) {
+    synchronized void setIsInterface(final boolean isInterface) {
         if (isInterface) {
             this.modifiers |= Modifier.INTERFACE;
         }
@@ -453,7 +521,7 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
      * @param isAnnotation
      *            true if this is an annotation
      */
-    void setIsAnnotation(final boolean isAnnotation) {
+    synchronized void setIsAnnotation(final boolean isAnnotation) {
         if (isAnnotation) {
             this.modifiers |= ANNOTATION_CLASS_MODIFIER;
         }
@@ -712,8 +780,8 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
     // -------------------------------------------------------------------------------------------------------------
 
     /**
-     * Add a class that has just been scanned (as opposed to just referenced by a scanned class). Not threadsafe,
-     * should be run in single threaded context.
+     * Add a class that has just been scanned (as opposed to just referenced by a scanned class). Threadsafe if
+     * classNameToClassInfo is a {@link ConcurrentMap}.
      *
      * @param className
      *            the class name
@@ -734,38 +802,43 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
             final ClasspathElement classpathElement, final Resource classfileResource) {
         ClassInfo classInfo = classNameToClassInfo.get(className);
         if (classInfo == null) {
-            // This is the first time this class has been seen, add it
-            classNameToClassInfo.put(className,
-                    classInfo = new ClassInfo(className, classModifiers, classfileResource));
-        } else {
-            // There was a previous placeholder ClassInfo class added, due to the class being referred
-            // to as a superclass, interface or annotation. The isScannedClass field should be false
-            // in this case, since the actual class definition wasn't reached before now.
-            if (classInfo.isScannedClass) {
-                // The class should not have been scanned more than once, because of classpath masking
-                throw new IllegalArgumentException("Class " + className
-                        + " should not have been encountered more than once due to classpath masking --"
-                        + " please report this bug at: https://github.com/classgraph/classgraph/issues");
-            }
+            // This is the first time this class has been seen, add it (unless another thread has concurrently
+            // added a placeholder for it, due to the class being referred to by another class)
+            classInfo = putIfAbsent(className, new ClassInfo(className, classModifiers, classfileResource),
+                    classNameToClassInfo);
+        }
+        synchronized (classInfo) {
+            if (classInfo.classfileResource != classfileResource) {
+                // There was a previous placeholder ClassInfo class added, due to the class being referred
+                // to as a superclass, interface or annotation. The isScannedClass field should be false
+                // in this case, since the actual class definition wasn't reached before now.
+                if (classInfo.isScannedClass) {
+                    // The class should not have been scanned more than once, because of classpath masking
+                    throw new IllegalArgumentException("Class " + className
+                            + " should not have been encountered more than once due to classpath masking --"
+                            + " please report this bug at: https://github.com/classgraph/classgraph/issues");
+                }
 
-            // Set the classfileResource for the placeholder class
-            classInfo.classfileResource = classfileResource;
+                // Set the classfileResource for the placeholder class
+                classInfo.classfileResource = classfileResource;
 
-            // Add any additional modifier bits
-            classInfo.modifiers |= classModifiers;
-        }
+                // Add any additional modifier bits
+                classInfo.modifiers |= classModifiers;
+            }
 
-        // Mark the class as scanned
-        classInfo.isScannedClass = true;
+            // Mark the class as scanned
+            classInfo.isScannedClass = true;
 
-        // Mark the class as non-external if it is an accepted class
-        classInfo.isExternalClass = isExternalClass;
+            // Mark the class as non-external if it is an accepted class
+            classInfo.isExternalClass = isExternalClass;
 
-        // Remember which classpath element (zipfile / classpath root directory / module) the class was found in
-        classInfo.classpathElement = classpathElement;
+            // Remember which classpath element (zipfile / classpath root directory / module) the class was found
+            // in
+            classInfo.classpathElement = classpathElement;
 
-        // Remember which classloader is used to load the class
-        classInfo.classLoader = classpathElement.getClassLoader();
+            // Remember which classloader is used to load the class
+            classInfo.classLoader = classpathElement.getClassLoader();
+        }
 
         return classInfo;
     }
@@ -897,7 +970,7 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
 
     /**
      * Get the classes related to this one (the transitive closure) for the given relationship type, and those
-     * directly related.
+     * directly related. The result is memoized, so repeated queries do not recompute the transitive closure.
      *
      * @param relType
      *            the relationship type
@@ -909,6 +982,73 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
      */
     private ReachableAndDirectlyRelatedClasses filterClassInfo(final RelType relType, final boolean strictAccept,
             final ClassType... classTypes) {
+        // The class graph does not change once the scan is complete, so the result can be memoized
+        final ConcurrentMap<Integer, ReachableAndDirectlyRelatedClasses> cache = getFilterClassInfoCache();
+        final Integer key = filterClassInfoCacheKey(relType, strictAccept, classTypes);
+        final ReachableAndDirectlyRelatedClasses cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // If another thread concurrently computed the same result, keep the first one
+        final ReachableAndDirectlyRelatedClasses computed = findReachableAndDirectlyRelatedClasses(relType,
+                strictAccept, classTypes);
+        final ReachableAndDirectlyRelatedClasses prev = cache.putIfAbsent(key, computed);
+        return prev != null ? prev : computed;
+    }
+
+    /**
+     * Get {@link #filterClassInfoCache}, creating it if it does not exist yet.
+     *
+     * @return the memoized results of {@link #filterClassInfo(RelType, boolean, ClassType...)}
+     */
+    private ConcurrentMap<Integer, ReachableAndDirectlyRelatedClasses> getFilterClassInfoCache() {
+        ConcurrentMap<Integer, ReachableAndDirectlyRelatedClasses> cache = filterClassInfoCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = filterClassInfoCache;
+                if (cache == null) {
+                    filterClassInfoCache = cache = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Get the key for a result of {@link #filterClassInfo(RelType, boolean, ClassType...)} in
+     * {@link #filterClassInfoCache}.
+     *
+     * @param relType
+     *            the relationship type
+     * @param strictAccept
+     *            If true, exclude class if it is external, if external classes are not enabled
+     * @param classTypes
+     *            the class types to accept
+     * @return the key
+     */
+    private static Integer filterClassInfoCacheKey(final RelType relType, final boolean strictAccept,
+            final ClassType... classTypes) {
+        int classTypesMask = 0;
+        for (final ClassType classType : classTypes) {
+            classTypesMask |= 1 << classType.ordinal();
+        }
+        return (relType.ordinal() << 16) | (strictAccept ? 1 << 15 : 0) | classTypesMask;
+    }
+
+    /**
+     * Find the classes related to this one (the transitive closure) for the given relationship type, and those
+     * directly related.
+     *
+     * @param relType
+     *            the relationship type
+     * @param strictAccept
+     *            If true, exclude class if it is external, if external classes are not enabled
+     * @param classTypes
+     *            the class types to accept
+     * @return the reachable and directly related classes, as unmodifiable sets
+     */
+    private ReachableAndDirectlyRelatedClasses findReachableAndDirectlyRelatedClasses(final RelType relType,
+            final boolean strictAccept, final ClassType... classTypes) {
         Set<ClassInfo> directlyRelatedClasses = this.relatedClasses.get(relType);
         if (directlyRelatedClasses == null) {
             return NO_REACHABLE_CLASSES;
@@ -939,6 +1079,9 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
                     reachableClasses.addAll(annotatedClasses);
                 }
             }
+        } else if (relType == RelType.SUBCLASSES && getClassHierarchyIndex() != null) {
+            // The subclasses are a range of the classes in the class hierarchy index
+            reachableClasses.addAll(getClassHierarchyIndex().getSubclasses(this));
         } else {
             // For other relationship types, the reachable type stays the same over the transitive closure. Find the
             // transitive closure, breaking cycles where necessary.
@@ -980,10 +1123,12 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
             }
         }
 
+        // Results are shared between callers, so make them unmodifiable
         return new ReachableAndDirectlyRelatedClasses(
-                filterClassInfo(reachableClasses, scanResult.scanSpec, strictAccept, classTypes),
-                filterClassInfo(directlyRelatedClasses, scanResult.scanSpec, strictAccept, classTypes));
-
+                Collections.unmodifiableSet(
+                        filterClassInfo(reachableClasses, scanResult.scanSpec, strictAccept, classTypes)),
+                Collections.unmodifiableSet(
+                        filterClassInfo(directlyRelatedClasses, scanResult.scanSpec, strictAccept, classTypes)));
     }
 
     // -------------------------------------------------------------------------------------------------------------
@@ -1367,10 +1512,28 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
      * @return true if this class extends the named superclass.
      */
     public boolean extendsSuperclass(final String superclassName) {
+        final ClassHierarchyIndex classHierarchyIndex = getClassHierarchyIndex();
+        if (classHierarchyIndex != null && !superclassName.equals("java.lang.Object")) {
+            final ClassInfo superclass = scanResult.classNameToClassInfo.get(superclassName);
+            return superclass != null && classHierarchyIndex.extendsSuperclass(this, superclass)
+                    && !classHierarchyIndex.isRejected(superclass);
+        }
         return (superclassName.equals("java.lang.Object") && isStandardClass())
                 || getSuperclasses().containsName(superclassName);
     }
 
+    /**
+     * Get the {@link ClassHierarchyIndex} of the scan result, if {@link ClassGraph#enableClassHierarchyIndex()}
+     * was called before the scan and this class is in the index.
+     *
+     * @return the class hierarchy index, or null if this class is not indexed.
+     */
+    ClassHierarchyIndex getClassHierarchyIndex() {
+        final ClassHierarchyIndex classHierarchyIndex = scanResult == null ? null
+                : scanResult.classHierarchyIndex;
+        return classHierarchyIndex != null && classHierarchyIndex.contains(this) ? classHierarchyIndex : null;
+    }
+
     /**
      * Checks if this class is an inner class.
      *
@@ -1436,9 +1599,41 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
      * @return true if this class implements the named interface.
      */
     public boolean implementsInterface(final String interfaceName) {
+        final ClassHierarchyIndex classHierarchyIndex = getClassHierarchyIndex();
+        if (classHierarchyIndex != null) {
+            final ClassInfo iface = scanResult.classNameToClassInfo.get(interfaceName);
+            return iface != null && classHierarchyIndex.implementsInterface(this, iface)
+                    && !classHierarchyIndex.isRejected(iface);
+        }
         return getInterfaces().containsName(interfaceName);
     }
 
+    /**
+     * Checks whether this class is assignable to the superclass or interface, i.e. whether it is the same class,
+     * extends the superclass, or implements the interface.
+     *
+     * @param superclassOrInterface
+     *            A superclass or interface.
+     * @return true if this class is assignable to the superclass or interface.
+     */
+    public boolean isAssignableTo(final Class<?> superclassOrInterface) {
+        return isAssignableTo(superclassOrInterface.getName());
+    }
+
+    /**
+     * Checks whether this class is assignable to the named superclass or interface, i.e. whether it is the same
+     * class, extends the superclass, or implements the interface. Takes constant time if
+     * {@link ClassGraph#enableClassHierarchyIndex()} was called before the scan.
+     *
+     * @param superclassOrInterfaceName
+     *            The name of a superclass or interface.
+     * @return true if this class is assignable to the named superclass or interface.
+     */
+    public boolean isAssignableTo(final String superclassOrInterfaceName) {
+        return name.equals(superclassOrInterfaceName) || extendsSuperclass(superclassOrInterfaceName)
+                || implementsInterface(superclassOrInterfaceName);
+    }
+
     /**
      * Checks whether this class has the annotation.
      *
@@ -2219,9 +2414,55 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
         }
 
         // Get classes that have this annotation
-        final ReachableAndDirectlyRelatedClasses classesWithAnnotation = this
-                .filterClassInfo(RelType.CLASSES_WITH_ANNOTATION, /* strictAccept = */ !isExternalClass);
+        return getClassesWithAnnotation(this.filterClassInfo(RelType.CLASSES_WITH_ANNOTATION,
+                /* strictAccept = */ !isExternalClass));
+    }
 
+    /**
+     * Get the classes that have this class as an annotation, if they have already been found by
+     * {@link #getClassesWithAnnotation()} or {@link #getClassesWithAnnotation(Set)}.
+     *
+     * @return the classes that have this class as an annotation, as returned by {@link #getClassesWithAnnotation()},
+     *         or null if they have not been found yet.
+     */
+    ClassInfoList getMemoizedClassesWithAnnotation() {
+        final ReachableAndDirectlyRelatedClasses cached = getFilterClassInfoCache().get(
+                filterClassInfoCacheKey(RelType.CLASSES_WITH_ANNOTATION, /* strictAccept = */ !isExternalClass));
+        return cached == null ? null : getClassesWithAnnotation(cached);
+    }
+
+    /**
+     * Get the classes that have this class as an annotation, given the classes reachable from this class through
+     * {@link RelType#CLASSES_WITH_ANNOTATION} relationships, as found by {@link MetaAnnotationClosure}. The result
+     * is memoized in the same way as {@link #getClassesWithAnnotation()}.
+     *
+     * @param reachableClasses
+     *            the classes annotated by this class, directly or through meta-annotations
+     * @return the classes that have this class as an annotation, as returned by {@link #getClassesWithAnnotation()}
+     */
+    ClassInfoList getClassesWithAnnotation(final Set<ClassInfo> reachableClasses) {
+        final ScanSpec scanSpec = scanResult.scanSpec;
+        final boolean strictAccept = !isExternalClass;
+        final ReachableAndDirectlyRelatedClasses computed = new ReachableAndDirectlyRelatedClasses(
+                Collections.unmodifiableSet(filterClassInfo(reachableClasses, scanSpec, strictAccept)),
+                Collections.unmodifiableSet(filterClassInfo(
+                        getDirectlyRelatedClasses(RelType.CLASSES_WITH_ANNOTATION), scanSpec, strictAccept)));
+        // If the result was already memoized, keep the first one
+        final ReachableAndDirectlyRelatedClasses prev = getFilterClassInfoCache()
+                .putIfAbsent(filterClassInfoCacheKey(RelType.CLASSES_WITH_ANNOTATION, strictAccept), computed);
+        return getClassesWithAnnotation(prev != null ? prev : computed);
+    }
+
+    /**
+     * Get the classes that have this class as an annotation.
+     *
+     * @param classesWithAnnotation
+     *            the classes annotated by this class, directly or through meta-annotations, and directly
+     * @return the classes that have this class as an annotation, including subclasses of the annotated classes if
+     *         this annotation is {@link Inherited}
+     */
+    private ClassInfoList getClassesWithAnnotation(
+            final ReachableAndDirectlyRelatedClasses classesWithAnnotation) {
         if (isInherited) {
             // If this is an inherited annotation, add into the result all subclasses of the annotated classes. 
             final Set<ClassInfo> classesWithAnnotationAndTheirSubclasses = new LinkedHashSet<>(
@@ -3507,4 +3748,101 @@ public class ClassInfo extends ScanResultObject implements Comparable<ClassInfo>
             }
         }
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write this class in the binary serialization format. References to other classes, and to packages and
+     * modules, are written as references to objects registered with the {@link BinaryWriter}. The class name is
+     * written along with the registration, since it is needed to add the class to sets.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        out.writeInt(modifiers);
+        out.writeBoolean(isRecord);
+        out.writeBoolean(isInherited);
+        out.writeInt(classfileMinorVersion);
+        out.writeInt(classfileMajorVersion);
+        out.writeString(typeSignatureStr);
+        out.writeString(sourceFile);
+        out.writeString(fullyQualifiedDefiningMethodName);
+        out.writeBoolean(isExternalClass);
+        out.writeBoolean(isScannedClass);
+        out.writeObjectRef(moduleInfo);
+        out.writeObjectRef(packageInfo);
+        AnnotationInfoList.writeBinary(annotationInfo, out);
+        FieldInfoList.writeBinary(fieldInfo, out);
+        MethodInfoList.writeBinary(methodInfo, out);
+        AnnotationParameterValueList.writeBinary(annotationDefaultParamValues, out);
+        out.writeStrings(referencedClassNames);
+        out.writeLength(referencedClasses == null ? -1 : referencedClasses.size());
+        if (referencedClasses != null) {
+            for (final ClassInfo classInfo : referencedClasses) {
+                out.writeObjectRef(classInfo);
+            }
+        }
+        out.writeCount(relatedClasses.size());
+        for (final Entry<RelType, Set<ClassInfo>> ent : relatedClasses.entrySet()) {
+            out.writeVarint(ent.getKey().ordinal());
+            out.writeCount(ent.getValue().size());
+            for (final ClassInfo classInfo : ent.getValue()) {
+                out.writeObjectRef(classInfo);
+            }
+        }
+    }
+
+    /**
+     * Read this class in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        modifiers = in.readInt();
+        isRecord = in.readBoolean();
+        isInherited = in.readBoolean();
+        classfileMinorVersion = in.readInt();
+        classfileMajorVersion = in.readInt();
+        typeSignatureStr = in.readString();
+        sourceFile = in.readString();
+        fullyQualifiedDefiningMethodName = in.readString();
+        isExternalClass = in.readBoolean();
+        isScannedClass = in.readBoolean();
+        moduleInfo = in.readObjectRef(ModuleInfo.class);
+        packageInfo = in.readObjectRef(PackageInfo.class);
+        annotationInfo = AnnotationInfoList.readBinary(in);
+        fieldInfo = FieldInfoList.readBinary(in);
+        methodInfo = MethodInfoList.readBinary(in);
+        annotationDefaultParamValues = AnnotationParameterValueList.readBinary(in);
+        final String[] refdClassNames = in.readStrings();
+        referencedClassNames = refdClassNames == null ? null
+                : new LinkedHashSet<>(Arrays.asList(refdClassNames));
+        final int numReferencedClasses = in.readLength();
+        if (numReferencedClasses >= 0) {
+            final Set<ClassInfo> refdClasses = new LinkedHashSet<>();
+            for (int i = 0; i < numReferencedClasses; i++) {
+                refdClasses.add(in.readObjectRef(ClassInfo.class));
+            }
+            referencedClasses = new ClassInfoList(refdClasses, /* sortByName = */ true);
+        }
+        relatedClasses = new EnumMap<>(RelType.class);
+        final RelType[] relTypes = RelType.values();
+        final int numRelTypes = in.readCount();
+        for (int i = 0; i < numRelTypes; i++) {
+            final int relTypeOrdinal = in.readVarint();
+            if (relTypeOrdinal >= relTypes.length) {
+                throw new IOException("Unknown relationship type: " + relTypeOrdinal);
+            }
+            final int numRelatedClasses = in.readCount();
+            final Set<ClassInfo> classInfoSet = new LinkedHashSet<>();
+            for (int j = 0; j < numRelatedClasses; j++) {
+                classInfoSet.add(in.readObjectRef(ClassInfo.class));
+            }
+            relatedClasses.put(relTypes[relTypeOrdinal], classInfoSet);
+        }
+    }
 }
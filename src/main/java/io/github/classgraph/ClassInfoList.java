@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -109,6 +110,26 @@ public class ClassInfoList extends MappableInfoList<ClassInfo> {
         this.directlyRelatedClasses = directlyRelatedClasses == null ? reachableClasses : directlyRelatedClasses;
     }
 
+    /**
+     * Construct a modifiable list of {@link ClassInfo} objects, from a list of distinct reachable classes.
+     *
+     * @param reachableClasses
+     *            reachable classes, without duplicates
+     * @param directlyRelatedClasses
+     *            directly related classes
+     * @param sortByName
+     *            whether to sort by name
+     */
+    private ClassInfoList(final List<ClassInfo> reachableClasses, final Set<ClassInfo> directlyRelatedClasses,
+            final boolean sortByName) {
+        super(reachableClasses);
+        this.sortByName = sortByName;
+        if (sortByName) {
+            CollectionUtils.sortIfNotEmpty(this);
+        }
+        this.directlyRelatedClasses = directlyRelatedClasses;
+    }
+
     /**
      * Construct a modifiable list of {@link ClassInfo} objects.
      *
@@ -304,6 +325,20 @@ public class ClassInfoList extends MappableInfoList<ClassInfo> {
      * @return The union of this {@link ClassInfoList} with the others.
      */
     public ClassInfoList union(final ClassInfoList... others) {
+        if (getNumberingScanResult(this, others) != null) {
+            // Deduplicate using the dense ids of the classes, rather than by hashing
+            final List<ClassInfo> reachableClassesUnion = new ArrayList<>(size());
+            final Set<ClassInfo> directlyRelatedClassesUnion = new LinkedHashSet<>(directlyRelatedClasses.size());
+            final BitSet reachableClassIds = new BitSet();
+            final BitSet directlyRelatedClassIds = new BitSet();
+            addAbsent(this, reachableClassIds, reachableClassesUnion);
+            addAbsent(directlyRelatedClasses, directlyRelatedClassIds, directlyRelatedClassesUnion);
+            for (final ClassInfoList other : others) {
+                addAbsent(other, reachableClassIds, reachableClassesUnion);
+                addAbsent(other.directlyRelatedClasses, directlyRelatedClassIds, directlyRelatedClassesUnion);
+            }
+            return new ClassInfoList(reachableClassesUnion, directlyRelatedClassesUnion, sortByName);
+        }
         final Set<ClassInfo> reachableClassesUnion = new LinkedHashSet<>(this);
         final Set<ClassInfo> directlyRelatedClassesUnion = new LinkedHashSet<>(directlyRelatedClasses);
         for (final ClassInfoList other : others) {
@@ -337,6 +372,26 @@ public class ClassInfoList extends MappableInfoList<ClassInfo> {
             }
         }
         final ClassInfoList first = intersectionOrder.remove();
+        if (getNumberingScanResult(this, others) != null) {
+            // Intersect the sets of dense class ids, then keep the classes of the first list that are in the
+            // intersection, in order
+            BitSet reachableClassIds = null;
+            for (final ClassInfoList other : intersectionOrder) {
+                reachableClassIds = and(reachableClassIds, getClassInfoIds(other));
+            }
+            BitSet directlyRelatedClassIds = null;
+            for (final ClassInfoList other : others) {
+                directlyRelatedClassIds = and(directlyRelatedClassIds,
+                        getClassInfoIds(other.directlyRelatedClasses));
+            }
+            final List<ClassInfo> reachableClassesIntersection = new ArrayList<>();
+            final Set<ClassInfo> directlyRelatedClassesIntersection = new LinkedHashSet<>();
+            addFiltered(first, reachableClassIds, /* keepIfPresent = */ true, reachableClassesIntersection);
+            addFiltered(directlyRelatedClasses, directlyRelatedClassIds, /* keepIfPresent = */ true,
+                    directlyRelatedClassesIntersection);
+            return new ClassInfoList(reachableClassesIntersection, directlyRelatedClassesIntersection,
+                    first.sortByName);
+        }
         final Set<ClassInfo> reachableClassesIntersection = new LinkedHashSet<>(first);
         while (!intersectionOrder.isEmpty()) {
             reachableClassesIntersection.retainAll(intersectionOrder.remove());
@@ -358,6 +413,15 @@ public class ClassInfoList extends MappableInfoList<ClassInfo> {
      * @return The set difference of this {@link ClassInfoList} and other, i.e. (this \ other).
      */
     public ClassInfoList exclude(final ClassInfoList other) {
+        if (getNumberingScanResult(this, other) != null) {
+            // Keep the classes whose dense ids are not in the other list
+            final List<ClassInfo> reachableClassesDifference = new ArrayList<>(size());
+            final Set<ClassInfo> directlyRelatedClassesDifference = new LinkedHashSet<>();
+            addFiltered(this, getClassInfoIds(other), /* keepIfPresent = */ false, reachableClassesDifference);
+            addFiltered(directlyRelatedClasses, getClassInfoIds(other.directlyRelatedClasses),
+                    /* keepIfPresent = */ false, directlyRelatedClassesDifference);
+            return new ClassInfoList(reachableClassesDifference, directlyRelatedClassesDifference, sortByName);
+        }
         final Set<ClassInfo> reachableClassesDifference = new LinkedHashSet<>(this);
         final Set<ClassInfo> directlyRelatedClassesDifference = new LinkedHashSet<>(directlyRelatedClasses);
         reachableClassesDifference.removeAll(other);
@@ -365,6 +429,112 @@ public class ClassInfoList extends MappableInfoList<ClassInfo> {
         return new ClassInfoList(reachableClassesDifference, directlyRelatedClassesDifference, sortByName);
     }
 
+    /**
+     * Get the scan result in which all the classes in the given lists (including their directly related classes)
+     * were given dense ids, so that set operations can be performed on bitsets of the ids.
+     *
+     * @param list
+     *            the first list
+     * @param others
+     *            the other lists
+     * @return the scan result, or null if the lists are all empty, or if any class has no id, or if the classes
+     *         are from different scan results.
+     */
+    private static ScanResult getNumberingScanResult(final ClassInfoList list, final ClassInfoList... others) {
+        ScanResult scanResult = null;
+        for (int i = -1; i < others.length; i++) {
+            final ClassInfoList classInfoList = i < 0 ? list : others[i];
+            for (int j = 0; j < 2; j++) {
+                for (final ClassInfo classInfo : j == 0 ? classInfoList : classInfoList.directlyRelatedClasses) {
+                    if (classInfo.classInfoId < 0 || classInfo.scanResult == null
+                            || scanResult != null && classInfo.scanResult != scanResult) {
+                        return null;
+                    }
+                    scanResult = classInfo.scanResult;
+                }
+            }
+        }
+        return scanResult;
+    }
+
+    /**
+     * Get the dense ids of a collection of classes.
+     *
+     * @param classInfos
+     *            the classes
+     * @return the ids
+     */
+    private static BitSet getClassInfoIds(final Collection<ClassInfo> classInfos) {
+        final BitSet classInfoIds = new BitSet();
+        for (final ClassInfo classInfo : classInfos) {
+            classInfoIds.set(classInfo.classInfoId);
+        }
+        return classInfoIds;
+    }
+
+    /**
+     * Intersect two sets of ids.
+     *
+     * @param classInfoIds
+     *            the first set of ids, or null for no restriction
+     * @param otherClassInfoIds
+     *            the second set of ids
+     * @return the intersection
+     */
+    private static BitSet and(final BitSet classInfoIds, final BitSet otherClassInfoIds) {
+        if (classInfoIds == null) {
+            return otherClassInfoIds;
+        }
+        classInfoIds.and(otherClassInfoIds);
+        return classInfoIds;
+    }
+
+    /**
+     * Add the classes that have not already been added to a collection, in order.
+     *
+     * @param classInfos
+     *            the classes to add
+     * @param addedClassInfoIds
+     *            the ids of the classes that have been added, which is updated
+     * @param addedClassInfos
+     *            the collection to add the classes to
+     */
+    private static void addAbsent(final Collection<ClassInfo> classInfos, final BitSet addedClassInfoIds,
+            final Collection<ClassInfo> addedClassInfos) {
+        for (final ClassInfo classInfo : classInfos) {
+            if (!addedClassInfoIds.get(classInfo.classInfoId)) {
+                addedClassInfoIds.set(classInfo.classInfoId);
+                addedClassInfos.add(classInfo);
+            }
+        }
+    }
+
+    /**
+     * Add each class whose id is (or is not) in a set of ids to a collection, once, in order.
+     *
+     * @param classInfos
+     *            the classes to add
+     * @param classInfoIds
+     *            the ids to check for, or null to add all classes
+     * @param keepIfPresent
+     *            if true, add the classes whose ids are in classInfoIds, otherwise add the classes whose ids are
+     *            not in classInfoIds
+     * @param addedClassInfos
+     *            the collection to add the classes to
+     */
+    private static void addFiltered(final Collection<ClassInfo> classInfos, final BitSet classInfoIds,
+            final boolean keepIfPresent, final Collection<ClassInfo> addedClassInfos) {
+        final BitSet addedClassInfoIds = new BitSet();
+        for (final ClassInfo classInfo : classInfos) {
+            final int classInfoId = classInfo.classInfoId;
+            if ((classInfoIds == null || classInfoIds.get(classInfoId) == keepIfPresent)
+                    && !addedClassInfoIds.get(classInfoId)) {
+                addedClassInfoIds.set(classInfoId);
+                addedClassInfos.add(classInfo);
+            }
+        }
+    }
+
     // -------------------------------------------------------------------------------------------------------------
 
     /**
@@ -527,6 +697,23 @@ public class ClassInfoList extends MappableInfoList<ClassInfo> {
         if (superclassOrInterface == null) {
             throw new IllegalArgumentException("assignableToClass parameter cannot be null");
         }
+        final ClassHierarchyIndex classHierarchyIndex = superclassOrInterface.getClassHierarchyIndex();
+        if (classHierarchyIndex != null && superclassOrInterface.isStandardClass()
+                && !superclassOrInterface.getName().equals("java.lang.Object")) {
+            // Check each class against the range of subclasses in the class hierarchy index, filtering the same
+            // way as getSubclasses()
+            final boolean includeExternalClasses = superclassOrInterface.isExternalClass
+                    || superclassOrInterface.scanResult.scanSpec.enableExternalClasses;
+            return filter(new ClassInfoFilter() {
+                @Override
+                public boolean accept(final ClassInfo ci) {
+                    return ci.equals(superclassOrInterface) || classHierarchyIndex.contains(ci)
+                            && classHierarchyIndex.extendsSuperclass(ci, superclassOrInterface)
+                            && (includeExternalClasses || !ci.isExternalClass)
+                            && !classHierarchyIndex.isRejected(ci);
+                }
+            });
+        }
         // Get subclasses and implementing classes for assignableFromClass
         final Set<ClassInfo> allAssignableFromClasses = new HashSet<>();
         if (superclassOrInterface.isStandardClass()) {
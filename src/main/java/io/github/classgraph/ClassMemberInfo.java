@@ -28,11 +28,14 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Repeatable;
 import java.lang.reflect.Modifier;
 
 import nonapi.io.github.classgraph.utils.Assert;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 
 /**
  * Holds metadata about class members of a class encountered during a scan. All values are taken directly out of the
@@ -378,4 +381,38 @@ public abstract class ClassMemberInfo extends ScanResultObject implements HasNam
     public boolean hasAnnotation(final String annotationName) {
         return getAnnotationInfo().containsName(annotationName);
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write this class member in the binary serialization format.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        out.writeString(declaringClassName);
+        out.writeString(name);
+        out.writeInt(modifiers);
+        out.writeString(typeDescriptorStr);
+        out.writeString(typeSignatureStr);
+        AnnotationInfoList.writeBinary(annotationInfo, out);
+    }
+
+    /**
+     * Read this class member in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        declaringClassName = in.readString();
+        name = in.readString();
+        modifiers = in.readInt();
+        typeDescriptorStr = in.readString();
+        typeSignatureStr = in.readString();
+        annotationInfo = AnnotationInfoList.readBinary(in);
+    }
 }
@@ -38,13 +38,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import io.github.classgraph.Scanner.ClassfileScanWorkUnit;
 import nonapi.io.github.classgraph.concurrency.WorkQueue;
 import nonapi.io.github.classgraph.fileslice.reader.ClassfileReader;
+import nonapi.io.github.classgraph.fileslice.reader.StringInternTable;
+import nonapi.io.github.classgraph.recycler.Recycler;
 import nonapi.io.github.classgraph.scanspec.ScanSpec;
 import nonapi.io.github.classgraph.types.ParseException;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.CollectionUtils;
 import nonapi.io.github.classgraph.utils.JarUtils;
 import nonapi.io.github.classgraph.utils.LogNode;
@@ -75,7 +78,7 @@ class Classfile {
     private final Resource classfileResource;
 
     /** The string intern map. */
-    private final ConcurrentHashMap<String, String> stringInternMap;
+    private final StringInternTable stringInternTable;
 
     /** The name of the class. */
     private String className;
@@ -157,15 +160,96 @@ class Classfile {
     /** The number of constant pool entries plus one. */
     private int cpCount;
 
+    /** The scratch storage for the constant pool, while the classfile is being read. */
+    private ConstantPoolScratch constantPoolScratch;
+
     /** The byte offset for the beginning of each entry in the constant pool. */
     private int[] entryOffset;
 
     /** The tag (type) for each entry in the constant pool. */
-    private int[] entryTag;
+    private byte[] entryTag;
 
     /** The indirection index for String/Class entries in the constant pool. */
     private int[] indirectStringRefs;
 
+    /**
+     * Reusable scratch storage for the constant pool of a classfile, which is only needed while the classfile is
+     * being read, so that new arrays do not need to be allocated (and boxed indices do not need to be collected)
+     * for each classfile. Obtained from a {@link Recycler}, so that each worker thread reuses the same instance.
+     */
+    static class ConstantPoolScratch {
+        /** The initial capacity of the arrays. */
+        private static final int INITIAL_CAPACITY = 256;
+
+        /** The byte offset for the beginning of each entry in the constant pool. */
+        int[] entryOffset = new int[INITIAL_CAPACITY];
+
+        /** The tag (type) for each entry in the constant pool. */
+        byte[] entryTag = new byte[INITIAL_CAPACITY];
+
+        /** The indirection index for String/Class entries in the constant pool. */
+        int[] indirectStringRefs = new int[INITIAL_CAPACITY];
+
+        /** The constant pool indices of class references, if inter-class dependencies are enabled. */
+        int[] classNameCpIdxs = new int[INITIAL_CAPACITY];
+
+        /** The number of entries used in {@link #classNameCpIdxs}. */
+        int numClassNameCpIdxs;
+
+        /** The constant pool indices of type descriptors, if inter-class dependencies are enabled. */
+        int[] typeSignatureCpIdxs = new int[INITIAL_CAPACITY];
+
+        /** The number of entries used in {@link #typeSignatureCpIdxs}. */
+        int numTypeSignatureCpIdxs;
+
+        /**
+         * Clear the scratch storage for a new constant pool, growing the arrays if needed.
+         *
+         * @param cpCount
+         *            the number of constant pool entries plus one.
+         */
+        void clear(final int cpCount) {
+            if (entryOffset.length < cpCount) {
+                final int newCapacity = Math.max(cpCount, entryOffset.length * 2);
+                entryOffset = new int[newCapacity];
+                entryTag = new byte[newCapacity];
+                indirectStringRefs = new int[newCapacity];
+            } else {
+                Arrays.fill(entryOffset, 0, cpCount, 0);
+                Arrays.fill(entryTag, 0, cpCount, (byte) 0);
+            }
+            Arrays.fill(indirectStringRefs, 0, cpCount, -1);
+            numClassNameCpIdxs = 0;
+            numTypeSignatureCpIdxs = 0;
+        }
+
+        /**
+         * Add the constant pool index of a class reference.
+         *
+         * @param cpIdx
+         *            the constant pool index.
+         */
+        void addClassNameCpIdx(final int cpIdx) {
+            if (numClassNameCpIdxs == classNameCpIdxs.length) {
+                classNameCpIdxs = Arrays.copyOf(classNameCpIdxs, classNameCpIdxs.length * 2);
+            }
+            classNameCpIdxs[numClassNameCpIdxs++] = cpIdx;
+        }
+
+        /**
+         * Add the constant pool index of a type descriptor.
+         *
+         * @param cpIdx
+         *            the constant pool index.
+         */
+        void addTypeSignatureCpIdx(final int cpIdx) {
+            if (numTypeSignatureCpIdxs == typeSignatureCpIdxs.length) {
+                typeSignatureCpIdxs = Arrays.copyOf(typeSignatureCpIdxs, typeSignatureCpIdxs.length * 2);
+            }
+            typeSignatureCpIdxs[numTypeSignatureCpIdxs++] = cpIdx;
+        }
+    }
+
     // -------------------------------------------------------------------------------------------------------------
 
     /** An empty array for the case where there are no annotations. */
@@ -460,7 +544,8 @@ class Classfile {
     // -------------------------------------------------------------------------------------------------------------
 
     /**
-     * Link classes. Not threadsafe, should be run in a single-threaded context.
+     * Link classes. Threadsafe, if classNameToClassInfo is a {@link java.util.concurrent.ConcurrentMap}, so that
+     * classfiles can be linked in parallel.
      *
      * @param classNameToClassInfo
      *            map from class name to class info
@@ -468,8 +553,9 @@ class Classfile {
      *            map from package name to package info
      * @param moduleNameToModuleInfo
      *            map from module name to module info
+     * @return the {@link ClassInfo} object for the class, or null if this is a module or package descriptor
      */
-    void link(final Map<String, ClassInfo> classNameToClassInfo,
+    ClassInfo link(final Map<String, ClassInfo> classNameToClassInfo,
             final Map<String, PackageInfo> packageNameToPackageInfo,
             final Map<String, ModuleInfo> moduleNameToModuleInfo) {
         boolean isModuleDescriptor = false;
@@ -530,67 +616,54 @@ class Classfile {
             }
         }
 
-        // Get or create PackageInfo, if this is not a module descriptor (the module descriptor's package is "")
-        PackageInfo packageInfo = null;
-        if (!isModuleDescriptor) {
-            // Get package for this class or package descriptor
-            final String packageName = PackageInfo.getParentPackageName(className);
-            packageInfo = PackageInfo.getOrCreatePackage(packageName, packageNameToPackageInfo, scanSpec);
-            if (isPackageDescriptor) {
-                // Add any class annotations on the package-info.class file to the ModuleInfo
-                packageInfo.addAnnotations(classAnnotations);
-            } else if (classInfo != null) {
-                // Add ClassInfo to PackageInfo, and vice versa
-                packageInfo.addClassInfo(classInfo);
-                classInfo.packageInfo = packageInfo;
+        // Packages and modules are shared between classes, so are linked under a single lock, since classes may
+        // be linked in parallel
+        synchronized (packageNameToPackageInfo) {
+            // Get or create PackageInfo, if this is not a module descriptor (the module descriptor's package is "")
+            PackageInfo packageInfo = null;
+            if (!isModuleDescriptor) {
+                // Get package for this class or package descriptor
+                final String packageName = PackageInfo.getParentPackageName(className);
+                packageInfo = PackageInfo.getOrCreatePackage(packageName, packageNameToPackageInfo, scanSpec);
+                if (isPackageDescriptor) {
+                    // Add any class annotations on the package-info.class file to the ModuleInfo
+                    packageInfo.addAnnotations(classAnnotations);
+                } else if (classInfo != null) {
+                    // Add ClassInfo to PackageInfo, and vice versa
+                    packageInfo.addClassInfo(classInfo);
+                    classInfo.packageInfo = packageInfo;
+                }
             }
-        }
 
-        // Get or create ModuleInfo, if there is a module name
-        final String moduleName = classpathElement.getModuleName();
-        if (moduleName != null) {
-            // Get or create a ModuleInfo object for this module
-            ModuleInfo moduleInfo = moduleNameToModuleInfo.get(moduleName);
-            if (moduleInfo == null) {
-                moduleNameToModuleInfo.put(moduleName,
-                        moduleInfo = new ModuleInfo(classfileResource.getModuleRef(), classpathElement));
-            }
-            if (isModuleDescriptor) {
-                // Add any class annotations on the module-info.class file to the ModuleInfo
-                moduleInfo.addAnnotations(classAnnotations);
-            }
-            if (classInfo != null) {
-                // Add ClassInfo to ModuleInfo, and vice versa
-                moduleInfo.addClassInfo(classInfo);
-                classInfo.moduleInfo = moduleInfo;
-            }
-            if (packageInfo != null) {
-                // Add PackageInfo to ModuleInfo
-                moduleInfo.addPackageInfo(packageInfo);
+            // Get or create ModuleInfo, if there is a module name
+            final String moduleName = classpathElement.getModuleName();
+            if (moduleName != null) {
+                // Get or create a ModuleInfo object for this module
+                ModuleInfo moduleInfo = moduleNameToModuleInfo.get(moduleName);
+                if (moduleInfo == null) {
+                    moduleNameToModuleInfo.put(moduleName,
+                            moduleInfo = new ModuleInfo(classfileResource.getModuleRef(), classpathElement));
+                }
+                if (isModuleDescriptor) {
+                    // Add any class annotations on the module-info.class file to the ModuleInfo
+                    moduleInfo.addAnnotations(classAnnotations);
+                }
+                if (classInfo != null) {
+                    // Add ClassInfo to ModuleInfo, and vice versa
+                    moduleInfo.addClassInfo(classInfo);
+                    classInfo.moduleInfo = moduleInfo;
+                }
+                if (packageInfo != null) {
+                    // Add PackageInfo to ModuleInfo
+                    moduleInfo.addPackageInfo(packageInfo);
+                }
             }
         }
+        return classInfo;
     }
 
     // -------------------------------------------------------------------------------------------------------------
 
-    /**
-     * Intern a string.
-     *
-     * @param str
-     *            the str
-     * @return the string
-     */
-    private String intern(final String str) {
-        if (str == null) {
-            return null;
-        }
-        final String interned = stringInternMap.putIfAbsent(str, str);
-        if (interned != null) {
-            return interned;
-        }
-        return str;
-    }
-
     /**
      * Get the byte offset within the buffer of a string from the constant pool, or 0 for a null string.
      *
@@ -691,8 +764,8 @@ class Classfile {
         if (utfLen == 0) {
             return "";
         }
-        return intern(
-                reader.readString(constantPoolStringOffset + 2L, utfLen, replaceSlashWithDot, stripLSemicolon));
+        return stringInternTable.intern(reader, constantPoolStringOffset + 2, utfLen, replaceSlashWithDot,
+                stripLSemicolon);
     }
 
     /**
@@ -719,8 +792,8 @@ class Classfile {
         if (utfLen == 0) {
             return "";
         }
-        return intern(reader.readString(constantPoolStringOffset + 2L, utfLen, /* replaceSlashWithDot = */ false,
-                /* stripLSemicolon = */ false));
+        return stringInternTable.intern(reader, constantPoolStringOffset + 2, utfLen,
+                /* replaceSlashWithDot = */ false, /* stripLSemicolon = */ false);
     }
 
     /**
@@ -820,15 +893,7 @@ class Classfile {
         if (cpStrLen != asciiStrLen) {
             return false;
         }
-        final int cpStrStart = cpStrOffset + 2;
-        reader.bufferTo(cpStrStart + cpStrLen);
-        final byte[] buf = reader.buf();
-        for (int i = 0; i < cpStrLen; i++) {
-            if ((char) (buf[cpStrStart + i] & 0xff) != asciiStr.charAt(i)) {
-                return false;
-            }
-        }
-        return true;
+        return reader.asciiStringEquals(cpStrOffset + 2, asciiStr);
     }
 
     // -------------------------------------------------------------------------------------------------------------
@@ -1066,21 +1131,22 @@ class Classfile {
      */
     private void readConstantPoolEntries(final LogNode log) throws IOException {
         // Only record class dependency info if inter-class dependencies are enabled
-        List<Integer> classNameCpIdxs = null;
-        List<Integer> typeSignatureIdxs = null;
-        if (scanSpec.enableInterClassDependencies) {
-            classNameCpIdxs = new ArrayList<>();
-            typeSignatureIdxs = new ArrayList<>();
-        }
+        final boolean recordDependencies = scanSpec.enableInterClassDependencies;
+
+        // If onlyClassesReferencing() was called, check whether the UTF8 entries reference any of the classes
+        // (external classes are always scanned, since they were reached from a class that was scanned)
+        final byte[][] onlyClassesReferencing = isExternalClass ? null
+                : scanSpec.getOnlyClassesReferencingInternalNames();
+        boolean referencesRequiredClass = false;
 
         // Read size of constant pool
         cpCount = reader.readUnsignedShort();
 
-        // Allocate storage for constant pool
-        entryOffset = new int[cpCount];
-        entryTag = new int[cpCount];
-        indirectStringRefs = new int[cpCount];
-        Arrays.fill(indirectStringRefs, 0, cpCount, -1);
+        // Clear the scratch storage for the constant pool
+        constantPoolScratch.clear(cpCount);
+        entryOffset = constantPoolScratch.entryOffset;
+        entryTag = constantPoolScratch.entryTag;
+        indirectStringRefs = constantPoolScratch.indirectStringRefs;
 
         // Read constant pool entries
         for (int i = 1, skipSlot = 0; i < cpCount; i++) {
@@ -1089,7 +1155,7 @@ class Classfile {
                 skipSlot = 0;
                 continue;
             }
-            entryTag[i] = reader.readUnsignedByte();
+            entryTag[i] = (byte) reader.readUnsignedByte();
             entryOffset[i] = reader.currPos();
             switch (entryTag[i]) {
             case 0: // Impossible, probably buffer underflow
@@ -1098,6 +1164,10 @@ class Classfile {
                         + "https://github.com/classgraph/classgraph/issues");
             case 1: // Modified UTF8
                 final int strLen = reader.readUnsignedShort();
+                if (onlyClassesReferencing != null && !referencesRequiredClass) {
+                    referencesRequiredClass = constantPoolStringReferencesClass(reader.currPos(), strLen,
+                            onlyClassesReferencing);
+                }
                 reader.skip(strLen);
                 break;
             // There is no constant pool tag type 2
@@ -1113,9 +1183,9 @@ class Classfile {
             case 7: // Class reference (format is e.g. "java/lang/String")
                 // Forward or backward indirect reference to a modified UTF8 entry
                 indirectStringRefs[i] = reader.readUnsignedShort();
-                if (classNameCpIdxs != null) {
+                if (recordDependencies) {
                     // If this is a class ref, and inter-class dependencies are enabled, record the dependency
-                    classNameCpIdxs.add(indirectStringRefs[i]);
+                    constantPoolScratch.addClassNameCpIdx(indirectStringRefs[i]);
                 }
                 break;
             case 8: // String
@@ -1137,8 +1207,8 @@ class Classfile {
             case 12: // name and type
                 final int nameRef = reader.readUnsignedShort();
                 final int typeRef = reader.readUnsignedShort();
-                if (typeSignatureIdxs != null) {
-                    typeSignatureIdxs.add(typeRef);
+                if (recordDependencies) {
+                    constantPoolScratch.addTypeSignatureCpIdx(typeRef);
                 }
                 indirectStringRefs[i] = (nameRef << 16) | typeRef;
                 break;
@@ -1164,21 +1234,27 @@ class Classfile {
                 reader.skip(2);
                 break;
             default:
-                throw new ClassfileFormatException("Unknown constant pool tag " + entryTag[i]
+                throw new ClassfileFormatException("Unknown constant pool tag " + (entryTag[i] & 0xff)
                         + " (element size unknown, cannot continue reading class). Please report this at "
                         + "https://github.com/classgraph/classgraph/issues");
             }
         }
 
+        if (onlyClassesReferencing != null && !referencesRequiredClass) {
+            throw new SkipClassException(
+                    "Class does not reference any of the classes passed to onlyClassesReferencing()");
+        }
+
         // Find classes referenced in the constant pool. Note that there are some class refs that will not be
         // found this way, e.g. enum classes and class refs in annotation parameter values, since they are
         // referenced as strings (tag 1) rather than classes (tag 7) or type signatures (part of tag 12).
         // Therefore, a hybrid approach needs to be applied of extracting these other class refs from
         // the ClassInfo graph, and combining them with class names extracted from the constant pool here.
-        if (classNameCpIdxs != null) {
+        if (recordDependencies) {
             refdClassNames = new HashSet<>();
             // Get class names from direct class references in constant pool
-            for (final int cpIdx : classNameCpIdxs) {
+            for (int k = 0; k < constantPoolScratch.numClassNameCpIdxs; k++) {
+                final int cpIdx = constantPoolScratch.classNameCpIdxs[k];
                 final String refdClassName = getConstantPoolString(cpIdx, /* replaceSlashWithDot = */ true,
                         /* stripLSemicolon = */ false);
                 if (refdClassName != null) {
@@ -1198,9 +1274,10 @@ class Classfile {
                 }
             }
         }
-        if (typeSignatureIdxs != null) {
+        if (recordDependencies) {
             // Get class names from type signatures in "name and type" entries in constant pool
-            for (final int cpIdx : typeSignatureIdxs) {
+            for (int k = 0; k < constantPoolScratch.numTypeSignatureCpIdxs; k++) {
+                final int cpIdx = constantPoolScratch.typeSignatureCpIdxs[k];
                 final String typeSigStr = getConstantPoolString(cpIdx);
                 if (typeSigStr != null) {
                     try {
@@ -1235,6 +1312,52 @@ class Classfile {
 
     // -------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Check whether a modified UTF8 constant pool string references one of the given classes, either as a whole
+     * internal class name (as in a class reference), or within a type descriptor or type signature (as in an
+     * annotation, field or method descriptor, or generic signature), where the internal class name is preceded by
+     * 'L' and followed by ';' or '<'. Compares raw bytes, without decoding the string.
+     *
+     * @param strStart
+     *            the offset of the start of the string bytes
+     * @param strLen
+     *            the number of bytes in the string
+     * @param internalNames
+     *            the internal names of the classes, encoded in modified UTF8
+     * @return true if the string references one of the classes.
+     * @throws IOException
+     *             if an I/O exception occurs.
+     */
+    private boolean constantPoolStringReferencesClass(final int strStart, final int strLen,
+            final byte[][] internalNames) throws IOException {
+        final int strEnd = strStart + strLen;
+        for (final byte[] internalName : internalNames) {
+            if (strLen == internalName.length) {
+                if (reader.indexOf(strStart, strLen, internalName) == strStart) {
+                    return true;
+                }
+            } else {
+                // Leave room for the preceding 'L' and the following ';' or '<'
+                for (int from = strStart + 1; strEnd - 1 - from >= internalName.length;) {
+                    final int idx = reader.indexOf(from, strEnd - 1 - from, internalName);
+                    if (idx < 0) {
+                        break;
+                    }
+                    if (reader.readUnsignedByte(idx - 1) == 'L') {
+                        final int nextChar = reader.readUnsignedByte(idx + internalName.length);
+                        if (nextChar == ';' || nextChar == '<') {
+                            return true;
+                        }
+                    }
+                    from = idx + 1;
+                }
+            }
+        }
+        return false;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
     /**
      * Read basic class information.
      * 
@@ -1987,8 +2110,10 @@ class Classfile {
      *            the classfile resource
      * @param isExternalClass
      *            if this is an external class
-     * @param stringInternMap
-     *            the string intern map
+     * @param stringInternTable
+     *            the string intern table
+     * @param constantPoolScratchRecycler
+     *            the recycler for constant pool scratch storage, or null to allocate new scratch storage.
      * @param workQueue
      *            the work queue
      * @param scanSpec
@@ -2006,7 +2131,8 @@ class Classfile {
     Classfile(final ClasspathElement classpathElement, final List<ClasspathElement> classpathOrder,
             final Set<String> acceptedClassNamesFound, final Set<String> classNamesScheduledForExtendedScanning,
             final String relativePath, final Resource classfileResource, final boolean isExternalClass,
-            final ConcurrentHashMap<String, String> stringInternMap,
+            final StringInternTable stringInternTable,
+            final Recycler<ConstantPoolScratch, RuntimeException> constantPoolScratchRecycler,
             final WorkQueue<ClassfileScanWorkUnit> workQueue, final ScanSpec scanSpec, final LogNode log)
             throws IOException, ClassfileFormatException, SkipClassException {
         this.classpathElement = classpathElement;
@@ -2016,9 +2142,12 @@ class Classfile {
         this.classNamesScheduledForExtendedScanning = classNamesScheduledForExtendedScanning;
         this.classfileResource = classfileResource;
         this.isExternalClass = isExternalClass;
-        this.stringInternMap = stringInternMap;
+        this.stringInternTable = stringInternTable;
         this.scanSpec = scanSpec;
 
+        // Get scratch storage for the constant pool
+        constantPoolScratch = constantPoolScratchRecycler == null ? new ConstantPoolScratch()
+                : constantPoolScratchRecycler.acquire();
         // Open a BufferedSequentialReader for the classfile
         try (ClassfileReader classfileReader = classfileResource.openClassfile()) {
             reader = classfileReader;
@@ -2050,9 +2179,232 @@ class Classfile {
             // Read class attributes
             readClassAttributes();
 
+            // Record the number of bytes read and the time spent reading (and inflating) them
+            classpathElement.numClassfilesParsed.incrementAndGet();
+            classpathElement.numClassfileBytesRead.addAndGet(reader.bytesRead());
+            classpathElement.classfileReadNanos.addAndGet(reader.readNanos());
+
             reader = null;
+        } finally {
+            // The constant pool is not needed after the classfile has been read
+            entryOffset = null;
+            entryTag = null;
+            indirectStringRefs = null;
+            if (constantPoolScratchRecycler != null) {
+                constantPoolScratchRecycler.recycle(constantPoolScratch);
+            }
+            constantPoolScratch = null;
         }
 
+        logAndExtendScanningUpwards(workQueue, log);
+    }
+
+    /**
+     * Create a {@link Classfile} for an unchanged classfile from a previous scan, reusing the parsed contents of
+     * the previous {@link Classfile} object rather than re-reading the classfile (see {@link ScanResult#rescan()}).
+     * The parsed contents are shared with the previous {@link Classfile} rather than copied, so the previous
+     * {@link ScanResult} must not be used after this scan.
+     *
+     * @param previousClassfile
+     *            the {@link Classfile} object for the same classfile from the previous scan
+     * @param classpathElement
+     *            the classpath element
+     * @param classpathOrder
+     *            the classpath order
+     * @param acceptedClassNamesFound
+     *            the names of accepted classes found in the classpath while scanning paths within classpath
+     *            elements.
+     * @param classNamesScheduledForExtendedScanning
+     *            the names of external (non-accepted) classes scheduled for extended scanning (where scanning is
+     *            extended upwards to superclasses, interfaces and annotations).
+     * @param classfileResource
+     *            the classfile resource
+     * @param isExternalClass
+     *            if this is an external class
+     * @param workQueue
+     *            the work queue
+     * @param scanSpec
+     *            the scan spec
+     * @param log
+     *            the log
+     */
+    Classfile(final Classfile previousClassfile, final ClasspathElement classpathElement,
+            final List<ClasspathElement> classpathOrder, final Set<String> acceptedClassNamesFound,
+            final Set<String> classNamesScheduledForExtendedScanning, final Resource classfileResource,
+            final boolean isExternalClass, final WorkQueue<ClassfileScanWorkUnit> workQueue,
+            final ScanSpec scanSpec, final LogNode log) {
+        this.classpathElement = classpathElement;
+        this.classpathOrder = classpathOrder;
+        this.relativePath = classfileResource.getPath();
+        this.acceptedClassNamesFound = acceptedClassNamesFound;
+        this.classNamesScheduledForExtendedScanning = classNamesScheduledForExtendedScanning;
+        this.classfileResource = classfileResource;
+        this.isExternalClass = isExternalClass;
+        this.stringInternTable = previousClassfile.stringInternTable;
+        this.scanSpec = scanSpec;
+
+        this.className = previousClassfile.className;
+        this.minorVersion = previousClassfile.minorVersion;
+        this.majorVersion = previousClassfile.majorVersion;
+        this.classModifiers = previousClassfile.classModifiers;
+        this.isInterface = previousClassfile.isInterface;
+        this.isRecord = previousClassfile.isRecord;
+        this.isAnnotation = previousClassfile.isAnnotation;
+        this.superclassName = previousClassfile.superclassName;
+        this.implementedInterfaces = previousClassfile.implementedInterfaces;
+        this.classAnnotations = previousClassfile.classAnnotations;
+        this.fullyQualifiedDefiningMethodName = previousClassfile.fullyQualifiedDefiningMethodName;
+        this.classContainmentEntries = previousClassfile.classContainmentEntries;
+        this.annotationParamDefaultValues = previousClassfile.annotationParamDefaultValues;
+        this.refdClassNames = previousClassfile.refdClassNames;
+        this.fieldInfoList = previousClassfile.fieldInfoList;
+        this.methodInfoList = previousClassfile.methodInfoList;
+        this.typeSignatureStr = previousClassfile.typeSignatureStr;
+        this.sourceFile = previousClassfile.sourceFile;
+        this.classTypeAnnotationDecorators = previousClassfile.classTypeAnnotationDecorators;
+
+        logAndExtendScanningUpwards(workQueue, log == null ? null : log.log("Reusing unchanged classfile"));
+    }
+
+    /**
+     * Read the parsed contents of a classfile, written by {@link #writeBinary(BinaryWriter)}, from the scan cache.
+     * The resulting {@link Classfile} object is not attached to a classpath element, and can only be used as the
+     * previous {@link Classfile} when constructing the {@link Classfile} for an unchanged classfile.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    Classfile(final BinaryReader in) throws IOException {
+        this.classpathElement = null;
+        this.classpathOrder = null;
+        this.relativePath = null;
+        this.acceptedClassNamesFound = null;
+        this.classNamesScheduledForExtendedScanning = null;
+        this.classfileResource = null;
+        this.isExternalClass = false;
+        this.stringInternTable = null;
+        this.scanSpec = null;
+
+        this.className = in.readString();
+        if (className == null) {
+            throw new IOException("Classfile has no class name");
+        }
+        this.minorVersion = in.readInt();
+        this.majorVersion = in.readInt();
+        this.classModifiers = in.readInt();
+        this.isInterface = in.readBoolean();
+        this.isRecord = in.readBoolean();
+        this.isAnnotation = in.readBoolean();
+        this.superclassName = in.readString();
+        final String[] implementedInterfacesArr = in.readStrings();
+        this.implementedInterfaces = implementedInterfacesArr == null ? null
+                : new ArrayList<>(Arrays.asList(implementedInterfacesArr));
+        this.classAnnotations = AnnotationInfoList.readBinary(in);
+        this.fullyQualifiedDefiningMethodName = in.readString();
+        final int numClassContainmentEntries = in.readLength();
+        if (numClassContainmentEntries >= 0) {
+            this.classContainmentEntries = new ArrayList<>();
+            for (int i = 0; i < numClassContainmentEntries; i++) {
+                final String innerClassName = in.readString();
+                final int innerClassModifierBits = in.readInt();
+                final String outerClassName = in.readString();
+                this.classContainmentEntries
+                        .add(new ClassContainment(innerClassName, innerClassModifierBits, outerClassName));
+            }
+        }
+        this.annotationParamDefaultValues = AnnotationParameterValueList.readBinary(in);
+        final String[] refdClassNamesArr = in.readStrings();
+        this.refdClassNames = refdClassNamesArr == null ? null : new HashSet<>(Arrays.asList(refdClassNamesArr));
+        this.fieldInfoList = FieldInfoList.readBinary(in);
+        this.methodInfoList = MethodInfoList.readBinary(in);
+        this.typeSignatureStr = in.readString();
+        this.sourceFile = in.readString();
+    }
+
+    /**
+     * Write the parsed contents of this classfile in the binary serialization format, for the scan cache. Must
+     * only be called if {@link #isCacheable()} returns true.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        out.writeString(className);
+        out.writeInt(minorVersion);
+        out.writeInt(majorVersion);
+        out.writeInt(classModifiers);
+        out.writeBoolean(isInterface);
+        out.writeBoolean(isRecord);
+        out.writeBoolean(isAnnotation);
+        out.writeString(superclassName);
+        out.writeStrings(implementedInterfaces);
+        AnnotationInfoList.writeBinary(classAnnotations, out);
+        out.writeString(fullyQualifiedDefiningMethodName);
+        out.writeLength(classContainmentEntries == null ? -1 : classContainmentEntries.size());
+        if (classContainmentEntries != null) {
+            for (final ClassContainment classContainment : classContainmentEntries) {
+                out.writeString(classContainment.innerClassName);
+                out.writeInt(classContainment.innerClassModifierBits);
+                out.writeString(classContainment.outerClassName);
+            }
+        }
+        AnnotationParameterValueList.writeBinary(annotationParamDefaultValues, out);
+        out.writeStrings(refdClassNames);
+        FieldInfoList.writeBinary(fieldInfoList, out);
+        MethodInfoList.writeBinary(methodInfoList, out);
+        out.writeString(typeSignatureStr);
+        out.writeString(sourceFile);
+    }
+
+    /**
+     * Check whether the parsed contents of this classfile can be written to the scan cache. Type annotations are
+     * held as decorators that are applied to type signatures when they are parsed, and these cannot be serialized,
+     * so classfiles with type annotations are always re-read.
+     *
+     * @return true if the parsed contents of this classfile can be written to the scan cache.
+     */
+    boolean isCacheable() {
+        if (classTypeAnnotationDecorators != null) {
+            return false;
+        }
+        if (fieldInfoList != null) {
+            for (final FieldInfo fieldInfo : fieldInfoList) {
+                if (fieldInfo.hasTypeAnnotationDecorators()) {
+                    return false;
+                }
+            }
+        }
+        if (methodInfoList != null) {
+            for (final MethodInfo methodInfo : methodInfoList) {
+                if (methodInfo.hasTypeAnnotationDecorators()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the classpath element that this classfile was read from.
+     *
+     * @return the classpath element
+     */
+    ClasspathElement getClasspathElement() {
+        return classpathElement;
+    }
+
+    /**
+     * Log the class info, then schedule any external classes referenced by this class for scanning.
+     *
+     * @param workQueue
+     *            the work queue
+     * @param log
+     *            the log
+     */
+    private void logAndExtendScanningUpwards(final WorkQueue<ClassfileScanWorkUnit> workQueue,
+            final LogNode log) {
         // Write class info to log 
         final LogNode subLog = log == null ? null
                 : log.log("Found " //
@@ -38,6 +38,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.github.classgraph.Scanner.ClasspathEntryWorkUnit;
 import nonapi.io.github.classgraph.concurrency.WorkQueue;
@@ -120,6 +122,18 @@ abstract class ClasspathElement implements Comparable<ClasspathElement> {
     /** The ScanResult that the classpath element came from. */
     protected ScanResult scanResult;
 
+    /** The time spent scanning paths within the classpath element, in nanoseconds. */
+    long scanPathsNanos;
+
+    /** The number of classfiles parsed from the classpath element. */
+    final AtomicInteger numClassfilesParsed = new AtomicInteger();
+
+    /** The number of classfile bytes read from the classpath element. */
+    final AtomicLong numClassfileBytesRead = new AtomicLong();
+
+    /** The time spent reading and inflating classfiles from the classpath element, in nanoseconds. */
+    final AtomicLong classfileReadNanos = new AtomicLong();
+
     // -------------------------------------------------------------------------------------------------------------
 
     /**
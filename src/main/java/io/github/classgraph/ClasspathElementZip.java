@@ -39,6 +39,7 @@ import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -79,6 +80,16 @@ class ClasspathElementZip extends ClasspathElement {
     private String zipFilePath;
     /** A map from relative path to {@link Resource} for non-rejected zip entries. */
     private final ConcurrentHashMap<String, Resource> relativePathToResource = new ConcurrentHashMap<>();
+    /**
+     * The build-time scan index in this zipfile, if {@link ScanSpec#enableScanIndex} is true and an index was
+     * found, whether or not its path is accepted, otherwise null.
+     */
+    Resource scanIndexResource;
+    /**
+     * True if {@link #scanPaths(LogNode)} only read the zip entries within accepted paths, in which case other
+     * entries are looked up on demand by {@link #getResource(String)}.
+     */
+    private boolean scannedAcceptedPathPrefixesOnly;
     /** A list of all automatic package root prefixes found as prefixes of paths within this zipfile. */
     private final Set<String> strippedAutomaticPackageRootPrefixes = new HashSet<>();
     /** The nested jar handler. */
@@ -207,23 +218,34 @@ class ClasspathElementZip extends ClasspathElement {
         // as classpath elements
         int childClasspathEntryIdx = 0;
         if (scanSpec.scanNestedJars) {
-            for (final FastZipEntry zipEntry : logicalZipFile.entries) {
+            final List<FastZipEntry> nestedLibJarZipEntries = new ArrayList<>();
+            for (final FastZipEntry zipEntry : logicalZipFile
+                    .getEntriesWithPathPrefixes(Arrays.asList(ClassLoaderHandlerRegistry.AUTOMATIC_LIB_DIR_PREFIXES))) {
                 for (final String libDirPrefix : ClassLoaderHandlerRegistry.AUTOMATIC_LIB_DIR_PREFIXES) {
                     // Even if a package root is given, e.g. BOOT-INF/classes, still look in lib/ etc. for jars
                     if (zipEntry.entryNameUnversioned.startsWith(libDirPrefix)
                             && zipEntry.entryNameUnversioned.endsWith(".jar")) {
-                        final String entryPath = zipEntry.getPath();
-                        if (subLog != null) {
-                            subLog.log("Found nested lib jar: " + entryPath);
-                        }
-                        workQueue.addWorkUnit(new ClasspathEntryWorkUnit(entryPath, getClassLoader(),
-                                /* parentClasspathElement = */ this,
-                                /* orderWithinParentClasspathElement = */
-                                childClasspathEntryIdx++, /* packageRootPrefix = */ ""));
+                        nestedLibJarZipEntries.add(zipEntry);
                         break;
                     }
                 }
             }
+
+            // Start inflating any deflated nested lib jars in the background, if enabled
+            if (scanSpec.nestedJarInflationParallelism > 0) {
+                nestedJarHandler.prefetchNestedJars(nestedLibJarZipEntries, subLog);
+            }
+
+            for (final FastZipEntry zipEntry : nestedLibJarZipEntries) {
+                final String entryPath = zipEntry.getPath();
+                if (subLog != null) {
+                    subLog.log("Found nested lib jar: " + entryPath);
+                }
+                workQueue.addWorkUnit(new ClasspathEntryWorkUnit(entryPath, getClassLoader(),
+                        /* parentClasspathElement = */ this,
+                        /* orderWithinParentClasspathElement = */
+                        childClasspathEntryIdx++, /* packageRootPrefix = */ ""));
+            }
         }
 
         // Don't add child classpath elements that are identical to this classpath element, or that are duplicates
@@ -387,7 +409,15 @@ class ClasspathElementZip extends ClasspathElement {
 
             @Override
             ClassfileReader openClassfile() throws IOException {
-                return new ClassfileReader(open(), this);
+                // Read the classfile from the slice, so that stored entries can be read in place
+                checkCanOpen();
+                try {
+                    length = zipEntry.uncompressedSize;
+                    return new ClassfileReader(zipEntry.getSlice(), this);
+                } catch (final IOException e) {
+                    close();
+                    throw e;
+                }
             }
 
             @Override
@@ -453,7 +483,89 @@ class ClasspathElementZip extends ClasspathElement {
      */
     @Override
     Resource getResource(final String relativePath) {
-        return relativePathToResource.get(relativePath);
+        final Resource resource = relativePathToResource.get(relativePath);
+        if (resource != null || !scannedAcceptedPathPrefixesOnly) {
+            return resource;
+        }
+        // Zip entries outside accepted paths were not read by scanPaths, so look the entry up on demand
+        if (!scanSpec.enableMultiReleaseVersions
+                && relativePath.startsWith(LogicalZipFile.MULTI_RELEASE_PATH_PREFIX)) {
+            return null;
+        }
+        if (isModularJar() && relativePath.indexOf('/') < 0 && relativePath.endsWith(".class")
+                && !relativePath.equals("module-info.class")) {
+            return null;
+        }
+        final int lastSlashIdx = relativePath.lastIndexOf('/');
+        final String parentRelativePath = lastSlashIdx < 0 ? "/" : relativePath.substring(0, lastSlashIdx + 1);
+        if (scanSpec.dirAcceptMatchStatus(parentRelativePath) == ScanSpecPathMatch.HAS_REJECTED_PATH_PREFIX) {
+            return null;
+        }
+        for (final String packageRoot : getPackageRootPrefixes()) {
+            final String entryPath = packageRoot + relativePath;
+            if (isWithinNestedClasspathRoot(entryPath)) {
+                continue;
+            }
+            for (final FastZipEntry zipEntry : logicalZipFile
+                    .getEntriesWithPathPrefixes(Collections.singletonList(entryPath))) {
+                if (zipEntry.entryNameUnversioned.equals(entryPath)) {
+                    final Resource newResource = newResource(zipEntry, relativePath);
+                    final Resource existingResource = relativePathToResource.putIfAbsent(relativePath, newResource);
+                    return existingResource == null ? newResource : existingResource;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the package root prefixes that are stripped from zip entry paths to give the relative path of resources.
+     *
+     * @return the package root prefix, if there is one, otherwise the empty string followed by each of the
+     *         automatic package root prefixes.
+     */
+    private List<String> getPackageRootPrefixes() {
+        if (!packageRootPrefix.isEmpty()) {
+            return Collections.singletonList(packageRootPrefix);
+        }
+        final List<String> packageRootPrefixes = new ArrayList<>();
+        packageRootPrefixes.add("");
+        Collections.addAll(packageRootPrefixes, ClassLoaderHandlerRegistry.AUTOMATIC_PACKAGE_ROOT_PREFIXES);
+        return packageRootPrefixes;
+    }
+
+    /**
+     * Check if a zip entry path is within a nested classpath root.
+     *
+     * @param entryPath
+     *            the zip entry path
+     * @return true if the path is within a nested classpath root.
+     */
+    private boolean isWithinNestedClasspathRoot(final String entryPath) {
+        if (nestedClasspathRootPrefixes != null) {
+            for (final String nestedClasspathRoot : nestedClasspathRootPrefixes) {
+                if (entryPath.startsWith(nestedClasspathRoot)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if this is a modular jar running under JRE 9+.
+     *
+     * @return true if this is a modular jar running under JRE 9+.
+     */
+    private boolean isModularJar() {
+        if (VersionFinder.JAVA_MAJOR_VERSION < 9) {
+            return false;
+        }
+        String moduleName = moduleNameFromModuleDescriptor;
+        if (moduleName == null || moduleName.isEmpty()) {
+            moduleName = moduleNameFromManifestFile;
+        }
+        return moduleName != null && !moduleName.isEmpty();
     }
 
     /**
@@ -481,25 +593,39 @@ class ClasspathElementZip extends ClasspathElement {
         final LogNode subLog = log == null ? null
                 : log(classpathElementIdx, "Scanning jarfile classpath element " + getZipFilePath(), log);
 
-        boolean isModularJar = false;
-        if (VersionFinder.JAVA_MAJOR_VERSION >= 9) {
-            // Determine whether this is a modular jar running under JRE 9+
-            String moduleName = moduleNameFromModuleDescriptor;
-            if (moduleName == null || moduleName.isEmpty()) {
-                moduleName = moduleNameFromManifestFile;
-            }
-            if (moduleName != null && moduleName.isEmpty()) {
-                moduleName = null;
-            }
-            if (moduleName != null) {
-                isModularJar = true;
+        // Determine whether this is a modular jar running under JRE 9+
+        final boolean isModularJar = isModularJar();
+
+        // If the accepted paths are known, only read the zip entries within accepted paths (plus the module
+        // descriptor and the scan index) from the central directory, rather than reading and checking every entry
+        final List<FastZipEntry> zipEntries;
+        final Set<String> acceptedPathPrefixes = scanSpec.getAcceptedPathPrefixes();
+        if (acceptedPathPrefixes == null) {
+            zipEntries = logicalZipFile.getEntries();
+        } else {
+            final List<String> entryPathPrefixes = new ArrayList<>();
+            for (final String packageRoot : getPackageRootPrefixes()) {
+                for (final String acceptedPathPrefix : acceptedPathPrefixes) {
+                    entryPathPrefixes.add(packageRoot + acceptedPathPrefix);
+                }
+                entryPathPrefixes.add(packageRoot + "module-info.class");
+                if (scanSpec.enableScanIndex) {
+                    entryPathPrefixes.add(packageRoot + ScanIndex.SCAN_INDEX_PATH);
+                }
+                // Store any automatic package root that is present, for use by getAllURIs()
+                if (!packageRoot.isEmpty() && packageRootPrefix.isEmpty() && !isWithinNestedClasspathRoot(packageRoot)
+                        && logicalZipFile.hasEntriesWithPathPrefix(packageRoot)) {
+                    strippedAutomaticPackageRootPrefixes.add(packageRoot.substring(0, packageRoot.length() - 1));
+                }
             }
+            zipEntries = logicalZipFile.getEntriesWithPathPrefixes(entryPathPrefixes);
+            scannedAcceptedPathPrefixesOnly = true;
         }
 
         Set<String> loggedNestedClasspathRootPrefixes = null;
         String prevParentRelativePath = null;
         ScanSpecPathMatch prevParentMatchStatus = null;
-        for (final FastZipEntry zipEntry : logicalZipFile.entries) {
+        for (final FastZipEntry zipEntry : zipEntries) {
             String relativePath = zipEntry.entryNameUnversioned;
 
             // Paths should never start with "META-INF/versions/{version}/", because either this is a versioned
@@ -578,6 +704,11 @@ class ClasspathElementZip extends ClasspathElement {
                 }
             }
 
+            // Record the build-time scan index, if present, before filtering paths
+            if (scanSpec.enableScanIndex && relativePath.equals(ScanIndex.SCAN_INDEX_PATH)) {
+                scanIndexResource = newResource(zipEntry, relativePath);
+            }
+
             // Accept/reject classpath elements based on file resource paths
             if (!checkResourcePathAcceptReject(relativePath, log)) {
                 continue;
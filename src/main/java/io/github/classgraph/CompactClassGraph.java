@@ -0,0 +1,324 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import io.github.classgraph.ClassInfo.RelType;
+
+/**
+ * The relationships between the classes of a {@link ScanResult}, frozen into compressed sparse row (CSR)
+ * adjacency arrays (one pair of arrays per {@link RelType}) if {@link ClassGraph#enableCompactClassGraph()} is
+ * called, so that each relationship costs one int rather than a {@link java.util.LinkedHashSet} entry.
+ * 
+ * <p>
+ * Each {@link ClassInfo} is given a read-only view of its row in the adjacency arrays in place of its map of
+ * related classes, so the related classes are iterated in the same order as before, and serialization is
+ * unchanged. Relationships can no longer be added once they have been frozen.
+ */
+final class CompactClassGraph {
+    /** The classes, indexed by id. */
+    private final ClassInfo[] classInfos;
+
+    /**
+     * For each {@link RelType}, the start of the row of each class in {@link #targets}, indexed by id (with one
+     * extra entry at the end), or null if there are no relationships of the type.
+     */
+    private final int[][] rowStart;
+
+    /** For each {@link RelType}, the ids of the related classes, or null if there are no relationships. */
+    private final int[][] targets;
+
+    /** The relationship types. */
+    private static final RelType[] REL_TYPES = RelType.values();
+
+    /**
+     * Constructor.
+     *
+     * @param classInfos
+     *            the classes, indexed by id
+     */
+    private CompactClassGraph(final ClassInfo[] classInfos) {
+        this.classInfos = classInfos;
+        this.rowStart = new int[REL_TYPES.length][];
+        this.targets = new int[REL_TYPES.length][];
+    }
+
+    /**
+     * Freeze the relationships between classes into adjacency arrays, replacing the map of related classes of
+     * each class with a view of its rows.
+     *
+     * @param allClassInfo
+     *            all classes of the scan result
+     * @return true if the relationships were frozen, or false if a class is related to a class that is not in
+     *         allClassInfo, in which case no class is changed.
+     */
+    static boolean freeze(final Collection<ClassInfo> allClassInfo) {
+        final ClassInfo[] classInfos = allClassInfo.toArray(new ClassInfo[0]);
+        final int numClasses = classInfos.length;
+        final Map<ClassInfo, Integer> classInfoToId = new IdentityHashMap<>(numClasses);
+        for (int i = 0; i < numClasses; i++) {
+            classInfoToId.put(classInfos[i], i);
+        }
+        final CompactClassGraph compactClassGraph = new CompactClassGraph(classInfos);
+        for (final RelType relType : REL_TYPES) {
+            int numTargets = 0;
+            for (final ClassInfo classInfo : classInfos) {
+                numTargets += classInfo.getDirectlyRelatedClasses(relType).size();
+            }
+            if (numTargets == 0) {
+                continue;
+            }
+            final int[] relTypeRowStart = new int[numClasses + 1];
+            final int[] relTypeTargets = new int[numTargets];
+            int numAdded = 0;
+            for (int i = 0; i < numClasses; i++) {
+                relTypeRowStart[i] = numAdded;
+                for (final ClassInfo target : classInfos[i].getDirectlyRelatedClasses(relType)) {
+                    final Integer targetId = classInfoToId.get(target);
+                    if (targetId == null) {
+                        return false;
+                    }
+                    relTypeTargets[numAdded++] = targetId;
+                }
+            }
+            relTypeRowStart[numClasses] = numAdded;
+            compactClassGraph.rowStart[relType.ordinal()] = relTypeRowStart;
+            compactClassGraph.targets[relType.ordinal()] = relTypeTargets;
+        }
+        for (int i = 0; i < numClasses; i++) {
+            classInfos[i].setRelatedClasses(compactClassGraph.new RelatedClasses(i));
+        }
+        return true;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * A read-only view of the related classes of one class, for each {@link RelType}. {@link #put(Object, Object)}
+     * and {@link Set#add(Object)} on the rows throw {@link UnsupportedOperationException}.
+     */
+    private class RelatedClasses extends AbstractMap<RelType, Set<ClassInfo>> {
+        /** The id of the class. */
+        private final int id;
+
+        /**
+         * Constructor.
+         *
+         * @param id
+         *            the id of the class
+         */
+        RelatedClasses(final int id) {
+            this.id = id;
+        }
+
+        /**
+         * Get the related classes for a relationship type.
+         *
+         * @param key
+         *            the {@link RelType}
+         * @return the related classes, or null if none (as for a map that only has entries for relationship types
+         *         with related classes).
+         */
+        @Override
+        public Set<ClassInfo> get(final Object key) {
+            if (!(key instanceof RelType)) {
+                return null;
+            }
+            final int relTypeOrdinal = ((RelType) key).ordinal();
+            final int[] relTypeRowStart = rowStart[relTypeOrdinal];
+            if (relTypeRowStart == null || relTypeRowStart[id] == relTypeRowStart[id + 1]) {
+                return null;
+            }
+            return new Row(targets[relTypeOrdinal], relTypeRowStart[id], relTypeRowStart[id + 1]);
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.AbstractMap#containsKey(java.lang.Object)
+         */
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.AbstractMap#entrySet()
+         */
+        @Override
+        public Set<Entry<RelType, Set<ClassInfo>>> entrySet() {
+            return new AbstractSet<Entry<RelType, Set<ClassInfo>>>() {
+                @Override
+                public Iterator<Entry<RelType, Set<ClassInfo>>> iterator() {
+                    return new Iterator<Entry<RelType, Set<ClassInfo>>>() {
+                        /** The ordinal of the next relationship type with related classes. */
+                        private int next = advance(0);
+
+                        /**
+                         * Find the next relationship type with related classes.
+                         *
+                         * @param from
+                         *            the ordinal to start from
+                         * @return the ordinal, or REL_TYPES.length if there are no more
+                         */
+                        private int advance(final int from) {
+                            int ordinal = from;
+                            while (ordinal < REL_TYPES.length && get(REL_TYPES[ordinal]) == null) {
+                                ordinal++;
+                            }
+                            return ordinal;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < REL_TYPES.length;
+                        }
+
+                        @Override
+                        public Entry<RelType, Set<ClassInfo>> next() {
+                            if (next >= REL_TYPES.length) {
+                                throw new NoSuchElementException();
+                            }
+                            final RelType relType = REL_TYPES[next];
+                            next = advance(next + 1);
+                            return new SimpleImmutableEntry<>(relType, get(relType));
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (final RelType relType : REL_TYPES) {
+                        if (get(relType) != null) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    /** A read-only view of a row of the adjacency arrays, as a set of classes. */
+    private class Row extends AbstractSet<ClassInfo> {
+        /** The ids of the related classes of the relationship type. */
+        private final int[] relTypeTargets;
+
+        /** The start of the row. */
+        private final int start;
+
+        /** The end of the row (exclusive). */
+        private final int end;
+
+        /**
+         * Constructor.
+         *
+         * @param relTypeTargets
+         *            the ids of the related classes of the relationship type
+         * @param start
+         *            the start of the row
+         * @param end
+         *            the end of the row (exclusive)
+         */
+        Row(final int[] relTypeTargets, final int start, final int end) {
+            this.relTypeTargets = relTypeTargets;
+            this.start = start;
+            this.end = end;
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.AbstractCollection#iterator()
+         */
+        @Override
+        public Iterator<ClassInfo> iterator() {
+            return new Iterator<ClassInfo>() {
+                /** The index of the next related class. */
+                private int next = start;
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public ClassInfo next() {
+                    if (next >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return classInfos[relTypeTargets[next++]];
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.AbstractCollection#size()
+         */
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        /**
+         * Scan the row for a class. Rows are usually short, so this is not worth an index.
+         *
+         * @param o
+         *            the object to find
+         * @return true if the row contains the class.
+         */
+        @Override
+        public boolean contains(final Object o) {
+            if (!(o instanceof ClassInfo)) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (classInfos[relTypeTargets[i]].equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -28,6 +28,7 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.annotation.Repeatable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
@@ -40,6 +41,8 @@ import io.github.classgraph.Classfile.TypeAnnotationDecorator;
 import nonapi.io.github.classgraph.types.ParseException;
 import nonapi.io.github.classgraph.types.TypeUtils;
 import nonapi.io.github.classgraph.types.TypeUtils.ModifierType;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /**
@@ -442,4 +445,39 @@ public class FieldInfo extends ClassMemberInfo implements Comparable<FieldInfo>
     protected void toString(final boolean useSimpleNames, final StringBuilder buf) {
         toString(true, useSimpleNames, buf);
     }
+
+    /**
+     * Check whether this field has any type annotation decorators.
+     *
+     * @return true if this field has any type annotation decorators.
+     */
+    boolean hasTypeAnnotationDecorators() {
+        return typeAnnotationDecorators != null && !typeAnnotationDecorators.isEmpty();
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /* (non-Javadoc)
+     * @see io.github.classgraph.ClassMemberInfo#writeBinary(nonapi.io.github.classgraph.utils.BinaryWriter)
+     */
+    @Override
+    void writeBinary(final BinaryWriter out) {
+        super.writeBinary(out);
+        out.writeBoolean(constantInitializerValue != null);
+        if (constantInitializerValue != null) {
+            constantInitializerValue.writeBinary(out);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see io.github.classgraph.ClassMemberInfo#readBinary(nonapi.io.github.classgraph.utils.BinaryReader)
+     */
+    @Override
+    void readBinary(final BinaryReader in) throws IOException {
+        super.readBinary(in);
+        if (in.readBoolean()) {
+            constantInitializerValue = new ObjectTypedValueWrapper();
+            constantInitializerValue.readBinary(in);
+        }
+    }
 }
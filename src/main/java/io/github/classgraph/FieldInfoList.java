@@ -28,10 +28,13 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /** A list of {@link FieldInfo} objects. */
@@ -136,4 +139,46 @@ public class FieldInfoList extends MappableInfoList<FieldInfo> {
         }
         return fieldInfoFiltered;
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write a list of fields in the binary serialization format.
+     *
+     * @param list
+     *            the list, or null
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    static void writeBinary(final FieldInfoList list, final BinaryWriter out) {
+        out.writeLength(list == null ? -1 : list.size());
+        if (list != null) {
+            for (final FieldInfo item : list) {
+                item.writeBinary(out);
+            }
+        }
+    }
+
+    /**
+     * Read a list of fields in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @return the list, or null
+     * @throws IOException
+     *             if the input is invalid
+     */
+    static FieldInfoList readBinary(final BinaryReader in) throws IOException {
+        final int length = in.readLength();
+        if (length < 0) {
+            return null;
+        }
+        final FieldInfoList list = new FieldInfoList(length);
+        for (int i = 0; i < length; i++) {
+            final FieldInfo item = new FieldInfo();
+            item.readBinary(in);
+            list.add(item);
+        }
+        return list;
+    }
 }
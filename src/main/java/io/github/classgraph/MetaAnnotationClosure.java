@@ -0,0 +1,227 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.classgraph.ClassInfo.RelType;
+
+/**
+ * Finds the classes with each of a collection of annotations or meta-annotations, in a single pass over the
+ * annotation graph.
+ * 
+ * <p>
+ * The classes annotated with an annotation, directly or through meta-annotations, are the classes reachable from
+ * the annotation along {@link RelType#CLASSES_WITH_ANNOTATION} edges. Annotations may annotate each other, so the
+ * graph is divided into strongly connected components using Tarjan's algorithm. Components are completed in
+ * reverse topological order, so the closure of each component is the union of the closures of the components
+ * it points to, which are computed once and shared between all the annotations that reach them.
+ */
+final class MetaAnnotationClosure {
+    /** The visited classes. */
+    private final Map<ClassInfo, Node> classInfoToNode = new IdentityHashMap<>();
+
+    /** The visited classes, in order of visiting, so that each class is numbered by its index in this list. */
+    private final List<Node> nodes = new ArrayList<>();
+
+    /** The Tarjan stack of nodes whose strongly connected component has not yet been completed. */
+    private final Deque<Node> componentStack = new ArrayDeque<>();
+
+    /** The shared empty closure, for classes that are not annotations of any class. */
+    private static final BitSet NO_CLASSES = new BitSet(0);
+
+    /** A visited class. */
+    private static class Node {
+        /** The class. */
+        final ClassInfo classInfo;
+
+        /** The number of the class, in order of visiting. */
+        final int index;
+
+        /** The lowest number of any node on the component stack that is reachable from this node. */
+        int lowLink;
+
+        /** Whether this node is on the component stack. */
+        boolean onComponentStack;
+
+        /** The classes directly annotated by this class, that have not yet been visited from this node. */
+        final Iterator<ClassInfo> annotatedClassesIter;
+
+        /**
+         * The numbers of the classes annotated by this class directly or through meta-annotations, or null if the
+         * strongly connected component of this node has not yet been completed.
+         */
+        BitSet closure;
+
+        /**
+         * Constructor.
+         *
+         * @param classInfo
+         *            the class
+         * @param index
+         *            the number of the class, in order of visiting
+         */
+        Node(final ClassInfo classInfo, final int index) {
+            this.classInfo = classInfo;
+            this.index = index;
+            this.lowLink = index;
+            this.annotatedClassesIter = classInfo.getDirectlyRelatedClasses(RelType.CLASSES_WITH_ANNOTATION)
+                    .iterator();
+        }
+    }
+
+    /** Constructor. */
+    private MetaAnnotationClosure() {
+    }
+
+    /**
+     * Find the classes annotated with each of the given annotations, directly or through meta-annotations.
+     *
+     * @param annotations
+     *            the annotations
+     * @return a map from each annotation to the classes it annotates, directly or through meta-annotations
+     */
+    static Map<ClassInfo, Set<ClassInfo>> findClassesWithAnnotations(final Collection<ClassInfo> annotations) {
+        final MetaAnnotationClosure metaAnnotationClosure = new MetaAnnotationClosure();
+        final Map<ClassInfo, Set<ClassInfo>> annotationToClassesWithAnnotation = new IdentityHashMap<>();
+        for (final ClassInfo annotation : annotations) {
+            if (!annotationToClassesWithAnnotation.containsKey(annotation)) {
+                final BitSet closure = metaAnnotationClosure.findClosure(annotation);
+                final Set<ClassInfo> classesWithAnnotation = new LinkedHashSet<>(closure.cardinality());
+                for (int i = closure.nextSetBit(0); i >= 0; i = closure.nextSetBit(i + 1)) {
+                    classesWithAnnotation.add(metaAnnotationClosure.nodes.get(i).classInfo);
+                }
+                annotationToClassesWithAnnotation.put(annotation, classesWithAnnotation);
+            }
+        }
+        return annotationToClassesWithAnnotation;
+    }
+
+    /**
+     * Visit a class for the first time.
+     *
+     * @param classInfo
+     *            the class
+     * @return the node for the class
+     */
+    private Node visit(final ClassInfo classInfo) {
+        final Node node = new Node(classInfo, nodes.size());
+        nodes.add(node);
+        classInfoToNode.put(classInfo, node);
+        componentStack.push(node);
+        node.onComponentStack = true;
+        return node;
+    }
+
+    /**
+     * Find the closure of a class, visiting (without recursion, since annotation chains may be long) every class
+     * reachable from it that has not already been visited.
+     *
+     * @param root
+     *            the class
+     * @return the numbers of the classes annotated by the class directly or through meta-annotations
+     */
+    private BitSet findClosure(final ClassInfo root) {
+        final Node rootNode = classInfoToNode.get(root);
+        if (rootNode != null) {
+            // Visited from an earlier root, and all components reachable from an earlier root are complete
+            return rootNode.closure;
+        }
+        final Deque<Node> callStack = new ArrayDeque<>();
+        callStack.push(visit(root));
+        while (!callStack.isEmpty()) {
+            final Node node = callStack.peek();
+            if (node.annotatedClassesIter.hasNext()) {
+                final ClassInfo annotatedClass = node.annotatedClassesIter.next();
+                final Node annotatedNode = classInfoToNode.get(annotatedClass);
+                if (annotatedNode == null) {
+                    callStack.push(visit(annotatedClass));
+                } else if (annotatedNode.onComponentStack) {
+                    node.lowLink = Math.min(node.lowLink, annotatedNode.index);
+                }
+            } else {
+                callStack.pop();
+                final Node caller = callStack.peek();
+                if (caller != null) {
+                    caller.lowLink = Math.min(caller.lowLink, node.lowLink);
+                }
+                if (node.lowLink == node.index) {
+                    completeComponent(node);
+                }
+            }
+        }
+        return classInfoToNode.get(root).closure;
+    }
+
+    /**
+     * Pop the strongly connected component rooted at a node from the component stack, and set the closure of each
+     * of its nodes. The components that the component points to have already been completed.
+     *
+     * @param componentRoot
+     *            the root node of the component
+     */
+    private void completeComponent(final Node componentRoot) {
+        final List<Node> component = new ArrayList<>();
+        Node member;
+        do {
+            member = componentStack.pop();
+            member.onComponentStack = false;
+            component.add(member);
+        } while (member != componentRoot);
+
+        BitSet closure = null;
+        for (final Node node : component) {
+            for (final ClassInfo annotatedClass : node.classInfo
+                    .getDirectlyRelatedClasses(RelType.CLASSES_WITH_ANNOTATION)) {
+                final Node annotatedNode = classInfoToNode.get(annotatedClass);
+                if (closure == null) {
+                    closure = new BitSet();
+                }
+                closure.set(annotatedNode.index);
+                // Nodes in this component have no closure yet, but their annotated classes are added above
+                if (annotatedNode.closure != null) {
+                    closure.or(annotatedNode.closure);
+                }
+            }
+        }
+        for (final Node node : component) {
+            node.closure = closure == null ? NO_CLASSES : closure;
+        }
+    }
+}
@@ -28,6 +28,7 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Repeatable;
 import java.lang.reflect.Constructor;
@@ -45,6 +46,8 @@ import nonapi.io.github.classgraph.types.ParseException;
 import nonapi.io.github.classgraph.types.TypeUtils;
 import nonapi.io.github.classgraph.types.TypeUtils.ModifierType;
 import nonapi.io.github.classgraph.utils.Assert;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /**
@@ -1088,4 +1091,70 @@ public class MethodInfo extends ClassMemberInfo implements Comparable<MethodInfo
             }
         }
     }
+
+    /**
+     * Check whether this method has any type annotation decorators.
+     *
+     * @return true if this method has any type annotation decorators.
+     */
+    boolean hasTypeAnnotationDecorators() {
+        return typeAnnotationDecorators != null && !typeAnnotationDecorators.isEmpty();
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /* (non-Javadoc)
+     * @see io.github.classgraph.ClassMemberInfo#writeBinary(nonapi.io.github.classgraph.utils.BinaryWriter)
+     */
+    @Override
+    void writeBinary(final BinaryWriter out) {
+        super.writeBinary(out);
+        out.writeStrings(parameterNames);
+        out.writeLength(parameterModifiers == null ? -1 : parameterModifiers.length);
+        if (parameterModifiers != null) {
+            for (final int paramModifiers : parameterModifiers) {
+                out.writeInt(paramModifiers);
+            }
+        }
+        out.writeLength(parameterAnnotationInfo == null ? -1 : parameterAnnotationInfo.length);
+        if (parameterAnnotationInfo != null) {
+            for (final AnnotationInfo[] paramAnnotationInfo : parameterAnnotationInfo) {
+                AnnotationInfoList.writeBinary(paramAnnotationInfo == null ? null //
+                        : Arrays.asList(paramAnnotationInfo), out);
+            }
+        }
+        out.writeBoolean(hasBody);
+        out.writeInt(minLineNum);
+        out.writeInt(maxLineNum);
+        out.writeStrings(thrownExceptionNames);
+    }
+
+    /* (non-Javadoc)
+     * @see io.github.classgraph.ClassMemberInfo#readBinary(nonapi.io.github.classgraph.utils.BinaryReader)
+     */
+    @Override
+    void readBinary(final BinaryReader in) throws IOException {
+        super.readBinary(in);
+        parameterNames = in.readStrings();
+        final int numParamModifiers = in.readLength();
+        if (numParamModifiers >= 0) {
+            parameterModifiers = new int[numParamModifiers];
+            for (int i = 0; i < numParamModifiers; i++) {
+                parameterModifiers[i] = in.readInt();
+            }
+        }
+        final int numParamAnnotationInfo = in.readLength();
+        if (numParamAnnotationInfo >= 0) {
+            parameterAnnotationInfo = new AnnotationInfo[numParamAnnotationInfo][];
+            for (int i = 0; i < numParamAnnotationInfo; i++) {
+                final AnnotationInfoList paramAnnotationInfo = AnnotationInfoList.readBinary(in);
+                parameterAnnotationInfo[i] = paramAnnotationInfo == null ? null
+                        : paramAnnotationInfo.toArray(new AnnotationInfo[0]);
+            }
+        }
+        hasBody = in.readBoolean();
+        minLineNum = in.readInt();
+        maxLineNum = in.readInt();
+        thrownExceptionNames = in.readStrings();
+    }
 }
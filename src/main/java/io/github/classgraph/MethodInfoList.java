@@ -28,11 +28,14 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /** A list of {@link MethodInfo} objects. */
@@ -242,4 +245,46 @@ public class MethodInfoList extends InfoList<MethodInfo> {
         }
         return methodInfoFiltered;
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write a list of methods in the binary serialization format.
+     *
+     * @param list
+     *            the list, or null
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    static void writeBinary(final MethodInfoList list, final BinaryWriter out) {
+        out.writeLength(list == null ? -1 : list.size());
+        if (list != null) {
+            for (final MethodInfo item : list) {
+                item.writeBinary(out);
+            }
+        }
+    }
+
+    /**
+     * Read a list of methods in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @return the list, or null
+     * @throws IOException
+     *             if the input is invalid
+     */
+    static MethodInfoList readBinary(final BinaryReader in) throws IOException {
+        final int length = in.readLength();
+        if (length < 0) {
+            return null;
+        }
+        final MethodInfoList list = new MethodInfoList(length);
+        for (int i = 0; i < length; i++) {
+            final MethodInfo item = new MethodInfo();
+            item.readBinary(in);
+            list.add(item);
+        }
+        return list;
+    }
 }
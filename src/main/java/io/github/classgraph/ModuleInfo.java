@@ -28,6 +28,7 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.net.URI;
 import java.util.HashSet;
@@ -35,6 +36,8 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 
 import nonapi.io.github.classgraph.utils.Assert;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.CollectionUtils;
 
 /** Holds metadata about a package encountered during a scan. */
@@ -353,4 +356,58 @@ public class ModuleInfo implements Comparable<ModuleInfo>, HasName {
     public String toString() {
         return name;
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write this module in the binary serialization format. References to classes and packages are written as
+     * references to objects registered with the {@link BinaryWriter}.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        out.writeString(name);
+        AnnotationInfoList.writeBinary(annotationInfoSet, out);
+        out.writeLength(packageInfoSet == null ? -1 : packageInfoSet.size());
+        if (packageInfoSet != null) {
+            for (final PackageInfo packageInfo : packageInfoSet) {
+                out.writeObjectRef(packageInfo);
+            }
+        }
+        out.writeLength(classInfoSet == null ? -1 : classInfoSet.size());
+        if (classInfoSet != null) {
+            for (final ClassInfo classInfo : classInfoSet) {
+                out.writeObjectRef(classInfo);
+            }
+        }
+    }
+
+    /**
+     * Read this module in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        name = in.readString();
+        final AnnotationInfoList annotationInfoList = AnnotationInfoList.readBinary(in);
+        annotationInfoSet = annotationInfoList == null ? null : new LinkedHashSet<>(annotationInfoList);
+        final int numPackages = in.readLength();
+        if (numPackages >= 0) {
+            packageInfoSet = new HashSet<>();
+            for (int i = 0; i < numPackages; i++) {
+                packageInfoSet.add(in.readObjectRef(PackageInfo.class));
+            }
+        }
+        final int numClasses = in.readLength();
+        if (numClasses >= 0) {
+            classInfoSet = new HashSet<>();
+            for (int i = 0; i < numClasses; i++) {
+                classInfoSet.add(in.readObjectRef(ClassInfo.class));
+            }
+        }
+    }
 }
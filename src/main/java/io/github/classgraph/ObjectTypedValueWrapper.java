@@ -28,12 +28,15 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /** A union type, used for typesafe serialization/deserialization to/from JSON. Only one field is ever set. */
@@ -110,6 +113,77 @@ class ObjectTypedValueWrapper extends ScanResultObject {
 
     // -------------------------------------------------------------------------------------------------------------
 
+    /** Binary serialization tag for no value. */
+    private static final int TAG_NULL = 0;
+
+    /** Binary serialization tag for an enum value. */
+    private static final int TAG_ANNOTATION_ENUM_VALUE = 1;
+
+    /** Binary serialization tag for a class ref. */
+    private static final int TAG_ANNOTATION_CLASS_REF = 2;
+
+    /** Binary serialization tag for an {@link AnnotationInfo}. */
+    private static final int TAG_ANNOTATION_INFO = 3;
+
+    /** Binary serialization tag for a string value. */
+    private static final int TAG_STRING = 4;
+
+    /** Binary serialization tag for an integer value. */
+    private static final int TAG_INTEGER = 5;
+
+    /** Binary serialization tag for a long value. */
+    private static final int TAG_LONG = 6;
+
+    /** Binary serialization tag for a short value. */
+    private static final int TAG_SHORT = 7;
+
+    /** Binary serialization tag for a boolean value. */
+    private static final int TAG_BOOLEAN = 8;
+
+    /** Binary serialization tag for a character value. */
+    private static final int TAG_CHARACTER = 9;
+
+    /** Binary serialization tag for a float value. */
+    private static final int TAG_FLOAT = 10;
+
+    /** Binary serialization tag for a double value. */
+    private static final int TAG_DOUBLE = 11;
+
+    /** Binary serialization tag for a byte value. */
+    private static final int TAG_BYTE = 12;
+
+    /** Binary serialization tag for a string array value. */
+    private static final int TAG_STRING_ARRAY = 13;
+
+    /** Binary serialization tag for an int array value. */
+    private static final int TAG_INT_ARRAY = 14;
+
+    /** Binary serialization tag for a long array value. */
+    private static final int TAG_LONG_ARRAY = 15;
+
+    /** Binary serialization tag for a short array value. */
+    private static final int TAG_SHORT_ARRAY = 16;
+
+    /** Binary serialization tag for a boolean array value. */
+    private static final int TAG_BOOLEAN_ARRAY = 17;
+
+    /** Binary serialization tag for a char array value. */
+    private static final int TAG_CHAR_ARRAY = 18;
+
+    /** Binary serialization tag for a float array value. */
+    private static final int TAG_FLOAT_ARRAY = 19;
+
+    /** Binary serialization tag for a double array value. */
+    private static final int TAG_DOUBLE_ARRAY = 20;
+
+    /** Binary serialization tag for a byte array value. */
+    private static final int TAG_BYTE_ARRAY = 21;
+
+    /** Binary serialization tag for an object array value. */
+    private static final int TAG_OBJECT_ARRAY = 22;
+
+    // -------------------------------------------------------------------------------------------------------------
+
     /** Default constructor for deserialization. */
     public ObjectTypedValueWrapper() {
         super();
@@ -668,4 +742,229 @@ class ObjectTypedValueWrapper extends ScanResultObject {
             buf.append(Arrays.toString(objectArrayValue));
         }
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write the wrapped value in the binary serialization format.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        if (annotationEnumValue != null) {
+            out.writeByte(TAG_ANNOTATION_ENUM_VALUE);
+            annotationEnumValue.writeBinary(out);
+        } else if (annotationClassRef != null) {
+            out.writeByte(TAG_ANNOTATION_CLASS_REF);
+            annotationClassRef.writeBinary(out);
+        } else if (annotationInfo != null) {
+            out.writeByte(TAG_ANNOTATION_INFO);
+            annotationInfo.writeBinary(out);
+        } else if (stringValue != null) {
+            out.writeByte(TAG_STRING);
+            out.writeString(stringValue);
+        } else if (integerValue != null) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt(integerValue);
+        } else if (longValue != null) {
+            out.writeByte(TAG_LONG);
+            out.writeLong(longValue);
+        } else if (shortValue != null) {
+            out.writeByte(TAG_SHORT);
+            out.writeInt(shortValue);
+        } else if (booleanValue != null) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean(booleanValue);
+        } else if (characterValue != null) {
+            out.writeByte(TAG_CHARACTER);
+            out.writeChar(characterValue);
+        } else if (floatValue != null) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat(floatValue);
+        } else if (doubleValue != null) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(doubleValue);
+        } else if (byteValue != null) {
+            out.writeByte(TAG_BYTE);
+            out.writeInt(byteValue);
+        } else if (stringArrayValue != null) {
+            out.writeByte(TAG_STRING_ARRAY);
+            out.writeStrings(stringArrayValue);
+        } else if (intArrayValue != null) {
+            out.writeByte(TAG_INT_ARRAY);
+            out.writeCount(intArrayValue.length);
+            for (final int val : intArrayValue) {
+                out.writeInt(val);
+            }
+        } else if (longArrayValue != null) {
+            out.writeByte(TAG_LONG_ARRAY);
+            out.writeCount(longArrayValue.length);
+            for (final long val : longArrayValue) {
+                out.writeLong(val);
+            }
+        } else if (shortArrayValue != null) {
+            out.writeByte(TAG_SHORT_ARRAY);
+            out.writeCount(shortArrayValue.length);
+            for (final short val : shortArrayValue) {
+                out.writeInt(val);
+            }
+        } else if (booleanArrayValue != null) {
+            out.writeByte(TAG_BOOLEAN_ARRAY);
+            out.writeCount(booleanArrayValue.length);
+            for (final boolean val : booleanArrayValue) {
+                out.writeBoolean(val);
+            }
+        } else if (charArrayValue != null) {
+            out.writeByte(TAG_CHAR_ARRAY);
+            out.writeCount(charArrayValue.length);
+            for (final char val : charArrayValue) {
+                out.writeChar(val);
+            }
+        } else if (floatArrayValue != null) {
+            out.writeByte(TAG_FLOAT_ARRAY);
+            out.writeCount(floatArrayValue.length);
+            for (final float val : floatArrayValue) {
+                out.writeFloat(val);
+            }
+        } else if (doubleArrayValue != null) {
+            out.writeByte(TAG_DOUBLE_ARRAY);
+            out.writeCount(doubleArrayValue.length);
+            for (final double val : doubleArrayValue) {
+                out.writeDouble(val);
+            }
+        } else if (byteArrayValue != null) {
+            out.writeByte(TAG_BYTE_ARRAY);
+            out.writeCount(byteArrayValue.length);
+            for (final byte val : byteArrayValue) {
+                out.writeByte(val);
+            }
+        } else if (objectArrayValue != null) {
+            out.writeByte(TAG_OBJECT_ARRAY);
+            out.writeCount(objectArrayValue.length);
+            for (final ObjectTypedValueWrapper val : objectArrayValue) {
+                val.writeBinary(out);
+            }
+        } else {
+            out.writeByte(TAG_NULL);
+        }
+    }
+
+    /**
+     * Read the wrapped value in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        final int tag = in.readByte();
+        switch (tag) {
+        case TAG_NULL:
+            break;
+        case TAG_ANNOTATION_ENUM_VALUE:
+            annotationEnumValue = new AnnotationEnumValue();
+            annotationEnumValue.readBinary(in);
+            break;
+        case TAG_ANNOTATION_CLASS_REF:
+            annotationClassRef = new AnnotationClassRef();
+            annotationClassRef.readBinary(in);
+            break;
+        case TAG_ANNOTATION_INFO:
+            annotationInfo = new AnnotationInfo();
+            annotationInfo.readBinary(in);
+            break;
+        case TAG_STRING:
+            stringValue = in.readString();
+            break;
+        case TAG_INTEGER:
+            integerValue = in.readInt();
+            break;
+        case TAG_LONG:
+            longValue = in.readLong();
+            break;
+        case TAG_SHORT:
+            shortValue = (short) in.readInt();
+            break;
+        case TAG_BOOLEAN:
+            booleanValue = in.readBoolean();
+            break;
+        case TAG_CHARACTER:
+            characterValue = in.readChar();
+            break;
+        case TAG_FLOAT:
+            floatValue = in.readFloat();
+            break;
+        case TAG_DOUBLE:
+            doubleValue = in.readDouble();
+            break;
+        case TAG_BYTE:
+            byteValue = (byte) in.readInt();
+            break;
+        case TAG_STRING_ARRAY:
+            stringArrayValue = in.readStrings();
+            if (stringArrayValue == null) {
+                throw new IOException("String array value is null");
+            }
+            break;
+        case TAG_INT_ARRAY:
+            intArrayValue = new int[in.readCount()];
+            for (int i = 0; i < intArrayValue.length; i++) {
+                intArrayValue[i] = in.readInt();
+            }
+            break;
+        case TAG_LONG_ARRAY:
+            longArrayValue = new long[in.readCount()];
+            for (int i = 0; i < longArrayValue.length; i++) {
+                longArrayValue[i] = in.readLong();
+            }
+            break;
+        case TAG_SHORT_ARRAY:
+            shortArrayValue = new short[in.readCount()];
+            for (int i = 0; i < shortArrayValue.length; i++) {
+                shortArrayValue[i] = (short) in.readInt();
+            }
+            break;
+        case TAG_BOOLEAN_ARRAY:
+            booleanArrayValue = new boolean[in.readCount()];
+            for (int i = 0; i < booleanArrayValue.length; i++) {
+                booleanArrayValue[i] = in.readBoolean();
+            }
+            break;
+        case TAG_CHAR_ARRAY:
+            charArrayValue = new char[in.readCount()];
+            for (int i = 0; i < charArrayValue.length; i++) {
+                charArrayValue[i] = in.readChar();
+            }
+            break;
+        case TAG_FLOAT_ARRAY:
+            floatArrayValue = new float[in.readCount()];
+            for (int i = 0; i < floatArrayValue.length; i++) {
+                floatArrayValue[i] = in.readFloat();
+            }
+            break;
+        case TAG_DOUBLE_ARRAY:
+            doubleArrayValue = new double[in.readCount()];
+            for (int i = 0; i < doubleArrayValue.length; i++) {
+                doubleArrayValue[i] = in.readDouble();
+            }
+            break;
+        case TAG_BYTE_ARRAY:
+            byteArrayValue = new byte[in.readCount()];
+            for (int i = 0; i < byteArrayValue.length; i++) {
+                byteArrayValue[i] = (byte) in.readByte();
+            }
+            break;
+        case TAG_OBJECT_ARRAY:
+            objectArrayValue = new ObjectTypedValueWrapper[in.readCount()];
+            for (int i = 0; i < objectArrayValue.length; i++) {
+                objectArrayValue[i] = new ObjectTypedValueWrapper();
+                objectArrayValue[i].readBinary(in);
+            }
+            break;
+        default:
+            throw new IOException("Unknown value tag: " + tag);
+        }
+    }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@
  */
 package io.github.classgraph;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -38,6 +39,8 @@ import java.util.Set;
 
 import nonapi.io.github.classgraph.scanspec.ScanSpec;
 import nonapi.io.github.classgraph.utils.Assert;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.CollectionUtils;
 
 /** Holds metadata about a package encountered during a scan. */
@@ -384,4 +387,63 @@ public class PackageInfo implements Comparable<PackageInfo>, HasName {
     public String toString() {
         return name;
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write this package in the binary serialization format. References to classes and to other packages are
+     * written as references to objects registered with the {@link BinaryWriter}. The package name is written along
+     * with the registration, since it is needed to add the package to sets.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    void writeBinary(final BinaryWriter out) {
+        AnnotationInfoList.writeBinary(annotationInfoSet, out);
+        out.writeObjectRef(parent);
+        out.writeLength(children == null ? -1 : children.size());
+        if (children != null) {
+            for (final PackageInfo child : children) {
+                out.writeObjectRef(child);
+            }
+        }
+        out.writeLength(memberClassNameToClassInfo == null ? -1 : memberClassNameToClassInfo.size());
+        if (memberClassNameToClassInfo != null) {
+            for (final ClassInfo classInfo : memberClassNameToClassInfo.values()) {
+                out.writeObjectRef(classInfo);
+            }
+        }
+    }
+
+    /**
+     * Read this package in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    void readBinary(final BinaryReader in) throws IOException {
+        final AnnotationInfoList annotationInfoList = AnnotationInfoList.readBinary(in);
+        annotationInfoSet = annotationInfoList == null ? null : new LinkedHashSet<>(annotationInfoList);
+        parent = in.readObjectRef(PackageInfo.class);
+        final int numChildren = in.readLength();
+        if (numChildren >= 0) {
+            children = new HashSet<>();
+            for (int i = 0; i < numChildren; i++) {
+                children.add(in.readObjectRef(PackageInfo.class));
+            }
+        }
+        final int numMemberClasses = in.readLength();
+        if (numMemberClasses >= 0) {
+            memberClassNameToClassInfo = new HashMap<>();
+            for (int i = 0; i < numMemberClasses; i++) {
+                final ClassInfo classInfo = in.readObjectRef(ClassInfo.class);
+                if (classInfo == null) {
+                    throw new IOException("Package " + name + " has a null member class");
+                }
+                memberClassNameToClassInfo.put(classInfo.getName(), classInfo);
+            }
+        }
+    }
 }
@@ -0,0 +1,335 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import nonapi.io.github.classgraph.scanspec.ScanSpec;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
+import nonapi.io.github.classgraph.utils.LogNode;
+import nonapi.io.github.classgraph.utils.VersionFinder;
+
+/**
+ * An on-disk cache of the classfile parsing phase of a scan, enabled by calling
+ * {@link ClassGraph#enableScanCache(Path)}.
+ * 
+ * <p>
+ * There is one cache entry per classpath element, named by a fingerprint of the {@link ScanSpec} and the classpath
+ * element, holding the parsed contents of the element's classfiles in the binary serialization format. An entry is
+ * only used if the path, size and last modified time of the classpath element's jarfile are unchanged, and each
+ * classfile within it is keyed by its own size and last modified time, in the same way as for
+ * {@link ScanResult#rescan()}. Unchanged classfiles are therefore read from the cache, changed classfiles are
+ * re-read, and the result is linked as usual. Only the entries of classpath elements that changed are rewritten.
+ */
+class ScanCache {
+    /** The scan cache directory. */
+    private final Path cacheDir;
+
+    /** The classpath order. */
+    private final List<ClasspathElement> classpathOrder;
+
+    /** The fingerprint of the {@link ScanSpec} and the version of ClassGraph, shared by every entry. */
+    private final String scanSpecFingerprint;
+
+    /** The keys of the classfiles that were loaded from the cache entry of each classpath element. */
+    private final Map<ClasspathElement, Set<String>> classpathElementToLoadedKeys = new HashMap<>();
+
+    /** The filename extension for cache files. */
+    private static final String CACHE_FILE_EXTENSION = ".bin";
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Constructor.
+     *
+     * @param scanSpec
+     *            the scan spec
+     * @param classpathOrder
+     *            the final classpath element order, after classfile masking has been applied
+     */
+    ScanCache(final ScanSpec scanSpec, final List<ClasspathElement> classpathOrder) {
+        this.cacheDir = scanSpec.scanCacheDir;
+        this.classpathOrder = classpathOrder;
+        final BinaryWriter scanSpecWriter = new BinaryWriter();
+        scanSpec.writeBinary(scanSpecWriter);
+        final ByteArrayOutputStream scanSpecBytes = new ByteArrayOutputStream();
+        try {
+            scanSpecWriter.writeTo(scanSpecBytes);
+        } catch (final IOException e) {
+            // Should not happen
+            throw new IllegalArgumentException("Could not serialize scan spec", e);
+        }
+        final MessageDigest digest = newDigest();
+        update(digest, ScanResult.CURRENT_SERIALIZATION_FORMAT);
+        update(digest, VersionFinder.getVersion());
+        digest.update(scanSpecBytes.toByteArray());
+        this.scanSpecFingerprint = toHex(digest.digest());
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Create a SHA-256 digest.
+     *
+     * @return the digest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform implementation is required to support SHA-256
+            throw new IllegalArgumentException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Add a string to a digest, followed by a separator.
+     *
+     * @param digest
+     *            the digest
+     * @param str
+     *            the string
+     */
+    private static void update(final MessageDigest digest, final String str) {
+        digest.update((str == null ? "" : str).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    /**
+     * Convert a hash to a hex string.
+     *
+     * @param hash
+     *            the hash
+     * @return the hex string
+     */
+    private static String toHex(final byte[] hash) {
+        final StringBuilder buf = new StringBuilder(hash.length * 2);
+        for (final byte b : hash) {
+            buf.append(Character.forDigit((b >> 4) & 0xf, 16));
+            buf.append(Character.forDigit(b & 0xf, 16));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Get the cache file for a classpath element.
+     *
+     * @param classpathElement
+     *            the classpath element
+     * @return the cache file
+     */
+    private Path getCacheFile(final ClasspathElement classpathElement) {
+        final MessageDigest digest = newDigest();
+        update(digest, scanSpecFingerprint);
+        update(digest, classpathElement.toString());
+        return cacheDir.resolve("classgraph-" + toHex(digest.digest()) + CACHE_FILE_EXTENSION);
+    }
+
+    /**
+     * Get the key that a cache entry must match to be used for a classpath element, consisting of the path, size
+     * and last modified time of the classpath element's jarfile or module file. Directories are keyed by path only,
+     * since the classfiles within them are keyed by their own size and last modified time.
+     *
+     * @param classpathElement
+     *            the classpath element
+     * @return the key, or null if the classpath element is not backed by a file (e.g. a system module), since
+     *         changes to it cannot be detected.
+     */
+    private static String getClasspathElementKey(final ClasspathElement classpathElement) {
+        if (classpathElement instanceof ClasspathElementDir) {
+            return classpathElement.toString();
+        }
+        final File file = classpathElement.getFile();
+        final Long lastModified = file == null ? null : classpathElement.fileToLastModified.get(file);
+        if (lastModified == null) {
+            return null;
+        }
+        return classpathElement + "\n" + file.getPath() + "\n" + file.length() + "\n" + lastModified;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Load the parsed contents of classfiles from the cache entries of any unchanged classpath elements. Cache
+     * entries that cannot be read are logged and otherwise ignored, since the cache is only an optimization.
+     *
+     * @param log
+     *            the log
+     * @return the {@link Classfile} objects that were loaded, keyed in the same way as the reusable
+     *         {@link Classfile} objects of an incremental rescan.
+     */
+    Map<String, Classfile> load(final LogNode log) {
+        final Map<String, Classfile> cachedClassfiles = new HashMap<>();
+        for (final ClasspathElement classpathElement : classpathOrder) {
+            final String classpathElementKey = getClasspathElementKey(classpathElement);
+            if (classpathElementKey == null) {
+                continue;
+            }
+            final Path cacheFile = getCacheFile(classpathElement);
+            if (!Files.isRegularFile(cacheFile)) {
+                if (log != null) {
+                    log.log("No scan cache entry found for " + classpathElement);
+                }
+                continue;
+            }
+            final Map<String, Classfile> entryClassfiles = new HashMap<>();
+            try (InputStream inputStream = Files.newInputStream(cacheFile)) {
+                final BinaryReader in = new BinaryReader(inputStream);
+                if (!classpathElementKey.equals(in.readString())) {
+                    if (log != null) {
+                        log.log("Classpath element has changed since scan cache entry was written, ignoring: "
+                                + classpathElement);
+                    }
+                    continue;
+                }
+                final int numClassfiles = in.readCount();
+                for (int i = 0; i < numClassfiles; i++) {
+                    final String key = in.readString();
+                    if (key == null) {
+                        throw new IOException("Classfile has no key");
+                    }
+                    entryClassfiles.put(key, new Classfile(in));
+                }
+            } catch (final IOException | IllegalArgumentException | SecurityException e) {
+                if (log != null) {
+                    log.log("Could not read scan cache entry " + cacheFile + " : " + e);
+                }
+                continue;
+            }
+            cachedClassfiles.putAll(entryClassfiles);
+            classpathElementToLoadedKeys.put(classpathElement, entryClassfiles.keySet());
+            if (log != null) {
+                log.log("Loaded " + entryClassfiles.size() + " classfiles for " + classpathElement
+                        + " from scan cache entry " + cacheFile);
+            }
+        }
+        return cachedClassfiles;
+    }
+
+    /**
+     * Write the parsed contents of classfiles to the cache entries of the classpath elements they were read from.
+     * Entries are only written for classpath elements whose classfiles differ from those loaded from the cache.
+     *
+     * @param classfiles
+     *            the {@link Classfile} objects of the scan, keyed in the same way as the reusable {@link Classfile}
+     *            objects of an incremental rescan
+     * @param log
+     *            the log
+     */
+    void save(final Map<String, Classfile> classfiles, final LogNode log) {
+        final Map<ClasspathElement, Map<String, Classfile>> classpathElementToClassfiles = new HashMap<>();
+        for (final Entry<String, Classfile> ent : classfiles.entrySet()) {
+            final Classfile classfile = ent.getValue();
+            if (classfile.isCacheable()) {
+                Map<String, Classfile> elementClassfiles = classpathElementToClassfiles
+                        .get(classfile.getClasspathElement());
+                if (elementClassfiles == null) {
+                    elementClassfiles = new HashMap<>();
+                    classpathElementToClassfiles.put(classfile.getClasspathElement(), elementClassfiles);
+                }
+                elementClassfiles.put(ent.getKey(), classfile);
+            }
+        }
+        for (final ClasspathElement classpathElement : classpathOrder) {
+            final String classpathElementKey = getClasspathElementKey(classpathElement);
+            final Map<String, Classfile> elementClassfiles = classpathElementToClassfiles.get(classpathElement);
+            if (classpathElementKey != null && elementClassfiles != null
+                    && !elementClassfiles.keySet().equals(classpathElementToLoadedKeys.get(classpathElement))) {
+                final BinaryWriter out = new BinaryWriter();
+                out.writeString(classpathElementKey);
+                out.writeCount(elementClassfiles.size());
+                for (final Entry<String, Classfile> ent : elementClassfiles.entrySet()) {
+                    out.writeString(ent.getKey());
+                    ent.getValue().writeBinary(out);
+                }
+                writeCacheFile(getCacheFile(classpathElement), out, log);
+            }
+        }
+    }
+
+    /**
+     * Write a cache entry. Failures are logged and otherwise ignored, since the cache is only an optimization.
+     *
+     * @param cacheFile
+     *            the cache file
+     * @param out
+     *            the {@link BinaryWriter} holding the cache entry
+     * @param log
+     *            the log
+     */
+    private void writeCacheFile(final Path cacheFile, final BinaryWriter out, final LogNode log) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(cacheDir);
+            // Write to a temporary file then rename, so that concurrent scans never see a partial cache entry
+            tempFile = Files.createTempFile(cacheDir, "classgraph-", ".tmp");
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                out.writeTo(outputStream);
+            }
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+            if (log != null) {
+                log.log("Wrote scan cache entry " + cacheFile);
+            }
+        } catch (final IOException | SecurityException e) {
+            if (log != null) {
+                log.log("Could not write scan cache entry " + cacheFile + " : " + e);
+            }
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (final IOException | SecurityException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+}
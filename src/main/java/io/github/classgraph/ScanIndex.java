@@ -0,0 +1,314 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import nonapi.io.github.classgraph.json.JSONSerializer;
+import nonapi.io.github.classgraph.scanspec.ScanSpec;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
+import nonapi.io.github.classgraph.utils.JarUtils;
+import nonapi.io.github.classgraph.utils.LogNode;
+import nonapi.io.github.classgraph.utils.VersionFinder;
+
+/**
+ * A build-time scan index, written by {@link ScanResult#writeScanIndex(Path)} and used at runtime if
+ * {@link ClassGraph#enableScanIndex()} is called.
+ * 
+ * <p>
+ * The index consists of a key identifying the ClassGraph version and the parts of the {@link ScanSpec} that
+ * determine which classfiles are scanned and what is read from them, followed by the scan result in the binary
+ * format written by {@link ScanResult#writeTo(OutputStream)}. The key is checked before the rest of the index is
+ * read, so a non-matching index costs only a few bytes of I/O.
+ */
+final class ScanIndex {
+    /** The path of the scan index, relative to the package root of a classpath element. */
+    static final String SCAN_INDEX_PATH = "META-INF/classgraph/index.bin";
+
+    /**
+     * Constructor.
+     */
+    private ScanIndex() {
+        // Cannot be constructed
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the key that an index must match to be used by a scan with the given scan spec. Classpath-related
+     * settings are excluded, since the classpath at build time differs from the classpath at runtime.
+     *
+     * @param scanSpec
+     *            the scan spec
+     * @return the key
+     */
+    private static String indexKey(final ScanSpec scanSpec) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(ScanResult.CURRENT_SERIALIZATION_FORMAT).append('\n');
+        buf.append(VersionFinder.getVersion()).append('\n');
+        for (final Object acceptReject : new Object[] { scanSpec.packageAcceptReject,
+                scanSpec.packagePrefixAcceptReject, scanSpec.pathAcceptReject, scanSpec.pathPrefixAcceptReject,
+                scanSpec.classAcceptReject, scanSpec.classfilePathAcceptReject, scanSpec.classPackageAcceptReject,
+                scanSpec.classPackagePathAcceptReject }) {
+            buf.append(JSONSerializer.serializeObject(acceptReject)).append('\n');
+        }
+        for (final boolean flag : new boolean[] { scanSpec.enableClassInfo, scanSpec.enableFieldInfo,
+                scanSpec.enableMethodInfo, scanSpec.enableAnnotationInfo,
+                scanSpec.enableStaticFinalFieldConstantInitializerValues, scanSpec.enableInterClassDependencies,
+                scanSpec.enableExternalClasses, scanSpec.ignoreClassVisibility, scanSpec.ignoreFieldVisibility,
+                scanSpec.ignoreMethodVisibility, scanSpec.disableRuntimeInvisibleAnnotations,
+                scanSpec.extendScanningUpwardsToExternalClasses, scanSpec.enableMultiReleaseVersions }) {
+            buf.append(flag ? '1' : '0');
+        }
+        return buf.toString();
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write a scan index for a scan result.
+     *
+     * @param scanResult
+     *            the scan result
+     * @param outputStream
+     *            the output stream to write the index to (flushed, but not closed)
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    static void write(final ScanResult scanResult, final OutputStream outputStream) throws IOException {
+        final ScanResult.SerializationFormat serializationFormat = scanResult.getSerializationFormat();
+        final DataOutputStream out = new DataOutputStream(outputStream);
+        final byte[] keyBytes = indexKey(serializationFormat.scanSpec).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(keyBytes.length);
+        out.write(keyBytes);
+        out.flush();
+        final BinaryWriter binaryWriter = new BinaryWriter();
+        serializationFormat.writeBinary(binaryWriter);
+        binaryWriter.writeTo(outputStream);
+    }
+
+    /**
+     * Write a scan index for a scan result into a directory, at {@link #SCAN_INDEX_PATH}.
+     *
+     * @param scanResult
+     *            the scan result
+     * @param dir
+     *            the directory
+     * @return the path of the index file
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    static Path write(final ScanResult scanResult, final Path dir) throws IOException {
+        final Path indexFile = dir.resolve(SCAN_INDEX_PATH);
+        Files.createDirectories(indexFile.getParent());
+        try (OutputStream outputStream = Files.newOutputStream(indexFile)) {
+            write(scanResult, outputStream);
+        }
+        return indexFile;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Try loading the result of classfile scanning and linking from a build-time scan index.
+     *
+     * @param scanSpec
+     *            the scan spec
+     * @param classpathOrder
+     *            the final classpath element order, after classfile masking has been applied
+     * @param classNameToClassInfo
+     *            the map from class name to {@link ClassInfo}, to populate
+     * @param packageNameToPackageInfo
+     *            the map from package name to {@link PackageInfo}, to populate
+     * @param moduleNameToModuleInfo
+     *            the map from module name to {@link ModuleInfo}, to populate
+     * @param log
+     *            the log
+     * @return true if a matching scan index was found, and the maps were populated.
+     */
+    static boolean load(final ScanSpec scanSpec, final List<ClasspathElement> classpathOrder,
+            final Map<String, ClassInfo> classNameToClassInfo,
+            final Map<String, PackageInfo> packageNameToPackageInfo,
+            final Map<String, ModuleInfo> moduleNameToModuleInfo, final LogNode log) {
+        // All accepted classfiles must be in a single jarfile that contains an index
+        ClasspathElementZip indexedClasspathElement = null;
+        for (final ClasspathElement classpathElement : classpathOrder) {
+            if (!classpathElement.acceptedClassfileResources.isEmpty()) {
+                if (indexedClasspathElement != null || !(classpathElement instanceof ClasspathElementZip)
+                        || ((ClasspathElementZip) classpathElement).scanIndexResource == null) {
+                    if (log != null) {
+                        log.log("Accepted classfiles were found outside a single jarfile with a scan index: "
+                                + classpathElement);
+                    }
+                    return false;
+                }
+                indexedClasspathElement = (ClasspathElementZip) classpathElement;
+            }
+        }
+        if (indexedClasspathElement == null) {
+            if (log != null) {
+                log.log("No accepted classfiles found");
+            }
+            return false;
+        }
+
+        final Resource indexResource = indexedClasspathElement.scanIndexResource;
+        final ScanResult.SerializationFormat deserialized;
+        try (Resource resource = indexResource; InputStream inputStream = resource.open()) {
+            // Check the key before reading the rest of the index
+            final DataInputStream in = new DataInputStream(inputStream);
+            final int keyLen = in.readInt();
+            if (keyLen < 0 || keyLen > resource.getLength()) {
+                throw new IOException("Invalid key length");
+            }
+            final byte[] keyBytes = new byte[keyLen];
+            in.readFully(keyBytes);
+            if (!new String(keyBytes, StandardCharsets.UTF_8).equals(indexKey(scanSpec))) {
+                if (log != null) {
+                    log.log("Scan index was written by a different version of ClassGraph, or with a different "
+                            + "scan spec, ignoring: " + indexResource);
+                }
+                return false;
+            }
+            deserialized = ScanResult.SerializationFormat.readBinary(new BinaryReader(inputStream));
+        } catch (final IOException | IllegalArgumentException e) {
+            if (log != null) {
+                log.log("Could not read scan index " + indexResource + " : " + e);
+            }
+            return false;
+        }
+        if (deserialized == null || !ScanResult.CURRENT_SERIALIZATION_FORMAT.equals(deserialized.format)) {
+            if (log != null) {
+                log.log("Scan index is in the wrong format, ignoring: " + indexResource);
+            }
+            return false;
+        }
+
+        // Check that the index lists exactly the accepted classfiles that were found, to catch stale indexes
+        final Set<String> indexedClassfilePaths = new HashSet<>();
+        if (deserialized.classInfo != null) {
+            for (final ClassInfo classInfo : deserialized.classInfo) {
+                if (classInfo.isScannedClass && !classInfo.isExternalClass) {
+                    indexedClassfilePaths.add(JarUtils.classNameToClassfilePath(classInfo.getName()));
+                }
+            }
+        }
+        final Set<String> acceptedClassfilePaths = new HashSet<>();
+        for (final Resource resource : indexedClasspathElement.acceptedClassfileResources) {
+            final String path = resource.getPath();
+            if (!path.equals("module-info.class") && !path.endsWith("package-info.class")) {
+                acceptedClassfilePaths.add(path);
+            }
+        }
+        if (!indexedClassfilePaths.equals(acceptedClassfilePaths)) {
+            if (log != null) {
+                log.log("Scan index does not match the classfiles in " + indexedClasspathElement
+                        + ", ignoring: " + indexResource);
+            }
+            return false;
+        }
+
+        addToMaps(deserialized, classpathOrder, classNameToClassInfo, packageNameToPackageInfo,
+                moduleNameToModuleInfo);
+        if (log != null) {
+            log.log("Loaded " + classNameToClassInfo.size() + " classes from scan index " + indexResource);
+        }
+        return true;
+    }
+
+    /**
+     * Add the deserialized {@link ClassInfo}, {@link PackageInfo} and {@link ModuleInfo} objects to the maps of the
+     * current scan, reattaching each scanned class to the classfile {@link Resource} and {@link ClasspathElement}
+     * it was found in.
+     *
+     * @param deserialized
+     *            the deserialized scan result
+     * @param classpathOrder
+     *            the final classpath element order, after classfile masking has been applied
+     * @param classNameToClassInfo
+     *            the map from class name to {@link ClassInfo}, to populate
+     * @param packageNameToPackageInfo
+     *            the map from package name to {@link PackageInfo}, to populate
+     * @param moduleNameToModuleInfo
+     *            the map from module name to {@link ModuleInfo}, to populate
+     */
+    private static void addToMaps(final ScanResult.SerializationFormat deserialized,
+            final List<ClasspathElement> classpathOrder, final Map<String, ClassInfo> classNameToClassInfo,
+            final Map<String, PackageInfo> packageNameToPackageInfo,
+            final Map<String, ModuleInfo> moduleNameToModuleInfo) {
+        // Find the classfile resource and classpath element for each accepted class
+        final Map<String, Resource> classfilePathToResource = new HashMap<>();
+        final Map<String, ClasspathElement> classfilePathToClasspathElement = new HashMap<>();
+        for (final ClasspathElement classpathElement : classpathOrder) {
+            for (final Resource resource : classpathElement.acceptedClassfileResources) {
+                classfilePathToResource.put(resource.getPath(), resource);
+                classfilePathToClasspathElement.put(resource.getPath(), classpathElement);
+            }
+        }
+
+        if (deserialized.classInfo != null) {
+            for (final ClassInfo classInfo : deserialized.classInfo) {
+                if (classInfo.isScannedClass) {
+                    // Reattach the scanned class to its classfile resource and classpath element
+                    final String classfilePath = JarUtils.classNameToClassfilePath(classInfo.getName());
+                    final ClasspathElement classpathElement = classfilePathToClasspathElement.get(classfilePath);
+                    if (classpathElement != null) {
+                        classInfo.classfileResource = classfilePathToResource.get(classfilePath);
+                        classInfo.classpathElement = classpathElement;
+                        classInfo.classLoader = classpathElement.getClassLoader();
+                    }
+                }
+                classNameToClassInfo.put(classInfo.getName(), classInfo);
+            }
+        }
+        if (deserialized.packageInfo != null) {
+            for (final PackageInfo packageInfo : deserialized.packageInfo) {
+                packageNameToPackageInfo.put(packageInfo.getName(), packageInfo);
+            }
+        }
+        if (deserialized.moduleInfo != null) {
+            for (final ModuleInfo moduleInfo : deserialized.moduleInfo) {
+                moduleNameToModuleInfo.put(moduleInfo.getName(), moduleInfo);
+            }
+        }
+    }
+}
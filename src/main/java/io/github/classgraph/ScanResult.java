@@ -30,17 +30,23 @@ package io.github.classgraph;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -60,6 +66,8 @@ import nonapi.io.github.classgraph.reflection.ReflectionUtils;
 import nonapi.io.github.classgraph.scanspec.AcceptReject;
 import nonapi.io.github.classgraph.scanspec.ScanSpec;
 import nonapi.io.github.classgraph.utils.Assert;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.CollectionUtils;
 import nonapi.io.github.classgraph.utils.FileUtils;
 import nonapi.io.github.classgraph.utils.JarUtils;
@@ -94,6 +102,12 @@ public final class ScanResult implements Closeable {
     /** The map from class name to {@link ClassInfo}. */
     Map<String, ClassInfo> classNameToClassInfo;
 
+    /**
+     * The index of the class hierarchy, if {@link ClassGraph#enableClassHierarchyIndex()} was called, otherwise
+     * null.
+     */
+    ClassHierarchyIndex classHierarchyIndex;
+
     /** The map from package name to {@link PackageInfo}. */
     private Map<String, PackageInfo> packageNameToPackageInfo;
 
@@ -108,10 +122,23 @@ public final class ScanResult implements Closeable {
     private Map<File, Long> fileToLastModified;
 
     /**
-     * If true, this {@link ScanResult} was produced by {@link ScanResult#fromJSON(String)}.
+     * If true, this {@link ScanResult} was produced by {@link ScanResult#fromJSON(String)} or
+     * {@link ScanResult#readFrom(InputStream)}.
      */
     private boolean isObtainedFromDeserialization;
 
+    /**
+     * The parsed {@link Classfile} objects, retained for {@link #rescan()} if
+     * {@link ClassGraph#enableIncrementalRescan()} was called, otherwise null.
+     */
+    Map<String, Classfile> reusableClassfiles;
+
+    /** The number of parallel tasks the scan was performed with, reused by {@link #rescan()}. */
+    int numParallelTasks;
+
+    /** The counters and timings for the scan, or null if this ScanResult was deserialized. */
+    ScanStatistics scanStatistics;
+
     /** A custom ClassLoader that can load classes found during the scan. */
     private ClassGraphClassLoader classGraphClassLoader;
 
@@ -124,8 +151,11 @@ public final class ScanResult implements Closeable {
     /** The scan spec. */
     ScanSpec scanSpec;
 
-    /** If true, this ScanResult has already been closed. */
-    private final AtomicBoolean closed = new AtomicBoolean(false);
+    /**
+     * If true, this ScanResult has already been closed. (Shared with the ScanResult of a streaming scan, for the
+     * ScanResult of each class passed to {@link ClassGraph.ClassInfoProcessor}.)
+     */
+    private final AtomicBoolean closed;
 
     protected ReflectionUtils reflectionUtils;
 
@@ -150,12 +180,12 @@ public final class ScanResult implements Closeable {
     // -------------------------------------------------------------------------------------------------------------
 
     /** The current serialization format. */
-    private static final String CURRENT_SERIALIZATION_FORMAT = "10";
+    static final String CURRENT_SERIALIZATION_FORMAT = "10";
 
     /**
      * A class to hold a serialized ScanResult along with the ScanSpec that was used to scan.
      */
-    private static class SerializationFormat {
+    static class SerializationFormat {
         /** The serialization format. */
         public String format;
 
@@ -208,6 +238,107 @@ public final class ScanResult implements Closeable {
             this.packageInfo = packageInfo;
             this.moduleInfo = moduleInfo;
         }
+
+        /**
+         * Write this serialization format in the binary serialization format. All {@link ClassInfo},
+         * {@link PackageInfo} and {@link ModuleInfo} objects are registered up front, along with the class and
+         * package names, so that references between them can be written as indices.
+         *
+         * @param out
+         *            the {@link BinaryWriter}
+         */
+        void writeBinary(final BinaryWriter out) {
+            out.writeString(format);
+            scanSpec.writeBinary(out);
+            out.writeStrings(classpath);
+            out.writeCount(classInfo.size());
+            for (final ClassInfo ci : classInfo) {
+                out.writeBoolean(ci instanceof ArrayClassInfo);
+                out.writeString(ci.name);
+                out.registerObject(ci);
+            }
+            out.writeCount(packageInfo.size());
+            for (final PackageInfo pi : packageInfo) {
+                out.writeString(pi.getName());
+                out.registerObject(pi);
+            }
+            out.writeCount(moduleInfo.size());
+            for (final ModuleInfo mi : moduleInfo) {
+                out.registerObject(mi);
+            }
+            for (final ClassInfo ci : classInfo) {
+                ci.writeBinary(out);
+            }
+            for (final PackageInfo pi : packageInfo) {
+                pi.writeBinary(out);
+            }
+            for (final ModuleInfo mi : moduleInfo) {
+                mi.writeBinary(out);
+            }
+        }
+
+        /**
+         * Read a serialization format in the binary serialization format.
+         *
+         * @param in
+         *            the {@link BinaryReader}
+         * @return the serialization format
+         * @throws IOException
+         *             if the input is invalid
+         * @throws IllegalArgumentException
+         *             if the input was written by a different version of ClassGraph
+         */
+        static SerializationFormat readBinary(final BinaryReader in) throws IOException {
+            final String format = in.readString();
+            if (!CURRENT_SERIALIZATION_FORMAT.equals(format)) {
+                throw new IllegalArgumentException(
+                        "ScanResult was serialized in a different format from the format used by the current "
+                                + "version of ClassGraph -- please serialize and deserialize your ScanResult "
+                                + "using the same version of ClassGraph");
+            }
+            final ScanSpec scanSpec = ScanSpec.readBinary(in);
+            final String[] classpathArr = in.readStrings();
+            final List<String> classpath = classpathArr == null ? null
+                    : new ArrayList<>(Arrays.asList(classpathArr));
+            final int numClasses = in.readCount();
+            final List<ClassInfo> classInfo = new ArrayList<>(numClasses);
+            for (int i = 0; i < numClasses; i++) {
+                final ClassInfo ci = in.readBoolean() ? new ArrayClassInfo() : new ClassInfo();
+                ci.name = in.readString();
+                if (ci.name == null) {
+                    throw new IOException("Class has no name");
+                }
+                in.registerObject(ci);
+                classInfo.add(ci);
+            }
+            final int numPackages = in.readCount();
+            final List<PackageInfo> packageInfo = new ArrayList<>(numPackages);
+            for (int i = 0; i < numPackages; i++) {
+                final PackageInfo pi = new PackageInfo(in.readString());
+                if (pi.getName() == null) {
+                    throw new IOException("Package has no name");
+                }
+                in.registerObject(pi);
+                packageInfo.add(pi);
+            }
+            final int numModules = in.readCount();
+            final List<ModuleInfo> moduleInfo = new ArrayList<>(numModules);
+            for (int i = 0; i < numModules; i++) {
+                final ModuleInfo mi = new ModuleInfo();
+                in.registerObject(mi);
+                moduleInfo.add(mi);
+            }
+            for (final ClassInfo ci : classInfo) {
+                ci.readBinary(in);
+            }
+            for (final PackageInfo pi : packageInfo) {
+                pi.readBinary(in);
+            }
+            for (final ModuleInfo mi : moduleInfo) {
+                mi.readBinary(in);
+            }
+            return new SerializationFormat(format, scanSpec, classInfo, packageInfo, moduleInfo, classpath);
+        }
     }
 
     // -------------------------------------------------------------------------------------------------------------
@@ -267,6 +398,7 @@ public final class ScanResult implements Closeable {
             final Map<String, PackageInfo> packageNameToPackageInfo,
             final Map<String, ModuleInfo> moduleNameToModuleInfo, final Map<File, Long> fileToLastModified,
             final NestedJarHandler nestedJarHandler, final LogNode topLevelLog) {
+        this.closed = new AtomicBoolean(false);
         this.scanSpec = scanSpec;
         this.rawClasspathEltOrderStrs = rawClasspathEltOrderStrs;
         this.classpathOrder = classpathOrder;
@@ -310,6 +442,20 @@ public final class ScanResult implements Closeable {
                     classInfo.handleRepeatableAnnotations(allRepeatableAnnotationNames);
                 }
             }
+
+            // Index the class hierarchy, now that all classes have been linked
+            if (scanSpec.enableClassHierarchyIndex) {
+                classHierarchyIndex = ClassHierarchyIndex.build(classNameToClassInfo.values(), scanSpec);
+                if (classHierarchyIndex == null && topLevelLog != null) {
+                    topLevelLog.log("Superclasses do not form a tree -- not indexing class hierarchy");
+                }
+            }
+
+            // Freeze the relationships between classes into adjacency arrays
+            if (scanSpec.enableCompactClassGraph && !CompactClassGraph.freeze(classNameToClassInfo.values())
+                    && topLevelLog != null) {
+                topLevelLog.log("Classes are related to unknown classes -- not compacting class graph");
+            }
         }
 
         // Define a new ClassLoader that can load the classes found during the scan
@@ -320,6 +466,45 @@ public final class ScanResult implements Closeable {
         nonClosedWeakReferences.add(this.weakReference);
     }
 
+    /**
+     * The result of linking a single class in a streaming scan, so that the {@link ClassInfo} object passed to the
+     * {@link ClassGraph.ClassInfoProcessor} can be queried in the same way as the classes of a regular scan. Shares
+     * the classpath, class loader and closed status of the ScanResult of the streaming scan, but contains only the
+     * classes that were linked along with the streamed class (the streamed class, and placeholders for the classes
+     * it refers to).
+     *
+     * @param streamingScanResult
+     *            the ScanResult of the streaming scan
+     * @param classNameToClassInfo
+     *            a map from class name to class info, for the classes linked with the streamed class
+     * @param packageNameToPackageInfo
+     *            a map from package name to package info, for the package of the streamed class
+     * @param moduleNameToModuleInfo
+     *            a map from module name to module info, for the module of the streamed class
+     */
+    ScanResult(final ScanResult streamingScanResult, final Map<String, ClassInfo> classNameToClassInfo,
+            final Map<String, PackageInfo> packageNameToPackageInfo,
+            final Map<String, ModuleInfo> moduleNameToModuleInfo) {
+        this.closed = streamingScanResult.closed;
+        this.scanSpec = streamingScanResult.scanSpec;
+        this.rawClasspathEltOrderStrs = streamingScanResult.rawClasspathEltOrderStrs;
+        this.classpathOrder = streamingScanResult.classpathOrder;
+        this.classpathFinder = streamingScanResult.classpathFinder;
+        this.fileToLastModified = streamingScanResult.fileToLastModified;
+        this.classNameToClassInfo = classNameToClassInfo;
+        this.packageNameToPackageInfo = packageNameToPackageInfo;
+        this.moduleNameToModuleInfo = moduleNameToModuleInfo;
+        this.nestedJarHandler = streamingScanResult.nestedJarHandler;
+        this.reflectionUtils = streamingScanResult.reflectionUtils;
+        this.topLevelLog = streamingScanResult.topLevelLog;
+        this.classGraphClassLoader = streamingScanResult.classGraphClassLoader;
+
+        indexResourcesAndClassInfo(/* log = */ null);
+
+        // Resources are released when the ScanResult of the streaming scan is closed
+        this.weakReference = null;
+    }
+
     /**
      * Index {@link Resource} and {@link ClassInfo} objects.
      *
@@ -353,6 +538,12 @@ public final class ScanResult implements Closeable {
             }
         }
 
+        // Number the classes densely, so that set operations on ClassInfoList can use bitsets
+        int classInfoId = 0;
+        for (final ClassInfo classInfo : classNameToClassInfo.values()) {
+            classInfo.classInfoId = classInfoId++;
+        }
+
         if (scanSpec.enableClassInfo) {
           for (final PackageInfo pkgInfo : packageNameToPackageInfo.values()) {
               pkgInfo.setScanResult(this);
@@ -1300,6 +1491,50 @@ public final class ScanResult implements Closeable {
         return classInfo == null ? ClassInfoList.EMPTY_LIST : classInfo.getClassesWithAnnotation();
     }
 
+    /**
+     * Get classes with each of the named class annotations or meta-annotations. Equivalent to calling
+     * {@link #getClassesWithAnnotation(String)} for each annotation, but the meta-annotation relationships shared
+     * between the annotations are only traversed once, which is much faster for large numbers of annotations.
+     *
+     * @param annotationNames
+     *            The names of the class annotations or meta-annotations.
+     * @return A map from each annotation name to a list of all non-annotation classes that were found with the
+     *         named class annotation during the scan, or the empty list if none.
+     */
+    public Map<String, ClassInfoList> getClassesWithAnnotations(final Collection<String> annotationNames) {
+        if (closed.get()) {
+            throw new IllegalArgumentException("Cannot use a ScanResult after it has been closed");
+        }
+        if (!scanSpec.enableClassInfo || !scanSpec.enableAnnotationInfo) {
+            throw new IllegalArgumentException(
+                    "Please call ClassGraph#enableClassInfo() and #enableAnnotationInfo() before #scan()");
+        }
+        // Reuse the results of earlier queries, and only traverse the graph for the remaining annotations
+        final Map<String, ClassInfoList> annotationNameToClassesWithAnnotation = new LinkedHashMap<>();
+        final List<ClassInfo> annotations = new ArrayList<>(annotationNames.size());
+        for (final String annotationName : annotationNames) {
+            final ClassInfo classInfo = classNameToClassInfo.get(annotationName);
+            final ClassInfoList memoized = classInfo == null ? ClassInfoList.EMPTY_LIST
+                    : classInfo.getMemoizedClassesWithAnnotation();
+            if (memoized != null) {
+                annotationNameToClassesWithAnnotation.put(annotationName, memoized);
+            } else {
+                annotations.add(classInfo);
+                // Reserve the position of the annotation in the map
+                annotationNameToClassesWithAnnotation.put(annotationName, null);
+            }
+        }
+        if (!annotations.isEmpty()) {
+            final Map<ClassInfo, Set<ClassInfo>> annotationToClassesWithAnnotation = MetaAnnotationClosure
+                    .findClassesWithAnnotations(annotations);
+            for (final ClassInfo classInfo : annotations) {
+                annotationNameToClassesWithAnnotation.put(classInfo.getName(),
+                        classInfo.getClassesWithAnnotation(annotationToClassesWithAnnotation.get(classInfo)));
+            }
+        }
+        return annotationNameToClassesWithAnnotation;
+    }
+
     /**
      * Get classes with all of the named class annotations or meta-annotation.
      *
@@ -1310,8 +1545,8 @@ public final class ScanResult implements Closeable {
      */
     public ClassInfoList getClassesWithAllAnnotations(final String... annotationNames) {
         ClassInfoList foundClassInfo = null;
-        for (final String annotationName : annotationNames) {
-            final ClassInfoList classInfoList = getClassesWithAnnotation(annotationName);
+        for (final ClassInfoList classInfoList : getClassesWithAnnotations(Arrays.asList(annotationNames))
+                .values()) {
             if (foundClassInfo == null) {
                 foundClassInfo = classInfoList;
             } else {
@@ -1332,8 +1567,8 @@ public final class ScanResult implements Closeable {
      */
     public ClassInfoList getClassesWithAnyAnnotation(final String... annotationNames) {
         ClassInfoList foundClassInfo = null;
-        for (final String annotationName : annotationNames) {
-            final ClassInfoList classInfoList = getClassesWithAnnotation(annotationName);
+        for (final ClassInfoList classInfoList : getClassesWithAnnotations(Arrays.asList(annotationNames))
+                .values()) {
             if (foundClassInfo == null) {
                 foundClassInfo = classInfoList;
             } else {
@@ -1394,6 +1629,33 @@ public final class ScanResult implements Closeable {
         }
     }
 
+    /**
+     * Rescan the classpath with the same scan configuration, then close this {@link ScanResult}. If
+     * {@link ClassGraph#enableIncrementalRescan()} was called before the original scan, then only classfiles that
+     * have been added or modified since the previous scan are read (based on the last modified timestamp and size
+     * of each classfile, or of the jarfile containing it), and the parsed contents of unchanged classfiles are
+     * reused. All classes are re-linked, so the class graph of the returned {@link ScanResult} reflects any
+     * additions, modifications or deletions. Otherwise a full scan is performed.
+     * 
+     * <p>
+     * Since the returned {@link ScanResult} may share field, method and annotation info objects with this
+     * {@link ScanResult}, this {@link ScanResult} is closed, and info objects obtained from it should not be used
+     * after this call.
+     *
+     * @return a new {@link ScanResult} object representing the result of the rescan.
+     */
+    public ScanResult rescan() {
+        if (closed.get()) {
+            throw new IllegalArgumentException("Cannot use a ScanResult after it has been closed");
+        }
+        final ClassGraph classGraph = new ClassGraph();
+        classGraph.scanSpec = scanSpec;
+        final ScanResult scanResult = classGraph.scanIncremental(reusableClassfiles, numParallelTasks,
+                topLevelLog);
+        close();
+        return scanResult;
+    }
+
     /**
      * Find the maximum last-modified timestamp of any accepted file/directory/jarfile encountered during the scan.
      * Checks the current timestamps, so this should increase between calls if something changes in accepted paths.
@@ -1422,6 +1684,21 @@ public final class ScanResult implements Closeable {
         return maxLastModifiedTime;
     }
 
+    // -------------------------------------------------------------------------------------------------------------
+    // Scan statistics
+
+    /**
+     * Get the counters and timings for each phase of the scan that produced this {@link ScanResult}, and for each
+     * classpath element. Statistics are a snapshot taken at the end of the scan, so they may be read after this
+     * {@link ScanResult} has been closed.
+     *
+     * @return the {@link ScanStatistics} for the scan, or null if this {@link ScanResult} was obtained by
+     *         deserialization.
+     */
+    public ScanStatistics getScanStatistics() {
+        return scanStatistics;
+    }
+
     // -------------------------------------------------------------------------------------------------------------
     // Classloading
 
@@ -1568,6 +1845,32 @@ public final class ScanResult implements Closeable {
             // changed, etc.
             throw new IllegalArgumentException("JSON was serialized by newer version of ClassGraph");
         }
+        return fromSerializationFormat(deserialized);
+    }
+
+    /**
+     * Deserialize a ScanResult from the binary format written by {@link #writeTo(OutputStream)}. The binary format
+     * contains the same information as the JSON format, but is more compact and faster to read and write. Exactly
+     * one serialized {@link ScanResult} is read, so the stream is left positioned directly after it.
+     * 
+     * @param inputStream
+     *            The input stream to read the serialized {@link ScanResult} from. The stream is not closed.
+     * @return The deserialized {@link ScanResult}.
+     * @throws IOException
+     *             If an I/O exception occurs, or the input is not in the binary format.
+     */
+    public static ScanResult readFrom(final InputStream inputStream) throws IOException {
+        return fromSerializationFormat(SerializationFormat.readBinary(new BinaryReader(inputStream)));
+    }
+
+    /**
+     * Create a ScanResult from a deserialized {@link SerializationFormat}.
+     * 
+     * @param deserialized
+     *            The deserialized {@link SerializationFormat}.
+     * @return The deserialized {@link ScanResult}.
+     */
+    private static ScanResult fromSerializationFormat(final SerializationFormat deserialized) {
 
         // Perform a new "scan" with performScan set to false, which resolves all the
         // ClasspathElement objects
@@ -1620,6 +1923,49 @@ public final class ScanResult implements Closeable {
      * @return This {@link ScanResult}, serialized as a JSON string.
      */
     public String toJSON(final int indentWidth) {
+        return JSONSerializer.serializeObject(getSerializationFormat(), indentWidth, false);
+    }
+
+    /**
+     * Serialize a ScanResult to a compact binary format, which can be read back using
+     * {@link #readFrom(InputStream)}. The binary format contains the same information as the JSON format produced
+     * by {@link #toJSON()}, but is more compact and faster to read and write.
+     * 
+     * @param outputStream
+     *            The output stream to write the serialized {@link ScanResult} to. The stream is flushed, but not
+     *            closed.
+     * @throws IOException
+     *             If an I/O exception occurs.
+     */
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        final BinaryWriter out = new BinaryWriter();
+        getSerializationFormat().writeBinary(out);
+        out.writeTo(outputStream);
+    }
+
+    /**
+     * Write a build-time scan index for this ScanResult into a classes directory, at
+     * {@code META-INF/classgraph/index.bin}, so that it is packaged into the jar. At runtime, if
+     * {@link ClassGraph#enableScanIndex()} is called with the same accept/reject criteria and scanning options,
+     * the index is read in place of parsing the classfiles in the jar. Typically called from a build step, after
+     * scanning the classes directory using {@link ClassGraph#overrideClasspath(Object...)}.
+     * 
+     * @param classesDir
+     *            The classes directory to write the index into.
+     * @return The path of the index file.
+     * @throws IOException
+     *             If an I/O exception occurs.
+     */
+    public Path writeScanIndex(final Path classesDir) throws IOException {
+        return ScanIndex.write(this, classesDir);
+    }
+
+    /**
+     * Get the {@link SerializationFormat} for this ScanResult, for serialization.
+     * 
+     * @return The {@link SerializationFormat}.
+     */
+    SerializationFormat getSerializationFormat() {
         if (closed.get()) {
             throw new IllegalArgumentException("Cannot use a ScanResult after it has been closed");
         }
@@ -1632,8 +1978,8 @@ public final class ScanResult implements Closeable {
         CollectionUtils.sortIfNotEmpty(allPackageInfo);
         final List<ModuleInfo> allModuleInfo = new ArrayList<>(moduleNameToModuleInfo.values());
         CollectionUtils.sortIfNotEmpty(allModuleInfo);
-        return JSONSerializer.serializeObject(new SerializationFormat(CURRENT_SERIALIZATION_FORMAT, scanSpec,
-                allClassInfo, allPackageInfo, allModuleInfo, rawClasspathEltOrderStrs), indentWidth, false);
+        return new SerializationFormat(CURRENT_SERIALIZATION_FORMAT, scanSpec, allClassInfo, allPackageInfo,
+                allModuleInfo, rawClasspathEltOrderStrs);
     }
 
     /**
@@ -1646,8 +1992,8 @@ public final class ScanResult implements Closeable {
     }
 
     /**
-     * Checks if this {@link ScanResult} was obtained from JSON by deserialization, by calling
-     * {@link #fromJSON(String)}.
+     * Checks if this {@link ScanResult} was obtained by deserialization, by calling {@link #fromJSON(String)} or
+     * {@link #readFrom(InputStream)}.
      *
      * @return True if this {@link ScanResult} was obtained from JSON by deserialization.
      */
@@ -1703,6 +2049,7 @@ public final class ScanResult implements Closeable {
                 fileToLastModified.clear();
                 fileToLastModified = null;
             }
+            reusableClassfiles = null;
             // nestedJarHandler should be closed last, since it needs to have all
             // MappedByteBuffer refs
             // dropped before it tries to delete any temporary files that were written to
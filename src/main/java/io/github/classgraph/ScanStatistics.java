@@ -0,0 +1,339 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import nonapi.io.github.classgraph.concurrency.WorkQueue.WorkerStatistics;
+
+/**
+ * Counters and timings for each phase of a scan, and for each classpath element, obtained by calling
+ * {@link ScanResult#getScanStatistics()}. Unlike the log produced by {@link ClassGraph#verbose()}, statistics are
+ * always collected, and are intended to be exported to a metrics system.
+ */
+public final class ScanStatistics {
+    /** The time the scan started, from {@link System#nanoTime()}. */
+    private final long scanStartTime;
+
+    /** The total elapsed time of the scan, in nanoseconds. */
+    private long totalElapsedNanos;
+
+    /** The elapsed time of each phase, in nanoseconds, indexed by {@link Phase#ordinal()}. */
+    private final long[] phaseElapsedNanos = new long[Phase.values().length];
+
+    /** The worker statistics for each phase, indexed by {@link Phase#ordinal()}. */
+    private final WorkerStatistics[] phaseWorkerStatistics = new WorkerStatistics[Phase.values().length];
+
+    /** The statistics for each classpath element, in classpath order. */
+    private List<ClasspathElementStatistics> classpathElementStatistics = Collections.emptyList();
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /** A phase of the scan. */
+    public enum Phase {
+        /**
+         * Finding the classpath and module path, by querying classloaders and the module system, and opening
+         * modules.
+         */
+        FIND_CLASSPATH,
+
+        /** Opening classpath elements, including reading the central directory of jarfiles. */
+        OPEN_CLASSPATH_ELEMENTS,
+
+        /** Scanning paths within classpath elements, and matching them against the accept and reject criteria. */
+        SCAN_PATHS,
+
+        /** Masking classfiles that are shadowed by an earlier definition of the same class. */
+        MASK_CLASSFILES,
+
+        /** Reading and parsing classfiles. */
+        PARSE_CLASSFILES,
+
+        /** Linking parsed classfiles to produce {@link ClassInfo} objects. */
+        LINK_CLASSFILES;
+    }
+
+    /** Statistics for a single classpath element. */
+    public static final class ClasspathElementStatistics {
+        /** The URI of the classpath element. */
+        private final String uri;
+
+        /** The number of accepted resources found in the classpath element. */
+        private final int numResources;
+
+        /** The time spent scanning paths within the classpath element, in nanoseconds. */
+        private final long scanPathsNanos;
+
+        /** The number of classfiles parsed from the classpath element. */
+        private final int numClassfilesParsed;
+
+        /** The number of classfile bytes read from the classpath element. */
+        private final long numClassfileBytesRead;
+
+        /** The time spent reading and inflating classfiles from the classpath element, in nanoseconds. */
+        private final long classfileReadNanos;
+
+        /**
+         * Constructor.
+         *
+         * @param classpathElement
+         *            the classpath element
+         */
+        ClasspathElementStatistics(final ClasspathElement classpathElement) {
+            String uriStr;
+            try {
+                uriStr = classpathElement.getURI().toString();
+            } catch (final IllegalArgumentException e) {
+                uriStr = classpathElement.toString();
+            }
+            this.uri = uriStr;
+            this.numResources = classpathElement.acceptedResources.size();
+            this.scanPathsNanos = classpathElement.scanPathsNanos;
+            this.numClassfilesParsed = classpathElement.numClassfilesParsed.get();
+            this.numClassfileBytesRead = classpathElement.numClassfileBytesRead.get();
+            this.classfileReadNanos = classpathElement.classfileReadNanos.get();
+        }
+
+        /**
+         * Get the URI of the classpath element.
+         *
+         * @return the URI of the classpath element, as a string.
+         */
+        public String getURI() {
+            return uri;
+        }
+
+        /**
+         * Get the number of accepted resources found in the classpath element.
+         *
+         * @return the number of accepted resources (including classfiles) found in the classpath element.
+         */
+        public int getNumResources() {
+            return numResources;
+        }
+
+        /**
+         * Get the time spent scanning paths within the classpath element.
+         *
+         * @return the time spent scanning paths within the classpath element, in nanoseconds.
+         */
+        public long getScanPathsNanos() {
+            return scanPathsNanos;
+        }
+
+        /**
+         * Get the number of classfiles parsed from the classpath element.
+         *
+         * @return the number of classfiles successfully parsed from the classpath element.
+         */
+        public int getNumClassfilesParsed() {
+            return numClassfilesParsed;
+        }
+
+        /**
+         * Get the number of classfile bytes read from the classpath element.
+         *
+         * @return the number of bytes read (after inflation) from the classfiles that were successfully parsed.
+         */
+        public long getNumClassfileBytesRead() {
+            return numClassfileBytesRead;
+        }
+
+        /**
+         * Get the time spent reading classfiles from the classpath element. For jarfiles, this includes the time
+         * spent inflating deflated entries.
+         *
+         * @return the time spent reading and inflating classfiles, in nanoseconds.
+         */
+        public long getClassfileReadNanos() {
+            return classfileReadNanos;
+        }
+
+        /* (non-Javadoc)
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return uri + ": " + numResources + " resources, " + numClassfilesParsed + " classfiles parsed, "
+                    + numClassfileBytesRead + " bytes read, " + String.format("%.3f", scanPathsNanos * 1.0e-6)
+                    + " ms scanning paths, " + String.format("%.3f", classfileReadNanos * 1.0e-6)
+                    + " ms reading classfiles";
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /** Constructor. Records the start time of the scan. */
+    ScanStatistics() {
+        this.scanStartTime = System.nanoTime();
+        for (int i = 0; i < phaseWorkerStatistics.length; i++) {
+            phaseWorkerStatistics[i] = new WorkerStatistics();
+        }
+    }
+
+    /**
+     * Set the elapsed time of a phase.
+     *
+     * @param phase
+     *            the phase
+     * @param elapsedNanos
+     *            the elapsed time of the phase, in nanoseconds
+     */
+    void setElapsedNanos(final Phase phase, final long elapsedNanos) {
+        phaseElapsedNanos[phase.ordinal()] = elapsedNanos;
+    }
+
+    /**
+     * Get the {@link WorkerStatistics} to accumulate worker thread utilization into for a phase.
+     *
+     * @param phase
+     *            the phase
+     * @return the worker statistics for the phase
+     */
+    WorkerStatistics getWorkerStatistics(final Phase phase) {
+        return phaseWorkerStatistics[phase.ordinal()];
+    }
+
+    /**
+     * Record the statistics for each classpath element, and the total elapsed time of the scan.
+     *
+     * @param classpathOrder
+     *            the classpath elements, in classpath order
+     */
+    void finish(final List<ClasspathElement> classpathOrder) {
+        final List<ClasspathElementStatistics> statistics = new ArrayList<>(classpathOrder.size());
+        for (final ClasspathElement classpathElement : classpathOrder) {
+            statistics.add(new ClasspathElementStatistics(classpathElement));
+        }
+        classpathElementStatistics = Collections.unmodifiableList(statistics);
+        totalElapsedNanos = System.nanoTime() - scanStartTime;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the total elapsed time of the scan.
+     *
+     * @return the total elapsed time of the scan, in nanoseconds.
+     */
+    public long getTotalElapsedNanos() {
+        return totalElapsedNanos;
+    }
+
+    /**
+     * Get the elapsed time of a phase of the scan.
+     *
+     * @param phase
+     *            the phase
+     * @return the elapsed (wall clock) time of the phase, in nanoseconds, or 0 if the phase was skipped (e.g.
+     *         because classfile scanning was disabled, or because the results were loaded from a scan cache).
+     */
+    public long getElapsedNanos(final Phase phase) {
+        return phaseElapsedNanos[phase.ordinal()];
+    }
+
+    /**
+     * Get the total time spent by worker threads processing work units in a phase of the scan.
+     *
+     * @param phase
+     *            the phase
+     * @return the sum across all worker threads of the time spent processing work units in the phase, in
+     *         nanoseconds, or 0 if the phase was not run on worker threads.
+     */
+    public long getWorkerBusyNanos(final Phase phase) {
+        return phaseWorkerStatistics[phase.ordinal()].busyNanos.get();
+    }
+
+    /**
+     * Get the number of work units processed by worker threads in a phase of the scan.
+     *
+     * @param phase
+     *            the phase
+     * @return the number of work units processed by worker threads in the phase, or 0 if the phase was not run
+     *         on worker threads.
+     */
+    public long getNumWorkUnits(final Phase phase) {
+        return phaseWorkerStatistics[phase.ordinal()].numWorkUnitsProcessed.get();
+    }
+
+    /**
+     * Get the number of worker threads used in a phase of the scan.
+     *
+     * @param phase
+     *            the phase
+     * @return the number of worker threads used in the phase, or 0 if the phase was not run on worker threads.
+     */
+    public int getNumWorkerThreads(final Phase phase) {
+        return phaseWorkerStatistics[phase.ordinal()].maxNumWorkers.get();
+    }
+
+    /**
+     * Get the utilization of the worker threads in a phase of the scan.
+     *
+     * @param phase
+     *            the phase
+     * @return the fraction of the available worker thread time, between 0.0 and 1.0, that was spent processing
+     *         work units in the phase, or 0.0 if the phase was not run on worker threads.
+     */
+    public double getThreadUtilization(final Phase phase) {
+        final long available = phaseElapsedNanos[phase.ordinal()] * getNumWorkerThreads(phase);
+        return available == 0L ? 0.0 : Math.min(1.0, getWorkerBusyNanos(phase) / (double) available);
+    }
+
+    /**
+     * Get the statistics for each classpath element.
+     *
+     * @return the statistics for each classpath element that was scanned, in classpath order.
+     */
+    public List<ClasspathElementStatistics> getClasspathElementStatistics() {
+        return classpathElementStatistics;
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(String.format("Total time: %.3f ms", totalElapsedNanos * 1.0e-6));
+        for (final Phase phase : Phase.values()) {
+            buf.append(String.format("%n%s: %.3f ms", phase, getElapsedNanos(phase) * 1.0e-6));
+            if (getNumWorkUnits(phase) > 0) {
+                buf.append(String.format(" (%d work units, %d threads, %.0f%% utilization)", getNumWorkUnits(phase),
+                        getNumWorkerThreads(phase), getThreadUtilization(phase) * 100.0));
+            }
+        }
+        for (final ClasspathElementStatistics statistics : classpathElementStatistics) {
+            buf.append(String.format("%n")).append(statistics);
+        }
+        return buf.toString();
+    }
+}
@@ -58,10 +58,13 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 
+import io.github.classgraph.ClassGraph.ClassInfoProcessor;
 import io.github.classgraph.ClassGraph.FailureHandler;
+import io.github.classgraph.ClassGraph.ScanListener;
 import io.github.classgraph.ClassGraph.ScanResultProcessor;
 import io.github.classgraph.Classfile.ClassfileFormatException;
 import io.github.classgraph.Classfile.SkipClassException;
+import io.github.classgraph.ScanStatistics.Phase;
 import nonapi.io.github.classgraph.classpath.ClasspathFinder;
 import nonapi.io.github.classgraph.classpath.ClasspathOrder.ClasspathEntry;
 import nonapi.io.github.classgraph.classpath.ModuleFinder;
@@ -72,6 +75,8 @@ import nonapi.io.github.classgraph.concurrency.SingletonMap.NewInstanceFactory;
 import nonapi.io.github.classgraph.concurrency.WorkQueue;
 import nonapi.io.github.classgraph.concurrency.WorkQueue.WorkUnitProcessor;
 import nonapi.io.github.classgraph.fastzipfilereader.NestedJarHandler;
+import nonapi.io.github.classgraph.fileslice.reader.StringInternTable;
+import nonapi.io.github.classgraph.recycler.Recycler;
 import nonapi.io.github.classgraph.reflection.ReflectionUtils;
 import nonapi.io.github.classgraph.scanspec.ScanSpec;
 import nonapi.io.github.classgraph.utils.CollectionUtils;
@@ -116,6 +121,27 @@ class Scanner implements Callable<ScanResult> {
     /** The module order. */
     private final List<ClasspathElementModule> moduleOrder;
 
+    /** The scan statistics. */
+    private final ScanStatistics scanStatistics = new ScanStatistics();
+
+    /** The minimum number of classfiles for linking to be performed in parallel. */
+    private static final int MIN_CLASSFILES_FOR_PARALLEL_LINKING = 1024;
+
+    /** The number of partitions of classfiles to link per parallel task, to balance the load between workers. */
+    private static final int LINKING_PARTITIONS_PER_TASK = 4;
+
+    /**
+     * The reusable {@link Classfile} objects from a previous scan, keyed by {@link #reusableClassfileKey}, or null
+     * if this is not an incremental rescan.
+     */
+    Map<String, Classfile> previousClassfiles;
+
+    /**
+     * If non-null, each class is linked on its own as soon as it is scanned, and passed to this processor rather
+     * than being retained in the {@link ScanResult}.
+     */
+    ClassInfoProcessor classInfoProcessor;
+
     // -------------------------------------------------------------------------------------------------------------
 
     /**
@@ -167,6 +193,7 @@ class Scanner implements Callable<ScanResult> {
         this.topLevelLog = topLevelLog;
 
         final LogNode classpathFinderLog = topLevelLog == null ? null : topLevelLog.log("Finding classpath");
+        final long findClasspathStartTime = System.nanoTime();
         this.classpathFinder = new ClasspathFinder(scanSpec, reflectionUtils, classpathFinderLog);
 
         try {
@@ -235,6 +262,7 @@ class Scanner implements Callable<ScanResult> {
                     }
                 }
             }
+            phaseComplete(Phase.FIND_CLASSPATH, findClasspathStartTime);
         } catch (final InterruptedException e) {
             nestedJarHandler.close(/* log = */ null);
             throw e;
@@ -297,6 +325,25 @@ class Scanner implements Callable<ScanResult> {
 
     // -------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Record the elapsed time of a phase in the scan statistics, and notify any scan listeners that the phase is
+     * complete.
+     *
+     * @param phase
+     *            the phase
+     * @param startTime
+     *            the time the phase started, from {@link System#nanoTime()}
+     */
+    private void phaseComplete(final Phase phase, final long startTime) {
+        final long elapsedNanos = System.nanoTime() - startTime;
+        scanStatistics.setElapsedNanos(phase, elapsedNanos);
+        if (scanSpec.scanListeners != null) {
+            for (final ScanListener scanListener : scanSpec.scanListeners) {
+                scanListener.onPhaseComplete(phase, elapsedNanos);
+            }
+        }
+    }
+
     /**
      * Process work units.
      *
@@ -304,6 +351,8 @@ class Scanner implements Callable<ScanResult> {
      *            the work unit type
      * @param workUnits
      *            the work units
+     * @param phase
+     *            the scan phase, for accumulating worker thread utilization into the scan statistics
      * @param log
      *            the log entry text to group work units under
      * @param workUnitProcessor
@@ -313,10 +362,10 @@ class Scanner implements Callable<ScanResult> {
      * @throws ExecutionException
      *             If a worker threw an uncaught exception.
      */
-    private <W> void processWorkUnits(final Collection<W> workUnits, final LogNode log,
+    private <W> void processWorkUnits(final Collection<W> workUnits, final Phase phase, final LogNode log,
             final WorkUnitProcessor<W> workUnitProcessor) throws InterruptedException, ExecutionException {
         WorkQueue.runWorkQueue(workUnits, executorService, interruptionChecker, numParallelTasks, log,
-                workUnitProcessor);
+                scanSpec.enableWorkStealing, scanStatistics.getWorkerStatistics(phase), workUnitProcessor);
         if (log != null) {
             log.addElapsedTime();
         }
@@ -597,7 +646,15 @@ class Scanner implements Callable<ScanResult> {
                                     // jars as LogicalZipFile instances. Read manifest files for jarfiles to look
                                     // for Class-Path manifest entries. Adds extra classpath elements to the work
                                     // queue if they are found.
+                                    final long openStartTime = System.nanoTime();
                                     classpathElement.open(workQueue, subLog);
+                                    if (scanSpec.scanListeners != null) {
+                                        final long elapsedNanos = System.nanoTime() - openStartTime;
+                                        for (final ScanListener scanListener : scanSpec.scanListeners) {
+                                            scanListener.onClasspathElementOpened(classpathElement.toString(),
+                                                    elapsedNanos);
+                                        }
+                                    }
 
                                     if (workUnit.parentClasspathElement != null) {
                                         // Link classpath element to its parent, if it is not a toplevel element
@@ -653,6 +710,36 @@ class Scanner implements Callable<ScanResult> {
         }
     }
 
+    /**
+     * Get the key used to find a {@link Classfile} from a previous scan that can be reused by an incremental
+     * rescan. The key includes the last modified timestamp of the containing jarfile or module file (if any), and
+     * the last modified timestamp and length of the classfile resource itself, so that the key changes whenever the
+     * classfile may have changed.
+     *
+     * @param workUnit
+     *            the classfile scan work unit
+     * @return the key, or null if the classfile is in a classpath element that is not backed by a file (e.g. a
+     *         system module), since changes to the classfile cannot be detected.
+     */
+    private static String reusableClassfileKey(final ClassfileScanWorkUnit workUnit) {
+        final ClasspathElement classpathElement = workUnit.classpathElement;
+        final Long containerLastModified;
+        if (classpathElement instanceof ClasspathElementDir) {
+            // For directories, the timestamp of the individual classfile resource is sufficient
+            containerLastModified = null;
+        } else {
+            final File file = classpathElement.getFile();
+            containerLastModified = file == null ? null : classpathElement.fileToLastModified.get(file);
+            if (containerLastModified == null) {
+                // Can't tell whether the containing jar or module has changed
+                return null;
+            }
+        }
+        return classpathElement + "\n" + containerLastModified + "\n" + workUnit.classfileResource.getPath() + "\n"
+                + workUnit.classfileResource.getLastModified() + "\n" + workUnit.classfileResource.getLength()
+                + "\n" + workUnit.isExternalClass;
+    }
+
     /** WorkUnitProcessor for scanning classfiles. */
     private static class ClassfileScannerWorkUnitProcessor implements WorkUnitProcessor<ClassfileScanWorkUnit> {
         /** The scan spec. */
@@ -676,8 +763,32 @@ class Scanner implements Callable<ScanResult> {
         /** The valid {@link Classfile} objects created by scanning classfiles. */
         private final Queue<Classfile> scannedClassfiles;
 
-        /** The string intern map. */
-        private final ConcurrentHashMap<String, String> stringInternMap = new ConcurrentHashMap<>();
+        /** The string intern table. */
+        private final StringInternTable stringInternTable = new StringInternTable();
+
+        /** The recycler for constant pool scratch storage (at most one instance is in use per worker thread). */
+        private final Recycler<Classfile.ConstantPoolScratch, RuntimeException> constantPoolScratchRecycler = //
+                new Recycler<Classfile.ConstantPoolScratch, RuntimeException>() {
+                    @Override
+                    public Classfile.ConstantPoolScratch newInstance() {
+                        return new Classfile.ConstantPoolScratch();
+                    }
+                };
+
+        /** The reusable {@link Classfile} objects from a previous scan, or null if there was no previous scan. */
+        private final Map<String, Classfile> previousClassfiles;
+
+        /**
+         * The {@link Classfile} objects to retain for an incremental rescan, or null if
+         * {@link ScanSpec#enableIncrementalRescan} is false.
+         */
+        private final Map<String, Classfile> reusableClassfiles;
+
+        /** The processor to pass each class to as soon as it is scanned, or null. */
+        private final ClassInfoProcessor classInfoProcessor;
+
+        /** The {@link ScanResult} of the streaming scan, if classInfoProcessor is not null. */
+        private final ScanResult streamingScanResult;
 
         /**
          * Constructor.
@@ -691,14 +802,29 @@ class Scanner implements Callable<ScanResult> {
          *            elements.
          * @param scannedClassfiles
          *            the {@link Classfile} objects created by scanning classfiles
+         * @param previousClassfiles
+         *            the reusable {@link Classfile} objects from a previous scan, or null
+         * @param reusableClassfiles
+         *            the map to store {@link Classfile} objects in for a future incremental rescan, or null
+         * @param classInfoProcessor
+         *            the processor to pass each class to as soon as it is scanned, rather than adding the
+         *            {@link Classfile} to scannedClassfiles, or null
+         * @param streamingScanResult
+         *            the {@link ScanResult} of the streaming scan, if classInfoProcessor is not null
          */
         public ClassfileScannerWorkUnitProcessor(final ScanSpec scanSpec,
                 final List<ClasspathElement> classpathOrder, final Set<String> acceptedClassNamesFound,
-                final Queue<Classfile> scannedClassfiles) {
+                final Queue<Classfile> scannedClassfiles, final Map<String, Classfile> previousClassfiles,
+                final Map<String, Classfile> reusableClassfiles, final ClassInfoProcessor classInfoProcessor,
+                final ScanResult streamingScanResult) {
             this.scanSpec = scanSpec;
             this.classpathOrder = classpathOrder;
             this.acceptedClassNamesFound = acceptedClassNamesFound;
             this.scannedClassfiles = scannedClassfiles;
+            this.previousClassfiles = previousClassfiles;
+            this.reusableClassfiles = reusableClassfiles;
+            this.classInfoProcessor = classInfoProcessor;
+            this.streamingScanResult = streamingScanResult;
         }
 
         /**
@@ -728,15 +854,45 @@ class Scanner implements Callable<ScanResult> {
                     : workUnit.classfileResource.scanLog.log(workUnit.classfileResource.getPath(),
                             "Parsing classfile");
 
+            Classfile streamedClassfile = null;
+            final long parseStartTime = scanSpec.scanListeners == null ? 0L : System.nanoTime();
+            long parseNanos = -1L;
             try {
-                // Parse classfile binary format, creating a Classfile object
-                final Classfile classfile = new Classfile(workUnit.classpathElement, classpathOrder,
-                        acceptedClassNamesFound, classNamesScheduledForExtendedScanning,
-                        workUnit.classfileResource.getPath(), workUnit.classfileResource, workUnit.isExternalClass,
-                        stringInternMap, workQueue, scanSpec, subLog);
+                final String reusableClassfileKey = reusableClassfiles == null && previousClassfiles == null ? null
+                        : reusableClassfileKey(workUnit);
+                final Classfile previousClassfile = previousClassfiles == null || reusableClassfileKey == null
+                        ? null
+                        : previousClassfiles.get(reusableClassfileKey);
+                final Classfile classfile;
+                if (previousClassfile != null) {
+                    // Classfile is unchanged since the previous scan -- reuse the parsed contents
+                    classfile = new Classfile(previousClassfile, workUnit.classpathElement, classpathOrder,
+                            acceptedClassNamesFound, classNamesScheduledForExtendedScanning,
+                            workUnit.classfileResource, workUnit.isExternalClass, workQueue, scanSpec, subLog);
+                } else {
+                    // Parse classfile binary format, creating a Classfile object
+                    classfile = new Classfile(workUnit.classpathElement, classpathOrder, acceptedClassNamesFound,
+                            classNamesScheduledForExtendedScanning, workUnit.classfileResource.getPath(),
+                            workUnit.classfileResource, workUnit.isExternalClass, stringInternTable,
+                            constantPoolScratchRecycler, workQueue, scanSpec, subLog);
+                }
 
-                // Enqueue the classfile for linking
-                scannedClassfiles.add(classfile);
+                if (scanSpec.scanListeners != null) {
+                    parseNanos = System.nanoTime() - parseStartTime;
+                }
+
+                if (classInfoProcessor != null) {
+                    // Stream the classfile once parsing is complete, rather than retaining it for linking
+                    streamedClassfile = classfile;
+                } else {
+                    // Enqueue the classfile for linking
+                    scannedClassfiles.add(classfile);
+                }
+
+                // Retain the classfile for a future incremental rescan
+                if (reusableClassfiles != null && reusableClassfileKey != null) {
+                    reusableClassfiles.put(reusableClassfileKey, classfile);
+                }
 
                 if (subLog != null) {
                     subLog.addElapsedTime();
@@ -762,6 +918,47 @@ class Scanner implements Callable<ScanResult> {
                     subLog.addElapsedTime();
                 }
             }
+
+            // Call the listeners and processor outside the try block, so that exceptions they throw are not
+            // caught above
+            if (parseNanos >= 0L) {
+                for (final ScanListener scanListener : scanSpec.scanListeners) {
+                    scanListener.onClassfileParsed(workUnit.classfileResource.getPath(),
+                            workUnit.classfileResource.getLength(), parseNanos);
+                }
+            }
+            if (streamedClassfile != null) {
+                streamClassInfo(streamedClassfile);
+            }
+        }
+
+        /**
+         * Link a single classfile on its own, and pass the resulting {@link ClassInfo} to the processor. Related
+         * classes are placeholders, since other classes are not linked against it. The linked classes are given a
+         * {@link ScanResult} of their own, that shares the resources of the streaming scan. External classes,
+         * scanned only because scanning was extended upwards, are not passed to the processor unless
+         * {@link ScanSpec#enableExternalClasses} is true. Calls to the processor are serialized, so the processor
+         * does not need to be threadsafe.
+         *
+         * @param classfile
+         *            the classfile
+         */
+        private void streamClassInfo(final Classfile classfile) {
+            // (classNameToClassInfo is a ConcurrentHashMap because it can be modified by
+            // ArrayTypeSignature.getArrayClassInfo() after linking is complete)
+            final Map<String, ClassInfo> classNameToClassInfo = new ConcurrentHashMap<>();
+            final Map<String, PackageInfo> packageNameToPackageInfo = new HashMap<>();
+            final Map<String, ModuleInfo> moduleNameToModuleInfo = new HashMap<>();
+            final ClassInfo classInfo = classfile.link(classNameToClassInfo, packageNameToPackageInfo,
+                    moduleNameToModuleInfo);
+            if (classInfo != null && (!classInfo.isExternalClass() || scanSpec.enableExternalClasses)) {
+                // Set the ScanResult of the linked classes
+                new ScanResult(streamingScanResult, classNameToClassInfo, packageNameToPackageInfo,
+                        moduleNameToModuleInfo);
+                synchronized (classInfoProcessor) {
+                    classInfoProcessor.processClassInfo(classInfo);
+                }
+            }
         }
     }
 
@@ -930,8 +1127,10 @@ class Scanner implements Callable<ScanResult> {
         // Mask classfiles (remove any classfile resources that are shadowed by an earlier definition
         // of the same class)
         if (scanSpec.enableClassInfo) {
+            final long maskStartTime = System.nanoTime();
             maskClassfiles(finalClasspathEltOrder,
                     topLevelLog == null ? null : topLevelLog.log("Masking classfiles"));
+            phaseComplete(Phase.MASK_CLASSFILES, maskStartTime);
         }
 
         // Merge the file-to-timestamp maps across all classpath elements
@@ -946,7 +1145,36 @@ class Scanner implements Callable<ScanResult> {
         final Map<String, ClassInfo> classNameToClassInfo = new ConcurrentHashMap<>();
         final Map<String, PackageInfo> packageNameToPackageInfo = new HashMap<>();
         final Map<String, ModuleInfo> moduleNameToModuleInfo = new HashMap<>();
-        if (scanSpec.enableClassInfo) {
+        Map<String, Classfile> reusableClassfiles = null;
+        ScanCache scanCache = null;
+        Map<String, Classfile> cachedClassfiles = null;
+        boolean loadedFromScanIndex = false;
+        if (scanSpec.enableClassInfo && scanSpec.enableScanIndex && classInfoProcessor == null) {
+            // Try loading classfile scanning and linking results from a build-time scan index
+            final LogNode scanIndexLog = topLevelLog == null ? null : topLevelLog.log("Checking scan index");
+            loadedFromScanIndex = ScanIndex.load(scanSpec, finalClasspathEltOrder, classNameToClassInfo,
+                    packageNameToPackageInfo, moduleNameToModuleInfo, scanIndexLog);
+            if (scanIndexLog != null) {
+                scanIndexLog.addElapsedTime();
+            }
+        }
+        if (scanSpec.enableClassInfo && scanSpec.scanCacheDir != null && !loadedFromScanIndex
+                && classInfoProcessor == null) {
+            // Try loading the parsed contents of unchanged classfiles from the scan cache
+            final LogNode scanCacheLog = topLevelLog == null ? null : topLevelLog.log("Checking scan cache");
+            scanCache = new ScanCache(scanSpec, finalClasspathEltOrder);
+            cachedClassfiles = scanCache.load(scanCacheLog);
+            if (scanCacheLog != null) {
+                scanCacheLog.addElapsedTime();
+            }
+        }
+        // In a streaming scan, create the ScanResult (which contains no classes) before scanning classfiles, so
+        // that the classes passed to the processor can share its resources
+        final ScanResult streamingScanResult = classInfoProcessor == null ? null
+                : new ScanResult(scanSpec, finalClasspathEltOrder, finalClasspathEltOrderStrs, classpathFinder,
+                        classNameToClassInfo, packageNameToPackageInfo, moduleNameToModuleInfo,
+                        fileToLastModified, nestedJarHandler, topLevelLog);
+        if (scanSpec.enableClassInfo && !loadedFromScanIndex) {
             // Get accepted classfile order
             final List<ClassfileScanWorkUnit> classfileScanWorkItems = new ArrayList<>();
             final Set<String> acceptedClassNamesFound = new HashSet<>();
@@ -973,19 +1201,69 @@ class Scanner implements Callable<ScanResult> {
 
             // Scan classfiles in parallel
             final Queue<Classfile> scannedClassfiles = new ConcurrentLinkedQueue<>();
+            reusableClassfiles = (scanSpec.enableIncrementalRescan || scanCache != null)
+                    && classInfoProcessor == null ? new ConcurrentHashMap<String, Classfile>() : null;
+            // Classfiles from a previous scan take precedence over the scan cache, since they are the most recent
+            Map<String, Classfile> unchangedClassfiles = previousClassfiles;
+            if (cachedClassfiles != null && !cachedClassfiles.isEmpty()) {
+                unchangedClassfiles = cachedClassfiles;
+                if (previousClassfiles != null) {
+                    unchangedClassfiles.putAll(previousClassfiles);
+                }
+            }
             final ClassfileScannerWorkUnitProcessor classfileWorkUnitProcessor = //
                     new ClassfileScannerWorkUnitProcessor(scanSpec, finalClasspathEltOrder,
-                            Collections.unmodifiableSet(acceptedClassNamesFound), scannedClassfiles);
-            processWorkUnits(classfileScanWorkItems,
-                    topLevelLog == null ? null : topLevelLog.log("Scanning classfiles"),
-                    classfileWorkUnitProcessor);
+                            Collections.unmodifiableSet(acceptedClassNamesFound), scannedClassfiles,
+                            unchangedClassfiles, reusableClassfiles, classInfoProcessor, streamingScanResult);
+            final long parseStartTime = System.nanoTime();
+            boolean parsed = false;
+            try {
+                processWorkUnits(classfileScanWorkItems, Phase.PARSE_CLASSFILES,
+                        topLevelLog == null ? null : topLevelLog.log("Scanning classfiles"),
+                        classfileWorkUnitProcessor);
+                parsed = true;
+            } finally {
+                if (!parsed && streamingScanResult != null) {
+                    // The processor threw an exception, or the scan was interrupted -- the ScanResult of the
+                    // streaming scan will not be returned, so close it
+                    streamingScanResult.close();
+                }
+            }
+            phaseComplete(Phase.PARSE_CLASSFILES, parseStartTime);
 
-            // Link the Classfile objects to produce ClassInfo objects. This needs to be done from a single thread.
+            // Link the Classfile objects to produce ClassInfo objects. Classfile#link is threadsafe, since
+            // classNameToClassInfo is a ConcurrentHashMap, related classes are added to a ClassInfo object while
+            // holding its lock, and packages and modules are linked while holding a single shared lock.
             final LogNode linkLog = topLevelLog == null ? null : topLevelLog.log("Linking related classfiles");
-            while (!scannedClassfiles.isEmpty()) {
-                final Classfile c = scannedClassfiles.remove();
-                c.link(classNameToClassInfo, packageNameToPackageInfo, moduleNameToModuleInfo);
+            final long linkStartTime = System.nanoTime();
+            final List<Classfile> classfilesToLink = new ArrayList<>(scannedClassfiles);
+            scannedClassfiles.clear();
+            if (numParallelTasks <= 1 || classfilesToLink.size() < MIN_CLASSFILES_FOR_PARALLEL_LINKING) {
+                for (final Classfile c : classfilesToLink) {
+                    c.link(classNameToClassInfo, packageNameToPackageInfo, moduleNameToModuleInfo);
+                }
+            } else {
+                // Link partitions of classfiles in parallel
+                final int numPartitions = numParallelTasks * LINKING_PARTITIONS_PER_TASK;
+                final int partitionSize = (classfilesToLink.size() + numPartitions - 1) / numPartitions;
+                final List<List<Classfile>> partitions = new ArrayList<>(numPartitions);
+                for (int i = 0; i < classfilesToLink.size(); i += partitionSize) {
+                    partitions.add(
+                            classfilesToLink.subList(i, Math.min(i + partitionSize, classfilesToLink.size())));
+                }
+                processWorkUnits(partitions, Phase.LINK_CLASSFILES, /* log = */ null,
+                        new WorkUnitProcessor<List<Classfile>>() {
+                            @Override
+                            public void processWorkUnit(final List<Classfile> partition,
+                                    final WorkQueue<List<Classfile>> workQueue, final LogNode log) {
+                                for (final Classfile c : partition) {
+                                    c.link(classNameToClassInfo, packageNameToPackageInfo,
+                                            moduleNameToModuleInfo);
+                                }
+                            }
+                        });
             }
+            phaseComplete(Phase.LINK_CLASSFILES, linkStartTime);
 
             // Uncomment the following code to create placeholder external classes for any classes
             // referenced in type descriptors or type signatures, so that a ClassInfo object can be
@@ -1012,16 +1290,19 @@ class Scanner implements Callable<ScanResult> {
             if (linkLog != null) {
                 linkLog.addElapsedTime();
             }
-        } else {
+        } else if (!scanSpec.enableClassInfo) {
             if (topLevelLog != null) {
                 topLevelLog.log("Classfile scanning is disabled");
             }
         }
 
         // Return a new ScanResult
-        final ScanResult scanResult = new ScanResult(scanSpec, finalClasspathEltOrder, finalClasspathEltOrderStrs,
-                classpathFinder, classNameToClassInfo, packageNameToPackageInfo, moduleNameToModuleInfo,
-                fileToLastModified, nestedJarHandler, topLevelLog);
+        final ScanResult scanResult = streamingScanResult != null ? streamingScanResult
+                : new ScanResult(scanSpec, finalClasspathEltOrder, finalClasspathEltOrderStrs, classpathFinder,
+                        classNameToClassInfo, packageNameToPackageInfo, moduleNameToModuleInfo,
+                        fileToLastModified, nestedJarHandler, topLevelLog);
+        scanResult.reusableClassfiles = scanSpec.enableIncrementalRescan ? reusableClassfiles : null;
+        scanResult.numParallelTasks = numParallelTasks;
 
         // Set the ScanResult in each classpath element, so that the classpath elements can determine when the
         // ScanResult is closed
@@ -1029,6 +1310,11 @@ class Scanner implements Callable<ScanResult> {
             classpathElement.setScanResult(scanResult);
         }
 
+        // Write the parsed contents of any changed classfiles to the scan cache
+        if (scanCache != null && reusableClassfiles != null) {
+            scanCache.save(reusableClassfiles, topLevelLog == null ? null : topLevelLog.log("Writing scan cache"));
+        }
+
         return scanResult;
     }
 
@@ -1065,9 +1351,11 @@ class Scanner implements Callable<ScanResult> {
                 .newSetFromMap(new ConcurrentHashMap<ClasspathElement, Boolean>());
         final Set<ClasspathElement> toplevelClasspathElts = Collections
                 .newSetFromMap(new ConcurrentHashMap<ClasspathElement, Boolean>());
-        processWorkUnits(rawClasspathEntryWorkUnits,
+        final long openStartTime = System.nanoTime();
+        processWorkUnits(rawClasspathEntryWorkUnits, Phase.OPEN_CLASSPATH_ELEMENTS,
                 topLevelLog == null ? null : topLevelLog.log("Opening classpath elements"),
                 newClasspathEntryWorkUnitProcessor(allClasspathElts, toplevelClasspathElts));
+        phaseComplete(Phase.OPEN_CLASSPATH_ELEMENTS, openStartTime);
 
         // Determine total ordering of classpath elements, inserting jars referenced in manifest Class-Path
         // entries in-place into the ordering, if they haven't been listed earlier in the classpath already.
@@ -1104,7 +1392,8 @@ class Scanner implements Callable<ScanResult> {
         }
 
         // In parallel, scan paths within each classpath element, comparing them against accept/reject
-        processWorkUnits(finalClasspathEltOrder,
+        final long scanPathsStartTime = System.nanoTime();
+        processWorkUnits(finalClasspathEltOrder, Phase.SCAN_PATHS,
                 topLevelLog == null ? null : topLevelLog.log("Scanning classpath elements"),
                 new WorkUnitProcessor<ClasspathElement>() {
                     @Override
@@ -1112,9 +1401,12 @@ class Scanner implements Callable<ScanResult> {
                             final WorkQueue<ClasspathElement> workQueueIgnored, final LogNode pathScanLog)
                             throws InterruptedException {
                         // Scan the paths within the classpath element
+                        final long startTime = System.nanoTime();
                         classpathElement.scanPaths(pathScanLog);
+                        classpathElement.scanPathsNanos = System.nanoTime() - startTime;
                     }
                 });
+        phaseComplete(Phase.SCAN_PATHS, scanPathsStartTime);
 
         // Filter out classpath elements that do not contain required accepted paths.
         List<ClasspathElement> finalClasspathEltOrderFiltered = finalClasspathEltOrder;
@@ -1127,19 +1419,23 @@ class Scanner implements Callable<ScanResult> {
             }
         }
 
+        final ScanResult scanResult;
         if (performScan) {
             // Scan classpath / modules, producing a ScanResult.
-            return performScan(finalClasspathEltOrderFiltered, finalClasspathEltOrderStrs, classpathFinder);
+            scanResult = performScan(finalClasspathEltOrderFiltered, finalClasspathEltOrderStrs, classpathFinder);
         } else {
             // Only getting classpath -- return a placeholder ScanResult to hold classpath elements
             if (topLevelLog != null) {
                 topLevelLog.log("Only returning classpath elements (not performing a scan)");
             }
-            return new ScanResult(scanSpec, finalClasspathEltOrderFiltered, finalClasspathEltOrderStrs,
+            scanResult = new ScanResult(scanSpec, finalClasspathEltOrderFiltered, finalClasspathEltOrderStrs,
                     classpathFinder, /* classNameToClassInfo = */ null, /* packageNameToPackageInfo = */ null,
                     /* moduleNameToModuleInfo = */ null, /* fileToLastModified = */ null, nestedJarHandler,
                     topLevelLog);
         }
+        scanStatistics.finish(finalClasspathEltOrderFiltered);
+        scanResult.scanStatistics = scanStatistics;
+        return scanResult;
     }
 
     // -------------------------------------------------------------------------------------------------------------
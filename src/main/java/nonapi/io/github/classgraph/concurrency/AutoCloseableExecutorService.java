@@ -51,6 +51,23 @@ public class AutoCloseableExecutorService extends ThreadPoolExecutor implements
                 new SimpleThreadFactory("ClassGraph-worker-", true));
     }
 
+    /**
+     * A ThreadPoolExecutor that can be used in a try-with-resources block, and that terminates idle threads.
+     * 
+     * @param numThreads
+     *            The maximum number of threads to allocate.
+     * @param threadNamePrefix
+     *            The prefix for the names of the threads.
+     * @param keepAliveMillis
+     *            The time in milliseconds that idle threads are kept alive for.
+     */
+    public AutoCloseableExecutorService(final int numThreads, final String threadNamePrefix,
+            final long keepAliveMillis) {
+        super(numThreads, numThreads, keepAliveMillis, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                new SimpleThreadFactory(threadNamePrefix, true));
+        allowCoreThreadTimeOut(true);
+    }
+
     /**
      * Catch exceptions from both submit() and execute(), and call {@link InterruptionChecker#interrupt()} to
      * interrupt all threads.
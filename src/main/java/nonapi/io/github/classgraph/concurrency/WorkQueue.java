@@ -28,21 +28,29 @@
  */
 package nonapi.io.github.classgraph.concurrency;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import nonapi.io.github.classgraph.utils.LogNode;
 
 /**
- * A parallel work queue.
+ * A parallel work queue. By default, work units are passed to workers through a single shared
+ * {@link BlockingQueue}. In work-stealing mode, each worker has its own deque, initially holding a contiguous chunk
+ * of the initial work units. Workers take work units from the head of their own deque, and when their deque is
+ * empty, steal work units from the tail of other workers' deques, so that workers only contend when stealing.
  *
  * @param <T>
  *            The work unit type.
@@ -51,9 +59,27 @@ public class WorkQueue<T> implements AutoCloseable {
     /** The work unit processor. */
     private final WorkUnitProcessor<T> workUnitProcessor;
 
-    /** The queue of work units. */
+    /** The queue of work units (if not in work-stealing mode). */
     private final BlockingQueue<WorkUnitWrapper<T>> workUnits = new LinkedBlockingQueue<>();
 
+    /** The deque of work units for each worker (if in work-stealing mode), otherwise null. */
+    private final List<ConcurrentLinkedDeque<T>> workerDeques;
+
+    /**
+     * The index of the worker running on the current thread, or null if the current thread is not a worker (if in
+     * work-stealing mode), otherwise null.
+     */
+    private final ThreadLocal<Integer> workerIdxForThread;
+
+    /** The number of times an idle worker yields before parking, in work-stealing mode. */
+    private static final int IDLE_YIELDS_BEFORE_PARKING = 64;
+
+    /**
+     * The time an idle worker parks for before checking for work again, in work-stealing mode, once it has yielded
+     * {@link #IDLE_YIELDS_BEFORE_PARKING} times.
+     */
+    private static final long IDLE_PARK_NANOS = 50_000L;
+
     /** The number of workers. */
     private final int numWorkers;
 
@@ -63,6 +89,12 @@ public class WorkQueue<T> implements AutoCloseable {
      */
     private final AtomicInteger numIncompleteWorkUnits = new AtomicInteger();
 
+    /**
+     * Set when a worker aborts the work, so that workers in work-stealing mode (which do not read poison pills) exit
+     * their work loop.
+     */
+    private volatile boolean aborted;
+
     /** The Future object added for each worker, used to detect worker completion. */
     private final ConcurrentLinkedQueue<Future<?>> workerFutures = new ConcurrentLinkedQueue<>();
 
@@ -75,6 +107,9 @@ public class WorkQueue<T> implements AutoCloseable {
     /** The log node. */
     private final LogNode log;
 
+    /** The worker statistics to accumulate into, or null. */
+    private final WorkerStatistics workerStatistics;
+
     /**
      * A wrapper for work units (needed to send a poison pill as a null value, since BlockingQueue does not accept
      * null values).
@@ -97,6 +132,18 @@ public class WorkQueue<T> implements AutoCloseable {
         }
     }
 
+    /** Worker thread utilization, accumulated across one or more work queues. */
+    public static class WorkerStatistics {
+        /** The total time spent by all workers processing work units, in nanoseconds. */
+        public final AtomicLong busyNanos = new AtomicLong();
+
+        /** The total number of work units processed. */
+        public final AtomicLong numWorkUnitsProcessed = new AtomicLong();
+
+        /** The maximum number of workers that were run in parallel. */
+        public final AtomicInteger maxNumWorkers = new AtomicInteger();
+    }
+
     /**
      * A work unit processor.
      * 
@@ -145,20 +192,63 @@ public class WorkQueue<T> implements AutoCloseable {
     public static <U> void runWorkQueue(final Collection<U> elements, final ExecutorService executorService,
             final InterruptionChecker interruptionChecker, final int numParallelTasks, final LogNode log,
             final WorkUnitProcessor<U> workUnitProcessor) throws InterruptedException, ExecutionException {
+        runWorkQueue(elements, executorService, interruptionChecker, numParallelTasks, log,
+                /* workStealing = */ false, /* workerStatistics = */ null, workUnitProcessor);
+    }
+
+    /**
+     * Start a work queue on the elements in the provided collection, blocking until all work units have been
+     * completed, and accumulating worker thread utilization into the provided {@link WorkerStatistics}.
+     *
+     * @param <U>
+     *            The type of the work queue units.
+     * @param elements
+     *            The work queue units to process.
+     * @param executorService
+     *            The {@link ExecutorService}.
+     * @param interruptionChecker
+     *            the interruption checker
+     * @param numParallelTasks
+     *            The number of parallel tasks.
+     * @param log
+     *            The log.
+     * @param workStealing
+     *            If true, give each worker its own deque of work units, and steal work units from other workers
+     *            when a worker's deque is empty, rather than using a single shared queue.
+     * @param workerStatistics
+     *            The {@link WorkerStatistics} to accumulate worker thread utilization into, or null.
+     * @param workUnitProcessor
+     *            The {@link WorkUnitProcessor}.
+     * @throws InterruptedException
+     *             If the work was interrupted.
+     * @throws ExecutionException
+     *             If a worker throws an uncaught exception.
+     */
+    public static <U> void runWorkQueue(final Collection<U> elements, final ExecutorService executorService,
+            final InterruptionChecker interruptionChecker, final int numParallelTasks, final LogNode log,
+            final boolean workStealing, final WorkerStatistics workerStatistics,
+            final WorkUnitProcessor<U> workUnitProcessor) throws InterruptedException, ExecutionException {
         if (elements.isEmpty()) {
             // Nothing to do
             return;
         }
+        if (workerStatistics != null) {
+            for (int max; (max = workerStatistics.maxNumWorkers.get()) < numParallelTasks;) {
+                if (workerStatistics.maxNumWorkers.compareAndSet(max, numParallelTasks)) {
+                    break;
+                }
+            }
+        }
         // WorkQueue#close() is called when this try-with-resources block terminates, initiating a barrier wait
         // while all worker threads complete.
         try (WorkQueue<U> workQueue = new WorkQueue<>(elements, workUnitProcessor, numParallelTasks,
-                interruptionChecker, log)) {
+                interruptionChecker, log, workStealing, workerStatistics)) {
             // Start (numParallelTasks - 1) worker threads (may start zero threads if numParallelTasks == 1)
             workQueue.startWorkers(executorService, numParallelTasks - 1);
             // Use the current thread to do work too, in case there is only one thread available in the
             // ExecutorService, or in case numParallelTasks is greater than the number of available threads in the
             // ExecutorService.
-            workQueue.runWorkLoop();
+            workQueue.runWorkLoop(/* workerIdx = */ 0);
         }
     }
 
@@ -175,14 +265,40 @@ public class WorkQueue<T> implements AutoCloseable {
      *            the interruption checker
      * @param log
      *            the log
+     * @param workStealing
+     *            if true, give each worker its own deque of work units
+     * @param workerStatistics
+     *            the worker statistics to accumulate into, or null
      */
     private WorkQueue(final Collection<T> initialWorkUnits, final WorkUnitProcessor<T> workUnitProcessor,
-            final int numWorkers, final InterruptionChecker interruptionChecker, final LogNode log) {
+            final int numWorkers, final InterruptionChecker interruptionChecker, final LogNode log,
+            final boolean workStealing, final WorkerStatistics workerStatistics) {
         this.workUnitProcessor = workUnitProcessor;
         this.numWorkers = numWorkers;
         this.interruptionChecker = interruptionChecker;
         this.log = log;
-        addWorkUnits(initialWorkUnits);
+        this.workerStatistics = workerStatistics;
+        if (workStealing && numWorkers > 1) {
+            workerDeques = new ArrayList<>(numWorkers);
+            workerIdxForThread = new ThreadLocal<>();
+            for (int i = 0; i < numWorkers; i++) {
+                workerDeques.add(new ConcurrentLinkedDeque<T>());
+            }
+            // Give each worker a contiguous chunk of the initial work units
+            final int numInitialWorkUnits = initialWorkUnits.size();
+            int workUnitIdx = 0;
+            for (final T workUnit : initialWorkUnits) {
+                if (workUnit == null) {
+                    throw new NullPointerException("workUnit cannot be null");
+                }
+                numIncompleteWorkUnits.incrementAndGet();
+                workerDeques.get((int) ((long) workUnitIdx++ * numWorkers / numInitialWorkUnits)).add(workUnit);
+            }
+        } else {
+            workerDeques = null;
+            workerIdxForThread = null;
+            addWorkUnits(initialWorkUnits);
+        }
     }
 
     /**
@@ -195,10 +311,12 @@ public class WorkQueue<T> implements AutoCloseable {
      */
     private void startWorkers(final ExecutorService executorService, final int numTasks) {
         for (int i = 0; i < numTasks; i++) {
+            // Worker 0 is the thread that calls runWorkQueue
+            final int workerIdx = i + 1;
             workerFutures.add(executorService.submit(new Callable<Void>() {
                 @Override
                 public Void call() throws Exception {
-                    runWorkLoop();
+                    runWorkLoop(workerIdx);
                     return null;
                 }
             }));
@@ -215,58 +333,188 @@ public class WorkQueue<T> implements AutoCloseable {
         }
     }
 
+    /**
+     * Drain all remaining work units, and send poison pills to workers, so that all workers exit their work loop.
+     */
+    private void abortWork() {
+        aborted = true;
+        workUnits.clear();
+        if (workerDeques != null) {
+            for (final ConcurrentLinkedDeque<T> workerDeque : workerDeques) {
+                workerDeque.clear();
+            }
+        }
+        numIncompleteWorkUnits.set(0);
+        sendPoisonPills();
+    }
+
+    /**
+     * Process a work unit, accumulating the time taken into the worker statistics, if present.
+     *
+     * @param workUnit
+     *            the work unit
+     * @throws InterruptedException
+     *             if the worker thread was interrupted
+     */
+    private void processWorkUnit(final T workUnit) throws InterruptedException {
+        if (workerStatistics == null) {
+            workUnitProcessor.processWorkUnit(workUnit, this, log);
+        } else {
+            final long startTime = System.nanoTime();
+            try {
+                workUnitProcessor.processWorkUnit(workUnit, this, log);
+            } finally {
+                workerStatistics.busyNanos.addAndGet(System.nanoTime() - startTime);
+                workerStatistics.numWorkUnitsProcessed.incrementAndGet();
+            }
+        }
+    }
+
     /**
      * Start a worker. Called by startWorkers(), but should also be called by the main thread to do some of the work
      * on that thread, to prevent deadlock in the case that the ExecutorService doesn't have as many threads
      * available as numParallelTasks. When this method returns, either all the work has been completed, or this or
      * some other thread was interrupted. If InterruptedException is thrown, this thread or another was interrupted.
      *
+     * @param workerIdx
+     *            the index of the worker, used to select its deque in work-stealing mode
      * @throws InterruptedException
      *             if a worker thread was interrupted
      * @throws ExecutionException
      *             if a worker thread throws an uncaught exception
      */
-    private void runWorkLoop() throws InterruptedException, ExecutionException {
+    private void runWorkLoop(final int workerIdx) throws InterruptedException, ExecutionException {
+        if (workerIdxForThread == null) {
+            workLoop(workerIdx);
+        } else {
+            // Record the worker index, so that work units added by the worker go to its own deque
+            workerIdxForThread.set(workerIdx);
+            try {
+                workLoop(workerIdx);
+            } finally {
+                workerIdxForThread.remove();
+            }
+        }
+    }
+
+    /**
+     * Run the work loop of a worker, until all the work has been completed, or this or some other thread was
+     * interrupted.
+     *
+     * @param workerIdx
+     *            the index of the worker, used to select its deque in work-stealing mode
+     * @throws InterruptedException
+     *             if a worker thread was interrupted
+     * @throws ExecutionException
+     *             if a worker thread throws an uncaught exception
+     */
+    private void workLoop(final int workerIdx) throws InterruptedException, ExecutionException {
         // Get next work unit from queue
-        for (;;) {
+        for (int numIdleIterations = 0;;) {
             // Process the work unit
             try {
                 // Check for interruption
                 interruptionChecker.check();
 
                 // Get next work unit
-                final WorkUnitWrapper<T> workUnitWrapper = workUnits.take();
-
-                if (workUnitWrapper.workUnit == null) {
-                    // Received poison pill
-                    break;
+                final T workUnit;
+                if (workerDeques == null) {
+                    final WorkUnitWrapper<T> workUnitWrapper = workUnits.take();
+                    if (workUnitWrapper.workUnit == null) {
+                        // Received poison pill
+                        break;
+                    }
+                    workUnit = workUnitWrapper.workUnit;
+                } else {
+                    if (aborted) {
+                        // Another worker aborted the work -- rethrow its exception, since this worker may be the
+                        // one that called runWorkQueue
+                        interruptionChecker.check();
+                        break;
+                    }
+                    workUnit = takeOrStealWorkUnit(workerIdx);
+                    if (workUnit == null) {
+                        // The count may go below zero if a worker completes a work unit after the work is aborted
+                        if (numIncompleteWorkUnits.get() <= 0 || aborted) {
+                            // All work units have been completed, or another worker aborted the work
+                            interruptionChecker.check();
+                            break;
+                        }
+                        // Work units are still being processed by other workers, and may add new work units
+                        if (++numIdleIterations <= IDLE_YIELDS_BEFORE_PARKING) {
+                            Thread.yield();
+                        } else {
+                            LockSupport.parkNanos(IDLE_PARK_NANOS);
+                        }
+                        continue;
+                    }
+                    numIdleIterations = 0;
                 }
 
                 // Process the work unit (may throw InterruptedException) 
-                workUnitProcessor.processWorkUnit(workUnitWrapper.workUnit, this, log);
+                processWorkUnit(workUnit);
 
-            } catch (InterruptedException | Error e) {
-                // On InterruptedException or OutOfMemoryError, drain work queue, send poison pills, and re-throw
-                workUnits.clear();
-                numIncompleteWorkUnits.set(0);
-                sendPoisonPills();
+            } catch (final InterruptedException e) {
+                // On InterruptedException, drain work queue, send poison pills, and re-throw
+                if (workerDeques != null) {
+                    // Interrupt the other workers before aborting, so that idle workers see the interruption once
+                    // the work is aborted
+                    interruptionChecker.interrupt();
+                }
+                abortWork();
+                throw e;
+
+            } catch (final Error e) {
+                // On OutOfMemoryError or other Error, drain work queue, send poison pills, and re-throw
+                if (workerDeques != null) {
+                    // Record the error before aborting, so that idle workers see it once the work is aborted
+                    interruptionChecker.setExecutionException(
+                            new ExecutionException("Worker thread threw error", e));
+                }
+                abortWork();
                 throw e;
 
             } catch (final RuntimeException e) {
                 // On unchecked exception, drain work queue, send poison pills, and throw ExecutionException
-                workUnits.clear();
-                numIncompleteWorkUnits.set(0);
-                sendPoisonPills();
-                throw new ExecutionException("Worker thread threw unchecked exception", e);
+                final ExecutionException executionException = new ExecutionException(
+                        "Worker thread threw unchecked exception", e);
+                if (workerDeques != null) {
+                    // Record the exception before aborting, so that idle workers see it once the work is aborted
+                    interruptionChecker.setExecutionException(executionException);
+                }
+                abortWork();
+                throw executionException;
 
             }
-            if (numIncompleteWorkUnits.decrementAndGet() == 0) {
+            if (numIncompleteWorkUnits.decrementAndGet() == 0 && workerDeques == null) {
                 // No more work units -- send poison pills
                 sendPoisonPills();
             }
         }
     }
 
+    /**
+     * Take a work unit from the head of a worker's own deque, or if the deque is empty, steal a work unit from the
+     * tail of another worker's deque.
+     *
+     * @param workerIdx
+     *            the index of the worker
+     * @return the work unit, or null if all deques are empty
+     */
+    private T takeOrStealWorkUnit(final int workerIdx) {
+        final T workUnit = workerDeques.get(workerIdx).pollFirst();
+        if (workUnit != null) {
+            return workUnit;
+        }
+        for (int i = 1; i < numWorkers; i++) {
+            final T stolenWorkUnit = workerDeques.get((workerIdx + i) % numWorkers).pollLast();
+            if (stolenWorkUnit != null) {
+                return stolenWorkUnit;
+            }
+        }
+        return null;
+    }
+
     /**
      * Add a unit of work. May be called by workers to add more work units to the tail of the queue.
      *
@@ -280,7 +528,15 @@ public class WorkQueue<T> implements AutoCloseable {
             throw new NullPointerException("workUnit cannot be null");
         }
         numIncompleteWorkUnits.incrementAndGet();
-        workUnits.add(new WorkUnitWrapper<>(workUnit));
+        if (workerDeques == null) {
+            workUnits.add(new WorkUnitWrapper<>(workUnit));
+        } else {
+            // Add the work unit to the tail of the current worker's own deque (idle workers will steal it from
+            // there if this worker is busy). If the work unit is not added by a worker, choose a deque by thread.
+            final Integer workerIdx = workerIdxForThread.get();
+            workerDeques.get(workerIdx != null ? workerIdx : (int) (Thread.currentThread().getId() % numWorkers))
+                    .addLast(workUnit);
+        }
     }
 
     /**
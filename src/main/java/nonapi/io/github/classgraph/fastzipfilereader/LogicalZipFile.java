@@ -32,9 +32,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -45,6 +49,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import nonapi.io.github.classgraph.fileslice.ArraySlice;
+import nonapi.io.github.classgraph.fileslice.FileSlice;
+import nonapi.io.github.classgraph.fileslice.reader.RandomAccessArrayReader;
+import nonapi.io.github.classgraph.fileslice.reader.RandomAccessByteBufferReader;
 import nonapi.io.github.classgraph.fileslice.reader.RandomAccessReader;
 import nonapi.io.github.classgraph.utils.CollectionUtils;
 import nonapi.io.github.classgraph.utils.FileUtils;
@@ -56,8 +63,37 @@ import nonapi.io.github.classgraph.utils.VersionFinder;
  * A logical zipfile, which represents a zipfile contained within a ZipFileSlice of a PhysicalZipFile.
  */
 public class LogicalZipFile extends ZipFileSlice {
-    /** The zipfile entries. */
-    public List<FastZipEntry> entries;
+    /**
+     * The zipfile entries, or null if the central directory was indexed and not all entries have been read yet (see
+     * {@link #getEntries()}).
+     */
+    private List<FastZipEntry> entries;
+
+    /**
+     * The central directory, if it was read into RAM or memory-mapped, and indexed by entry name, otherwise null.
+     */
+    private ByteBuffer cenBuf;
+
+    /** A reader for {@link #cenBuf}. */
+    private RandomAccessReader cenReader;
+
+    /** The offset of the first local file header. */
+    private long locPos;
+
+    /** The log for entries that are read lazily from the central directory index, or null. */
+    private LogNode cenLog;
+
+    /** The offset of each indexed (non-directory) entry within {@link #cenBuf}, in central directory order. */
+    private int[] cenEntryOffsets;
+
+    /** Indices into {@link #cenEntryOffsets}, stably sorted by entry name. */
+    private int[] cenEntryIndicesSortedByName;
+
+    /** The {@link FastZipEntry} for each indexed entry that has been read, or null if the entry was skipped. */
+    private FastZipEntry[] cenEntryCache;
+
+    /** The indices of the indexed entries that have been read into {@link #cenEntryCache}. */
+    private BitSet cenEntryRead;
 
     /** If true, this is a multi-release jar. */
     private boolean isMultiReleaseJar;
@@ -425,6 +461,56 @@ public class LogicalZipFile extends ZipFileSlice {
 
     // -------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Get the central directory as a {@link ByteBuffer}, without copying it if the zipfile is already in RAM or
+     * memory-mapped. Otherwise, if the central directory is at least
+     * {@link nonapi.io.github.classgraph.scanspec.ScanSpec#centralDirectoryMappingThreshold} bytes in size, only
+     * the central directory is memory-mapped, and if it is smaller than that (or cannot be mapped), it is read into
+     * RAM with a single read.
+     *
+     * @param reader
+     *            the reader for the zipfile slice
+     * @param cenPos
+     *            the position of the central directory within the zipfile slice
+     * @param cenSize
+     *            the size of the central directory
+     * @param nestedJarHandler
+     *            the nested jar handler
+     * @param log
+     *            the log
+     * @return the central directory.
+     * @throws IOException
+     *             If an I/O exception occurs.
+     */
+    private ByteBuffer getCentralDirectoryBuffer(final RandomAccessReader reader, final long cenPos,
+            final int cenSize, final NestedJarHandler nestedJarHandler, final LogNode log) throws IOException {
+        if (slice instanceof ArraySlice && !slice.isDeflatedZipEntry) {
+            // Nested jar that is stored in RAM -- wrap the central directory without copying it
+            final ArraySlice arraySlice = (ArraySlice) slice;
+            return ByteBuffer.wrap(arraySlice.arr, (int) (arraySlice.sliceStartPos + cenPos), cenSize).slice();
+        }
+        if (slice instanceof FileSlice && !slice.isDeflatedZipEntry) {
+            final FileSlice fileSlice = (FileSlice) slice;
+            if (fileSlice.mappedSlice() != null
+                    || (cenSize >= nestedJarHandler.scanSpec.centralDirectoryMappingThreshold
+                            // See ClassGraph#enableMemoryMapping()
+                            && VersionFinder.JAVA_MAJOR_VERSION <= 23)) {
+                // Use a view of the memory-mapped file, or memory-map only the central directory
+                final ByteBuffer mappedCen = fileSlice.mapRange(cenPos, cenSize, log);
+                if (mappedCen != null) {
+                    return mappedCen;
+                }
+            }
+        }
+        // Read the central directory into RAM with a single read
+        final byte[] cenBytes = new byte[cenSize];
+        if (reader.read(cenPos, cenBytes, 0, cenSize) < cenSize) {
+            // Should not happen
+            throw new IOException("Zipfile is truncated");
+        }
+        return ByteBuffer.wrap(cenBytes);
+    }
+
     /**
      * Read the central directory of the zipfile.
      * 
@@ -437,9 +523,97 @@ public class LogicalZipFile extends ZipFileSlice {
      * @throws InterruptedException
      *             if the thread was interrupted.
      */
-    @SuppressWarnings("resource")
     private void readCentralDirectory(final NestedJarHandler nestedJarHandler, final LogNode log)
             throws IOException, InterruptedException {
+        // Reuse the central directory from the zipfile cache, if it was read by a previous scan
+        final ZipFileCache.CentralDirectory cachedCentralDirectory = cacheKey == null ? null
+                : ZipFileCache.getCentralDirectory(cacheKey);
+        final FastZipEntry manifestZipEntry;
+        if (cachedCentralDirectory != null) {
+            if (log != null) {
+                log.log("Reusing central directory from zipfile cache: " + getPath());
+            }
+            manifestZipEntry = readCachedCentralDirectory(cachedCentralDirectory, log);
+        } else {
+            manifestZipEntry = readCentralDirectoryEntries(nestedJarHandler, log);
+        }
+
+        // Parse manifest file, if present
+        if (manifestZipEntry != null) {
+            parseManifest(manifestZipEntry, log);
+        }
+
+        // For multi-release jars, drop any older or non-versioned entries that are masked by the most recent
+        // version-specific entry
+        if (isMultiReleaseJar) {
+            if (VersionFinder.JAVA_MAJOR_VERSION < 9) {
+                if (log != null) {
+                    log.log("This is a multi-release jar, but JRE version " + VersionFinder.JAVA_MAJOR_VERSION
+                            + " does not support multi-release jars");
+                }
+            } else {
+                // Version masking needs all entries, so read all entries, and drop the central directory index
+                if (entries == null) {
+                    entries = getEntries();
+                    dropCentralDirectoryIndex();
+                }
+
+                if (log != null) {
+                    // Find all the unique multirelease versions within the jar
+                    final Set<Integer> versionsFound = new HashSet<>();
+                    for (final FastZipEntry entry : entries) {
+                        if (entry.version > 8) {
+                            versionsFound.add(entry.version);
+                        }
+                    }
+                    final List<Integer> versionsFoundSorted = new ArrayList<>(versionsFound);
+                    CollectionUtils.sortIfNotEmpty(versionsFoundSorted);
+                    log.log("This is a multi-release jar, with versions: "
+                            + StringUtils.join(", ", versionsFoundSorted));
+                }
+
+                // Sort in decreasing order of version in preparation for version masking
+                CollectionUtils.sortIfNotEmpty(entries);
+
+                // Mask files that appear in multiple version sections, so that there is only one entry
+                // for each unversioned path, i.e. the versioned path with the highest version number
+                final List<FastZipEntry> unversionedZipEntriesMasked = new ArrayList<>(entries.size());
+                final Map<String, String> unversionedPathToVersionedPath = new HashMap<>();
+                for (final FastZipEntry versionedZipEntry : entries) {
+                    if (!unversionedPathToVersionedPath.containsKey(versionedZipEntry.entryNameUnversioned)) {
+                        // This is the first FastZipEntry for this entry's unversioned path
+                        unversionedPathToVersionedPath.put(versionedZipEntry.entryNameUnversioned,
+                                versionedZipEntry.entryName);
+                        unversionedZipEntriesMasked.add(versionedZipEntry);
+                    } else if (log != null) {
+                        log.log(unversionedPathToVersionedPath.get(versionedZipEntry.entryNameUnversioned)
+                                + " masks " + versionedZipEntry.entryName);
+                    }
+                }
+
+                // Override entries with version-masked entries
+                entries = unversionedZipEntriesMasked;
+            }
+        }
+    }
+
+    /**
+     * Read the entries of the central directory of the zipfile, or index the central directory so that entries can
+     * be read lazily, and add the central directory to the zipfile cache, if enabled.
+     * 
+     * @param nestedJarHandler
+     *            the nested jar handler
+     * @param log
+     *            the log
+     * @return the manifest entry, or null if there is no manifest.
+     * @throws IOException
+     *             If an I/O exception occurs.
+     * @throws InterruptedException
+     *             if the thread was interrupted.
+     */
+    @SuppressWarnings("resource")
+    private FastZipEntry readCentralDirectoryEntries(final NestedJarHandler nestedJarHandler, final LogNode log)
+            throws IOException, InterruptedException {
         if (slice.sliceLength < 22) {
             throw new IOException("Zipfile too short to have a central directory");
         }
@@ -543,9 +717,11 @@ public class LogicalZipFile extends ZipFileSlice {
             throw new IOException("Local file header offset out of range: " + locPos + ": " + getPath());
         }
 
-        // Read entries into a byte array, if central directory is smaller than 2GB. If central directory
-        // is larger than 2GB, need to read each entry field from the file directly using ZipFileSliceReader.
+        // Read entries into a byte array (or memory-map them), if central directory is smaller than 2GB. If central
+        // directory is larger than 2GB, need to read each entry field from the file directly using
+        // ZipFileSliceReader.
         RandomAccessReader cenReader;
+        ByteBuffer cenBuf = null;
         if (cenSize > FileUtils.MAX_BUFFER_SIZE) {
             // Create a slice that covers the central directory (this allows a central directory larger than
             // 2GB to be accessed using the slower FileSlice API, which reads the file directly, but also
@@ -555,15 +731,13 @@ public class LogicalZipFile extends ZipFileSlice {
             cenReader = slice.slice(cenPos, cenSize, /* isDeflatedZipEntry = */ false, /* inflatedSizeHint = */ 0L)
                     .randomAccessReader();
         } else {
-            // Read the central directory into RAM for speed, then wrap it in an ArraySlice
-            // (random access is faster for ArraySlice than for FileSlice)
-            final byte[] entryBytes = new byte[(int) cenSize];
-            if (reader.read(cenPos, entryBytes, 0, (int) cenSize) < cenSize) {
-                // Should not happen
-                throw new IOException("Zipfile is truncated");
+            cenBuf = getCentralDirectoryBuffer(reader, cenPos, (int) cenSize, nestedJarHandler, log);
+            if (cenBuf.hasArray()) {
+                // Random access is faster for an array than for a ByteBuffer
+                cenReader = new RandomAccessArrayReader(cenBuf.array(), cenBuf.arrayOffset(), (int) cenSize);
+            } else {
+                cenReader = new RandomAccessByteBufferReader(cenBuf, 0L, cenSize);
             }
-            cenReader = new ArraySlice(entryBytes, /* isDeflatedZipEntry = */ false, /* inflatedSizeHint = */ 0L,
-                    nestedJarHandler).randomAccessReader();
         }
 
         if (numEnt == -1L) {
@@ -596,9 +770,55 @@ public class LogicalZipFile extends ZipFileSlice {
                     + " based on central directory size)");
         }
 
-        // Enumerate entries
-        entries = new ArrayList<>((int) numEnt);
+        FastZipEntry manifestZipEntry;
+        if (cenBuf != null && indexCentralDirectory(cenBuf, cenReader, (int) cenSize, (int) numEnt)) {
+            // Entries are read lazily from the central directory index -- only the manifest is needed here
+            this.cenReader = cenReader;
+            this.locPos = locPos;
+            this.cenLog = log;
+            manifestZipEntry = getIndexedEntryWithName(MANIFEST_PATH);
+
+        } else {
+            // Enumerate entries
+            manifestZipEntry = enumerateEntries(cenReader, cenSize, (int) numEnt, locPos, log);
+        }
+
+        if (cacheKey != null && cenBuf != null) {
+            // Add the central directory, and the index if it was indexed, to the zipfile cache
+            final byte[] cen;
+            if (cenBuf.hasArray() && cenBuf.arrayOffset() == 0 && cenBuf.array().length == cenSize) {
+                cen = cenBuf.array();
+            } else {
+                cen = new byte[(int) cenSize];
+                cenBuf.duplicate().get(cen);
+            }
+            ZipFileCache.putCentralDirectory(cacheKey, new ZipFileCache.CentralDirectory(cen, (int) numEnt,
+                    locPos, cenEntryOffsets, cenEntryIndicesSortedByName));
+        }
+        return manifestZipEntry;
+    }
+
+    /**
+     * Enumerate the entries of the central directory, reading them into {@link #entries}.
+     *
+     * @param cenReader
+     *            the central directory reader
+     * @param cenSize
+     *            the size of the central directory
+     * @param numEnt
+     *            the number of entries in the central directory
+     * @param locPos
+     *            the offset of the first local file header
+     * @param log
+     *            the log
+     * @return the manifest entry, or null if there is no manifest.
+     * @throws IOException
+     *             if the central directory is corrupt.
+     */
+    private FastZipEntry enumerateEntries(final RandomAccessReader cenReader, final long cenSize, final int numEnt,
+            final long locPos, final LogNode log) throws IOException {
         FastZipEntry manifestZipEntry = null;
+        entries = new ArrayList<>(numEnt);
         try {
             int entSize = 0;
             for (long entOff = 0; entOff + 46 <= cenSize; entOff += entSize) {
@@ -611,247 +831,680 @@ public class LogicalZipFile extends ZipFileSlice {
                 final int extraFieldLen = cenReader.readUnsignedShort(entOff + 30);
                 final int commentLen = cenReader.readUnsignedShort(entOff + 32);
                 entSize = 46 + filenameLen + extraFieldLen + commentLen;
-
-                // Get and sanitize entry name
-                final long filenameStartOff = entOff + 46;
-                final long filenameEndOff = filenameStartOff + filenameLen;
-                if (filenameEndOff > cenSize) {
+                if (entOff + 46 + filenameLen > cenSize) {
                     if (log != null) {
                         log.log("Filename extends past end of entry -- skipping entry at offset " + entOff);
                     }
                     break;
                 }
-                final String entryName = cenReader.readString(filenameStartOff, filenameLen);
-                String entryNameSanitized = FileUtils.sanitizeEntryPath(entryName, /* removeInitialSlash = */ true,
-                        /* removeFinalSlash = */ false);
-                if (entryNameSanitized.isEmpty() || entryName.endsWith("/")) {
-                    // Skip directory entries
-                    continue;
-                }
 
-                // Check entry flag bits
-                final int flags = cenReader.readUnsignedShort(entOff + 8);
-                if ((flags & 1) != 0) {
-                    if (log != null) {
-                        log.log("Skipping encrypted zip entry: " + entryNameSanitized);
+                // Add zip entry
+                final FastZipEntry entry = readEntry(cenReader, entOff, locPos, log);
+                if (entry != null) {
+                    entries.add(entry);
+
+                    // Record manifest entry
+                    if (entry.entryName.equals(MANIFEST_PATH)) {
+                        manifestZipEntry = entry;
                     }
-                    continue;
                 }
+            }
+        } catch (EOFException | IndexOutOfBoundsException e) {
+            // Stop reading entries if any entry is not within file
+            if (log != null) {
+                log.log("Reached premature EOF" + (entries.isEmpty() ? ""
+                        : " after reading zip entry " + entries.get(entries.size() - 1)));
+            }
+        }
+        return manifestZipEntry;
+    }
 
-                // Check compression method
-                final int compressionMethod = cenReader.readUnsignedShort(entOff + 10);
-                if (compressionMethod != /* stored */ 0 && compressionMethod != /* deflated */ 8) {
+    /**
+     * Read the entries of a central directory from the zipfile cache, or use the cached index so that entries can
+     * be read lazily.
+     *
+     * @param cachedCentralDirectory
+     *            the cached central directory
+     * @param log
+     *            the log
+     * @return the manifest entry, or null if there is no manifest.
+     * @throws IOException
+     *             if the central directory is corrupt.
+     */
+    private FastZipEntry readCachedCentralDirectory(final ZipFileCache.CentralDirectory cachedCentralDirectory,
+            final LogNode log) throws IOException {
+        final byte[] cen = cachedCentralDirectory.cen;
+        final RandomAccessReader cenReader = new RandomAccessArrayReader(cen, 0, cen.length);
+        if (cachedCentralDirectory.cenEntryOffsets != null) {
+            setCentralDirectoryIndex(ByteBuffer.wrap(cen), cachedCentralDirectory.cenEntryOffsets,
+                    cachedCentralDirectory.cenEntryIndicesSortedByName);
+            this.cenReader = cenReader;
+            this.locPos = cachedCentralDirectory.locPos;
+            this.cenLog = log;
+            return getIndexedEntryWithName(MANIFEST_PATH);
+        } else {
+            return enumerateEntries(cenReader, cen.length, cachedCentralDirectory.numEnt,
+                    cachedCentralDirectory.locPos, log);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Read a central directory entry.
+     *
+     * @param cenReader
+     *            the central directory reader
+     * @param entOff
+     *            the offset of the entry within the central directory
+     * @param locPos
+     *            the offset of the first local file header
+     * @param log
+     *            the log
+     * @return the entry, or null if the entry should be skipped (e.g. if it is a directory entry, or is encrypted).
+     * @throws IOException
+     *             if the entry could not be read.
+     */
+    private FastZipEntry readEntry(final RandomAccessReader cenReader, final long entOff, final long locPos,
+            final LogNode log) throws IOException {
+        final int filenameLen = cenReader.readUnsignedShort(entOff + 28);
+        final int extraFieldLen = cenReader.readUnsignedShort(entOff + 30);
+
+        // Get and sanitize entry name
+        final long filenameStartOff = entOff + 46;
+        final long filenameEndOff = filenameStartOff + filenameLen;
+        final String entryName = cenReader.readString(filenameStartOff, filenameLen);
+        String entryNameSanitized = FileUtils.sanitizeEntryPath(entryName, /* removeInitialSlash = */ true,
+                /* removeFinalSlash = */ false);
+        if (entryNameSanitized.isEmpty() || entryName.endsWith("/")) {
+            // Skip directory entries
+            return null;
+        }
+
+        // Check entry flag bits
+        final int flags = cenReader.readUnsignedShort(entOff + 8);
+        if ((flags & 1) != 0) {
+            if (log != null) {
+                log.log("Skipping encrypted zip entry: " + entryNameSanitized);
+            }
+            return null;
+        }
+
+        // Check compression method
+        final int compressionMethod = cenReader.readUnsignedShort(entOff + 10);
+        if (compressionMethod != /* stored */ 0 && compressionMethod != /* deflated */ 8) {
+            if (log != null) {
+                log.log("Skipping zip entry with invalid compression method " + compressionMethod + ": "
+                        + entryNameSanitized);
+            }
+            return null;
+        }
+        final boolean isDeflated = compressionMethod == /* deflated */ 8;
+
+        // Get compressed and uncompressed size
+        long compressedSize = (cenReader.readUnsignedInt(entOff + 20));
+        long uncompressedSize = (cenReader.readUnsignedInt(entOff + 24));
+
+        // Get external file attributes
+        final int fileAttributes = cenReader.readUnsignedShort(entOff + 40);
+
+        long pos = cenReader.readUnsignedInt(entOff + 42);
+
+        // Check for Zip64 header in extra fields
+        // See:
+        // https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT
+        // https://github.com/LuaDist/zip/blob/master/proginfo/extrafld.txt
+        long lastModifiedMillis = 0L;
+        if (extraFieldLen > 0) {
+            for (int extraFieldOff = 0; extraFieldOff + 4 < extraFieldLen;) {
+                final long tagOff = filenameEndOff + extraFieldOff;
+                final int tag = cenReader.readUnsignedShort(tagOff);
+                final int size = cenReader.readUnsignedShort(tagOff + 2);
+                if (extraFieldOff + 4 + size > extraFieldLen) {
+                    // Invalid size
                     if (log != null) {
-                        log.log("Skipping zip entry with invalid compression method " + compressionMethod + ": "
-                                + entryNameSanitized);
+                        log.log("Skipping zip entry with invalid extra field size: " + entryNameSanitized);
                     }
-                    continue;
+                    break;
                 }
-                final boolean isDeflated = compressionMethod == /* deflated */ 8;
-
-                // Get compressed and uncompressed size
-                long compressedSize = (cenReader.readUnsignedInt(entOff + 20));
-                long uncompressedSize = (cenReader.readUnsignedInt(entOff + 24));
-
-                // Get external file attributes
-                final int fileAttributes = cenReader.readUnsignedShort(entOff + 40);
-
-                long pos = cenReader.readUnsignedInt(entOff + 42);
-
-                // Check for Zip64 header in extra fields
-                // See:
-                // https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT
-                // https://github.com/LuaDist/zip/blob/master/proginfo/extrafld.txt
-                long lastModifiedMillis = 0L;
-                if (extraFieldLen > 0) {
-                    for (int extraFieldOff = 0; extraFieldOff + 4 < extraFieldLen;) {
-                        final long tagOff = filenameEndOff + extraFieldOff;
-                        final int tag = cenReader.readUnsignedShort(tagOff);
-                        final int size = cenReader.readUnsignedShort(tagOff + 2);
-                        if (extraFieldOff + 4 + size > extraFieldLen) {
-                            // Invalid size
-                            if (log != null) {
-                                log.log("Skipping zip entry with invalid extra field size: " + entryNameSanitized);
-                            }
-                            break;
-                        }
-                        if (tag == 1 && size >= 20) {
-                            // Zip64 extended information extra field
-                            final long uncompressedSize64 = cenReader.readLong(tagOff + 4 + 0);
-                            if (uncompressedSize == 0xffffffffL) {
-                                uncompressedSize = uncompressedSize64;
-                            } else if (uncompressedSize != uncompressedSize64) {
-                                throw new IOException("Mismatch in uncompressed size: " + uncompressedSize + " vs. "
-                                        + uncompressedSize64 + ": " + entryNameSanitized);
-                            }
-                            final long compressedSize64 = cenReader.readLong(tagOff + 4 + 8);
-                            if (compressedSize == 0xffffffffL) {
-                                compressedSize = compressedSize64;
-                            } else if (compressedSize != compressedSize64) {
-                                throw new IOException("Mismatch in compressed size: " + compressedSize + " vs. "
-                                        + compressedSize64 + ": " + entryNameSanitized);
-                            }
-                            // Only compressed size and uncompressed size are required fields
-                            if (size >= 28) {
-                                final long pos64 = cenReader.readLong(tagOff + 4 + 16);
-                                if (pos == 0xffffffffL) {
-                                    pos = pos64;
-                                } else if (pos != pos64) {
-                                    throw new IOException("Mismatch in entry pos: " + pos + " vs. " + pos64 + ": "
-                                            + entryNameSanitized);
-                                }
-                            }
-                            break;
-
-                        } else if (tag == 0x5455 && size >= 5) {
-                            // Extended Unix timestamp
-                            final int bits = cenReader.readUnsignedByte(tagOff + 4 + 0);
-                            if ((bits & 1) == 1 && size >= 5 + 8) {
-                                lastModifiedMillis = cenReader.readLong(tagOff + 4 + 1) * 1000L;
-                            }
-
-                        } else if (tag == 0x5855 && size >= 20) {
-                            // Unix extra field (deprecated)
-                            lastModifiedMillis = cenReader.readLong(tagOff + 4 + 8) * 1000L;
-                            // There are also optional UID and GID fields in this extra field (currently ignored)
-
-                        } else if (tag == 0x7855) {
-                            // Info-ZIP Unix UID and GID fields (currently ignored)
-
-                        } else if (tag == 0x7075) {
-                            // Info-ZIP Unicode path extra field
-                            final int version = cenReader.readUnsignedByte(tagOff + 4 + 0);
-                            if (version != 1) {
-                                throw new IOException("Unknown Unicode entry name format " + version
-                                        + " in extra field: " + entryNameSanitized);
-                            } else if (size > 9) {
-                                // Replace non-Unicode entry name with Unicode version
-                                try {
-                                    entryNameSanitized = cenReader.readString(tagOff + 9, size - 9);
-                                } catch (final IllegalArgumentException e) {
-                                    throw new IOException("Malformed extended Unicode entry name for entry: "
-                                            + entryNameSanitized);
-                                }
-                            }
+                if (tag == 1 && size >= 20) {
+                    // Zip64 extended information extra field
+                    final long uncompressedSize64 = cenReader.readLong(tagOff + 4 + 0);
+                    if (uncompressedSize == 0xffffffffL) {
+                        uncompressedSize = uncompressedSize64;
+                    } else if (uncompressedSize != uncompressedSize64) {
+                        throw new IOException("Mismatch in uncompressed size: " + uncompressedSize + " vs. "
+                                + uncompressedSize64 + ": " + entryNameSanitized);
+                    }
+                    final long compressedSize64 = cenReader.readLong(tagOff + 4 + 8);
+                    if (compressedSize == 0xffffffffL) {
+                        compressedSize = compressedSize64;
+                    } else if (compressedSize != compressedSize64) {
+                        throw new IOException("Mismatch in compressed size: " + compressedSize + " vs. "
+                                + compressedSize64 + ": " + entryNameSanitized);
+                    }
+                    // Only compressed size and uncompressed size are required fields
+                    if (size >= 28) {
+                        final long pos64 = cenReader.readLong(tagOff + 4 + 16);
+                        if (pos == 0xffffffffL) {
+                            pos = pos64;
+                        } else if (pos != pos64) {
+                            throw new IOException("Mismatch in entry pos: " + pos + " vs. " + pos64 + ": "
+                                    + entryNameSanitized);
                         }
-                        extraFieldOff += 4 + size;
                     }
-                }
+                    break;
 
-                int lastModifiedTimeMSDOS = 0;
-                int lastModifiedDateMSDOS = 0;
-                if (lastModifiedMillis == 0L) {
-                    // If Unix timestamp was not provided, convert zip entry timestamp from MS-DOS format
-                    lastModifiedTimeMSDOS = cenReader.readUnsignedShort(entOff + 12);
-                    lastModifiedDateMSDOS = cenReader.readUnsignedShort(entOff + 14);
-                }
+                } else if (tag == 0x5455 && size >= 5) {
+                    // Extended Unix timestamp
+                    final int bits = cenReader.readUnsignedByte(tagOff + 4 + 0);
+                    if ((bits & 1) == 1 && size >= 5 + 8) {
+                        lastModifiedMillis = cenReader.readLong(tagOff + 4 + 1) * 1000L;
+                    }
 
-                if (compressedSize < 0) {
-                    if (log != null) {
-                        log.log("Skipping zip entry with invalid compressed size (" + compressedSize + "): "
-                                + entryNameSanitized);
+                } else if (tag == 0x5855 && size >= 20) {
+                    // Unix extra field (deprecated)
+                    lastModifiedMillis = cenReader.readLong(tagOff + 4 + 8) * 1000L;
+                    // There are also optional UID and GID fields in this extra field (currently ignored)
+
+                } else if (tag == 0x7855) {
+                    // Info-ZIP Unix UID and GID fields (currently ignored)
+
+                } else if (tag == 0x7075) {
+                    // Info-ZIP Unicode path extra field
+                    final int version = cenReader.readUnsignedByte(tagOff + 4 + 0);
+                    if (version != 1) {
+                        throw new IOException("Unknown Unicode entry name format " + version
+                                + " in extra field: " + entryNameSanitized);
+                    } else if (size > 9) {
+                        // Replace non-Unicode entry name with Unicode version
+                        try {
+                            entryNameSanitized = cenReader.readString(tagOff + 9, size - 9);
+                        } catch (final IllegalArgumentException e) {
+                            throw new IOException("Malformed extended Unicode entry name for entry: "
+                                    + entryNameSanitized);
+                        }
                     }
-                    continue;
                 }
-                if (uncompressedSize < 0) {
-                    if (log != null) {
-                        log.log("Skipping zip entry with invalid uncompressed size (" + uncompressedSize + "): "
-                                + entryNameSanitized);
-                    }
-                    continue;
-                }
-                if (pos < 0) {
-                    if (log != null) {
-                        log.log("Skipping zip entry with invalid pos (" + pos + "): " + entryNameSanitized);
-                    }
-                    continue;
+                extraFieldOff += 4 + size;
+            }
+        }
+
+        int lastModifiedTimeMSDOS = 0;
+        int lastModifiedDateMSDOS = 0;
+        if (lastModifiedMillis == 0L) {
+            // If Unix timestamp was not provided, convert zip entry timestamp from MS-DOS format
+            lastModifiedTimeMSDOS = cenReader.readUnsignedShort(entOff + 12);
+            lastModifiedDateMSDOS = cenReader.readUnsignedShort(entOff + 14);
+        }
+
+        if (compressedSize < 0) {
+            if (log != null) {
+                log.log("Skipping zip entry with invalid compressed size (" + compressedSize + "): "
+                        + entryNameSanitized);
+            }
+            return null;
+        }
+        if (uncompressedSize < 0) {
+            if (log != null) {
+                log.log("Skipping zip entry with invalid uncompressed size (" + uncompressedSize + "): "
+                        + entryNameSanitized);
+            }
+            return null;
+        }
+        if (pos < 0) {
+            if (log != null) {
+                log.log("Skipping zip entry with invalid pos (" + pos + "): " + entryNameSanitized);
+            }
+            return null;
+        }
+
+        final long locHeaderPos = locPos + pos;
+        if (locHeaderPos < 0) {
+            if (log != null) {
+                log.log("Skipping zip entry with invalid loc header position (" + locHeaderPos + "): "
+                        + entryNameSanitized);
+            }
+            return null;
+        }
+        if (locHeaderPos + 4 >= slice.sliceLength) {
+            if (log != null) {
+                log.log("Unexpected EOF when trying to read LOC header: " + entryNameSanitized);
+            }
+            return null;
+        }
+
+        return new FastZipEntry(this, locHeaderPos, entryNameSanitized, isDeflated, compressedSize,
+                uncompressedSize, lastModifiedMillis, lastModifiedTimeMSDOS, lastModifiedDateMSDOS, fileAttributes,
+                enableMultiReleaseVersions);
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Index the central directory by entry name, without reading any entries, so that entries can be looked up by
+     * path prefix using a binary search, and only the entries that are needed are read.
+     *
+     * @param cen
+     *            the central directory
+     * @param cenReader
+     *            a reader for the central directory
+     * @param cenSize
+     *            the size of the central directory
+     * @param numEnt
+     *            the number of entries given in the end of central directory record
+     * @return true if the central directory was indexed, or false if any entry name needs to be sanitized or
+     *         decoded before it can be compared with a path (e.g. if it contains a ".." segment or a non-ASCII
+     *         character, or has a Unicode path extra field), in which case all entries need to be read eagerly.
+     * @throws IOException
+     *             if the central directory is corrupt.
+     */
+    private boolean indexCentralDirectory(final ByteBuffer cen, final RandomAccessReader cenReader,
+            final int cenSize, final int numEnt) throws IOException {
+        int[] offsets = new int[numEnt];
+        int numIndexed = 0;
+        int entSize = 0;
+        for (int entOff = 0; entOff + 46 <= cenSize; entOff += entSize) {
+            final long sig = cenReader.readUnsignedInt(entOff);
+            if (sig != 0x02014b50L) {
+                throw new IOException(
+                        "Invalid central directory signature: 0x" + Integer.toString((int) sig, 16) + ": " + getPath());
+            }
+            final int filenameLen = cenReader.readUnsignedShort(entOff + 28);
+            final int extraFieldLen = cenReader.readUnsignedShort(entOff + 30);
+            final int commentLen = cenReader.readUnsignedShort(entOff + 32);
+            entSize = 46 + filenameLen + extraFieldLen + commentLen;
+            final int filenameStartOff = entOff + 46;
+            final int filenameEndOff = filenameStartOff + filenameLen;
+            if (filenameEndOff > cenSize) {
+                // Filename extends past end of central directory -- stop indexing here, as when reading eagerly
+                break;
+            }
+            if (filenameLen == 0 || cen.get(filenameEndOff - 1) == (byte) '/') {
+                // Skip directory entries
+                continue;
+            }
+            if (!isPlainEntryName(cen, filenameStartOff, filenameLen)
+                    || hasUnicodePathExtraField(cenReader, filenameEndOff, extraFieldLen, cenSize)) {
+                return false;
+            }
+            if (numIndexed == offsets.length) {
+                offsets = Arrays.copyOf(offsets, numIndexed * 2 + 16);
+            }
+            offsets[numIndexed++] = entOff;
+        }
+
+        cenBuf = cen;
+        cenEntryOffsets = numIndexed == offsets.length ? offsets : Arrays.copyOf(offsets, numIndexed);
+        final int[] sortedIndices = new int[numIndexed];
+        for (int i = 0; i < numIndexed; i++) {
+            sortedIndices[i] = i;
+        }
+        sortByEntryName(sortedIndices);
+        setCentralDirectoryIndex(cen, cenEntryOffsets, sortedIndices);
+        return true;
+    }
+
+    /**
+     * Set the central directory index.
+     *
+     * @param cen
+     *            the central directory
+     * @param entryOffsets
+     *            the offset of each indexed entry within the central directory
+     * @param entryIndicesSortedByName
+     *            indices into entryOffsets, stably sorted by entry name
+     */
+    private void setCentralDirectoryIndex(final ByteBuffer cen, final int[] entryOffsets,
+            final int[] entryIndicesSortedByName) {
+        cenBuf = cen;
+        cenEntryOffsets = entryOffsets;
+        cenEntryIndicesSortedByName = entryIndicesSortedByName;
+        cenEntryCache = new FastZipEntry[entryOffsets.length];
+        cenEntryRead = new BitSet(entryOffsets.length);
+    }
+
+    /** Drop the central directory index, once all entries have been read into {@link #entries}. */
+    private void dropCentralDirectoryIndex() {
+        cenBuf = null;
+        cenReader = null;
+        cenEntryOffsets = null;
+        cenEntryIndicesSortedByName = null;
+        cenEntryCache = null;
+        cenEntryRead = null;
+    }
+
+    /**
+     * Check whether an entry name is unchanged by {@link FileUtils#sanitizeEntryPath(String, boolean, boolean)},
+     * and decodes to the same string as its bytes when compared with an ASCII path.
+     *
+     * @param cen
+     *            the central directory
+     * @param nameOff
+     *            the offset of the entry name
+     * @param nameLen
+     *            the length of the entry name
+     * @return true if the entry name is ASCII, and has no initial slash, no empty segments, and no "." or ".."
+     *         segments.
+     */
+    private static boolean isPlainEntryName(final ByteBuffer cen, final int nameOff, final int nameLen) {
+        int segmentStartOff = nameOff;
+        for (int i = nameOff, iMax = nameOff + nameLen; i <= iMax; i++) {
+            final byte b = i == iMax ? (byte) '/' : cen.get(i);
+            if (b <= 0) {
+                // Non-ASCII (or NUL) character
+                return false;
+            }
+            if (b == (byte) '/' || b == (byte) '!') {
+                final int segmentLen = i - segmentStartOff;
+                if (segmentLen == 0 || (segmentLen == 1 && cen.get(i - 1) == (byte) '.')
+                        || (segmentLen == 2 && cen.get(i - 2) == (byte) '.' && cen.get(i - 1) == (byte) '.')) {
+                    return false;
                 }
+                segmentStartOff = i + 1;
+            }
+        }
+        return true;
+    }
 
-                final long locHeaderPos = locPos + pos;
-                if (locHeaderPos < 0) {
-                    if (log != null) {
-                        log.log("Skipping zip entry with invalid loc header position (" + locHeaderPos + "): "
-                                + entryNameSanitized);
-                    }
+    /**
+     * Check whether an entry has an Info-ZIP Unicode path extra field, which overrides the entry name.
+     *
+     * @param cenReader
+     *            the central directory reader
+     * @param extraFieldOff
+     *            the offset of the extra fields
+     * @param extraFieldLen
+     *            the length of the extra fields
+     * @param cenSize
+     *            the size of the central directory
+     * @return true if the entry has a Unicode path extra field.
+     * @throws IOException
+     *             if an I/O exception occurs.
+     */
+    private static boolean hasUnicodePathExtraField(final RandomAccessReader cenReader, final int extraFieldOff,
+            final int extraFieldLen, final int cenSize) throws IOException {
+        for (int off = 0; off + 4 < extraFieldLen && extraFieldOff + off + 4 <= cenSize;) {
+            final int tag = cenReader.readUnsignedShort(extraFieldOff + off);
+            if (tag == 0x7075) {
+                return true;
+            }
+            off += 4 + cenReader.readUnsignedShort(extraFieldOff + off + 2);
+        }
+        return false;
+    }
+
+    /**
+     * Compare the names of two indexed entries, as unsigned bytes.
+     *
+     * @param entryIdxA
+     *            the index of the first entry
+     * @param entryIdxB
+     *            the index of the second entry
+     * @return a negative number, zero, or a positive number if the first name is less than, equal to, or greater
+     *         than the second name.
+     */
+    private int compareEntryNames(final int entryIdxA, final int entryIdxB) {
+        final int entOffA = cenEntryOffsets[entryIdxA];
+        final int entOffB = cenEntryOffsets[entryIdxB];
+        final int lenA = entryNameLen(entOffA);
+        final int lenB = entryNameLen(entOffB);
+        for (int i = 0, n = Math.min(lenA, lenB); i < n; i++) {
+            final int diff = (cenBuf.get(entOffA + 46 + i) & 0xff) - (cenBuf.get(entOffB + 46 + i) & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return lenA - lenB;
+    }
+
+    /**
+     * Compare the name of an indexed entry with a prefix, as unsigned bytes.
+     *
+     * @param entryIdx
+     *            the index of the entry
+     * @param prefix
+     *            the prefix
+     * @return a negative number or a positive number if the name sorts before or after all names that start with
+     *         the prefix, or zero if the name starts with the prefix.
+     */
+    private int compareEntryNameToPrefix(final int entryIdx, final byte[] prefix) {
+        final int entOff = cenEntryOffsets[entryIdx];
+        final int len = entryNameLen(entOff);
+        for (int i = 0, n = Math.min(len, prefix.length); i < n; i++) {
+            final int diff = (cenBuf.get(entOff + 46 + i) & 0xff) - (prefix[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return len < prefix.length ? -1 : 0;
+    }
+
+    /**
+     * Get the length of the name of the central directory entry at the given offset.
+     *
+     * @param entOff
+     *            the entry offset
+     * @return the entry name length
+     */
+    private int entryNameLen(final int entOff) {
+        return (cenBuf.get(entOff + 28) & 0xff) | (cenBuf.get(entOff + 29) & 0xff) << 8;
+    }
+
+    /**
+     * Stably sort entry indices by entry name, using a bottom-up merge sort (the entries of most jarfiles are
+     * already close to sorted order, so runs that are already in order are copied without merging).
+     *
+     * @param indices
+     *            the entry indices to sort
+     */
+    private void sortByEntryName(final int[] indices) {
+        final int n = indices.length;
+        int[] src = indices;
+        int[] dst = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                final int mid = Math.min(lo + width, n);
+                final int hi = Math.min(lo + 2 * width, n);
+                if (mid >= hi || compareEntryNames(src[mid - 1], src[mid]) <= 0) {
+                    System.arraycopy(src, lo, dst, lo, hi - lo);
                     continue;
                 }
-                if (locHeaderPos + 4 >= slice.sliceLength) {
-                    if (log != null) {
-                        log.log("Unexpected EOF when trying to read LOC header: " + entryNameSanitized);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (i < mid && (j >= hi || compareEntryNames(src[i], src[j]) <= 0)) {
+                        dst[k] = src[i++];
+                    } else {
+                        dst[k] = src[j++];
                     }
-                    continue;
                 }
+            }
+            final int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != indices) {
+            System.arraycopy(src, 0, indices, 0, n);
+        }
+    }
 
-                // Add zip entry
-                final FastZipEntry entry = new FastZipEntry(this, locHeaderPos, entryNameSanitized, isDeflated,
-                        compressedSize, uncompressedSize, lastModifiedMillis, lastModifiedTimeMSDOS,
-                        lastModifiedDateMSDOS, fileAttributes, enableMultiReleaseVersions);
-                entries.add(entry);
+    /**
+     * Find the first position in {@link #cenEntryIndicesSortedByName} of an entry whose name does not sort before
+     * all names that start with the given prefix.
+     *
+     * @param prefix
+     *            the prefix
+     * @return the position of the first entry whose name starts with the prefix, if any.
+     */
+    private int lowerBound(final byte[] prefix) {
+        int lo = 0;
+        int hi = cenEntryIndicesSortedByName.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (compareEntryNameToPrefix(cenEntryIndicesSortedByName[mid], prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
 
-                // Record manifest entry
-                if (entry.entryName.equals(MANIFEST_PATH)) {
-                    manifestZipEntry = entry;
+    /**
+     * Get an indexed entry, reading it from the central directory the first time it is requested.
+     *
+     * @param entryIdx
+     *            the index of the entry
+     * @return the entry, or null if the entry is skipped (e.g. if it is encrypted or corrupt).
+     */
+    private FastZipEntry getIndexedEntry(final int entryIdx) {
+        if (!cenEntryRead.get(entryIdx)) {
+            cenEntryRead.set(entryIdx);
+            try {
+                cenEntryCache[entryIdx] = readEntry(cenReader, cenEntryOffsets[entryIdx], locPos, cenLog);
+            } catch (final IOException | IndexOutOfBoundsException e) {
+                if (cenLog != null) {
+                    cenLog.log("Could not read zip entry at offset " + cenEntryOffsets[entryIdx] + " in "
+                            + getPath() + " -- skipping", e);
                 }
             }
-        } catch (EOFException | IndexOutOfBoundsException e) {
-            // Stop reading entries if any entry is not within file
-            if (log != null) {
-                log.log("Reached premature EOF"
-                        + (entries.isEmpty() ? "" : " after reading zip entry " + entries.get(entries.size() - 1)));
-            }
         }
+        return cenEntryCache[entryIdx];
+    }
 
-        // Parse manifest file, if present
-        if (manifestZipEntry != null) {
-            parseManifest(manifestZipEntry, log);
+    /**
+     * Get the indexed entry with the given name. If there are several entries with the same name, the last one is
+     * returned, as when reading entries eagerly.
+     *
+     * @param entryName
+     *            the entry name
+     * @return the entry, or null if there is no entry with the given name.
+     */
+    private FastZipEntry getIndexedEntryWithName(final String entryName) {
+        final byte[] nameBytes = entryName.getBytes(StandardCharsets.UTF_8);
+        FastZipEntry entryWithName = null;
+        for (int i = lowerBound(nameBytes); i < cenEntryIndicesSortedByName.length; i++) {
+            final int entryIdx = cenEntryIndicesSortedByName[i];
+            if (compareEntryNameToPrefix(entryIdx, nameBytes) != 0
+                    || entryNameLen(cenEntryOffsets[entryIdx]) != nameBytes.length) {
+                break;
+            }
+            final FastZipEntry entry = getIndexedEntry(entryIdx);
+            if (entry != null) {
+                entryWithName = entry;
+            }
         }
+        return entryWithName;
+    }
 
-        // For multi-release jars, drop any older or non-versioned entries that are masked by the most recent
-        // version-specific entry
-        if (isMultiReleaseJar) {
-            if (VersionFinder.JAVA_MAJOR_VERSION < 9) {
-                if (log != null) {
-                    log.log("This is a multi-release jar, but JRE version " + VersionFinder.JAVA_MAJOR_VERSION
-                            + " does not support multi-release jars");
+    /**
+     * Get the zipfile entries (not including directory entries). If the central directory was indexed, entries
+     * that have not already been read are read the first time this is called.
+     *
+     * @return the zipfile entries.
+     */
+    public synchronized List<FastZipEntry> getEntries() {
+        if (entries == null) {
+            final List<FastZipEntry> allEntries = new ArrayList<>(cenEntryOffsets.length);
+            for (int entryIdx = 0; entryIdx < cenEntryOffsets.length; entryIdx++) {
+                final FastZipEntry entry = getIndexedEntry(entryIdx);
+                if (entry != null) {
+                    allEntries.add(entry);
                 }
-            } else {
-                if (log != null) {
-                    // Find all the unique multirelease versions within the jar
-                    final Set<Integer> versionsFound = new HashSet<>();
-                    for (final FastZipEntry entry : entries) {
-                        if (entry.version > 8) {
-                            versionsFound.add(entry.version);
-                        }
-                    }
-                    final List<Integer> versionsFoundSorted = new ArrayList<>(versionsFound);
-                    CollectionUtils.sortIfNotEmpty(versionsFoundSorted);
-                    log.log("This is a multi-release jar, with versions: "
-                            + StringUtils.join(", ", versionsFoundSorted));
+            }
+            entries = allEntries;
+        }
+        return entries;
+    }
+
+    /**
+     * Get the zipfile entries whose path or unversioned path starts with one of the given prefixes. If the central
+     * directory was indexed, the range of entries matching each prefix is found by binary search, and only the
+     * entries in those ranges are read.
+     *
+     * @param pathPrefixes
+     *            the path prefixes.
+     * @return the matching entries, in the same order as in {@link #getEntries()}.
+     */
+    public synchronized List<FastZipEntry> getEntriesWithPathPrefixes(final Collection<String> pathPrefixes) {
+        final List<FastZipEntry> matchingEntries = new ArrayList<>();
+        if (cenEntryIndicesSortedByName == null) {
+            for (final FastZipEntry entry : entries) {
+                if (hasPathPrefix(entry, pathPrefixes)) {
+                    matchingEntries.add(entry);
                 }
+            }
+            return matchingEntries;
+        }
 
-                // Sort in decreasing order of version in preparation for version masking
-                CollectionUtils.sortIfNotEmpty(entries);
+        // Find the indices of entries whose name starts with one of the prefixes. Entries in multi-release
+        // version sections are also checked, since the version prefix may be stripped from their unversioned path.
+        final BitSet candidateEntryIndices = new BitSet(cenEntryOffsets.length);
+        final List<String> prefixesToFind = new ArrayList<>(pathPrefixes);
+        prefixesToFind.add(MULTI_RELEASE_PATH_PREFIX);
+        for (final String prefix : prefixesToFind) {
+            final byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+            for (int i = lowerBound(prefixBytes); i < cenEntryIndicesSortedByName.length
+                    && compareEntryNameToPrefix(cenEntryIndicesSortedByName[i], prefixBytes) == 0; i++) {
+                candidateEntryIndices.set(cenEntryIndicesSortedByName[i]);
+            }
+        }
 
-                // Mask files that appear in multiple version sections, so that there is only one entry
-                // for each unversioned path, i.e. the versioned path with the highest version number
-                final List<FastZipEntry> unversionedZipEntriesMasked = new ArrayList<>(entries.size());
-                final Map<String, String> unversionedPathToVersionedPath = new HashMap<>();
-                for (final FastZipEntry versionedZipEntry : entries) {
-                    if (!unversionedPathToVersionedPath.containsKey(versionedZipEntry.entryNameUnversioned)) {
-                        // This is the first FastZipEntry for this entry's unversioned path
-                        unversionedPathToVersionedPath.put(versionedZipEntry.entryNameUnversioned,
-                                versionedZipEntry.entryName);
-                        unversionedZipEntriesMasked.add(versionedZipEntry);
-                    } else if (log != null) {
-                        log.log(unversionedPathToVersionedPath.get(versionedZipEntry.entryNameUnversioned)
-                                + " masks " + versionedZipEntry.entryName);
-                    }
+        // Read the matching entries, in central directory order
+        for (int entryIdx = candidateEntryIndices.nextSetBit(0); entryIdx >= 0; //
+                entryIdx = candidateEntryIndices.nextSetBit(entryIdx + 1)) {
+            final FastZipEntry entry = getIndexedEntry(entryIdx);
+            if (entry != null && hasPathPrefix(entry, pathPrefixes)) {
+                matchingEntries.add(entry);
+            }
+        }
+        return matchingEntries;
+    }
+
+    /**
+     * Check whether there are any zipfile entries whose path starts with the given prefix, without reading all of
+     * those entries if the central directory was indexed.
+     *
+     * @param pathPrefix
+     *            the path prefix.
+     * @return true if there are any entries whose path starts with the prefix.
+     */
+    public synchronized boolean hasEntriesWithPathPrefix(final String pathPrefix) {
+        if (cenEntryIndicesSortedByName == null) {
+            for (final FastZipEntry entry : entries) {
+                if (entry.entryName.startsWith(pathPrefix)) {
+                    return true;
                 }
+            }
+            return false;
+        }
+        final byte[] prefixBytes = pathPrefix.getBytes(StandardCharsets.UTF_8);
+        for (int i = lowerBound(prefixBytes); i < cenEntryIndicesSortedByName.length
+                && compareEntryNameToPrefix(cenEntryIndicesSortedByName[i], prefixBytes) == 0; i++) {
+            if (getIndexedEntry(cenEntryIndicesSortedByName[i]) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-                // Override entries with version-masked entries
-                entries = unversionedZipEntriesMasked;
+    /**
+     * Check whether the path or unversioned path of an entry starts with one of the given prefixes.
+     *
+     * @param entry
+     *            the entry
+     * @param pathPrefixes
+     *            the path prefixes
+     * @return true if the path or unversioned path of the entry starts with one of the prefixes.
+     */
+    private static boolean hasPathPrefix(final FastZipEntry entry, final Collection<String> pathPrefixes) {
+        for (final String prefix : pathPrefixes) {
+            if (entry.entryNameUnversioned.startsWith(prefix) || entry.entryName.startsWith(prefix)) {
+                return true;
             }
         }
+        return false;
     }
 
     // -------------------------------------------------------------------------------------------------------------
@@ -53,23 +53,30 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 import java.util.zip.ZipException;
 
+import io.github.classgraph.ClassGraph.ScanListener;
 import io.github.classgraph.ModuleReaderProxy;
 import io.github.classgraph.ModuleRef;
 import io.github.classgraph.ScanResult;
+import nonapi.io.github.classgraph.concurrency.AutoCloseableExecutorService;
 import nonapi.io.github.classgraph.concurrency.InterruptionChecker;
 import nonapi.io.github.classgraph.concurrency.SingletonMap;
 import nonapi.io.github.classgraph.fileslice.ArraySlice;
 import nonapi.io.github.classgraph.fileslice.FileSlice;
 import nonapi.io.github.classgraph.fileslice.Slice;
+import nonapi.io.github.classgraph.recycler.BufferRecycler;
 import nonapi.io.github.classgraph.recycler.Recycler;
 import nonapi.io.github.classgraph.recycler.Resettable;
 import nonapi.io.github.classgraph.reflection.ReflectionUtils;
@@ -124,14 +131,43 @@ public class NestedJarHandler {
                             + childZipEntry.uncompressedSize);
                 }
 
-                // Read the InputStream for the child zip entry to a RAM buffer, or spill to
-                // disk if it's too large
-                final PhysicalZipFile physicalZipFile = new PhysicalZipFile(childZipEntry.getSlice().open(),
-                        childZipEntry.uncompressedSize >= 0L
-                                && childZipEntry.uncompressedSize <= FileUtils.MAX_BUFFER_SIZE
-                                        ? (int) childZipEntry.uncompressedSize
-                                        : -1,
-                        childZipEntry.entryName, NestedJarHandler.this, log);
+                // If the zipfile cache is enabled, reuse the nested jar if it was inflated to RAM by a previous scan
+                final String cacheKey = scanSpec.enableZipFileCache
+                        ? ZipFileCache.getCacheKey(childZipEntry.parentLogicalZipFile.cacheKey,
+                                childZipEntry.entryName)
+                        : null;
+                final byte[] cachedContent = cacheKey == null ? null : ZipFileCache.getNestedJar(cacheKey);
+                final PhysicalZipFile physicalZipFile;
+                if (cachedContent != null) {
+                    if (log != null) {
+                        log.log("Reusing inflated nested zip entry from zipfile cache: " + childZipEntry);
+                    }
+                    physicalZipFile = new PhysicalZipFile(cachedContent, /* outermostFile = */ null,
+                            childZipEntry.entryName, NestedJarHandler.this);
+                } else {
+                    // Read the InputStream for the child zip entry to a RAM buffer, or spill to
+                    // disk if it's too large
+                    final long inflateStartTime = System.nanoTime();
+                    physicalZipFile = new PhysicalZipFile(childZipEntry.getSlice().open(),
+                            childZipEntry.uncompressedSize >= 0L
+                                    && childZipEntry.uncompressedSize <= FileUtils.MAX_BUFFER_SIZE
+                                            ? (int) childZipEntry.uncompressedSize
+                                            : -1,
+                            childZipEntry.entryName, NestedJarHandler.this, log);
+                    if (scanSpec.scanListeners != null) {
+                        final long elapsedNanos = System.nanoTime() - inflateStartTime;
+                        for (final ScanListener scanListener : scanSpec.scanListeners) {
+                            scanListener.onJarInflated(childZipEntry.entryName, physicalZipFile.length(),
+                                    elapsedNanos);
+                        }
+                    }
+                    if (cacheKey != null && physicalZipFile.slice instanceof ArraySlice) {
+                        final ArraySlice arraySlice = (ArraySlice) physicalZipFile.slice;
+                        if (arraySlice.sliceStartPos == 0L && arraySlice.sliceLength == arraySlice.arr.length) {
+                            ZipFileCache.putNestedJar(cacheKey, arraySlice.arr);
+                        }
+                    }
+                }
 
                 // Create a new logical slice of the extracted inner zipfile
                 childZipEntrySlice = new ZipFileSlice(physicalZipFile, childZipEntry);
@@ -265,17 +301,11 @@ public class NestedJarHandler {
                         if (!isDirectory) {
                             // If child path doesn't end with a slash, see if there's a non-directory entry
                             // with a name matching the child path (LogicalZipFile discards directory
-                            // entries
-                            // ending with a slash when reading the central directory of a zipfile).
-                            // N.B. We perform an O(N) search here because we assume the number of classpath
-                            // elements containing "!" sections is relatively small compared to the total
-                            // number
-                            // of entries in all jarfiles (i.e. building a HashMap of entry path to entry
-                            // for
-                            // every jarfile would generally be more expensive than performing this linear
-                            // search, and unless the classpath is enormous, the overall time performance
-                            // will not tend towards O(N^2).
-                            for (final FastZipEntry entry : parentLogicalZipFile.entries) {
+                            // entries ending with a slash when reading the central directory of a zipfile).
+                            // Only the entries with the child path as a prefix are read from the central
+                            // directory index.
+                            for (final FastZipEntry entry : parentLogicalZipFile
+                                    .getEntriesWithPathPrefixes(Collections.singletonList(childPath))) {
                                 if (entry.entryName.equals(childPath)) {
                                     childZipEntry = entry;
                                     break;
@@ -287,7 +317,8 @@ public class NestedJarHandler {
                             // path,
                             // test to see if any entries in the zipfile have the child path as a dir prefix
                             final String childPathPrefix = childPath + "/";
-                            for (final FastZipEntry entry : parentLogicalZipFile.entries) {
+                            for (final FastZipEntry entry : parentLogicalZipFile
+                                    .getEntriesWithPathPrefixes(Collections.singletonList(childPathPrefix))) {
                                 if (entry.entryName.startsWith(childPathPrefix)) {
                                     isDirectory = true;
                                     break;
@@ -393,6 +424,9 @@ public class NestedJarHandler {
         }
     };
 
+    /** A recycler for the buffers used to inflate zip entries and to read classfiles. */
+    public final BufferRecycler bufferRecycler = new BufferRecycler();
+
     /** {@link FileSlice} instances that are currently open. */
     private Set<Slice> openSlices = Collections.newSetFromMap(new ConcurrentHashMap<Slice, Boolean>());
 
@@ -408,6 +442,18 @@ public class NestedJarHandler {
     /** The interruption checker. */
     public InterruptionChecker interruptionChecker;
 
+    /** Lock for {@link #prefetchBytesInFlight} and {@link #prefetchExecutor}. */
+    private final Object prefetchLock = new Object();
+
+    /** The total size of the nested jars that are currently being inflated by prefetch threads. */
+    private long prefetchBytesInFlight;
+
+    /** The thread pool for inflating nested jars ahead of opening them, created on first use. */
+    private AutoCloseableExecutorService prefetchExecutor;
+
+    /** The time in milliseconds that idle prefetch threads are kept alive for. */
+    private static final long PREFETCH_THREAD_KEEP_ALIVE_MILLIS = 1000L;
+
     /** The default size of a file buffer. */
     private static final int DEFAULT_BUFFER_SIZE = 16384;
 
@@ -693,11 +739,11 @@ public class NestedJarHandler {
         @SuppressWarnings("resource")
         final RecyclableInflater recyclableInflater = inflaterRecycler.acquire();
         final Inflater inflater = recyclableInflater.getInflater();
+        final BufferRecycler.Buffers buffers = bufferRecycler.acquire();
         return new InputStream() {
             // Gen Inflater instance with nowrap set to true (needed by zip entries)
             private final AtomicBoolean closed = new AtomicBoolean();
-            private final byte[] buf = new byte[INFLATE_BUF_SIZE];
-            private static final int INFLATE_BUF_SIZE = 8192;
+            private final byte[] buf = buffers.getInputBuf();
 
             @Override
             public int read() throws IOException {
@@ -823,11 +869,103 @@ public class NestedJarHandler {
                     } catch (final Exception e) {
                         // Ignore
                     }
-                    // Reset and recycle inflater instance
+                    // Reset and recycle inflater instance and input buffer
                     inflaterRecycler.recycle(recyclableInflater);
+                    bufferRecycler.recycle(buffers);
+                }
+            }
+        };
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Start inflating deflated nested jars in background threads, so that each nested jar is ready by the time it is
+     * opened, rather than nested jars being inflated one at a time as they are opened. Uses a thread pool of up to
+     * {@link ScanSpec#nestedJarInflationParallelism} threads, shared by all jars opened by this handler, and limits
+     * the total size of the nested jars being inflated at any one time to {@link ScanSpec#maxBufferedJarRAMSize} (a
+     * nested jar larger than this is inflated on its own). Returns without waiting for inflation to complete, but
+     * {@link #close(LogNode)} waits for any inflation in progress. Any exception is ignored here, since the
+     * failure is reported when the nested jar is opened.
+     *
+     * @param zipEntries
+     *            the zip entries of the nested jars.
+     * @param log
+     *            the log.
+     */
+    public void prefetchNestedJars(final List<FastZipEntry> zipEntries, final LogNode log) {
+        final Queue<FastZipEntry> deflatedZipEntries = new ConcurrentLinkedQueue<>();
+        for (final FastZipEntry zipEntry : zipEntries) {
+            if (zipEntry.isDeflated) {
+                deflatedZipEntries.add(zipEntry);
+            }
+        }
+        final int numThreads = Math.min(scanSpec.nestedJarInflationParallelism, deflatedZipEntries.size());
+        if (numThreads < 1) {
+            return;
+        }
+        final AutoCloseableExecutorService executor;
+        synchronized (prefetchLock) {
+            if (closed.get()) {
+                return;
+            }
+            if (prefetchExecutor == null) {
+                prefetchExecutor = new AutoCloseableExecutorService(scanSpec.nestedJarInflationParallelism,
+                        "ClassGraph-nested-jar-inflater-", PREFETCH_THREAD_KEEP_ALIVE_MILLIS);
+            }
+            executor = prefetchExecutor;
+        }
+        if (log != null) {
+            log.log("Inflating " + deflatedZipEntries.size() + " deflated nested jars using up to " + numThreads
+                    + " threads");
+        }
+        final Runnable prefetcher = new Runnable() {
+            @Override
+            public void run() {
+                for (FastZipEntry zipEntry; (zipEntry = deflatedZipEntries.poll()) != null;) {
+                    final SingletonMap<FastZipEntry, ZipFileSlice, IOException> zipFileSliceMap = //
+                            fastZipEntryToZipFileSliceMap;
+                    if (zipFileSliceMap == null || closed.get() || interruptionChecker.checkAndReturn()) {
+                        return;
+                    }
+                    final long inflatedSize = zipEntry.uncompressedSize >= 0L
+                            ? Math.min(zipEntry.uncompressedSize, scanSpec.maxBufferedJarRAMSize)
+                            : scanSpec.maxBufferedJarRAMSize;
+                    try {
+                        synchronized (prefetchLock) {
+                            while (!closed.get() && prefetchBytesInFlight > 0L
+                                    && prefetchBytesInFlight + inflatedSize > scanSpec.maxBufferedJarRAMSize) {
+                                prefetchLock.wait();
+                            }
+                            if (closed.get()) {
+                                return;
+                            }
+                            prefetchBytesInFlight += inflatedSize;
+                        }
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                    try {
+                        zipFileSliceMap.get(zipEntry, /* log = */ null);
+                    } catch (final IOException | InterruptedException | SingletonMap.NullSingletonException
+                            | SingletonMap.NewInstanceException e) {
+                        // Ignore -- the failure is reported when the nested jar is opened
+                    } finally {
+                        synchronized (prefetchLock) {
+                            prefetchBytesInFlight -= inflatedSize;
+                            prefetchLock.notifyAll();
+                        }
+                    }
                 }
             }
         };
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                executor.execute(prefetcher);
+            }
+        } catch (final RejectedExecutionException e) {
+            // This handler was closed
+        }
     }
 
     // -------------------------------------------------------------------------------------------------------------
@@ -1034,6 +1172,17 @@ public class NestedJarHandler {
      */
     public void close(final LogNode log) {
         if (!closed.getAndSet(true)) {
+            // Stop inflating nested jars ahead of opening them, and wait for any nested jars that are being
+            // inflated, before releasing the resources they use
+            final AutoCloseableExecutorService executor;
+            synchronized (prefetchLock) {
+                executor = prefetchExecutor;
+                prefetchExecutor = null;
+                prefetchLock.notifyAll();
+            }
+            if (executor != null) {
+                executor.close();
+            }
             boolean interrupted = false;
             if (moduleRefToModuleReaderProxyRecyclerMap != null) {
                 boolean completedWithoutInterruption = false;
@@ -1085,6 +1234,7 @@ public class NestedJarHandler {
             if (inflaterRecycler != null) {
                 inflaterRecycler.forceClose();
             }
+            bufferRecycler.forceClose();
             // Temp files have to be deleted last, after all PhysicalZipFiles are closed and
             // files are unmapped
             if (tempFiles != null) {
@@ -60,6 +60,9 @@ class PhysicalZipFile {
     /** The nested jar handler. */
     NestedJarHandler nestedJarHandler;
 
+    /** The key for this zipfile in the {@link ZipFileCache}, or null if the zipfile is not cached. */
+    String cacheKey;
+
     /** The cached hashCode. */
     private int hashCode;
 
@@ -81,6 +84,9 @@ class PhysicalZipFile {
         this.file = file;
         this.pathStr = FastPathResolver.resolve(FileUtils.currDirPath(), file.getPath());
         this.slice = new FileSlice(file, nestedJarHandler, log);
+        if (nestedJarHandler.scanSpec.enableZipFileCache) {
+            this.cacheKey = ZipFileCache.getCacheKey(file);
+        }
     }
 
     /**
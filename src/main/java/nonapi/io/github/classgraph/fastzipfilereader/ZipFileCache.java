@@ -0,0 +1,298 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package nonapi.io.github.classgraph.fastzipfilereader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A process-wide cache of the central directories of jarfiles, and of the contents of deflated nested jars that
+ * were inflated to RAM, so that scans with different configurations over the same jarfiles do not each need to
+ * re-read central directories, re-index them by entry name, or re-inflate nested jars (see
+ * {@link io.github.classgraph.ClassGraph#enableZipFileCache()}).
+ * 
+ * <p>
+ * Entries are keyed by the canonical path, size and last modified time of the outermost jarfile, followed by the
+ * path of any nested jar within it, so a modified jarfile is never matched with a stale entry, and the same jarfile
+ * reached through different paths shares one entry. Cached state is immutable and
+ * held in RAM, rather than being tied to open files, so it is unaffected by a {@link io.github.classgraph.ScanResult}
+ * being closed, and can be shared by concurrent scans. The least recently used entries are evicted once the total
+ * size of cached entries exceeds the maximum size, which defaults to {@link #DEFAULT_MAX_CACHED_BYTES}, and can be
+ * changed with {@link #setMaxCachedBytes(long)}.
+ */
+public final class ZipFileCache {
+    /** The default maximum total size of cached entries, in bytes. */
+    public static final long DEFAULT_MAX_CACHED_BYTES = 64L * 1024 * 1024;
+
+    /** The maximum total size of cached entries, in bytes. */
+    private static long maxCachedBytes = DEFAULT_MAX_CACHED_BYTES;
+
+    /** The cached entries, in least recently used order. */
+    private static final Map<String, CachedEntry> CACHE = new LinkedHashMap<>(16, 0.75f, /* accessOrder = */ true);
+
+    /** The total size of cached entries, in bytes. */
+    private static long cachedBytes;
+
+    /** Constructor. */
+    private ZipFileCache() {
+        // Cannot be constructed
+    }
+
+    /** A cached entry. */
+    private abstract static class CachedEntry {
+        /**
+         * Get the approximate size of the entry.
+         *
+         * @return the approximate size of the entry, in bytes.
+         */
+        abstract long sizeBytes();
+    }
+
+    /** The central directory of a zipfile, and its index by entry name, if it could be indexed. */
+    static class CentralDirectory extends CachedEntry {
+        /** The central directory. */
+        final byte[] cen;
+
+        /** The number of entries in the central directory. */
+        final int numEnt;
+
+        /** The offset of the first local file header. */
+        final long locPos;
+
+        /** The offset of each indexed entry within {@link #cen}, or null if the entries could not be indexed. */
+        final int[] cenEntryOffsets;
+
+        /** Indices into {@link #cenEntryOffsets}, stably sorted by entry name, or null if not indexed. */
+        final int[] cenEntryIndicesSortedByName;
+
+        /**
+         * Constructor.
+         *
+         * @param cen
+         *            the central directory
+         * @param numEnt
+         *            the number of entries in the central directory
+         * @param locPos
+         *            the offset of the first local file header
+         * @param cenEntryOffsets
+         *            the offset of each indexed entry, or null if the entries could not be indexed
+         * @param cenEntryIndicesSortedByName
+         *            the indices of the indexed entries, sorted by entry name, or null if not indexed
+         */
+        CentralDirectory(final byte[] cen, final int numEnt, final long locPos, final int[] cenEntryOffsets,
+                final int[] cenEntryIndicesSortedByName) {
+            this.cen = cen;
+            this.numEnt = numEnt;
+            this.locPos = locPos;
+            this.cenEntryOffsets = cenEntryOffsets;
+            this.cenEntryIndicesSortedByName = cenEntryIndicesSortedByName;
+        }
+
+        @Override
+        long sizeBytes() {
+            return cen.length + (cenEntryOffsets == null ? 0L : 8L * cenEntryOffsets.length);
+        }
+    }
+
+    /** The inflated contents of a deflated nested jar. */
+    private static class NestedJar extends CachedEntry {
+        /** The inflated nested jar. */
+        final byte[] content;
+
+        /**
+         * Constructor.
+         *
+         * @param content
+         *            the inflated nested jar
+         */
+        NestedJar(final byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        long sizeBytes() {
+            return content.length;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the cache key for a jarfile.
+     *
+     * @param file
+     *            the jarfile
+     * @return the cache key.
+     */
+    static String getCacheKey(final File file) {
+        String path;
+        try {
+            path = file.getCanonicalPath();
+        } catch (final IOException | SecurityException e) {
+            path = file.getPath();
+        }
+        return path + '|' + file.length() + '|' + file.lastModified();
+    }
+
+    /**
+     * Get the cache key for a nested jar.
+     *
+     * @param parentCacheKey
+     *            the cache key of the parent jarfile, or null if the parent is not cacheable
+     * @param entryName
+     *            the path of the nested jar within the parent jarfile
+     * @return the cache key, or null if the parent is not cacheable.
+     */
+    static String getCacheKey(final String parentCacheKey, final String entryName) {
+        return parentCacheKey == null ? null : parentCacheKey + "!/" + entryName;
+    }
+
+    /**
+     * Get a cached entry.
+     *
+     * @param key
+     *            the key
+     * @return the cached entry, or null if not cached.
+     */
+    private static synchronized CachedEntry get(final String key) {
+        return CACHE.get(key);
+    }
+
+    /**
+     * Evict the least recently used entries until the cache is no larger than the maximum size.
+     */
+    private static synchronized void evict() {
+        for (final Iterator<CachedEntry> iter = CACHE.values().iterator(); cachedBytes > maxCachedBytes;) {
+            cachedBytes -= iter.next().sizeBytes();
+            iter.remove();
+        }
+    }
+
+    /**
+     * Add an entry to the cache, then evict the least recently used entries until the cache is no larger than the
+     * maximum size.
+     *
+     * @param key
+     *            the key
+     * @param entry
+     *            the entry
+     */
+    private static synchronized void put(final String key, final CachedEntry entry) {
+        if (entry.sizeBytes() > maxCachedBytes) {
+            return;
+        }
+        final CachedEntry oldEntry = CACHE.put(key, entry);
+        if (oldEntry != null) {
+            cachedBytes -= oldEntry.sizeBytes();
+        }
+        cachedBytes += entry.sizeBytes();
+        evict();
+    }
+
+    /**
+     * Get a cached central directory.
+     *
+     * @param key
+     *            the cache key of the zipfile
+     * @return the central directory, or null if not cached.
+     */
+    static CentralDirectory getCentralDirectory(final String key) {
+        final CachedEntry entry = get("cen:" + key);
+        return entry instanceof CentralDirectory ? (CentralDirectory) entry : null;
+    }
+
+    /**
+     * Cache a central directory.
+     *
+     * @param key
+     *            the cache key of the zipfile
+     * @param centralDirectory
+     *            the central directory
+     */
+    static void putCentralDirectory(final String key, final CentralDirectory centralDirectory) {
+        put("cen:" + key, centralDirectory);
+    }
+
+    /**
+     * Get the cached contents of an inflated nested jar.
+     *
+     * @param key
+     *            the cache key of the nested jar
+     * @return the inflated nested jar, or null if not cached.
+     */
+    static byte[] getNestedJar(final String key) {
+        final CachedEntry entry = get("jar:" + key);
+        return entry instanceof NestedJar ? ((NestedJar) entry).content : null;
+    }
+
+    /**
+     * Cache the contents of an inflated nested jar.
+     *
+     * @param key
+     *            the cache key of the nested jar
+     * @param content
+     *            the inflated nested jar
+     */
+    static void putNestedJar(final String key, final byte[] content) {
+        put("jar:" + key, new NestedJar(content));
+    }
+
+    /**
+     * Get the number of cached entries.
+     *
+     * @return the number of cached entries.
+     */
+    public static synchronized int size() {
+        return CACHE.size();
+    }
+
+    /**
+     * Set the maximum total size of cached entries, evicting the least recently used entries if the cache is
+     * larger than the new maximum size.
+     *
+     * @param maxCachedBytes
+     *            the maximum total size of cached entries, in bytes
+     */
+    public static synchronized void setMaxCachedBytes(final long maxCachedBytes) {
+        if (maxCachedBytes < 0L) {
+            throw new IllegalArgumentException("maxCachedBytes must be non-negative");
+        }
+        ZipFileCache.maxCachedBytes = maxCachedBytes;
+        evict();
+    }
+
+    /** Remove all entries from the cache. */
+    public static synchronized void clear() {
+        CACHE.clear();
+        cachedBytes = 0L;
+    }
+}
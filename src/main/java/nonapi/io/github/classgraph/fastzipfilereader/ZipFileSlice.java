@@ -46,6 +46,8 @@ public class ZipFileSlice {
     private final String pathWithinParentZipFileSlice;
     /** The {@link Slice} containing the zipfile. */
     public Slice slice;
+    /** The key for this zipfile slice in the {@link ZipFileCache}, or null if the zipfile slice is not cached. */
+    final String cacheKey;
 
     /**
      * Create a ZipFileSlice that wraps a toplevel {@link PhysicalZipFile}.
@@ -58,6 +60,7 @@ public class ZipFileSlice {
         this.physicalZipFile = physicalZipFile;
         this.slice = physicalZipFile.slice;
         this.pathWithinParentZipFileSlice = physicalZipFile.getPathStr();
+        this.cacheKey = physicalZipFile.cacheKey;
     }
 
     /**
@@ -74,6 +77,7 @@ public class ZipFileSlice {
         this.physicalZipFile = physicalZipFile;
         this.slice = physicalZipFile.slice;
         this.pathWithinParentZipFileSlice = zipEntry.entryName;
+        this.cacheKey = ZipFileCache.getCacheKey(zipEntry.parentLogicalZipFile.cacheKey, zipEntry.entryName);
     }
 
     /**
@@ -91,6 +95,7 @@ public class ZipFileSlice {
         this.physicalZipFile = zipEntry.parentLogicalZipFile.physicalZipFile;
         this.slice = zipEntry.getSlice();
         this.pathWithinParentZipFileSlice = zipEntry.entryName;
+        this.cacheKey = ZipFileCache.getCacheKey(zipEntry.parentLogicalZipFile.cacheKey, zipEntry.entryName);
     }
 
     /**
@@ -104,6 +109,7 @@ public class ZipFileSlice {
         this.physicalZipFile = other.physicalZipFile;
         this.slice = other.slice;
         this.pathWithinParentZipFileSlice = other.pathWithinParentZipFileSlice;
+        this.cacheKey = other.cacheKey;
     }
 
     /**
@@ -37,6 +37,8 @@ import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.github.classgraph.ClassGraph;
@@ -67,6 +69,12 @@ public class FileSlice extends Slice {
     /** True if this is a top level file slice. */
     private final boolean isTopLevelFileSlice;
 
+    /**
+     * Ranges of the file that were memory-mapped by {@link #mapRange(long, int, LogNode)}, shared with all slices of
+     * the toplevel slice, and unmapped when the toplevel slice is closed.
+     */
+    private final List<MappedByteBuffer> mappedRanges;
+
     /** True if {@link #close} has been called. */
     private final AtomicBoolean isClosed = new AtomicBoolean();
 
@@ -96,6 +104,7 @@ public class FileSlice extends Slice {
         this.fileChannel = parentSlice.fileChannel;
         this.fileLength = parentSlice.fileLength;
         this.isTopLevelFileSlice = false;
+        this.mappedRanges = parentSlice.mappedRanges;
 
         if (parentSlice.backingByteBuffer != null) {
             // Duplicate and slice the backing byte buffer, if there is one
@@ -135,6 +144,7 @@ public class FileSlice extends Slice {
         this.fileChannel = raf.getChannel();
         this.fileLength = file.length();
         this.isTopLevelFileSlice = true;
+        this.mappedRanges = new ArrayList<>();
 
         if (nestedJarHandler.scanSpec.enableMemoryMapping) {
             // TODO: for JDK 24+, use the new Arena API to memory-map the file to a MemorySegment:
@@ -280,6 +290,61 @@ public class FileSlice extends Slice {
         }
     }
 
+    /**
+     * Get a view of the slice, if the file is memory-mapped, without copying the slice.
+     *
+     * @return a {@link ByteBuffer} view of the slice, with index 0 at the start of the slice, or null if the file
+     *         is not memory-mapped.
+     */
+    public ByteBuffer mappedSlice() {
+        if (backingByteBuffer == null) {
+            return null;
+        }
+        final ByteBuffer dup = backingByteBuffer.duplicate();
+        ((Buffer) dup).position((int) sliceStartPos);
+        ((Buffer) dup).limit((int) (sliceStartPos + sliceLength));
+        return dup.slice();
+    }
+
+    /**
+     * Get a {@link ByteBuffer} view of a range of the slice, by memory-mapping only that range of the file, without
+     * reading the range into RAM. If the whole file is already memory-mapped, returns a view of the mapped file.
+     *
+     * @param offset
+     *            the offset of the range within the slice
+     * @param length
+     *            the length of the range
+     * @param log
+     *            the log
+     * @return a {@link ByteBuffer} view of the range, with index 0 at the start of the range, or null if the
+     *         range could not be memory-mapped.
+     */
+    public ByteBuffer mapRange(final long offset, final int length, final LogNode log) {
+        if (backingByteBuffer != null) {
+            final ByteBuffer dup = backingByteBuffer.duplicate();
+            ((Buffer) dup).position((int) (sliceStartPos + offset));
+            ((Buffer) dup).limit((int) (sliceStartPos + offset + length));
+            return dup.slice();
+        }
+        if (isClosed.get()) {
+            return null;
+        }
+        final MappedByteBuffer mappedRange;
+        try {
+            mappedRange = fileChannel.map(MapMode.READ_ONLY, sliceStartPos + offset, length);
+        } catch (IOException | OutOfMemoryError e) {
+            if (log != null) {
+                log.log("Range of file " + file + " cannot be memory mapped: " + e
+                        + " (using RandomAccessFile API instead)");
+            }
+            return null;
+        }
+        synchronized (mappedRanges) {
+            mappedRanges.add(mappedRange);
+        }
+        return mappedRange;
+    }
+
     @Override
     public boolean equals(final Object o) {
         return super.equals(o);
@@ -290,7 +355,7 @@ public class FileSlice extends Slice {
         return super.hashCode();
     }
 
-    /** Close the slice. Unmaps any backing {@link MappedByteBuffer}. */
+    /** Close the slice. Unmaps any backing {@link MappedByteBuffer}, and any memory-mapped ranges. */
     @Override
     public void close() {
         if (!isClosed.getAndSet(true)) {
@@ -299,6 +364,14 @@ public class FileSlice extends Slice {
                 // (also duplicates of MappedByteBuffers cannot be closed by the cleaner API)
                 nestedJarHandler.closeDirectByteBuffer(backingByteBuffer);
             }
+            if (isTopLevelFileSlice) {
+                synchronized (mappedRanges) {
+                    for (final MappedByteBuffer mappedRange : mappedRanges) {
+                        nestedJarHandler.closeDirectByteBuffer(mappedRange);
+                    }
+                    mappedRanges.clear();
+                }
+            }
             backingByteBuffer = null;
             fileChannel = null;
             try {
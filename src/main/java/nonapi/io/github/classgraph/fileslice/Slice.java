@@ -40,6 +40,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import io.github.classgraph.Resource;
 import nonapi.io.github.classgraph.fastzipfilereader.NestedJarHandler;
 import nonapi.io.github.classgraph.fileslice.reader.RandomAccessReader;
+import nonapi.io.github.classgraph.recycler.BufferRecycler;
 import nonapi.io.github.classgraph.utils.FileUtils;
 
 /**
@@ -253,6 +254,15 @@ public abstract class Slice implements Closeable {
      */
     public abstract RandomAccessReader randomAccessReader();
 
+    /**
+     * Get the {@link BufferRecycler} to obtain buffers from when reading this {@link Slice}.
+     *
+     * @return the {@link BufferRecycler}, or null if there is no {@link NestedJarHandler}.
+     */
+    public BufferRecycler bufferRecycler() {
+        return nestedJarHandler == null ? null : nestedJarHandler.bufferRecycler;
+    }
+
     /**
      * Load the slice as a byte array.
      *
@@ -42,6 +42,7 @@ import io.github.classgraph.Resource;
 import nonapi.io.github.classgraph.fileslice.ArraySlice;
 import nonapi.io.github.classgraph.fileslice.FileSlice;
 import nonapi.io.github.classgraph.fileslice.Slice;
+import nonapi.io.github.classgraph.recycler.BufferRecycler;
 import nonapi.io.github.classgraph.utils.FileUtils;
 import nonapi.io.github.classgraph.utils.StringUtils;
 
@@ -49,6 +50,10 @@ import nonapi.io.github.classgraph.utils.StringUtils;
  * A {@link Slice} reader that works as either a {@link RandomAccessReader} or a {@link SequentialReader}. The file
  * is buffered up to the point it has been read so far. Reads in <b>big endian</b> order, as required by the
  * classfile format.
+ * 
+ * <p>
+ * If the slice is not deflated, and is either an {@link ArraySlice} or a memory-mapped {@link FileSlice}, the
+ * classfile is read in place from the backing array or mapped buffer, without being copied.
  */
 public class ClassfileReader implements RandomAccessReader, SequentialReader, Closeable {
     /** The underlying resource to close when {@link ClassfileReader#close()} is called. */
@@ -63,9 +68,24 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
      */
     private RandomAccessReader randomAccessReader;
 
+    /**
+     * If the slice is a memory-mapped {@link FileSlice} that is not deflated, a view of the mapped slice, which is
+     * read in place (in which case {@link #arr} is null).
+     */
+    private ByteBuffer byteBuffer;
+
     /** Buffer. */
     private byte[] arr;
 
+    /** The recycler that {@link #buffers} was obtained from, or null if arr is not a pooled buffer. */
+    private BufferRecycler bufferRecycler;
+
+    /** The pooled buffers that arr was obtained from, or null if arr is not a pooled buffer. */
+    private BufferRecycler.Buffers buffers;
+
+    /** The offset of the start of the classfile within arr. */
+    private int arrOffset;
+
     /** The number of bytes used in arr. */
     private int arrUsed;
 
@@ -77,6 +97,9 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
      */
     private int classfileLengthHint = -1;
 
+    /** The time spent reading (and, for deflated slices, inflating) bytes into the buffer, in nanoseconds. */
+    private long readNanos;
+
     /**
      * Initial buffer size. For most classfiles, only the first 16-64kb needs to be read (we don't read the
      * bytecodes).
@@ -108,29 +131,31 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         if (slice.isDeflatedZipEntry) {
             // If this is a deflated slice, need to read from an InflaterInputStream to fill buffer
             inflaterInputStream = slice.open();
-            arr = new byte[INITIAL_BUF_SIZE];
-            classfileLengthHint = (int) Math.min(slice.inflatedLengthHint, FileUtils.MAX_BUFFER_SIZE);
+            classfileLengthHint = slice.inflatedLengthHint > 0
+                    ? (int) Math.min(slice.inflatedLengthHint, FileUtils.MAX_BUFFER_SIZE)
+                    : -1;
+            acquireBuf(slice);
+        } else if (slice instanceof ArraySlice) {
+            // If slice is an ArraySlice, avoid copying by simply reusing the wrapped byte array
+            // in place of the buffer array, starting at the slice offset, and mark it as fully loaded
+            final ArraySlice arraySlice = (ArraySlice) slice;
+            arr = arraySlice.arr;
+            arrOffset = (int) arraySlice.sliceStartPos;
+            arrUsed = (int) arraySlice.sliceLength;
+            classfileLengthHint = arrUsed;
         } else {
-            if (slice instanceof ArraySlice) {
-                // If slice is an ArraySlice, avoid copying by simply reusing the wrapped byte array
-                // in place of the buffer array, and mark it as fully loaded
-                final ArraySlice arraySlice = (ArraySlice) slice;
-                if (arraySlice.sliceStartPos == 0 && arraySlice.sliceLength == arraySlice.arr.length) {
-                    // ArraySlice is the whole array
-                    arr = arraySlice.arr;
-                } else {
-                    // ArraySlice covers only a partial array, and this class doesn't support a starting
-                    // offset, so copy the sliced part of the array to a new buffer
-                    arr = Arrays.copyOfRange(arraySlice.arr, (int) arraySlice.sliceStartPos,
-                            (int) (arraySlice.sliceStartPos + arraySlice.sliceLength));
-                }
-                arrUsed = arr.length;
-                classfileLengthHint = arr.length;
+            final ByteBuffer mappedSlice = slice instanceof FileSlice ? ((FileSlice) slice).mappedSlice() : null;
+            if (mappedSlice != null) {
+                // If slice is a memory-mapped FileSlice, read from the mapped buffer in place, and mark it
+                // as fully loaded
+                byteBuffer = mappedSlice;
+                arrUsed = mappedSlice.limit();
+                classfileLengthHint = arrUsed;
             } else {
-                // Otherwise this is a FileSlice -- need to fetch chunks of bytes using a random access reader
+                // Otherwise need to fetch chunks of bytes using a random access reader
                 randomAccessReader = slice.randomAccessReader();
-                arr = new byte[INITIAL_BUF_SIZE];
                 classfileLengthHint = (int) Math.min(slice.sliceLength, FileUtils.MAX_BUFFER_SIZE);
+                acquireBuf(slice);
             }
         }
     }
@@ -151,6 +176,36 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         this.resourceToClose = resourceToClose;
     }
 
+    /**
+     * Get the initial buffer size for a classfile, so that small classfiles of known length do not allocate a
+     * larger buffer than they need.
+     *
+     * @param lengthHint
+     *            the length of the classfile, or -1 if unknown.
+     * @return the initial buffer size.
+     */
+    private static int initialBufSize(final int lengthHint) {
+        return lengthHint > 0 && lengthHint < INITIAL_BUF_SIZE ? lengthHint : INITIAL_BUF_SIZE;
+    }
+
+    /**
+     * Set arr to a pooled buffer from the {@link BufferRecycler} of the slice (which may be larger than the
+     * initial buffer size), or to a new buffer if the slice has no {@link BufferRecycler}.
+     *
+     * @param slice
+     *            the slice to be read into the buffer.
+     */
+    private void acquireBuf(final Slice slice) {
+        final int initialBufSize = initialBufSize(classfileLengthHint);
+        bufferRecycler = slice.bufferRecycler();
+        if (bufferRecycler != null) {
+            buffers = bufferRecycler.acquire();
+            arr = buffers.getOutputBuf(initialBufSize);
+        } else {
+            arr = new byte[initialBufSize];
+        }
+    }
+
     /**
      * Curr pos.
      *
@@ -161,12 +216,22 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
     }
 
     /**
-     * Buf.
+     * Bytes read.
      *
-     * @return the buffer.
+     * @return the number of bytes of the classfile that have been read into the buffer so far (or the length of
+     *         the classfile, if it is read in place).
      */
-    public byte[] buf() {
-        return arr;
+    public int bytesRead() {
+        return arrUsed;
+    }
+
+    /**
+     * Read nanos.
+     *
+     * @return the time spent reading (and, for deflated slices, inflating) bytes into the buffer, in nanoseconds.
+     */
+    public long readNanos() {
+        return readNanos;
     }
 
     /**
@@ -183,8 +248,8 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         // is an underestimate, classfile will be truncated). If -1, assume 2GB is the max size.
         final int maxArrLen = classfileLengthHint == -1 ? FileUtils.MAX_BUFFER_SIZE : classfileLengthHint;
         if (inflaterInputStream == null && randomAccessReader == null) {
-            // If neither inflaterInputStream nor randomAccessReader is set, then slice is an ArraySlice,
-            // and array is already "fully loaded" (the ArraySlice's backing array is used as the buffer).
+            // If neither inflaterInputStream nor randomAccessReader is set, then slice is an ArraySlice or
+            // a mapped FileSlice, and is already "fully loaded" (it is read in place).
             throw new IOException("Tried to read past end of fixed array buffer");
         }
         if (targetArrUsed > FileUtils.MAX_BUFFER_SIZE || targetArrUsed < 0 || arrUsed == maxArrLen) {
@@ -203,10 +268,14 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         if (newArrLength > FileUtils.MAX_BUFFER_SIZE) {
             throw new IOException("Hit 2GB limit while trying to grow buffer array");
         }
-        arr = Arrays.copyOf(arr, (int) Math.min(newArrLength, maxArrLen));
+        if (newArrLength > arr.length) {
+            arr = Arrays.copyOf(arr, (int) Math.min(newArrLength, maxArrLen));
+        }
 
-        // Figure out the maximum number of bytes that can be read into the array
-        final int maxBytesToRead = arr.length - arrUsed;
+        // Figure out the maximum number of bytes that can be read into the array (a pooled array may be longer
+        // than the classfile, so don't read past the length hint)
+        final int maxBytesToRead = Math.min(arr.length, maxArrLen) - arrUsed;
+        final long readStartTime = System.nanoTime();
 
         // Read a new chunk into the buffer, starting at position arrUsed
         if (inflaterInputStream != null) {
@@ -216,15 +285,14 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
                 arrUsed += numRead;
             }
         } else /* randomAccessReader == null, so this is a (non-deflated) FileSlice */ {
-            // Don't read past end of slice
-            final int bytesToRead = Math.min(maxBytesToRead, maxArrLen - arrUsed);
             // Read bytes from FileSlice into arr
             final int numBytesRead = randomAccessReader.read(/* srcOffset = */ arrUsed, /* dstArr = */ arr,
-                    /* dstArrStart = */ arrUsed, /* numBytes = */ bytesToRead);
+                    /* dstArrStart = */ arrUsed, /* numBytes = */ maxBytesToRead);
             if (numBytesRead > 0) {
                 arrUsed += numBytesRead;
             }
         }
+        readNanos += System.nanoTime() - readStartTime;
 
         // Check the buffer was able to be filled to the requested position
         if (arrUsed < targetArrUsed) {
@@ -246,6 +314,145 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         }
     }
 
+    /**
+     * Compare the bytes at the given offset with an ASCII string, without constructing a {@link String}.
+     *
+     * @param offset
+     *            the offset of the bytes to compare
+     * @param asciiStr
+     *            the ASCII string to compare with
+     * @return true if the next {@code asciiStr.length()} bytes at the offset are equal to the characters of the
+     *         string.
+     * @throws IOException
+     *             on EOF or if the bytes could not be read.
+     */
+    public boolean asciiStringEquals(final int offset, final String asciiStr) throws IOException {
+        final int numBytes = asciiStr.length();
+        if (offset + numBytes > arrUsed) {
+            readTo(offset + numBytes);
+        }
+        if (byteBuffer != null) {
+            for (int i = 0; i < numBytes; i++) {
+                if ((char) (byteBuffer.get(offset + i) & 0xff) != asciiStr.charAt(i)) {
+                    return false;
+                }
+            }
+        } else {
+            final int idx = arrOffset + offset;
+            for (int i = 0; i < numBytes; i++) {
+                if ((char) (arr[idx + i] & 0xff) != asciiStr.charAt(i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the first occurrence of a sequence of bytes within a range of the classfile, without constructing a
+     * {@link String}.
+     *
+     * @param offset
+     *            the offset of the start of the range to search
+     * @param numBytes
+     *            the length of the range to search
+     * @param bytes
+     *            the (non-empty) sequence of bytes to search for
+     * @return the offset of the first occurrence of the bytes within the range, or -1 if not found.
+     * @throws IOException
+     *             on EOF or if the bytes could not be read.
+     */
+    public int indexOf(final int offset, final int numBytes, final byte[] bytes) throws IOException {
+        if (offset + numBytes > arrUsed) {
+            readTo(offset + numBytes);
+        }
+        final byte firstByte = bytes[0];
+        for (int i = offset, lastStart = offset + numBytes - bytes.length; i <= lastStart; i++) {
+            if (byteAt(i) == firstByte) {
+                int j = 1;
+                while (j < bytes.length && byteAt(i + j) == bytes[j]) {
+                    j++;
+                }
+                if (j == bytes.length) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Hash a range of bytes of the classfile, without constructing a {@link String}.
+     *
+     * @param offset
+     *            the offset of the bytes to hash
+     * @param numBytes
+     *            the number of bytes to hash
+     * @return the hash of the bytes.
+     * @throws IOException
+     *             on EOF or if the bytes could not be read.
+     */
+    public int hashBytes(final int offset, final int numBytes) throws IOException {
+        if (offset + numBytes > arrUsed) {
+            readTo(offset + numBytes);
+        }
+        int hash = 1;
+        if (byteBuffer != null) {
+            for (int i = offset, end = offset + numBytes; i < end; i++) {
+                hash = 31 * hash + byteBuffer.get(i);
+            }
+        } else {
+            for (int i = arrOffset + offset, end = arrOffset + offset + numBytes; i < end; i++) {
+                hash = 31 * hash + arr[i];
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Compare a range of bytes of the classfile with a byte array, without constructing a {@link String}.
+     *
+     * @param offset
+     *            the offset of the bytes to compare
+     * @param bytes
+     *            the bytes to compare with
+     * @return true if the next {@code bytes.length} bytes at the offset are equal to the bytes.
+     * @throws IOException
+     *             on EOF or if the bytes could not be read.
+     */
+    public boolean bytesEqual(final int offset, final byte[] bytes) throws IOException {
+        final int numBytes = bytes.length;
+        if (offset + numBytes > arrUsed) {
+            readTo(offset + numBytes);
+        }
+        if (byteBuffer != null) {
+            for (int i = 0; i < numBytes; i++) {
+                if (byteBuffer.get(offset + i) != bytes[i]) {
+                    return false;
+                }
+            }
+        } else {
+            final int idx = arrOffset + offset;
+            for (int i = 0; i < numBytes; i++) {
+                if (arr[idx + i] != bytes[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the byte at an index that has already been read.
+     *
+     * @param idx
+     *            the index
+     * @return the byte
+     */
+    private byte byteAt(final int idx) {
+        return byteBuffer != null ? byteBuffer.get(idx) : arr[arrOffset + idx];
+    }
+
     @Override
     public int read(final long srcOffset, final byte[] dstArr, final int dstArrStart, final int numBytes)
             throws IOException {
@@ -261,9 +468,15 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
             return -1;
         }
         try {
-            System.arraycopy(arr, idx, dstArr, dstArrStart, numBytesToRead);
+            if (byteBuffer != null) {
+                final ByteBuffer dup = byteBuffer.duplicate();
+                ((Buffer) dup).position(idx);
+                dup.get(dstArr, dstArrStart, numBytesToRead);
+            } else {
+                System.arraycopy(arr, arrOffset + idx, dstArr, dstArrStart, numBytesToRead);
+            }
             return numBytesToRead;
-        } catch (final IndexOutOfBoundsException e) {
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
             throw new IOException("Read index out of bounds");
         }
     }
@@ -285,9 +498,17 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         try {
             ((Buffer) dstBuf).position(dstBufStart);
             ((Buffer) dstBuf).limit(dstBufStart + numBytesToRead);
-            dstBuf.put(arr, idx, numBytesToRead);
+            if (byteBuffer != null) {
+                final ByteBuffer dup = byteBuffer.duplicate();
+                ((Buffer) dup).position(idx);
+                ((Buffer) dup).limit(idx + numBytesToRead);
+                dstBuf.put(dup);
+            } else {
+                dstBuf.put(arr, arrOffset + idx, numBytesToRead);
+            }
             return numBytesToRead;
-        } catch (BufferUnderflowException | IndexOutOfBoundsException | ReadOnlyBufferException e) {
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | ReadOnlyBufferException e) {
             throw new IOException("Read index out of bounds");
         }
     }
@@ -298,16 +519,12 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         if (idx + 1 > arrUsed) {
             readTo(idx + 1);
         }
-        return arr[idx];
+        return byteAt(idx);
     }
 
     @Override
     public int readUnsignedByte(final long offset) throws IOException {
-        final int idx = (int) offset;
-        if (idx + 1 > arrUsed) {
-            readTo(idx + 1);
-        }
-        return arr[idx] & 0xff;
+        return readByte(offset) & 0xff;
     }
 
     @Override
@@ -321,8 +538,12 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         if (idx + 2 > arrUsed) {
             readTo(idx + 2);
         }
-        return ((arr[idx] & 0xff) << 8) //
-                | (arr[idx + 1] & 0xff);
+        if (byteBuffer != null) {
+            return byteBuffer.getShort(idx) & 0xffff;
+        }
+        final int i = arrOffset + idx;
+        return ((arr[i] & 0xff) << 8) //
+                | (arr[i + 1] & 0xff);
     }
 
     @Override
@@ -331,10 +552,14 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         if (idx + 4 > arrUsed) {
             readTo(idx + 4);
         }
-        return ((arr[idx] & 0xff) << 24) //
-                | ((arr[idx + 1] & 0xff) << 16) //
-                | ((arr[idx + 2] & 0xff) << 8) //
-                | (arr[idx + 3] & 0xff);
+        if (byteBuffer != null) {
+            return byteBuffer.getInt(idx);
+        }
+        final int i = arrOffset + idx;
+        return ((arr[i] & 0xff) << 24) //
+                | ((arr[i + 1] & 0xff) << 16) //
+                | ((arr[i + 2] & 0xff) << 8) //
+                | (arr[i + 3] & 0xff);
     }
 
     @Override
@@ -348,14 +573,18 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         if (idx + 8 > arrUsed) {
             readTo(idx + 8);
         }
-        return ((arr[idx] & 0xffL) << 56) //
-                | ((arr[idx + 1] & 0xffL) << 48) //
-                | ((arr[idx + 2] & 0xffL) << 40) //
-                | ((arr[idx + 3] & 0xffL) << 32) //
-                | ((arr[idx + 4] & 0xffL) << 24) //
-                | ((arr[idx + 5] & 0xffL) << 16) //
-                | ((arr[idx + 6] & 0xffL) << 8) //
-                | (arr[idx + 7] & 0xffL);
+        if (byteBuffer != null) {
+            return byteBuffer.getLong(idx);
+        }
+        final int i = arrOffset + idx;
+        return ((arr[i] & 0xffL) << 56) //
+                | ((arr[i + 1] & 0xffL) << 48) //
+                | ((arr[i + 2] & 0xffL) << 40) //
+                | ((arr[i + 3] & 0xffL) << 32) //
+                | ((arr[i + 4] & 0xffL) << 24) //
+                | ((arr[i + 5] & 0xffL) << 16) //
+                | ((arr[i + 6] & 0xffL) << 8) //
+                | (arr[i + 7] & 0xffL);
     }
 
     @Override
@@ -426,13 +655,15 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
         if (idx + numBytes > arrUsed) {
             readTo(idx + numBytes);
         }
-        return StringUtils.readString(arr, idx, numBytes, replaceSlashWithDot, stripLSemicolon);
+        return byteBuffer != null
+                ? StringUtils.readString(byteBuffer, idx, numBytes, replaceSlashWithDot, stripLSemicolon)
+                : StringUtils.readString(arr, arrOffset + idx, numBytes, replaceSlashWithDot, stripLSemicolon);
     }
 
     @Override
     public String readString(final int numBytes, final boolean replaceSlashWithDot, final boolean stripLSemicolon)
             throws IOException {
-        final String val = StringUtils.readString(arr, currIdx, numBytes, replaceSlashWithDot, stripLSemicolon);
+        final String val = readString(currIdx, numBytes, replaceSlashWithDot, stripLSemicolon);
         currIdx += numBytes;
         return val;
     }
@@ -454,6 +685,13 @@ public class ClassfileReader implements RandomAccessReader, SequentialReader, Cl
                 inflaterInputStream.close();
                 inflaterInputStream = null;
             }
+            if (buffers != null) {
+                // Recycle arr, which may have been grown since it was acquired
+                buffers.setOutputBuf(arr);
+                arr = null;
+                bufferRecycler.recycle(buffers);
+                buffers = null;
+            }
             if (resourceToClose != null) {
                 resourceToClose.close();
                 resourceToClose = null;
@@ -165,12 +165,11 @@ public class RandomAccessByteBufferReader implements RandomAccessReader {
     @Override
     public String readString(final long offset, final int numBytes, final boolean replaceSlashWithDot,
             final boolean stripLSemicolon) throws IOException {
-        final int idx = (int) (sliceStartPos + offset);
-        final byte[] arr = new byte[numBytes];
-        if (read(offset, arr, 0, numBytes) < numBytes) {
+        if (offset < 0L || numBytes < 0 || numBytes > sliceLength - offset) {
             throw new IOException("Premature EOF while reading string");
         }
-        return StringUtils.readString(arr, idx, numBytes, replaceSlashWithDot, stripLSemicolon);
+        final int idx = (int) (sliceStartPos + offset);
+        return StringUtils.readString(byteBuffer, idx, numBytes, replaceSlashWithDot, stripLSemicolon);
     }
 
     @Override
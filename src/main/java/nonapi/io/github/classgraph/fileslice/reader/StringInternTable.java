@@ -0,0 +1,149 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package nonapi.io.github.classgraph.fileslice.reader;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe string intern table for strings read from classfile constant pools. Strings are looked up by the
+ * hash of their raw modified UTF-8 bytes first, so that a string that has been read before (e.g.
+ * "java/lang/Object", or the descriptor of a commonly used annotation) is resolved to its canonical
+ * {@link String} without decoding the bytes or allocating a new {@link String}.
+ *
+ * <p>
+ * The byte-level lookup is a fixed-size, direct-mapped cache in front of a {@link ConcurrentHashMap}, which
+ * remains the authority on which {@link String} instance is canonical. Cache entries are immutable, so a racy
+ * write to a slot only ever causes a cache miss, never a wrong result.
+ */
+public class StringInternTable {
+    /** The canonical string instances. */
+    private final ConcurrentHashMap<String, String> stringInternMap = new ConcurrentHashMap<>();
+
+    /** The byte-level cache entries, indexed by hash. */
+    private final Entry[] entries = new Entry[NUM_ENTRIES];
+
+    /** The number of byte-level cache entries (must be a power of two). */
+    private static final int NUM_ENTRIES = 1 << 14;
+
+    /** Strings longer than this number of bytes are not added to the byte-level cache. */
+    private static final int MAX_CACHED_NUM_BYTES = 1024;
+
+    /** A byte-level cache entry. */
+    private static class Entry {
+        /** The hash of the bytes and flags. */
+        final int hash;
+
+        /** The flags: bit 0 is replaceSlashWithDot, bit 1 is stripLSemicolon. */
+        final int flags;
+
+        /** The raw modified UTF-8 bytes. */
+        final byte[] bytes;
+
+        /** The canonical string decoded from the bytes. */
+        final String str;
+
+        /**
+         * Constructor.
+         *
+         * @param hash
+         *            the hash of the bytes and flags
+         * @param flags
+         *            the flags
+         * @param bytes
+         *            the raw modified UTF-8 bytes
+         * @param str
+         *            the canonical string decoded from the bytes
+         */
+        Entry(final int hash, final int flags, final byte[] bytes, final String str) {
+            this.hash = hash;
+            this.flags = flags;
+            this.bytes = bytes;
+            this.str = str;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Intern a string.
+     *
+     * @param str
+     *            the string
+     * @return the canonical instance of the string, or null if str is null.
+     */
+    public String intern(final String str) {
+        if (str == null) {
+            return null;
+        }
+        final String interned = stringInternMap.putIfAbsent(str, str);
+        if (interned != null) {
+            return interned;
+        }
+        return str;
+    }
+
+    /**
+     * Read and intern a modified UTF-8 string from a classfile, without decoding the string if the same bytes
+     * have been interned before.
+     *
+     * @param reader
+     *            the classfile reader
+     * @param offset
+     *            the offset of the string bytes in the classfile
+     * @param numBytes
+     *            the number of string bytes
+     * @param replaceSlashWithDot
+     *            if true, replace slash with dot in the result
+     * @param stripLSemicolon
+     *            if true, strip 'L' from the beginning and ';' from the end of the result
+     * @return the canonical instance of the string.
+     * @throws IOException
+     *             on EOF or if the bytes could not be read.
+     */
+    public String intern(final ClassfileReader reader, final int offset, final int numBytes,
+            final boolean replaceSlashWithDot, final boolean stripLSemicolon) throws IOException {
+        if (numBytes > MAX_CACHED_NUM_BYTES) {
+            return intern(reader.readString(offset, numBytes, replaceSlashWithDot, stripLSemicolon));
+        }
+        final int flags = (replaceSlashWithDot ? 1 : 0) | (stripLSemicolon ? 2 : 0);
+        final int hash = reader.hashBytes(offset, numBytes) * 4 + flags;
+        final int slot = (hash ^ (hash >>> 16)) & (NUM_ENTRIES - 1);
+        final Entry entry = entries[slot];
+        if (entry != null && entry.hash == hash && entry.flags == flags && entry.bytes.length == numBytes
+                && reader.bytesEqual(offset, entry.bytes)) {
+            return entry.str;
+        }
+        final String str = intern(reader.readString(offset, numBytes, replaceSlashWithDot, stripLSemicolon));
+        final byte[] bytes = new byte[numBytes];
+        reader.read(offset, bytes, 0, numBytes);
+        entries[slot] = new Entry(hash, flags, bytes, str);
+        return str;
+    }
+}
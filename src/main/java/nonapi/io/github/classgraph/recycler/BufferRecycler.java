@@ -0,0 +1,106 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package nonapi.io.github.classgraph.recycler;
+
+/**
+ * A {@link Recycler} for the buffers used to inflate zip entries and to read classfiles, so that a new set of
+ * buffers does not need to be allocated for each zip entry or classfile. Since each worker thread holds at most
+ * one set of buffers at a time, the number of sets of buffers allocated is bounded by the number of worker
+ * threads.
+ */
+public class BufferRecycler extends Recycler<BufferRecycler.Buffers, RuntimeException> {
+    /** The size of the input buffer used for reading deflated bytes. */
+    public static final int INPUT_BUF_SIZE = 8192;
+
+    /**
+     * The maximum size of output buffer to retain when a set of buffers is recycled. Larger output buffers are
+     * discarded, so that one unusually large classfile does not pin a large buffer for the rest of the scan.
+     */
+    private static final int MAX_RETAINED_OUTPUT_BUF_SIZE = 1024 * 1024;
+
+    /** A set of buffers. */
+    public static class Buffers implements Resettable {
+        /** The input buffer, used for reading deflated bytes, or null if not yet allocated. */
+        private byte[] inputBuf;
+
+        /** The output buffer, or null if not yet allocated. */
+        private byte[] outputBuf;
+
+        /**
+         * Get the input buffer, used for reading deflated bytes.
+         *
+         * @return the input buffer, of size {@link BufferRecycler#INPUT_BUF_SIZE}.
+         */
+        public byte[] getInputBuf() {
+            if (inputBuf == null) {
+                inputBuf = new byte[INPUT_BUF_SIZE];
+            }
+            return inputBuf;
+        }
+
+        /**
+         * Get the output buffer, allocating a new output buffer if the current output buffer is smaller than the
+         * requested length. The content of the returned buffer is undefined.
+         *
+         * @param minLength
+         *            the minimum length of the output buffer.
+         * @return the output buffer, of length at least minLength.
+         */
+        public byte[] getOutputBuf(final int minLength) {
+            if (outputBuf == null || outputBuf.length < minLength) {
+                outputBuf = new byte[minLength];
+            }
+            return outputBuf;
+        }
+
+        /**
+         * Replace the output buffer, e.g. with a larger copy of the output buffer that was grown after it was
+         * obtained from {@link #getOutputBuf(int)}, so that the larger buffer is reused.
+         *
+         * @param outputBuf
+         *            the new output buffer.
+         */
+        public void setOutputBuf(final byte[] outputBuf) {
+            this.outputBuf = outputBuf;
+        }
+
+        /** Discard the output buffer when the buffers are recycled, if it is too large to retain. */
+        @Override
+        public void reset() {
+            if (outputBuf != null && outputBuf.length > MAX_RETAINED_OUTPUT_BUF_SIZE) {
+                outputBuf = null;
+            }
+        }
+    }
+
+    @Override
+    public Buffers newInstance() {
+        return new Buffers();
+    }
+}
@@ -28,13 +28,17 @@
  */
 package nonapi.io.github.classgraph.scanspec;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.CollectionUtils;
 import nonapi.io.github.classgraph.utils.FastPathResolver;
 import nonapi.io.github.classgraph.utils.FileUtils;
@@ -756,4 +760,85 @@ public abstract class AcceptReject {
         }
         return buf.toString();
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write the accept/reject criteria in the binary serialization format.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    public void writeBinary(final BinaryWriter out) {
+        out.writeChar(separatorChar);
+        out.writeStrings(accept);
+        out.writeStrings(reject);
+        out.writeStrings(acceptPrefixesSet);
+        out.writeStrings(acceptPrefixes);
+        out.writeStrings(rejectPrefixes);
+        out.writeStrings(acceptGlobs);
+        out.writeStrings(rejectGlobs);
+    }
+
+    /**
+     * Read the accept/reject criteria in the binary serialization format. The regexp patterns for the accept and
+     * reject globs are recompiled.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @throws IOException
+     *             if the input is invalid
+     */
+    public void readBinary(final BinaryReader in) throws IOException {
+        separatorChar = in.readChar();
+        accept = toSet(in.readStrings());
+        reject = toSet(in.readStrings());
+        acceptPrefixesSet = toSet(in.readStrings());
+        acceptPrefixes = toList(in.readStrings());
+        rejectPrefixes = toList(in.readStrings());
+        acceptGlobs = toSet(in.readStrings());
+        rejectGlobs = toSet(in.readStrings());
+        acceptPatterns = toPatterns(acceptGlobs);
+        rejectPatterns = toPatterns(rejectGlobs);
+    }
+
+    /**
+     * Convert an array of strings into a set.
+     *
+     * @param strs
+     *            the strings, or null
+     * @return the set, or null
+     */
+    private static Set<String> toSet(final String[] strs) {
+        return strs == null ? null : new HashSet<>(Arrays.asList(strs));
+    }
+
+    /**
+     * Convert an array of strings into a list.
+     *
+     * @param strs
+     *            the strings, or null
+     * @return the list, or null
+     */
+    private static List<String> toList(final String[] strs) {
+        return strs == null ? null : new ArrayList<>(Arrays.asList(strs));
+    }
+
+    /**
+     * Compile glob strings into regexp patterns.
+     *
+     * @param globs
+     *            the glob strings, or null
+     * @return the patterns, or null
+     */
+    private static List<Pattern> toPatterns(final Set<String> globs) {
+        if (globs == null) {
+            return null;
+        }
+        final List<Pattern> patterns = new ArrayList<>();
+        for (final String glob : globs) {
+            patterns.add(globToPattern(glob, /* simpleGlob = */ true));
+        }
+        return patterns;
+    }
 }
\ No newline at end of file
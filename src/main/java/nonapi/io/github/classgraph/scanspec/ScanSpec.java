@@ -28,6 +28,7 @@
  */
 package nonapi.io.github.classgraph.scanspec;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.net.URI;
@@ -35,7 +36,9 @@ import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -43,13 +46,17 @@ import java.util.Set;
 
 import io.github.classgraph.ClassGraph.ClasspathElementFilter;
 import io.github.classgraph.ClassGraph.ClasspathElementURLFilter;
+import io.github.classgraph.ClassGraph.ScanListener;
 import io.github.classgraph.ClassInfo;
 import io.github.classgraph.ModulePathInfo;
 import io.github.classgraph.ScanResult;
 import nonapi.io.github.classgraph.scanspec.AcceptReject.AcceptRejectLeafname;
 import nonapi.io.github.classgraph.scanspec.AcceptReject.AcceptRejectPrefix;
 import nonapi.io.github.classgraph.scanspec.AcceptReject.AcceptRejectWholeString;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
 import nonapi.io.github.classgraph.utils.LogNode;
+import nonapi.io.github.classgraph.utils.StringUtils;
 
 /**
  * The scanning specification.
@@ -141,6 +148,18 @@ public class ScanSpec {
      */
     public boolean enableExternalClasses;
 
+    /**
+     * If true, index the class hierarchy after the scan, for constant-time subclass and implemented interface
+     * queries. (Transient, since this does not affect the result of the scan.)
+     */
+    public transient boolean enableClassHierarchyIndex;
+
+    /**
+     * If true, freeze the relationships between classes into adjacency arrays after the scan, to reduce the memory
+     * retained by the scan result. (Transient, since this does not affect the result of the scan.)
+     */
+    public transient boolean enableCompactClassGraph;
+
     /**
      * If true, system jarfiles (rt.jar) and system packages and modules (java.*, jre.*, etc.) should be scanned .
      */
@@ -258,9 +277,64 @@ public class ScanSpec {
     /** If true, use a {@link MappedByteBuffer} rather than the {@link FileChannel} API to access file content. */
     public boolean enableMemoryMapping;
 
+    /**
+     * The central directory size in bytes at or above which only the central directory of a jarfile is
+     * memory-mapped, rather than being read into RAM, if the jarfile is not already memory-mapped. (Transient,
+     * since this does not affect the result of the scan.)
+     */
+    public transient int centralDirectoryMappingThreshold = 1024 * 1024;
+
+    /**
+     * If true, reuse central directories and inflated nested jars from the process-wide zipfile cache, and add them
+     * to the cache. (Transient, since this does not affect the result of the scan.)
+     */
+    public transient boolean enableZipFileCache;
+
     /** If true, all multi-release versions of a resource are found. */
     public boolean enableMultiReleaseVersions;
 
+    /**
+     * If true, retain the parsed contents of classfiles in the {@link ScanResult}, so that unchanged classfiles do
+     * not need to be re-read by {@link ScanResult#rescan()}.
+     */
+    public boolean enableIncrementalRescan;
+
+    /**
+     * If true, load the scan result from a build-time scan index ({@code META-INF/classgraph/index.bin}) rather
+     * than parsing classfiles, if an index matching the scan spec is found in a jarfile.
+     */
+    public boolean enableScanIndex;
+
+    /**
+     * If non-null, the directory in which to cache the parsed contents of classfiles between scans.
+     * (Transient, since the cache location does not affect the result of the scan.)
+     */
+    public transient Path scanCacheDir;
+
+    /** If non-null, the listeners to notify of scan events. */
+    public transient List<ScanListener> scanListeners;
+
+    /**
+     * If true, schedule work units using per-worker deques with work stealing, rather than a single shared queue.
+     * (Transient, since scheduling does not affect the result of the scan.)
+     */
+    public transient boolean enableWorkStealing;
+
+    /**
+     * The number of threads used to inflate deflated nested jars ahead of opening them, or 0 to inflate each
+     * nested jar when it is opened. (Transient, since this does not affect the result of the scan.)
+     */
+    public transient int nestedJarInflationParallelism;
+
+    /**
+     * If non-null, the names of classes that a classfile must reference to be scanned (see
+     * {@link io.github.classgraph.ClassGraph#onlyClassesReferencing(String...)}).
+     */
+    public List<String> onlyClassesReferencing;
+
+    /** The internal names of the classes in {@link #onlyClassesReferencing}, encoded in modified UTF8. */
+    private transient volatile byte[][] onlyClassesReferencingInternalNames;
+
     // -------------------------------------------------------------------------------------------------------------
 
     /** Constructor for deserialization. */
@@ -521,6 +595,59 @@ public class ScanSpec {
         return ScanSpecPathMatch.NOT_WITHIN_ACCEPTED_PATH;
     }
 
+    /**
+     * Get the path prefixes that the parent directory of every accepted resource must start with, so that the
+     * entries of a jarfile can be found by prefix lookups, rather than by checking the path of every entry.
+     *
+     * @return the accepted path prefixes, or null if resources may be accepted in any directory (e.g. if no
+     *         packages or paths were accepted, or if the default package, a glob, or a classpath element resource
+     *         path was accepted).
+     */
+    public Set<String> getAcceptedPathPrefixes() {
+        if ((pathAcceptReject.acceptIsEmpty() && classPackagePathAcceptReject.acceptIsEmpty())
+                || pathAcceptReject.acceptGlobs != null || classPackagePathAcceptReject.acceptGlobs != null
+                || !classpathElementResourcePathAcceptReject.acceptIsEmpty()) {
+            return null;
+        }
+        final Set<String> acceptedPathPrefixes = new HashSet<>();
+        if (pathAcceptReject.accept != null) {
+            acceptedPathPrefixes.addAll(pathAcceptReject.accept);
+        }
+        if (pathPrefixAcceptReject.acceptPrefixesSet != null) {
+            acceptedPathPrefixes.addAll(pathPrefixAcceptReject.acceptPrefixesSet);
+        }
+        if (classPackagePathAcceptReject.accept != null) {
+            acceptedPathPrefixes.addAll(classPackagePathAcceptReject.accept);
+        }
+        if (acceptedPathPrefixes.contains("") || acceptedPathPrefixes.contains("/")) {
+            // The default package is accepted
+            return null;
+        }
+        return acceptedPathPrefixes;
+    }
+
+    /**
+     * Get the internal names (using '/' as a separator) of the classes that a classfile must reference to be
+     * scanned, encoded in modified UTF8, so that they can be compared with the raw bytes of constant pool strings.
+     *
+     * @return the encoded internal names, or null if
+     *         {@link io.github.classgraph.ClassGraph#onlyClassesReferencing(String...)} was not called.
+     */
+    public byte[][] getOnlyClassesReferencingInternalNames() {
+        if (onlyClassesReferencing == null) {
+            return null;
+        }
+        byte[][] internalNames = onlyClassesReferencingInternalNames;
+        if (internalNames == null) {
+            internalNames = new byte[onlyClassesReferencing.size()][];
+            for (int i = 0; i < internalNames.length; i++) {
+                internalNames[i] = StringUtils.toModifiedUTF8(onlyClassesReferencing.get(i).replace('.', '/'));
+            }
+            onlyClassesReferencingInternalNames = internalNames;
+        }
+        return internalNames;
+    }
+
     /**
      * Returns true if the given relative path (for a classfile name, including ".class") matches a
      * specifically-accepted (and non-rejected) classfile's relative path.
@@ -565,4 +692,119 @@ public class ScanSpec {
             }
         }
     }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the accept/reject criteria, in the order they are serialized.
+     *
+     * @return the accept/reject criteria
+     */
+    private AcceptReject[] getAcceptRejects() {
+        return new AcceptReject[] { packageAcceptReject, packagePrefixAcceptReject, pathAcceptReject,
+                pathPrefixAcceptReject, classAcceptReject, classfilePathAcceptReject, classPackageAcceptReject,
+                classPackagePathAcceptReject, moduleAcceptReject, jarAcceptReject,
+                classpathElementResourcePathAcceptReject, libOrExtJarAcceptReject };
+    }
+
+    /**
+     * Write the scan spec in the binary serialization format. Transient fields are not written, and classpath
+     * override elements are written as strings.
+     *
+     * @param out
+     *            the {@link BinaryWriter}
+     */
+    public void writeBinary(final BinaryWriter out) {
+        for (final AcceptReject acceptReject : getAcceptRejects()) {
+            acceptReject.writeBinary(out);
+        }
+        out.writeBoolean(scanJars);
+        out.writeBoolean(scanNestedJars);
+        out.writeBoolean(scanDirs);
+        out.writeBoolean(scanModules);
+        out.writeBoolean(enableClassInfo);
+        out.writeBoolean(enableFieldInfo);
+        out.writeBoolean(enableMethodInfo);
+        out.writeBoolean(enableAnnotationInfo);
+        out.writeBoolean(enableStaticFinalFieldConstantInitializerValues);
+        out.writeBoolean(enableInterClassDependencies);
+        out.writeBoolean(enableExternalClasses);
+        out.writeBoolean(enableSystemJarsAndModules);
+        out.writeBoolean(ignoreClassVisibility);
+        out.writeBoolean(ignoreFieldVisibility);
+        out.writeBoolean(ignoreMethodVisibility);
+        out.writeBoolean(disableRuntimeInvisibleAnnotations);
+        out.writeBoolean(extendScanningUpwardsToExternalClasses);
+        out.writeStrings(allowedURLSchemes);
+        if (overrideClasspath == null) {
+            out.writeLength(-1);
+        } else {
+            out.writeLength(overrideClasspath.size());
+            for (final Object classpathElement : overrideClasspath) {
+                out.writeString(classpathElement.toString());
+            }
+        }
+        out.writeBoolean(initializeLoadedClasses);
+        out.writeBoolean(removeTemporaryFilesAfterScan);
+        out.writeBoolean(ignoreParentClassLoaders);
+        out.writeBoolean(ignoreParentModuleLayers);
+        out.writeInt(maxBufferedJarRAMSize);
+        out.writeBoolean(enableMemoryMapping);
+        out.writeBoolean(enableMultiReleaseVersions);
+        out.writeBoolean(enableIncrementalRescan);
+        out.writeBoolean(enableScanIndex);
+        out.writeStrings(onlyClassesReferencing);
+    }
+
+    /**
+     * Read a scan spec in the binary serialization format.
+     *
+     * @param in
+     *            the {@link BinaryReader}
+     * @return the scan spec
+     * @throws IOException
+     *             if the input is invalid
+     */
+    public static ScanSpec readBinary(final BinaryReader in) throws IOException {
+        final ScanSpec scanSpec = new ScanSpec();
+        for (final AcceptReject acceptReject : scanSpec.getAcceptRejects()) {
+            acceptReject.readBinary(in);
+        }
+        scanSpec.scanJars = in.readBoolean();
+        scanSpec.scanNestedJars = in.readBoolean();
+        scanSpec.scanDirs = in.readBoolean();
+        scanSpec.scanModules = in.readBoolean();
+        scanSpec.enableClassInfo = in.readBoolean();
+        scanSpec.enableFieldInfo = in.readBoolean();
+        scanSpec.enableMethodInfo = in.readBoolean();
+        scanSpec.enableAnnotationInfo = in.readBoolean();
+        scanSpec.enableStaticFinalFieldConstantInitializerValues = in.readBoolean();
+        scanSpec.enableInterClassDependencies = in.readBoolean();
+        scanSpec.enableExternalClasses = in.readBoolean();
+        scanSpec.enableSystemJarsAndModules = in.readBoolean();
+        scanSpec.ignoreClassVisibility = in.readBoolean();
+        scanSpec.ignoreFieldVisibility = in.readBoolean();
+        scanSpec.ignoreMethodVisibility = in.readBoolean();
+        scanSpec.disableRuntimeInvisibleAnnotations = in.readBoolean();
+        scanSpec.extendScanningUpwardsToExternalClasses = in.readBoolean();
+        final String[] allowedURLSchemesArr = in.readStrings();
+        scanSpec.allowedURLSchemes = allowedURLSchemesArr == null ? null
+                : new HashSet<>(Arrays.asList(allowedURLSchemesArr));
+        final String[] overrideClasspathArr = in.readStrings();
+        scanSpec.overrideClasspath = overrideClasspathArr == null ? null
+                : new ArrayList<Object>(Arrays.asList(overrideClasspathArr));
+        scanSpec.initializeLoadedClasses = in.readBoolean();
+        scanSpec.removeTemporaryFilesAfterScan = in.readBoolean();
+        scanSpec.ignoreParentClassLoaders = in.readBoolean();
+        scanSpec.ignoreParentModuleLayers = in.readBoolean();
+        scanSpec.maxBufferedJarRAMSize = in.readInt();
+        scanSpec.enableMemoryMapping = in.readBoolean();
+        scanSpec.enableMultiReleaseVersions = in.readBoolean();
+        scanSpec.enableIncrementalRescan = in.readBoolean();
+        scanSpec.enableScanIndex = in.readBoolean();
+        final String[] onlyClassesReferencingArr = in.readStrings();
+        scanSpec.onlyClassesReferencing = onlyClassesReferencingArr == null ? null
+                : new ArrayList<>(Arrays.asList(onlyClassesReferencingArr));
+        return scanSpec;
+    }
 }
@@ -0,0 +1,385 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package nonapi.io.github.classgraph.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a record in the binary serialization format written by {@link BinaryWriter}.
+ * 
+ * <p>
+ * The constructor reads exactly the bytes of one record from the input stream, so the stream is left positioned
+ * just after the record. Each length or count read from the record is checked against the number of unread bytes
+ * in the record, since every item takes at least one byte. So corrupt input causes an {@link IOException} rather
+ * than an oversized allocation.
+ */
+public final class BinaryReader {
+    /** The maximum number of bytes to allocate before they have been read from the input stream. */
+    private static final int MAX_READ_AHEAD_ALLOCATION = 1024 * 1024;
+
+    /** The record body. */
+    private final byte[] buf;
+
+    /** The read position within the record body. */
+    private int pos;
+
+    /** The string table. */
+    private final List<String> strings = new ArrayList<>();
+
+    /** The registered objects. */
+    private final List<Object> objects = new ArrayList<>();
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Read a record from an input stream. The input stream is not closed.
+     *
+     * @param inputStream
+     *            the input stream
+     * @throws IOException
+     *             if an I/O exception occurs, or the input is not in the binary format.
+     */
+    public BinaryReader(final InputStream inputStream) throws IOException {
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            magic = (magic << 8) | readStreamByte(inputStream);
+        }
+        if (magic != BinaryWriter.MAGIC) {
+            throw new IOException("Input is not in the ClassGraph binary serialization format");
+        }
+        int bodyLen = 0;
+        for (int shift = 0;; shift += 7) {
+            final int b = readStreamByte(inputStream);
+            if (shift == 28 && (b & 0xF8) != 0) {
+                throw new IOException("Invalid record length");
+            }
+            bodyLen |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        // Grow the buffer as bytes arrive, so that a corrupt length cannot cause a huge allocation
+        byte[] body = new byte[Math.min(bodyLen, MAX_READ_AHEAD_ALLOCATION)];
+        int bytesRead = 0;
+        while (bytesRead < bodyLen) {
+            if (bytesRead == body.length) {
+                body = Arrays.copyOf(body, (int) Math.min(bodyLen, 2L * body.length));
+            }
+            final int n = inputStream.read(body, bytesRead, body.length - bytesRead);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of stream");
+            }
+            bytesRead += n;
+        }
+        this.buf = body;
+    }
+
+    /**
+     * Read a byte from an input stream.
+     *
+     * @param inputStream
+     *            the input stream
+     * @return the byte, as an unsigned value
+     * @throws IOException
+     *             if an I/O exception occurs, or the end of the stream was reached
+     */
+    private static int readStreamByte(final InputStream inputStream) throws IOException {
+        final int b = inputStream.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of stream");
+        }
+        return b;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the number of unread bytes in the record.
+     *
+     * @return the number of unread bytes
+     */
+    public int remaining() {
+        return buf.length - pos;
+    }
+
+    /**
+     * Read a byte.
+     *
+     * @return the byte, as an unsigned value
+     * @throws IOException
+     *             if the end of the record was reached
+     */
+    public int readByte() throws IOException {
+        if (pos >= buf.length) {
+            throw new EOFException("Unexpected end of record");
+        }
+        return buf[pos++] & 0xFF;
+    }
+
+    /**
+     * Read a boolean.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the end of the record was reached, or the value is invalid
+     */
+    public boolean readBoolean() throws IOException {
+        final int b = readByte();
+        if (b > 1) {
+            throw new IOException("Invalid boolean value: " + b);
+        }
+        return b == 1;
+    }
+
+    /**
+     * Read an unsigned varint.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the end of the record was reached, or the varint is too long
+     */
+    private long readUnsignedVarint() throws IOException {
+        long val = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            val |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return val;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    /**
+     * Read a non-negative int written as a varint.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the end of the record was reached, or the value is out of range
+     */
+    public int readVarint() throws IOException {
+        final long val = readUnsignedVarint();
+        if (val < 0L || val > Integer.MAX_VALUE) {
+            throw new IOException("Varint out of range: " + val);
+        }
+        return (int) val;
+    }
+
+    /**
+     * Read a long written as a zigzag-encoded varint.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the end of the record was reached, or the varint is too long
+     */
+    public long readLong() throws IOException {
+        final long val = readUnsignedVarint();
+        return (val >>> 1) ^ -(val & 1L);
+    }
+
+    /**
+     * Read an int written as a zigzag-encoded varint.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the end of the record was reached, or the value is out of range
+     */
+    public int readInt() throws IOException {
+        final long val = readLong();
+        if (val < Integer.MIN_VALUE || val > Integer.MAX_VALUE) {
+            throw new IOException("Int out of range: " + val);
+        }
+        return (int) val;
+    }
+
+    /**
+     * Read a char written as a varint.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the end of the record was reached, or the value is out of range
+     */
+    public char readChar() throws IOException {
+        final int val = readVarint();
+        if (val > Character.MAX_VALUE) {
+            throw new IOException("Char out of range: " + val);
+        }
+        return (char) val;
+    }
+
+    /**
+     * Read a float.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the end of the record was reached
+     */
+    public float readFloat() throws IOException {
+        int bits = 0;
+        for (int i = 0; i < 4; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Float.intBitsToFloat(bits);
+    }
+
+    /**
+     * Read a double.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the end of the record was reached
+     */
+    public double readDouble() throws IOException {
+        long bits = 0L;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Read the length of an array or collection that is not null.
+     *
+     * @return the length
+     * @throws IOException
+     *             if the end of the record was reached, or the length is greater than the number of unread bytes
+     */
+    public int readCount() throws IOException {
+        final int count = readVarint();
+        if (count > remaining()) {
+            throw new IOException("Count " + count + " is greater than the number of bytes left in the record");
+        }
+        return count;
+    }
+
+    /**
+     * Read the length of an array or collection that may be null.
+     *
+     * @return the length, or -1 for null
+     * @throws IOException
+     *             if the end of the record was reached, or the length is greater than the number of unread bytes
+     */
+    public int readLength() throws IOException {
+        final int length = readVarint() - 1;
+        if (length > remaining()) {
+            throw new IOException("Length " + length + " is greater than the number of bytes left in the record");
+        }
+        return length;
+    }
+
+    /**
+     * Read a string, which may be null.
+     *
+     * @return the string
+     * @throws IOException
+     *             if the end of the record was reached, or the string is invalid
+     */
+    public String readString() throws IOException {
+        final int idx = readVarint();
+        if (idx == 0) {
+            return null;
+        } else if (idx == 1) {
+            final int numBytes = readVarint();
+            if (numBytes > remaining()) {
+                throw new EOFException("Unexpected end of record");
+            }
+            final String str = new String(buf, pos, numBytes, StandardCharsets.UTF_8);
+            pos += numBytes;
+            strings.add(str);
+            return str;
+        } else if (idx - 2 < strings.size()) {
+            return strings.get(idx - 2);
+        } else {
+            throw new IOException("String table index out of range: " + (idx - 2));
+        }
+    }
+
+    /**
+     * Read an array of strings, which may be null.
+     *
+     * @return the strings
+     * @throws IOException
+     *             if the end of the record was reached, or the strings are invalid
+     */
+    public String[] readStrings() throws IOException {
+        final int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        final String[] strs = new String[length];
+        for (int i = 0; i < length; i++) {
+            strs[i] = readString();
+        }
+        return strs;
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Register an object, so that it can be read using {@link #readObjectRef(Class)}. Objects must be registered
+     * in the same order that they were registered with {@link BinaryWriter#registerObject(Object)}.
+     *
+     * @param obj
+     *            the object
+     */
+    public void registerObject(final Object obj) {
+        objects.add(obj);
+    }
+
+    /**
+     * Read a reference to a registered object, which may be null.
+     *
+     * @param <T>
+     *            the type of the object
+     * @param type
+     *            the type of the object
+     * @return the object
+     * @throws IOException
+     *             if the end of the record was reached, or the reference is invalid
+     */
+    public <T> T readObjectRef(final Class<T> type) throws IOException {
+        final int idx = readVarint();
+        if (idx == 0) {
+            return null;
+        } else if (idx - 1 >= objects.size()) {
+            throw new IOException("Object index out of range: " + (idx - 1));
+        }
+        final Object obj = objects.get(idx - 1);
+        if (!type.isInstance(obj)) {
+            throw new IOException("Expected a reference to " + type.getName() + ", got " + obj.getClass().getName());
+        }
+        return type.cast(obj);
+    }
+}
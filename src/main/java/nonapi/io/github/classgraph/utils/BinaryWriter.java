@@ -0,0 +1,316 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package nonapi.io.github.classgraph.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Writes the binary serialization format of a {@code ScanResult}, which is read back by {@link BinaryReader}.
+ * Each object writes its own fields using the methods of this class, so no reflection is needed.
+ * 
+ * <p>
+ * The output is buffered in memory, then {@link #writeTo(OutputStream)} writes it as a single record: a magic
+ * number, the length of the record body as a varint, then the record body. The length lets {@link BinaryReader}
+ * read exactly the bytes of the record, and no further. In the record body, counts and lengths are written as
+ * varints, and other integers as zigzag-encoded varints. Each distinct string is written once, and after that as
+ * its index in the table of strings written so far. Objects registered with {@link #registerObject(Object)} are
+ * referred to by their registration index.
+ */
+public final class BinaryWriter {
+    /** The magic number at the start of the binary format ("CGJB" in ASCII). */
+    static final int MAGIC = 0x43474A42;
+
+    /** The initial size of the buffer. */
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    /** The buffer. */
+    private byte[] buf = new byte[INITIAL_BUFFER_SIZE];
+
+    /** The number of bytes written to the buffer. */
+    private int len;
+
+    /** The map from string to the index of the string in the string table. */
+    private final Map<String, Integer> stringToIdx = new HashMap<>();
+
+    /** The map from registered object to registration index. */
+    private final Map<Object, Integer> objectToIdx = new IdentityHashMap<>();
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write a byte.
+     *
+     * @param b
+     *            the byte (only the low 8 bits are written)
+     */
+    public void writeByte(final int b) {
+        if (len == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        buf[len++] = (byte) b;
+    }
+
+    /**
+     * Write a boolean.
+     *
+     * @param val
+     *            the value
+     */
+    public void writeBoolean(final boolean val) {
+        writeByte(val ? 1 : 0);
+    }
+
+    /**
+     * Write a non-negative int as a varint.
+     *
+     * @param val
+     *            the value
+     * @throws IllegalArgumentException
+     *             if the value is negative
+     */
+    public void writeVarint(final int val) {
+        if (val < 0) {
+            throw new IllegalArgumentException("Negative varint: " + val);
+        }
+        writeUnsignedVarint(val);
+    }
+
+    /**
+     * Write a long as an unsigned varint.
+     *
+     * @param val
+     *            the value (treated as unsigned)
+     */
+    private void writeUnsignedVarint(final long val) {
+        long v = val;
+        while ((v & ~0x7FL) != 0L) {
+            writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        writeByte((int) v);
+    }
+
+    /**
+     * Write an int as a zigzag-encoded varint.
+     *
+     * @param val
+     *            the value
+     */
+    public void writeInt(final int val) {
+        writeLong(val);
+    }
+
+    /**
+     * Write a long as a zigzag-encoded varint.
+     *
+     * @param val
+     *            the value
+     */
+    public void writeLong(final long val) {
+        writeUnsignedVarint((val << 1) ^ (val >> 63));
+    }
+
+    /**
+     * Write a char as a varint.
+     *
+     * @param val
+     *            the value
+     */
+    public void writeChar(final char val) {
+        writeUnsignedVarint(val);
+    }
+
+    /**
+     * Write the bits of a float, in big-endian order.
+     *
+     * @param val
+     *            the value
+     */
+    public void writeFloat(final float val) {
+        final int bits = Float.floatToRawIntBits(val);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(bits >>> shift);
+        }
+    }
+
+    /**
+     * Write the bits of a double, in big-endian order.
+     *
+     * @param val
+     *            the value
+     */
+    public void writeDouble(final double val) {
+        final long bits = Double.doubleToRawLongBits(val);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (bits >>> shift));
+        }
+    }
+
+    /**
+     * Write the length of an array or collection that is not null.
+     *
+     * @param count
+     *            the length
+     */
+    public void writeCount(final int count) {
+        writeVarint(count);
+    }
+
+    /**
+     * Write the length of an array or collection that may be null.
+     *
+     * @param length
+     *            the length, or -1 for null
+     */
+    public void writeLength(final int length) {
+        writeVarint(length + 1);
+    }
+
+    /**
+     * Write a string, which may be null.
+     *
+     * @param str
+     *            the string
+     */
+    public void writeString(final String str) {
+        if (str == null) {
+            writeVarint(0);
+        } else {
+            final Integer idx = stringToIdx.get(str);
+            if (idx != null) {
+                writeVarint(idx + 2);
+            } else {
+                stringToIdx.put(str, stringToIdx.size());
+                final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                writeVarint(1);
+                writeVarint(bytes.length);
+                if (len + bytes.length > buf.length) {
+                    buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + bytes.length));
+                }
+                System.arraycopy(bytes, 0, buf, len, bytes.length);
+                len += bytes.length;
+            }
+        }
+    }
+
+    /**
+     * Write an array of strings, which may be null.
+     *
+     * @param strs
+     *            the strings
+     */
+    public void writeStrings(final String[] strs) {
+        writeLength(strs == null ? -1 : strs.length);
+        if (strs != null) {
+            for (final String str : strs) {
+                writeString(str);
+            }
+        }
+    }
+
+    /**
+     * Write a collection of strings, which may be null.
+     *
+     * @param strs
+     *            the strings
+     */
+    public void writeStrings(final Collection<String> strs) {
+        writeLength(strs == null ? -1 : strs.size());
+        if (strs != null) {
+            for (final String str : strs) {
+                writeString(str);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Register an object, so that it can be written using {@link #writeObjectRef(Object)}. Objects must be
+     * registered in the same order that they are registered with {@link BinaryReader#registerObject(Object)}.
+     *
+     * @param obj
+     *            the object
+     */
+    public void registerObject(final Object obj) {
+        if (!objectToIdx.containsKey(obj)) {
+            objectToIdx.put(obj, objectToIdx.size());
+        }
+    }
+
+    /**
+     * Write a reference to a registered object, which may be null.
+     *
+     * @param obj
+     *            the object
+     * @throws IllegalArgumentException
+     *             if the object was not registered
+     */
+    public void writeObjectRef(final Object obj) {
+        if (obj == null) {
+            writeVarint(0);
+        } else {
+            final Integer idx = objectToIdx.get(obj);
+            if (idx == null) {
+                throw new IllegalArgumentException("Object was not registered: " + obj);
+            }
+            writeVarint(idx + 1);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Write the record to an output stream. The output stream is flushed, but not closed.
+     *
+     * @param outputStream
+     *            the output stream
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        // Append the header to the buffer after the body, then write the header before the body
+        final int bodyLen = len;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(MAGIC >>> shift);
+        }
+        writeVarint(bodyLen);
+        outputStream.write(buf, bodyLen, len - bodyLen);
+        outputStream.write(buf, 0, bodyLen);
+        outputStream.flush();
+        len = bodyLen;
+    }
+}
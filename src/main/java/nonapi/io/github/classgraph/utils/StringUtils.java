@@ -28,6 +28,9 @@
  */
 package nonapi.io.github.classgraph.utils;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
 /**
  * File utilities.
  */
@@ -134,6 +137,84 @@ public final class StringUtils {
         }
     }
 
+    /**
+     * Reads the "modified UTF8" format defined in the Java classfile spec from a {@link ByteBuffer}, optionally
+     * replacing '/' with '.', and optionally removing the prefix "L" and the suffix ";". ASCII strings are decoded
+     * in place, without first copying the bytes out of the buffer.
+     *
+     * @param buf
+     *            the buffer to read the string from
+     * @param startOffset
+     *            The start offset of the string within the buffer.
+     * @param numBytes
+     *            The number of bytes of the UTF8 encoding of the string.
+     * @param replaceSlashWithDot
+     *            If true, replace '/' with '.'.
+     * @param stripLSemicolon
+     *            If true, string final ';' character.
+     * @return The string.
+     * @throws IllegalArgumentException
+     *             If string could not be parsed.
+     */
+    public static String readString(final ByteBuffer buf, final int startOffset, final int numBytes,
+            final boolean replaceSlashWithDot, final boolean stripLSemicolon) throws IllegalArgumentException {
+        if (startOffset < 0L || numBytes < 0 || startOffset + numBytes > buf.limit()) {
+            throw new IllegalArgumentException("offset or numBytes out of range");
+        }
+        final char[] chars = new char[numBytes];
+        for (int byteIdx = 0; byteIdx < numBytes; byteIdx++) {
+            final int c = buf.get(startOffset + byteIdx) & 0xff;
+            if (c > 127) {
+                // Copy out the bytes of strings that are not pure ASCII, and decode them from the array
+                final byte[] arr = new byte[numBytes];
+                final ByteBuffer dup = buf.duplicate();
+                ((Buffer) dup).position(startOffset);
+                dup.get(arr);
+                return readString(arr, 0, numBytes, replaceSlashWithDot, stripLSemicolon);
+            }
+            chars[byteIdx] = (char) (replaceSlashWithDot && c == '/' ? '.' : c);
+        }
+        if (!stripLSemicolon) {
+            return new String(chars);
+        }
+        if (numBytes < 2 || chars[0] != 'L' || chars[numBytes - 1] != ';') {
+            throw new IllegalArgumentException(
+                    "Expected string to start with 'L' and end with ';', got \"" + new String(chars) + "\"");
+        }
+        return new String(chars, 1, numBytes - 2);
+    }
+
+    /**
+     * Encode a string in the "modified UTF8" format defined in the Java classfile spec.
+     *
+     * @param str
+     *            The string to encode.
+     * @return The modified UTF8 encoding of the string.
+     */
+    public static byte[] toModifiedUTF8(final String str) {
+        int numBytes = 0;
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            numBytes += c != 0 && c <= 0x7f ? 1 : c <= 0x7ff ? 2 : 3;
+        }
+        final byte[] bytes = new byte[numBytes];
+        int byteIdx = 0;
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            if (c != 0 && c <= 0x7f) {
+                bytes[byteIdx++] = (byte) c;
+            } else if (c <= 0x7ff) {
+                bytes[byteIdx++] = (byte) (0xc0 | (c >> 6));
+                bytes[byteIdx++] = (byte) (0x80 | (c & 0x3f));
+            } else {
+                bytes[byteIdx++] = (byte) (0xe0 | (c >> 12));
+                bytes[byteIdx++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[byteIdx++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return bytes;
+    }
+
     /**
      * A replacement for Java 8's String.join().
      * 
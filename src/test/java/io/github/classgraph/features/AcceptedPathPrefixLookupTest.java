@@ -0,0 +1,215 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.Resource;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Accepted;
+import io.github.classgraph.test.rejected.RejectedAnnotation;
+import io.github.classgraph.test.rejected.RejectedInterface;
+import io.github.classgraph.test.rejected.RejectedSuperclass;
+
+/**
+ * Test that jarfile entries in accepted paths are found by prefix lookups in the central directory index, with
+ * the same result as checking every entry.
+ */
+public class AcceptedPathPrefixLookupTest {
+    /** The temporary directory. */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Write a jarfile containing the given text entries and classfiles.
+     *
+     * @param jarName
+     *            the jar name
+     * @param entryPaths
+     *            the paths of text entries to add
+     * @param classes
+     *            the classes whose classfiles should be added
+     * @return the jarfile path
+     * @throws Exception
+     *             if the jarfile could not be written
+     */
+    private Path writeJar(final String jarName, final String[] entryPaths, final Class<?>... classes)
+            throws Exception {
+        final Path jar = tempDir.resolve(jarName);
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(jar))) {
+            zipOutputStream.putNextEntry(new ZipEntry("com/"));
+            zipOutputStream.closeEntry();
+            for (final String entryPath : entryPaths) {
+                zipOutputStream.putNextEntry(new ZipEntry(entryPath));
+                zipOutputStream.write(entryPath.getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+            for (final Class<?> cls : classes) {
+                final String classfilePath = cls.getName().replace('.', '/') + ".class";
+                zipOutputStream.putNextEntry(new ZipEntry(classfilePath));
+                try (InputStream inputStream = cls.getClassLoader().getResourceAsStream(classfilePath)) {
+                    final byte[] buf = new byte[8192];
+                    for (int n; (n = inputStream.read(buf)) > 0;) {
+                        zipOutputStream.write(buf, 0, n);
+                    }
+                }
+                zipOutputStream.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    /**
+     * Set a 16-bit field of the central directory entry with the given name.
+     *
+     * @param jarBytes
+     *            the jarfile content
+     * @param entryName
+     *            the entry name
+     * @param fieldOff
+     *            the offset of the field within the central directory entry
+     * @param value
+     *            the new value
+     */
+    private static void setCentralDirectoryField(final byte[] jarBytes, final String entryName,
+            final int fieldOff, final int value) {
+        final byte[] name = entryName.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i + 46 + name.length <= jarBytes.length; i++) {
+            if (jarBytes[i] == 'P' && jarBytes[i + 1] == 'K' && jarBytes[i + 2] == 1 && jarBytes[i + 3] == 2
+                    && (jarBytes[i + 28] & 0xff | (jarBytes[i + 29] & 0xff) << 8) == name.length) {
+                boolean matches = true;
+                for (int j = 0; j < name.length && matches; j++) {
+                    matches = jarBytes[i + 46 + j] == name[j];
+                }
+                if (matches) {
+                    jarBytes[i + fieldOff] = (byte) value;
+                    jarBytes[i + fieldOff + 1] = (byte) (value >> 8);
+                    return;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No central directory entry: " + entryName);
+    }
+
+    /**
+     * Get the paths of all resources accepted by a scan.
+     *
+     * @param classGraph
+     *            the {@link ClassGraph} instance to scan with
+     * @return the resource paths
+     */
+    private static Set<String> resourcePaths(final ClassGraph classGraph) {
+        try (ScanResult scanResult = classGraph.scan()) {
+            return new TreeSet<>(scanResult.getAllResources().getPaths());
+        }
+    }
+
+    /** Test that a scan of accepted paths finds the same resources as filtering a scan of all paths. */
+    @Test
+    public void acceptedPathsMatchFullScan() throws Exception {
+        final Path jar = writeJar("prefixes.jar", new String[] { "z/last.txt", "com/acme/b/y.txt",
+                "com/acme/a/x.txt", "com/acme/a/sub/z.txt", "com/acme/ab.txt", "classes/com/acme/a/v.txt",
+                "META-INF/versions/9/com/acme/a/w.txt", "other/w.txt" });
+
+        final Set<String> expected = new TreeSet<>();
+        for (final String path : resourcePaths(new ClassGraph().overrideClasspath(jar.toString()))) {
+            if (path.startsWith("com/acme/a/")) {
+                expected.add(path);
+            }
+        }
+        assertThat(expected).contains("com/acme/a/x.txt", "com/acme/a/sub/z.txt", "com/acme/a/v.txt");
+        assertThat(resourcePaths(new ClassGraph().overrideClasspath(jar.toString()).acceptPaths("com/acme/a")))
+                .isEqualTo(expected);
+
+        // Resources outside accepted paths can still be found by path
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(jar.toString()).acceptPaths("com/acme/a")
+                .scan()) {
+            assertThat(scanResult.getResourcesWithPath("other/w.txt")).isEmpty();
+            final Resource resource = scanResult.getResourcesWithPathIgnoringAccept("other/w.txt").get(0);
+            assertThat(resource.getContentAsString()).isEqualTo("other/w.txt");
+        }
+    }
+
+    /** Test that entries with names that need to be sanitized are still found. */
+    @Test
+    public void unsanitizedEntryNames() throws Exception {
+        final Path jar = writeJar("unsanitized.jar",
+                new String[] { "com/acme/a/x.txt", "./com/acme/a/y.txt", "com//acme/b/z.txt" });
+        assertThat(resourcePaths(new ClassGraph().overrideClasspath(jar.toString()).acceptPaths("com/acme/a")))
+                .containsExactly("com/acme/a/x.txt", "com/acme/a/y.txt");
+    }
+
+    /** Test that superclasses outside accepted packages are found when scanning is extended upwards. */
+    @Test
+    public void extendScanningUpwards() throws Exception {
+        final Path jar = writeJar("upwards.jar", new String[0], Accepted.class, RejectedSuperclass.class,
+                RejectedInterface.class, RejectedAnnotation.class);
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(jar.toString())
+                .acceptPackages(Accepted.class.getPackage().getName()).enableAllInfo().scan()) {
+            final ClassInfo classInfo = scanResult.getClassInfo(Accepted.class.getName());
+            assertThat(classInfo).isNotNull();
+            assertThat(classInfo.getSuperclass().getName()).isEqualTo(RejectedSuperclass.class.getName());
+            assertThat(classInfo.getSuperclass().isExternalClass()).isTrue();
+            assertThat(classInfo.getSuperclass().getResource()).isNotNull();
+        }
+    }
+
+    /** Test that entries that are skipped when read lazily from the index are still logged. */
+    @Test
+    public void skippedEntriesAreLogged() throws Exception {
+        final Path jar = writeJar("skipped.jar",
+                new String[] { "com/acme/a/x.txt", "com/acme/a/encrypted.txt", "com/acme/a/truncated.txt" });
+        final byte[] jarBytes = Files.readAllBytes(jar);
+        // Set the encrypted flag bit
+        setCentralDirectoryField(jarBytes, "com/acme/a/encrypted.txt", 8, 1);
+        // Make the extra field of the last entry extend past the end of the central directory
+        setCentralDirectoryField(jarBytes, "com/acme/a/truncated.txt", 30, 0xffff);
+        Files.write(jar, jarBytes);
+
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(final LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final Logger logger = Logger.getLogger(ClassGraph.class.getName());
+        logger.addHandler(handler);
+        try {
+            assertThat(resourcePaths(
+                    new ClassGraph().overrideClasspath(jar.toString()).acceptPaths("com/acme/a").verbose()))
+                            .containsExactly("com/acme/a/x.txt");
+        } finally {
+            logger.removeHandler(handler);
+        }
+        assertThat(messages).anySatisfy(
+                message -> assertThat(message).contains("Skipping encrypted zip entry: com/acme/a/encrypted.txt"));
+        assertThat(messages).anySatisfy(message -> assertThat(message).contains("Could not read zip entry at offset")
+                .contains(jar.toString()));
+    }
+}
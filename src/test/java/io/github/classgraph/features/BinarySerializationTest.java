@@ -0,0 +1,63 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ScanResult;
+import nonapi.io.github.classgraph.utils.BinaryReader;
+import nonapi.io.github.classgraph.utils.BinaryWriter;
+
+/**
+ * Test.
+ */
+public class BinarySerializationTest {
+    /** Test that a scan with all info enabled survives a binary round trip, and only its own bytes are read. */
+    @Test
+    public void roundTrip() throws IOException {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages("io.github.classgraph.test")
+                .enableAllInfo().ignoreClassVisibility().ignoreFieldVisibility().ignoreMethodVisibility().scan()) {
+            final String json = scanResult.toJSON(2);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            scanResult.writeTo(out);
+            out.write(new byte[] { 1, 2, 3 });
+            final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+            try (ScanResult scanResultDeserialized = ScanResult.readFrom(in)) {
+                assertThat(scanResultDeserialized.toJSON(2)).isEqualTo(json);
+            }
+            // The bytes after the serialized ScanResult must not have been consumed
+            assertThat(in.read()).isEqualTo(1);
+        }
+    }
+
+    /** Test that a truncated record is rejected. */
+    @Test
+    public void truncated() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ScanResult scanResult = new ClassGraph().acceptPackages("io.github.classgraph.test.accepted")
+                .enableClassInfo().scan()) {
+            scanResult.writeTo(out);
+        }
+        final byte[] bytes = out.toByteArray();
+        assertThatThrownBy(() -> ScanResult.readFrom(new ByteArrayInputStream(Arrays.copyOf(bytes, 100))))
+                .isInstanceOf(IOException.class);
+    }
+
+    /** Test that a count larger than the remaining input is rejected rather than allocated. */
+    @Test
+    public void hugeCount() throws IOException {
+        final BinaryWriter writer = new BinaryWriter();
+        writer.writeVarint(Integer.MAX_VALUE);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        final BinaryReader reader = new BinaryReader(new ByteArrayInputStream(out.toByteArray()));
+        assertThatThrownBy(reader::readCount).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.Resource;
+import io.github.classgraph.ScanResult;
+
+/**
+ * Test that memory-mapping only the central directory of a jarfile gives the same result as reading it into RAM.
+ */
+public class CentralDirectoryMappingTest {
+    /** The temporary directory. */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Get the path and content of all resources found by a scan.
+     *
+     * @param classGraph
+     *            the {@link ClassGraph} instance to scan with
+     * @return the content of each resource, by path
+     * @throws Exception
+     *             if a resource could not be read
+     */
+    private static Map<String, String> resourceContents(final ClassGraph classGraph) throws Exception {
+        final Map<String, String> contents = new TreeMap<>();
+        try (ScanResult scanResult = classGraph.scan()) {
+            for (final Resource resource : scanResult.getAllResources()) {
+                contents.put(resource.getPath(), resource.getContentAsString());
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Scan a jarfile with the central directory read into RAM, and memory-mapped.
+     *
+     * @param jarName
+     *            the jar name
+     * @param resourceName
+     *            the name of the resources in the jar
+     * @throws Exception
+     *             if the jar could not be written or read
+     */
+    private void scanWithMappedCentralDirectory(final String jarName, final String resourceName)
+            throws Exception {
+        final Path jar = tempDir.resolve(jarName);
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (int i = 0; i < 100; i++) {
+                final String path = "com/acme/pkg" + (i % 4) + "/" + resourceName + i + ".txt";
+                zipOutputStream.putNextEntry(new ZipEntry(path));
+                zipOutputStream.write(path.getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+        }
+        final Map<String, String> expected = resourceContents(new ClassGraph().overrideClasspath(jar.toString())
+                .setCentralDirectoryMappingThreshold(Integer.MAX_VALUE));
+        final String path = "com/acme/pkg1/" + resourceName + "5.txt";
+        assertThat(expected).hasSize(100).containsEntry(path, path);
+        assertThat(resourceContents(
+                new ClassGraph().overrideClasspath(jar.toString()).setCentralDirectoryMappingThreshold(0)))
+                        .isEqualTo(expected);
+        assertThat(resourceContents(new ClassGraph().overrideClasspath(jar.toString()).acceptPaths("com/acme/pkg1")
+                .setCentralDirectoryMappingThreshold(0))).hasSize(25).containsEntry(path, path);
+        assertThat(resourceContents(new ClassGraph().overrideClasspath(jar.toString()).enableMemoryMapping()))
+                .isEqualTo(expected);
+    }
+
+    /** Test a central directory that is indexed by entry name. */
+    @Test
+    public void indexedCentralDirectory() throws Exception {
+        scanWithMappedCentralDirectory("ascii.jar", "resource");
+    }
+
+    /** Test a central directory with non-ASCII entry names, which are read eagerly rather than indexed. */
+    @Test
+    public void nonAsciiCentralDirectory() throws Exception {
+        scanWithMappedCentralDirectory("nonascii.jar", "r\u00e9source");
+    }
+
+    /** Test that a negative threshold is rejected. */
+    @Test
+    public void negativeThreshold() {
+        assertThatThrownBy(() -> new ClassGraph().setCentralDirectoryMappingThreshold(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Cls;
+import io.github.classgraph.test.accepted.ClsSubSub;
+import io.github.classgraph.test.accepted.Iface;
+import io.github.classgraph.test.accepted.Impl1SubSub;
+import io.github.classgraph.test.accepted.IfaceSubSub;
+
+/**
+ * Test that subtype queries answered by the class hierarchy index give the same result as walking the class
+ * hierarchy.
+ */
+public class ClassHierarchyIndexTest {
+    /** The package to scan. */
+    private static final String PACKAGE = "io.github.classgraph.test";
+
+    /**
+     * Describe the class hierarchy of a scan result, by making every subtype query between every pair of classes.
+     *
+     * @param classGraph
+     *            the {@link ClassGraph} instance to scan with
+     * @return the description
+     */
+    private static List<String> describeHierarchy(final ClassGraph classGraph) {
+        final List<String> description = new ArrayList<>();
+        try (ScanResult scanResult = classGraph.acceptPackages(PACKAGE).scan()) {
+            for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+                description.add(classInfo.getName() + " subclasses " + classInfo.getSubclasses().getNames()
+                        + " assignable " + scanResult.getAllClasses().getAssignableTo(classInfo).getNames());
+                for (final ClassInfo other : scanResult.getAllClasses()) {
+                    if (classInfo.extendsSuperclass(other.getName())) {
+                        description.add(classInfo.getName() + " extends " + other.getName());
+                    }
+                    if (classInfo.implementsInterface(other.getName())) {
+                        description.add(classInfo.getName() + " implements " + other.getName());
+                    }
+                    if (classInfo.isAssignableTo(other.getName())) {
+                        description.add(classInfo.getName() + " assignable to " + other.getName());
+                    }
+                }
+                description.add(classInfo.getName() + " extends Object "
+                        + classInfo.extendsSuperclass(Object.class.getName()));
+            }
+        }
+        return description;
+    }
+
+    /** Test that indexed queries give the same result as walking the class hierarchy. */
+    @Test
+    public void indexedQueriesMatchHierarchyWalk() {
+        final List<String> expected = describeHierarchy(new ClassGraph());
+        assertThat(expected).contains(ClsSubSub.class.getName() + " extends " + Cls.class.getName(),
+                Impl1SubSub.class.getName() + " implements " + Iface.class.getName(),
+                IfaceSubSub.class.getName() + " implements " + Iface.class.getName());
+        assertThat(describeHierarchy(new ClassGraph().enableClassHierarchyIndex())).isEqualTo(expected);
+    }
+
+    /** Test that indexed queries give the same result when external classes are enabled. */
+    @Test
+    public void externalClasses() {
+        assertThat(describeHierarchy(new ClassGraph().enableExternalClasses().enableClassHierarchyIndex()))
+                .isEqualTo(describeHierarchy(new ClassGraph().enableExternalClasses()));
+    }
+
+    /** Test subtype queries for classes that were not found by the scan. */
+    @Test
+    public void unknownClasses() {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableClassHierarchyIndex().scan()) {
+            final ClassInfo classInfo = scanResult.getClassInfo(ClsSubSub.class.getName());
+            assertThat(classInfo.isAssignableTo(ClsSubSub.class)).isTrue();
+            assertThat(classInfo.isAssignableTo(Cls.class)).isTrue();
+            assertThat(classInfo.isAssignableTo("com.xyz.Unknown")).isFalse();
+            assertThat(classInfo.extendsSuperclass("com.xyz.Unknown")).isFalse();
+            assertThat(classInfo.implementsInterface("com.xyz.Unknown")).isFalse();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfoList;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.ClsSubSub;
+import io.github.classgraph.test.accepted.Iface;
+import io.github.classgraph.test.accepted.Impl1;
+import io.github.classgraph.test.accepted.Impl1SubSub;
+
+/**
+ * Test that {@link ClassInfoList#union(ClassInfoList...)}, {@link ClassInfoList#intersect(ClassInfoList...)} and
+ * {@link ClassInfoList#exclude(ClassInfoList)} give the same results as the corresponding operations on sets of
+ * class names.
+ */
+public class ClassInfoListSetAlgebraTest {
+    /** The package to scan. */
+    private static final String PACKAGE = "io.github.classgraph.test";
+
+    /**
+     * Get the names of the classes in a list, deduplicated, in order.
+     *
+     * @param classInfoList
+     *            the list
+     * @return the names
+     */
+    private static Set<String> names(final ClassInfoList classInfoList) {
+        return new LinkedHashSet<>(classInfoList.getNames());
+    }
+
+    /** Test the set operations on sorted and unsorted lists. */
+    @Test
+    public void setOperations() {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).scan()) {
+            final ClassInfoList implementing = scanResult.getClassesImplementing(Iface.class);
+            final ClassInfoList subclasses = scanResult.getSubclasses(Impl1.class);
+            final ClassInfoList standardClasses = scanResult.getAllStandardClasses();
+            // Superclasses are in hierarchy order, not sorted by name
+            final ClassInfoList superclasses = scanResult.getClassInfo(Impl1SubSub.class.getName())
+                    .getSuperclasses();
+            final ClassInfoList otherSuperclasses = scanResult.getClassInfo(ClsSubSub.class.getName())
+                    .getSuperclasses();
+            assertThat(implementing).isNotEmpty();
+            assertThat(subclasses).isNotEmpty();
+            assertThat(superclasses.getNames()).hasSize(2);
+
+            final Set<String> union = names(implementing);
+            union.addAll(subclasses.getNames());
+            union.addAll(superclasses.getNames());
+            final List<String> sortedUnion = new ArrayList<>(union);
+            sortedUnion.sort(null);
+            assertThat(implementing.union(subclasses, superclasses).getNames()).isEqualTo(sortedUnion);
+
+            final Set<String> unsortedUnion = names(superclasses);
+            unsortedUnion.addAll(otherSuperclasses.getNames());
+            assertThat(superclasses.union(otherSuperclasses).getNames())
+                    .containsExactlyElementsOf(unsortedUnion);
+
+            final Set<String> intersection = names(superclasses);
+            intersection.retainAll(implementing.getNames());
+            assertThat(intersection).isNotEmpty();
+            // The order of the unsorted list is preserved in the intersection
+            assertThat(implementing.intersect(superclasses).getNames()).containsExactlyElementsOf(intersection);
+            assertThat(standardClasses.intersect(implementing, subclasses).getNames())
+                    .isEqualTo(subclasses.getNames());
+
+            final Set<String> difference = names(standardClasses);
+            difference.removeAll(implementing.getNames());
+            assertThat(standardClasses.exclude(implementing).getNames()).containsExactlyElementsOf(difference);
+            assertThat(otherSuperclasses.exclude(subclasses).getNames()).isEqualTo(otherSuperclasses.getNames());
+            assertThat(superclasses.exclude(subclasses).getNames()).containsExactly(Impl1.class.getName());
+            assertThat(subclasses.exclude(subclasses)).isEmpty();
+
+            // Directly related classes are combined in the same way
+            final Set<String> directUnion = names(implementing.directOnly());
+            directUnion.addAll(subclasses.directOnly().getNames());
+            assertThat(names(implementing.union(subclasses).directOnly())).isEqualTo(directUnion);
+            final Set<String> directIntersection = names(implementing.directOnly());
+            directIntersection.retainAll(subclasses.directOnly().getNames());
+            assertThat(names(implementing.intersect(subclasses).directOnly())).isEqualTo(directIntersection);
+        }
+    }
+
+    /** Test that duplicates added to a list are removed by set operations. */
+    @Test
+    public void duplicates() {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).scan()) {
+            final ClassInfoList subclasses = scanResult.getSubclasses(Impl1.class);
+            final ClassInfoList withDuplicates = new ClassInfoList(subclasses);
+            withDuplicates.addAll(subclasses);
+            assertThat(withDuplicates).hasSize(2 * subclasses.size());
+            assertThat(withDuplicates.union().getNames()).isEqualTo(subclasses.getNames());
+            assertThat(withDuplicates.intersect(subclasses).getNames()).isEqualTo(subclasses.getNames());
+            assertThat(withDuplicates.exclude(ClassInfoList.emptyList()).getNames())
+                    .isEqualTo(subclasses.getNames());
+        }
+    }
+}
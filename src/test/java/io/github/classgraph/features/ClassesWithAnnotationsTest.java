@@ -0,0 +1,132 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfoList;
+import io.github.classgraph.ScanResult;
+
+/**
+ * Test that {@link ScanResult#getClassesWithAnnotations(java.util.Collection)} gives the same result as querying
+ * each annotation separately.
+ */
+public class ClassesWithAnnotationsTest {
+    /** An annotation that is meta-annotated by {@link B}. */
+    @B
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface A {
+    }
+
+    /** An annotation that is meta-annotated by {@link A}, forming a cycle. */
+    @A
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface B {
+    }
+
+    /** An inherited annotation that is meta-annotated by {@link A}. */
+    @A
+    @Inherited
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface C {
+    }
+
+    /** An annotation that annotates nothing. */
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface D {
+    }
+
+    /** A class annotated with {@link A}. */
+    @A
+    private static class X {
+    }
+
+    /** A class annotated with {@link C}. */
+    @C
+    private static class Y {
+    }
+
+    /** A subclass of {@link Y}, which inherits {@link C}. */
+    private static class Z extends Y {
+    }
+
+    /** Test that the batch query gives the same result as separate queries. */
+    @Test
+    public void sameResults() {
+        final List<String> annotationNames = new ArrayList<>(Arrays.asList(A.class.getName(), B.class.getName(),
+                C.class.getName(), D.class.getName(), "com.xyz.Unknown", A.class.getName()));
+        try (ScanResult scanResult = new ClassGraph()
+                .acceptClasses(ClassesWithAnnotationsTest.class.getName() + "*").enableAnnotationInfo()
+                .ignoreClassVisibility().scan()) {
+            assertThat(scanResult.getClassesWithAnnotation(A.class).getNames())
+                    .contains(X.class.getName(), Y.class.getName()).doesNotContain(Z.class.getName());
+
+            final Map<String, ClassInfoList> classesWithAnnotations = scanResult
+                    .getClassesWithAnnotations(annotationNames);
+            assertThat(classesWithAnnotations).containsOnlyKeys(annotationNames);
+            for (final String annotationName : annotationNames) {
+                final ClassInfoList classesWithAnnotation = classesWithAnnotations.get(annotationName);
+                final ClassInfoList expected = scanResult.getClassesWithAnnotation(annotationName);
+                assertThat(classesWithAnnotation.getNames()).isEqualTo(expected.getNames());
+                assertThat(classesWithAnnotation.directOnly().getNames())
+                        .isEqualTo(expected.directOnly().getNames());
+            }
+            assertThat(classesWithAnnotations.get(C.class.getName()).getNames())
+                    .containsExactly(Y.class.getName(), Z.class.getName());
+            assertThat(classesWithAnnotations.get(D.class.getName())).isEmpty();
+        }
+    }
+
+    /** Test that batch and separate queries share memoized results, in either order. */
+    @Test
+    public void memoizedResults() {
+        final String[] annotationNames = { A.class.getName(), B.class.getName(), C.class.getName(),
+                D.class.getName() };
+        try (ScanResult scanResult = new ClassGraph()
+                .acceptClasses(ClassesWithAnnotationsTest.class.getName() + "*").enableAnnotationInfo()
+                .ignoreClassVisibility().scan()) {
+            final List<String> any = scanResult.getClassesWithAnyAnnotation(annotationNames).getNames();
+            assertThat(any).containsOnly(A.class.getName(), B.class.getName(), C.class.getName(),
+                    X.class.getName(), Y.class.getName(), Z.class.getName());
+            final Map<String, ClassInfoList> classesWithAnnotations = scanResult
+                    .getClassesWithAnnotations(Arrays.asList(annotationNames));
+            for (final String annotationName : annotationNames) {
+                final ClassInfoList expected = scanResult.getClassesWithAnnotation(annotationName);
+                assertThat(classesWithAnnotations.get(annotationName).getNames()).isEqualTo(expected.getNames());
+                assertThat(classesWithAnnotations.get(annotationName).directOnly().getNames())
+                        .isEqualTo(expected.directOnly().getNames());
+            }
+            assertThat(scanResult.getClassesWithAnyAnnotation(annotationNames).getNames()).isEqualTo(any);
+            assertThat(scanResult.getClassesWithAllAnnotations(A.class.getName(), B.class.getName()).getNames())
+                    .containsOnly(A.class.getName(), B.class.getName(), C.class.getName(), X.class.getName(),
+                            Y.class.getName());
+        }
+    }
+
+    /** Test the batch query on all the annotations of a larger scan. */
+    @Test
+    public void allAnnotations() {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages("io.github.classgraph.test")
+                .enableAllInfo().scan()) {
+            final List<String> annotationNames = scanResult.getAllAnnotations().getNames();
+            assertThat(annotationNames).isNotEmpty();
+            final Map<String, ClassInfoList> classesWithAnnotations = scanResult
+                    .getClassesWithAnnotations(annotationNames);
+            for (final String annotationName : annotationNames) {
+                assertThat(classesWithAnnotations.get(annotationName).getNames())
+                        .isEqualTo(scanResult.getClassesWithAnnotation(annotationName).getNames());
+            }
+            assertThat(scanResult.getClassesWithAnyAnnotation(annotationNames.toArray(new String[0])).getNames())
+                    .isNotEmpty();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Cls;
+import io.github.classgraph.test.accepted.ClsSub;
+import io.github.classgraph.test.accepted.ClsSubSub;
+
+/**
+ * Test that a scan result whose class relationships are frozen into adjacency arrays gives the same results as a
+ * scan result with the usual sets of related classes.
+ */
+public class CompactClassGraphTest {
+    /** The package to scan. */
+    private static final String PACKAGE = "io.github.classgraph.test";
+
+    /**
+     * Get a relationship type.
+     *
+     * @param name
+     *            the name of the relationship type
+     * @return the relationship type
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object relType(final String name) throws ClassNotFoundException {
+        return Enum.valueOf((Class<? extends Enum>) Class.forName(ClassInfo.class.getName() + "$RelType"), name);
+    }
+
+    /**
+     * Call a package-private method of {@link ClassInfo} that takes a relationship type as its first parameter.
+     *
+     * @param classInfo
+     *            the class
+     * @param methodName
+     *            the name of the method
+     * @param args
+     *            the arguments
+     * @return the result
+     */
+    private static Object invoke(final ClassInfo classInfo, final String methodName, final Object... args)
+            throws Exception {
+        for (final Method method : ClassInfo.class.getDeclaredMethods()) {
+            if (method.getName().equals(methodName) && method.getParameterCount() == args.length) {
+                method.setAccessible(true);
+                return method.invoke(classInfo, args);
+            }
+        }
+        throw new NoSuchMethodException(methodName);
+    }
+
+    /**
+     * Describe the relationships of every class found by a scan.
+     *
+     * @param scanResult
+     *            the scan result
+     * @return the description
+     */
+    private static List<String> describeClasses(final ScanResult scanResult) {
+        final List<String> description = new ArrayList<>();
+        for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+            description.add(classInfo.getName() + " superclass " + classInfo.getSuperclass() + " superclasses "
+                    + classInfo.getSuperclasses().getNames() + " subclasses "
+                    + classInfo.getSubclasses().getNames() + " direct subclasses "
+                    + classInfo.getSubclasses().directOnly().getNames() + " interfaces "
+                    + classInfo.getInterfaces().getNames() + " implementing "
+                    + classInfo.getClassesImplementing().getNames() + " annotations "
+                    + classInfo.getAnnotations().getNames() + " annotated "
+                    + classInfo.getClassesWithAnnotation().getNames() + " method annotations "
+                    + classInfo.getMethodAnnotations().getNames() + " field annotations "
+                    + classInfo.getFieldAnnotations().getNames() + " outer " + classInfo.getOuterClasses().getNames()
+                    + " inner " + classInfo.getInnerClasses().getNames());
+        }
+        return description;
+    }
+
+    /** Test that queries and serialization give the same results. */
+    @Test
+    public void sameResults() {
+        final List<String> expected;
+        final String expectedJson;
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo().scan()) {
+            expected = describeClasses(scanResult);
+            expectedJson = scanResult.toJSON();
+        }
+        assertThat(expected).anySatisfy(description -> assertThat(description)
+                .startsWith(Cls.class.getName() + " superclass null superclasses [] subclasses ["
+                        + ClsSub.class.getName() + ", " + ClsSubSub.class.getName() + "] direct subclasses ["
+                        + ClsSub.class.getName() + "]"));
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo()
+                .enableCompactClassGraph().scan()) {
+            assertThat(describeClasses(scanResult)).isEqualTo(expected);
+            final String json = scanResult.toJSON();
+            assertThat(json).isEqualTo(expectedJson);
+            try (ScanResult deserialized = ScanResult.fromJSON(json)) {
+                assertThat(describeClasses(deserialized)).isEqualTo(expected);
+            }
+        }
+    }
+
+    /** Test that a compact class graph can also be indexed. */
+    @Test
+    public void withClassHierarchyIndex() {
+        final List<String> expected;
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo().scan()) {
+            expected = describeClasses(scanResult);
+        }
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo()
+                .enableCompactClassGraph().enableClassHierarchyIndex().scan()) {
+            assertThat(describeClasses(scanResult)).isEqualTo(expected);
+            assertThat(scanResult.getClassInfo(ClsSubSub.class.getName()).isAssignableTo(Cls.class)).isTrue();
+        }
+    }
+
+    /** Test the membership checks on the rows of a compact class graph. */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void rows() throws Exception {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo()
+                .enableCompactClassGraph().scan()) {
+            final ClassInfo cls = scanResult.getClassInfo(Cls.class.getName());
+            final Set<Object> subclasses = (Set<Object>) invoke(cls, "getDirectlyRelatedClasses",
+                    relType("SUBCLASSES"));
+            assertThat(subclasses).containsExactly(scanResult.getClassInfo(ClsSub.class.getName()));
+            assertThat(subclasses.contains(scanResult.getClassInfo(ClsSub.class.getName()))).isTrue();
+            assertThat(subclasses.contains(scanResult.getClassInfo(ClsSubSub.class.getName()))).isFalse();
+            assertThat(subclasses.contains(cls)).isFalse();
+            assertThat(subclasses.contains(ClsSub.class.getName())).isFalse();
+            for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+                final Set<?> interfaces = (Set<?>) invoke(classInfo, "getDirectlyRelatedClasses",
+                        relType("IMPLEMENTED_INTERFACES"));
+                for (final ClassInfo anyClassInfo : scanResult.getAllClasses()) {
+                    assertThat(interfaces.contains(anyClassInfo))
+                            .isEqualTo(classInfo.getInterfaces().directOnly().contains(anyClassInfo));
+                }
+            }
+        }
+    }
+
+    /** Test that no relationships can be added once the class graph is compact. */
+    @Test
+    public void frozen() throws Exception {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo()
+                .enableCompactClassGraph().scan()) {
+            final ClassInfo cls = scanResult.getClassInfo(Cls.class.getName());
+            final ClassInfo clsSubSub = scanResult.getClassInfo(ClsSubSub.class.getName());
+            // A relationship type with a row, and one without
+            for (final String relTypeName : new String[] { "SUBCLASSES", "CLASS_ANNOTATIONS" }) {
+                assertThatThrownBy(() -> invoke(cls, "addRelatedClass", relType(relTypeName), clsSubSub))
+                        .isInstanceOf(InvocationTargetException.class)
+                        .hasCauseInstanceOf(UnsupportedOperationException.class);
+            }
+            assertThat(cls.getSubclasses().directOnly().getNames()).containsExactly(ClsSub.class.getName());
+        }
+    }
+}
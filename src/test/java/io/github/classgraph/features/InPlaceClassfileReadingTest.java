@@ -0,0 +1,151 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Accepted;
+import io.github.classgraph.test.accepted.ClsSub;
+import io.github.classgraph.test.accepted.ClsSubSub;
+import io.github.classgraph.test.accepted.Impl1;
+import io.github.classgraph.test.rejected.RejectedSuperclass;
+
+/**
+ * Test that classfiles of stored (uncompressed) jar entries, which are read in place from the mapped file or the
+ * backing array of a nested jar, give the same scan result as classfiles that are copied into a buffer.
+ */
+public class InPlaceClassfileReadingTest {
+    /** The temporary directory. */
+    @TempDir
+    Path tempDir;
+
+    /** The classes to add to the jars. */
+    private static final Class<?>[] CLASSES = { Accepted.class, ClsSub.class, ClsSubSub.class, Impl1.class,
+            RejectedSuperclass.class };
+
+    /**
+     * Read a classfile.
+     *
+     * @param cls
+     *            the class
+     * @return the classfile bytes
+     * @throws Exception
+     *             if the classfile could not be read
+     */
+    private static byte[] classfileBytes(final Class<?> cls) throws Exception {
+        try (InputStream inputStream = cls.getClassLoader()
+                .getResourceAsStream(cls.getName().replace('.', '/') + ".class")) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buf = new byte[8192];
+            for (int n; (n = inputStream.read(buf)) > 0;) {
+                bytes.write(buf, 0, n);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Write a jar containing the test classfiles.
+     *
+     * @param outputStream
+     *            the output stream to write the jar to
+     * @param stored
+     *            if true, store the classfiles without compression
+     * @throws Exception
+     *             if the jar could not be written
+     */
+    private static void writeJar(final OutputStream outputStream, final boolean stored) throws Exception {
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            for (final Class<?> cls : CLASSES) {
+                final byte[] bytes = classfileBytes(cls);
+                final ZipEntry zipEntry = new ZipEntry(cls.getName().replace('.', '/') + ".class");
+                if (stored) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(bytes);
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(bytes.length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                zipOutputStream.putNextEntry(zipEntry);
+                zipOutputStream.write(bytes);
+                zipOutputStream.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Describe the classes found by a scan.
+     *
+     * @param classGraph
+     *            the {@link ClassGraph} instance to scan with
+     * @return a description of each class found
+     */
+    private static List<String> describeClasses(final ClassGraph classGraph) {
+        final List<String> descriptions = new ArrayList<>();
+        try (ScanResult scanResult = classGraph.enableAllInfo().scan()) {
+            for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+                descriptions.add(classInfo.getName() + " extends " + classInfo.getSuperclasses().getNames()
+                        + " implements " + classInfo.getInterfaces().getNames() + " annotated "
+                        + classInfo.getAnnotationInfo() + " fields " + classInfo.getFieldInfo() + " methods "
+                        + classInfo.getMethodInfo());
+            }
+        }
+        return descriptions;
+    }
+
+    /** Test reading stored classfiles in place from a memory-mapped jar. */
+    @Test
+    public void memoryMappedJar() throws Exception {
+        final Path deflatedJar = tempDir.resolve("deflated.jar");
+        final Path storedJar = tempDir.resolve("stored.jar");
+        try (OutputStream outputStream = Files.newOutputStream(deflatedJar)) {
+            writeJar(outputStream, false);
+        }
+        try (OutputStream outputStream = Files.newOutputStream(storedJar)) {
+            writeJar(outputStream, true);
+        }
+        final List<String> expected = describeClasses(new ClassGraph().overrideClasspath(deflatedJar.toString()));
+        assertThat(expected).hasSize(CLASSES.length);
+        assertThat(describeClasses(new ClassGraph().overrideClasspath(storedJar.toString()).enableMemoryMapping()))
+                .isEqualTo(expected);
+        assertThat(describeClasses(new ClassGraph().overrideClasspath(storedJar.toString()))).isEqualTo(expected);
+    }
+
+    /** Test reading stored classfiles in place from the backing array of an inflated nested jar. */
+    @Test
+    public void nestedJar() throws Exception {
+        final Path flatJar = tempDir.resolve("flat.jar");
+        try (OutputStream outputStream = Files.newOutputStream(flatJar)) {
+            writeJar(outputStream, false);
+        }
+        final Path fatJar = tempDir.resolve("fat.jar");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(fatJar))) {
+            zipOutputStream.putNextEntry(new ZipEntry("lib/inner.jar"));
+            writeJar(new ByteArrayOutputStream() {
+                @Override
+                public void close() throws IOException {
+                    zipOutputStream.write(toByteArray());
+                }
+            }, true);
+            zipOutputStream.closeEntry();
+        }
+        assertThat(describeClasses(new ClassGraph().overrideClasspath(fatJar + "!/lib/inner.jar")))
+                .isEqualTo(describeClasses(new ClassGraph().overrideClasspath(flatJar.toString())));
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.MethodInfo;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.ScanStatistics.Phase;
+import io.github.classgraph.test.accepted.Cls;
+import io.github.classgraph.test.accepted.ClsSub;
+import io.github.classgraph.test.accepted.ClsSubSub;
+
+/**
+ * Test.
+ */
+public class IncrementalRescanTest {
+    /** The classpath root directory. */
+    @TempDir
+    Path classpathRoot;
+
+    /**
+     * Copy the classfile of a class into the temporary classpath root.
+     *
+     * @param cls
+     *            the class
+     * @return the path of the copied classfile
+     * @throws Exception
+     *             if the classfile could not be copied
+     */
+    private Path copyClassfile(final Class<?> cls) throws Exception {
+        final String classfilePath = cls.getName().replace('.', '/') + ".class";
+        final Path target = classpathRoot.resolve(classfilePath);
+        Files.createDirectories(target.getParent());
+        try (InputStream inputStream = cls.getClassLoader().getResourceAsStream(classfilePath)) {
+            Files.copy(inputStream, target);
+        }
+        return target;
+    }
+
+    /** Test that rescan only re-reads modified classfiles, and picks up additions and deletions. */
+    @Test
+    public void rescan() throws Exception {
+        copyClassfile(Cls.class);
+        final Path clsSubClassfile = copyClassfile(ClsSub.class);
+        final ClassGraph classGraph = new ClassGraph().overrideClasspath(classpathRoot.toString())
+                .acceptPackages(Cls.class.getPackage().getName()).enableAllInfo().enableIncrementalRescan();
+        final MethodInfo clsConstructor;
+        final MethodInfo clsSubConstructor;
+        ScanResult scanResult = classGraph.scan();
+        try {
+            assertThat(scanResult.getSubclasses(Cls.class.getName()).getNames())
+                    .containsExactly(ClsSub.class.getName());
+            clsConstructor = scanResult.getClassInfo(Cls.class.getName()).getDeclaredConstructorInfo().get(0);
+            clsSubConstructor = scanResult.getClassInfo(ClsSub.class.getName()).getDeclaredConstructorInfo()
+                    .get(0);
+
+            // Modify one classfile's timestamp, and add another classfile
+            assertThat(clsSubClassfile.toFile().setLastModified(clsSubClassfile.toFile().lastModified() - 10000L))
+                    .isTrue();
+            copyClassfile(ClsSubSub.class);
+            assertThat(scanResult.classpathContentsModifiedSinceScan()).isTrue();
+
+            final ScanResult rescanResult = scanResult.rescan();
+            assertThat(scanResult.isClosed()).isTrue();
+            scanResult = rescanResult;
+            assertThat(scanResult.getSubclasses(Cls.class.getName()).getNames())
+                    .containsExactlyInAnyOrder(ClsSub.class.getName(), ClsSubSub.class.getName());
+            // Unchanged classfile was reused, modified classfile was re-read
+            assertThat(scanResult.getClassInfo(Cls.class.getName()).getDeclaredConstructorInfo().get(0))
+                    .isSameAs(clsConstructor);
+            assertThat(scanResult.getClassInfo(ClsSub.class.getName()).getDeclaredConstructorInfo().get(0))
+                    .isNotSameAs(clsSubConstructor);
+
+            // Delete a classfile
+            Files.delete(classpathRoot.resolve(ClsSubSub.class.getName().replace('.', '/') + ".class"));
+            scanResult = scanResult.rescan();
+            assertThat(scanResult.getSubclasses(Cls.class.getName()).getNames())
+                    .containsExactly(ClsSub.class.getName());
+            assertThat(scanResult.getClassInfo(ClsSubSub.class.getName())).isNull();
+        } finally {
+            scanResult.close();
+        }
+    }
+
+    /** Test that classes in system modules, which are not backed by a file, are found by an incremental scan. */
+    @Test
+    public void systemModules() {
+        final String pkg = "java.util.function";
+        final List<String> expected;
+        try (ScanResult scanResult = new ClassGraph().enableSystemJarsAndModules().acceptPackages(pkg)
+                .enableClassInfo().scan()) {
+            expected = scanResult.getAllClasses().getNames();
+        }
+        assertThat(expected).isNotEmpty();
+        ScanResult scanResult = new ClassGraph().enableSystemJarsAndModules().acceptPackages(pkg)
+                .enableClassInfo().enableIncrementalRescan().scan();
+        try {
+            assertThat(scanResult.getAllClasses().getNames()).isEqualTo(expected);
+            scanResult = scanResult.rescan();
+            assertThat(scanResult.getAllClasses().getNames()).isEqualTo(expected);
+        } finally {
+            scanResult.close();
+        }
+    }
+
+    /** Test that rescan uses the same number of threads as the original scan. */
+    @Test
+    public void rescanNumThreads() throws Exception {
+        copyClassfile(Cls.class);
+        copyClassfile(ClsSub.class);
+        ScanResult scanResult = new ClassGraph().overrideClasspath(classpathRoot.toString())
+                .acceptPackages(Cls.class.getPackage().getName()).enableClassInfo().enableIncrementalRescan()
+                .scan(3);
+        try {
+            assertThat(scanResult.getScanStatistics().getNumWorkerThreads(Phase.PARSE_CLASSFILES)).isEqualTo(3);
+            scanResult = scanResult.rescan();
+            assertThat(scanResult.getScanStatistics().getNumWorkerThreads(Phase.PARSE_CLASSFILES)).isEqualTo(3);
+        } finally {
+            scanResult.close();
+        }
+    }
+}
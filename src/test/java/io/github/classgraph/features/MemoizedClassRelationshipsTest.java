@@ -0,0 +1,87 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ClassInfoList;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Accepted;
+import io.github.classgraph.test.accepted.Cls;
+import io.github.classgraph.test.accepted.ClsSub;
+import io.github.classgraph.test.accepted.ClsSubSub;
+
+/**
+ * Test that memoized class relationship queries give the same result on every call.
+ */
+public class MemoizedClassRelationshipsTest {
+    /** The accepted package. */
+    private static final String PACKAGE = Accepted.class.getPackage().getName();
+
+    /** Test that modifying a returned list does not change the result of a later query. */
+    @Test
+    public void returnedListsAreIndependent() {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo().scan()) {
+            final ClassInfo cls = scanResult.getClassInfo(Cls.class.getName());
+            final ClassInfoList subclasses = cls.getSubclasses();
+            assertThat(subclasses.getNames()).contains(ClsSub.class.getName(), ClsSubSub.class.getName());
+            assertThat(subclasses.directOnly().getNames()).containsExactly(ClsSub.class.getName());
+            final List<String> expected = subclasses.getNames();
+            subclasses.clear();
+            assertThat(cls.getSubclasses().getNames()).isEqualTo(expected);
+            assertThat(cls.getSubclasses().directOnly().getNames()).containsExactly(ClsSub.class.getName());
+            assertThat(scanResult.getClassInfo(ClsSubSub.class.getName()).getSuperclasses().getNames())
+                    .containsExactly(ClsSub.class.getName(), Cls.class.getName());
+        }
+    }
+
+    /** Test that concurrent queries give the same result as a serial query. */
+    @Test
+    public void concurrentQueries() throws Exception {
+        final List<String> expected = new ArrayList<>();
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo().scan()) {
+            for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+                expected.add(classInfo.getName() + " " + classInfo.getSubclasses().getNames() + " "
+                        + classInfo.getSuperclasses().getNames() + " " + classInfo.getInterfaces().getNames()
+                        + " " + classInfo.getClassesImplementing().getNames() + " "
+                        + classInfo.getAnnotations().getNames());
+            }
+        }
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableAllInfo().scan()) {
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final List<Future<List<String>>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(new Callable<List<String>>() {
+                        @Override
+                        public List<String> call() {
+                            final List<String> found = new ArrayList<>();
+                            for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+                                found.add(classInfo.getName() + " " + classInfo.getSubclasses().getNames() + " "
+                                        + classInfo.getSuperclasses().getNames() + " "
+                                        + classInfo.getInterfaces().getNames() + " "
+                                        + classInfo.getClassesImplementing().getNames() + " "
+                                        + classInfo.getAnnotations().getNames());
+                            }
+                            return found;
+                        }
+                    }));
+                }
+                for (final Future<List<String>> future : futures) {
+                    assertThat(future.get()).isEqualTo(expected);
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassGraph.ScanListener;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.ScanStatistics.Phase;
+
+/**
+ * Test inflating the deflated nested lib jars of a jarfile in parallel.
+ */
+public class NestedJarInflationParallelismTest {
+    /** The temporary directory. */
+    @TempDir
+    Path tempDir;
+
+    /** The number of nested lib jars. */
+    private static final int NUM_LIB_JARS = 12;
+
+    /**
+     * Write a fat jar containing deflated nested lib jars, each containing one resource.
+     *
+     * @param name
+     *            the name of the fat jar
+     * @return the fat jar path
+     * @throws Exception
+     *             if the jar could not be written
+     */
+    private Path writeFatJar(final String name) throws Exception {
+        final Path jar = tempDir.resolve(name);
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (int i = 0; i < NUM_LIB_JARS; i++) {
+                final ByteArrayOutputStream libJarBytes = new ByteArrayOutputStream();
+                try (ZipOutputStream libZipOutputStream = new ZipOutputStream(libJarBytes)) {
+                    libZipOutputStream.putNextEntry(new ZipEntry("com/acme/lib" + i + ".txt"));
+                    libZipOutputStream.write(("lib" + i).getBytes(StandardCharsets.UTF_8));
+                    libZipOutputStream.closeEntry();
+                }
+                zipOutputStream.putNextEntry(new ZipEntry("BOOT-INF/lib/lib" + i + ".jar"));
+                zipOutputStream.write(libJarBytes.toByteArray());
+                zipOutputStream.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    /**
+     * Scan a jar.
+     *
+     * @param jar
+     *            the jar
+     * @param nestedJarInflationParallelism
+     *            the nested jar inflation parallelism
+     * @param inflatedJars
+     *            the list to add the names of inflated jars to
+     * @return the paths of the resources found
+     */
+    private static Set<String> scan(final Path jar, final int nestedJarInflationParallelism,
+            final List<String> inflatedJars) {
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(jar.toString()).acceptPaths("com/acme")
+                .setNestedJarInflationParallelism(nestedJarInflationParallelism)
+                .addScanListener(new ScanListener() {
+                    @Override
+                    public void onClasspathElementOpened(final String path, final long elapsedNanos) {
+                    }
+
+                    @Override
+                    public void onJarInflated(final String path, final long numBytes, final long elapsedNanos) {
+                        inflatedJars.add(path);
+                    }
+
+                    @Override
+                    public void onClassfileParsed(final String path, final long numBytes,
+                            final long elapsedNanos) {
+                    }
+
+                    @Override
+                    public void onPhaseComplete(final Phase phase, final long elapsedNanos) {
+                    }
+                }).scan()) {
+            return new TreeSet<>(scanResult.getAllResources().getPaths());
+        }
+    }
+
+    /** Test that nested jars inflated in parallel give the same result, and are each inflated once. */
+    @Test
+    public void parallelInflation() throws Exception {
+        final Path jar = writeFatJar("fat.jar");
+        final List<String> serialInflatedJars = new CopyOnWriteArrayList<>();
+        final Set<String> expected = scan(jar, 0, serialInflatedJars);
+        assertThat(expected).hasSize(NUM_LIB_JARS);
+        assertThat(serialInflatedJars).hasSize(NUM_LIB_JARS);
+
+        final List<String> parallelInflatedJars = new CopyOnWriteArrayList<>();
+        assertThat(scan(jar, 4, parallelInflatedJars)).isEqualTo(expected);
+        assertThat(new TreeSet<>(parallelInflatedJars)).isEqualTo(new TreeSet<>(serialInflatedJars));
+        assertThat(parallelInflatedJars).hasSize(NUM_LIB_JARS);
+    }
+
+    /**
+     * Get the nested jar inflater threads that are alive.
+     *
+     * @return the threads
+     */
+    private static List<Thread> inflaterThreads() {
+        final List<Thread> threads = new ArrayList<>();
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("ClassGraph-nested-jar-inflater-") && thread.isAlive()) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    /** Test that the inflater threads are shared between jars, and are stopped when the scan result is closed. */
+    @Test
+    public void inflaterThreadsBoundedAndStopped() throws Exception {
+        final Path jar1 = writeFatJar("fat1.jar");
+        final Path jar2 = writeFatJar("fat2.jar");
+        final AtomicInteger maxInflaterThreads = new AtomicInteger();
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(jar1.toString(), jar2.toString())
+                .acceptPaths("com/acme").setNestedJarInflationParallelism(2).addScanListener(new ScanListener() {
+                    @Override
+                    public void onClasspathElementOpened(final String path, final long elapsedNanos) {
+                    }
+
+                    @Override
+                    public void onJarInflated(final String path, final long numBytes, final long elapsedNanos) {
+                        final int numInflaterThreads = inflaterThreads().size();
+                        for (int max; (max = maxInflaterThreads.get()) < numInflaterThreads;) {
+                            maxInflaterThreads.compareAndSet(max, numInflaterThreads);
+                        }
+                    }
+
+                    @Override
+                    public void onClassfileParsed(final String path, final long numBytes,
+                            final long elapsedNanos) {
+                    }
+
+                    @Override
+                    public void onPhaseComplete(final Phase phase, final long elapsedNanos) {
+                    }
+                }).scan()) {
+            assertThat(new TreeSet<>(scanResult.getAllResources().getPaths())).hasSize(NUM_LIB_JARS);
+        }
+        assertThat(maxInflaterThreads.get()).isLessThanOrEqualTo(2);
+        for (final Thread thread : inflaterThreads()) {
+            thread.join(1000L);
+            assertThat(thread.isAlive()).isFalse();
+        }
+    }
+
+    /** Test that a negative parallelism is rejected. */
+    @Test
+    public void negativeParallelism() {
+        assertThatThrownBy(() -> new ClassGraph().setNestedJarInflationParallelism(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
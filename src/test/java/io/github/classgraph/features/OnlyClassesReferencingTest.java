@@ -0,0 +1,62 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Accepted;
+import io.github.classgraph.test.accepted.Cls;
+import io.github.classgraph.test.rejected.RejectedAnnotation;
+import io.github.classgraph.test.rejected.RejectedSuperclass;
+
+/**
+ * Test that {@link ClassGraph#onlyClassesReferencing(String...)} only scans classes that reference the named
+ * classes.
+ */
+public class OnlyClassesReferencingTest {
+    /** The accepted package. */
+    private static final String PACKAGE = Accepted.class.getPackage().getName();
+
+    /** Test finding classes with an annotation. */
+    @Test
+    public void annotatedClasses() {
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE)
+                .onlyClassesReferencing(RejectedAnnotation.class.getName()).enableAnnotationInfo().scan()) {
+            assertThat(scanResult.getAllClasses().getNames()).containsExactly(Accepted.class.getName());
+            assertThat(scanResult.getClassesWithAnnotation(RejectedAnnotation.class).getNames())
+                    .containsExactly(Accepted.class.getName());
+            // Superclasses outside accepted packages are still scanned
+            final ClassInfo superclass = scanResult.getClassInfo(Accepted.class.getName()).getSuperclass();
+            assertThat(superclass.getName()).isEqualTo(RejectedSuperclass.class.getName());
+            assertThat(superclass.isExternalClass()).isTrue();
+        }
+    }
+
+    /** Test that the classes found are the named class and the classes that depend on it. */
+    @Test
+    public void dependentClasses() {
+        final Set<String> expected = new TreeSet<>();
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).enableInterClassDependencies()
+                .scan()) {
+            for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+                if (classInfo.getName().equals(Cls.class.getName())
+                        || classInfo.getClassDependencies().containsName(Cls.class.getName())) {
+                    expected.add(classInfo.getName());
+                }
+            }
+        }
+        assertThat(expected).contains(Cls.class.getName(), Cls.class.getName() + "Sub",
+                "io.github.classgraph.test.accepted.HasFieldWithTypeCls$HasFieldWithTypeCls1",
+                "io.github.classgraph.test.accepted.HasFieldWithTypeCls$HasFieldWithTypeCls2");
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(PACKAGE).ignoreClassVisibility()
+                .onlyClassesReferencing(Cls.class.getName()).scan()) {
+            assertThat(new TreeSet<>(scanResult.getAllClasses().getNames())).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+
+/**
+ * Test.
+ */
+public class ParallelLinkingTest {
+    /**
+     * Scan enough classes for linking to be performed in parallel, and summarize the class graph.
+     *
+     * @param numThreads
+     *            the number of threads
+     * @return a map from class name to a summary of the classes related to it
+     */
+    private static Map<String, String> scanAndSummarize(final int numThreads) {
+        final Map<String, String> summary = new TreeMap<>();
+        try (ScanResult scanResult = new ClassGraph().enableSystemJarsAndModules().enableClassInfo()
+                .enableAnnotationInfo().ignoreClassVisibility().acceptPackages("java.util", "java.lang")
+                .scan(numThreads)) {
+            assertThat(scanResult.getAllClasses().size()).isGreaterThan(1024);
+            for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+                summary.put(classInfo.getName(),
+                        classInfo.getModifiersStr() + "|" + classInfo.getSuperclasses().getNames() + "|"
+                                + classInfo.getInterfaces().getNames() + "|" + classInfo.getSubclasses().getNames()
+                                + "|" + classInfo.getClassesImplementing().getNames() + "|"
+                                + classInfo.getAnnotations().getNames() + "|"
+                                + classInfo.getInnerClasses().getNames() + "|"
+                                + classInfo.getPackageInfo().getName());
+            }
+        }
+        return summary;
+    }
+
+    /** Test that linking in parallel produces the same class graph as linking in a single thread. */
+    @Test
+    public void parallelLinking() {
+        assertThat(scanAndSummarize(8)).isEqualTo(scanAndSummarize(1));
+    }
+}
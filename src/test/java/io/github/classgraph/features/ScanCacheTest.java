@@ -0,0 +1,159 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Cls;
+import io.github.classgraph.test.accepted.ClsSub;
+import io.github.classgraph.test.accepted.ClsSubSub;
+import io.github.classgraph.test.accepted.Iface;
+
+/**
+ * Test.
+ */
+public class ScanCacheTest {
+    /** The cache directory. */
+    @TempDir
+    Path cacheDir;
+
+    /** The directory to copy classfiles into. */
+    @TempDir
+    Path classesDir;
+
+    /**
+     * Count the cache entries.
+     *
+     * @return the number of cache entries
+     */
+    private int numCacheEntries() {
+        final File[] files = cacheDir.toFile().listFiles();
+        return files == null ? 0 : files.length;
+    }
+
+    /**
+     * Get the last modified time of each cache entry.
+     *
+     * @return the map from cache entry name to last modified time
+     */
+    private Map<String, Long> cacheEntryLastModified() {
+        final Map<String, Long> cacheEntryLastModified = new HashMap<>();
+        final File[] files = cacheDir.toFile().listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                cacheEntryLastModified.put(file.getName(), file.lastModified());
+            }
+        }
+        return cacheEntryLastModified;
+    }
+
+    /**
+     * Copy the classfile of a class into a classpath directory.
+     *
+     * @param cls
+     *            the class
+     * @param dir
+     *            the classpath directory
+     * @return the path of the copied classfile
+     * @throws Exception
+     *             if the classfile could not be copied
+     */
+    private static Path copyClassfile(final Class<?> cls, final Path dir) throws Exception {
+        final String classfilePath = cls.getName().replace('.', '/') + ".class";
+        final Path target = dir.resolve(classfilePath);
+        Files.createDirectories(target.getParent());
+        try (InputStream inputStream = cls.getClassLoader().getResourceAsStream(classfilePath)) {
+            Files.copy(inputStream, target);
+        }
+        return target;
+    }
+
+    /** Test that a second scan reads classfiles from the cache, with resources reattached. */
+    @Test
+    public void scanCacheHit() {
+        final String pkg = Cls.class.getPackage().getName();
+        final String firstScan;
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(pkg).enableAllInfo()
+                .enableScanCache(cacheDir).scan()) {
+            firstScan = scanResult.getAllClasses().getNames().toString();
+            assertThat(scanResult.getSubclasses(Cls.class.getName()).getNames()).contains(ClsSub.class.getName());
+        }
+        final Map<String, Long> cacheEntryLastModified = cacheEntryLastModified();
+        assertThat(cacheEntryLastModified).isNotEmpty();
+
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(pkg).enableAllInfo()
+                .enableScanCache(cacheDir).scan()) {
+            assertThat(scanResult.getAllClasses().getNames().toString()).isEqualTo(firstScan);
+            assertThat(scanResult.getSubclasses(Cls.class.getName()).getNames()).contains(ClsSub.class.getName());
+            assertThat(scanResult.getClassesImplementing(Iface.class.getName())).isNotEmpty();
+            final ClassInfo clsInfo = scanResult.getClassInfo(Cls.class.getName());
+            assertThat(clsInfo.getResource()).isNotNull();
+            assertThat(clsInfo.loadClass()).isEqualTo(Cls.class);
+        }
+        // No cache entry should have been rewritten
+        assertThat(cacheEntryLastModified()).isEqualTo(cacheEntryLastModified);
+    }
+
+    /** Test that a different scan spec produces different cache entries. */
+    @Test
+    public void scanCacheKeyedByScanSpec() {
+        final String pkg = Cls.class.getPackage().getName();
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(pkg).enableClassInfo()
+                .enableScanCache(cacheDir).scan()) {
+            assertThat(scanResult.getAllClasses()).isNotEmpty();
+        }
+        final int numCacheEntries = numCacheEntries();
+        try (ScanResult scanResult = new ClassGraph().acceptPackages(pkg).enableAllInfo()
+                .enableScanCache(cacheDir).scan()) {
+            assertThat(scanResult.getClassInfo(Cls.class.getName()).getMethodInfo()).isNotNull();
+        }
+        assertThat(numCacheEntries()).isEqualTo(2 * numCacheEntries);
+    }
+
+    /** Test that the classfiles of unchanged classpath elements are read from the cache when another changes. */
+    @Test
+    public void scanCacheMergesUnchangedClasspathElements() throws Exception {
+        final Path dirA = classesDir.resolve("a");
+        final Path dirB = classesDir.resolve("b");
+        final Path clsClassfile = copyClassfile(Cls.class, dirA);
+        copyClassfile(ClsSub.class, dirB);
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(dirA.toString(), dirB.toString())
+                .acceptPackages(Cls.class.getPackage().getName()).enableClassInfo().enableScanCache(cacheDir)
+                .scan()) {
+            assertThat(scanResult.getSubclasses(Cls.class.getName()).getNames())
+                    .containsExactly(ClsSub.class.getName());
+        }
+        assertThat(numCacheEntries()).isEqualTo(2);
+
+        // Corrupt Cls.class without changing its size or last modified time, so that the class is only found if
+        // it is read from the cache, then add a class to the other classpath element
+        final FileTime clsLastModified = Files.getLastModifiedTime(clsClassfile);
+        final byte[] corrupted = new byte[(int) Files.size(clsClassfile)];
+        Arrays.fill(corrupted, (byte) 0);
+        Files.write(clsClassfile, corrupted);
+        Files.setLastModifiedTime(clsClassfile, clsLastModified);
+        copyClassfile(ClsSubSub.class, dirB);
+
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(dirA.toString(), dirB.toString())
+                .acceptPackages(Cls.class.getPackage().getName()).enableClassInfo().enableScanCache(cacheDir)
+                .scan()) {
+            assertThat(scanResult.getClassInfo(Cls.class.getName())).isNotNull();
+            assertThat(scanResult.getSubclasses(Cls.class.getName()).getNames())
+                    .containsExactlyInAnyOrder(ClsSub.class.getName(), ClsSubSub.class.getName());
+        }
+        assertThat(numCacheEntries()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Cls;
+import io.github.classgraph.test.accepted.ClsSub;
+
+/**
+ * Test.
+ */
+public class ScanIndexTest {
+    /** The temporary directory. */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Add the classfile of a class to a zipfile.
+     *
+     * @param zipOutputStream
+     *            the zip output stream
+     * @param cls
+     *            the class
+     * @param corrupt
+     *            if true, write an invalid classfile instead
+     * @throws Exception
+     *             if the classfile could not be copied
+     */
+    private static void addClassfile(final ZipOutputStream zipOutputStream, final Class<?> cls,
+            final boolean corrupt) throws Exception {
+        final String classfilePath = cls.getName().replace('.', '/') + ".class";
+        zipOutputStream.putNextEntry(new ZipEntry(classfilePath));
+        if (corrupt) {
+            zipOutputStream.write("not a classfile".getBytes(StandardCharsets.UTF_8));
+        } else {
+            try (InputStream inputStream = cls.getClassLoader().getResourceAsStream(classfilePath)) {
+                final byte[] buf = new byte[8192];
+                for (int n; (n = inputStream.read(buf)) > 0;) {
+                    zipOutputStream.write(buf, 0, n);
+                }
+            }
+        }
+        zipOutputStream.closeEntry();
+    }
+
+    /** Test that a build-time scan index is used in place of parsing classfiles, if it matches the scan. */
+    @Test
+    public void scanIndex() throws Exception {
+        // Build-time scan of a classes directory
+        final Path classesDir = tempDir.resolve("classes");
+        for (final Class<?> cls : new Class<?>[] { Cls.class, ClsSub.class }) {
+            final String classfilePath = cls.getName().replace('.', '/') + ".class";
+            final Path target = classesDir.resolve(classfilePath);
+            Files.createDirectories(target.getParent());
+            try (InputStream inputStream = cls.getClassLoader().getResourceAsStream(classfilePath)) {
+                Files.copy(inputStream, target);
+            }
+        }
+        final Path indexFile;
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(classesDir.toString())
+                .acceptPackages(Cls.class.getPackage().getName()).enableClassInfo().scan()) {
+            indexFile = scanResult.writeScanIndex(classesDir);
+        }
+        assertThat(indexFile).isEqualTo(classesDir.resolve("META-INF/classgraph/index.bin"));
+
+        // Package the jar, with a corrupted classfile, so that the scan only succeeds if the index is used
+        final Path jar = tempDir.resolve("indexed.jar");
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(jar))) {
+            addClassfile(zipOutputStream, Cls.class, false);
+            addClassfile(zipOutputStream, ClsSub.class, true);
+            zipOutputStream.putNextEntry(new ZipEntry("META-INF/classgraph/index.bin"));
+            Files.copy(indexFile, zipOutputStream);
+            zipOutputStream.closeEntry();
+        }
+
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(jar.toString())
+                .acceptPackages(Cls.class.getPackage().getName()).enableClassInfo().enableScanIndex().scan()) {
+            assertThat(scanResult.getSubclasses(Cls.class.getName()).getNames())
+                    .containsExactly(ClsSub.class.getName());
+            assertThat(scanResult.getClassInfo(ClsSub.class.getName()).getResource().getPath())
+                    .isEqualTo(ClsSub.class.getName().replace('.', '/') + ".class");
+        }
+
+        // Without the index, or with different scan options, the classfiles are parsed
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(jar.toString())
+                .acceptPackages(Cls.class.getPackage().getName()).enableClassInfo().scan()) {
+            assertThat(scanResult.getClassInfo(ClsSub.class.getName())).isNull();
+        }
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(jar.toString())
+                .acceptPackages(Cls.class.getPackage().getName()).enableClassInfo().enableMethodInfo()
+                .enableScanIndex().scan()) {
+            assertThat(scanResult.getClassInfo(ClsSub.class.getName())).isNull();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassGraph.ScanListener;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.ScanStatistics.Phase;
+import io.github.classgraph.test.accepted.Cls;
+
+/**
+ * Test.
+ */
+public class ScanListenerTest {
+    /** A listener that records the events it receives. */
+    private static class RecordingScanListener implements ScanListener {
+        /** The classpath elements that were opened. */
+        final Queue<String> classpathElementsOpened = new ConcurrentLinkedQueue<>();
+
+        /** The nested jars that were inflated, and their sizes. */
+        final Map<String, Long> jarsInflated = new ConcurrentHashMap<>();
+
+        /** The classfiles that were parsed, and their sizes. */
+        final Map<String, Long> classfilesParsed = new ConcurrentHashMap<>();
+
+        /** The phases that completed. */
+        final Queue<Phase> phasesCompleted = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void onClasspathElementOpened(final String classpathElement, final long elapsedNanos) {
+            classpathElementsOpened.add(classpathElement);
+        }
+
+        @Override
+        public void onJarInflated(final String nestedJarPath, final long numBytes, final long elapsedNanos) {
+            jarsInflated.put(nestedJarPath, numBytes);
+        }
+
+        @Override
+        public void onClassfileParsed(final String classfilePath, final long numBytes, final long elapsedNanos) {
+            classfilesParsed.put(classfilePath, numBytes);
+        }
+
+        @Override
+        public void onPhaseComplete(final Phase phase, final long elapsedNanos) {
+            phasesCompleted.add(phase);
+        }
+    }
+
+    /** Test that classfile and phase events are reported. */
+    @Test
+    public void classfileAndPhaseEvents() {
+        final RecordingScanListener listener = new RecordingScanListener();
+        try (ScanResult scanResult = new ClassGraph().acceptPackagesNonRecursive(Cls.class.getPackage().getName())
+                .enableClassInfo().addScanListener(listener).scan()) {
+            assertThat(listener.classfilesParsed)
+                    .containsKey(Cls.class.getName().replace('.', '/') + ".class");
+            assertThat(listener.classfilesParsed).hasSizeGreaterThanOrEqualTo(scanResult.getAllClasses().size());
+        }
+        assertThat(listener.classpathElementsOpened).isNotEmpty();
+        assertThat(listener.phasesCompleted).containsExactly(Phase.FIND_CLASSPATH, Phase.OPEN_CLASSPATH_ELEMENTS,
+                Phase.SCAN_PATHS, Phase.MASK_CLASSFILES, Phase.PARSE_CLASSFILES, Phase.LINK_CLASSFILES);
+    }
+
+    /** Test that inflating a deflated nested jar is reported. */
+    @Test
+    public void jarInflatedEvent() {
+        final URL jarURL = ScanListenerTest.class.getClassLoader().getResource("issue400-nested-deflated.jar");
+        final RecordingScanListener listener = new RecordingScanListener();
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(jarURL + "!/lib/nested-0001.jar")
+                .addScanListener(listener).scan()) {
+            assertThat(listener.jarsInflated).containsEntry("lib/nested-0001.jar", 22L);
+            assertThat(listener.phasesCompleted).doesNotContain(Phase.PARSE_CLASSFILES);
+        }
+    }
+}
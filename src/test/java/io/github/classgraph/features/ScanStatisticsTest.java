@@ -0,0 +1,53 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.ScanStatistics;
+import io.github.classgraph.ScanStatistics.ClasspathElementStatistics;
+import io.github.classgraph.ScanStatistics.Phase;
+import io.github.classgraph.test.accepted.Cls;
+
+/**
+ * Test.
+ */
+public class ScanStatisticsTest {
+    /** Test that statistics are recorded for each phase and for the classpath element containing the classes. */
+    @Test
+    public void scanStatistics() {
+        // Work units and parsed classfiles also include external superclasses and interfaces, since scanning
+        // is extended upwards to them
+        final ScanStatistics statistics;
+        final int numClasses;
+        try (ScanResult scanResult = new ClassGraph().acceptPackagesNonRecursive(Cls.class.getPackage().getName())
+                .enableClassInfo().scan()) {
+            numClasses = scanResult.getAllClasses().size();
+            statistics = scanResult.getScanStatistics();
+        }
+        assertThat(statistics).isNotNull();
+        assertThat(statistics.getTotalElapsedNanos()).isPositive();
+        for (final Phase phase : Phase.values()) {
+            assertThat(statistics.getElapsedNanos(phase)).isGreaterThanOrEqualTo(0L)
+                    .isLessThanOrEqualTo(statistics.getTotalElapsedNanos());
+            assertThat(statistics.getThreadUtilization(phase)).isBetween(0.0, 1.0);
+        }
+        assertThat(statistics.getElapsedNanos(Phase.PARSE_CLASSFILES)).isPositive();
+        assertThat(statistics.getNumWorkUnits(Phase.PARSE_CLASSFILES)).isGreaterThanOrEqualTo(numClasses);
+        assertThat(statistics.getNumWorkerThreads(Phase.PARSE_CLASSFILES)).isPositive();
+        assertThat(statistics.getWorkerBusyNanos(Phase.PARSE_CLASSFILES)).isPositive();
+
+        int numClassfilesParsed = 0;
+        long numClassfileBytesRead = 0L;
+        for (final ClasspathElementStatistics classpathElementStatistics : statistics
+                .getClasspathElementStatistics()) {
+            numClassfilesParsed += classpathElementStatistics.getNumClassfilesParsed();
+            numClassfileBytesRead += classpathElementStatistics.getNumClassfileBytesRead();
+        }
+        assertThat(numClassfilesParsed).isGreaterThanOrEqualTo(numClasses);
+        assertThat(numClassfileBytesRead).isPositive();
+        assertThat(statistics.toString()).contains(Phase.PARSE_CLASSFILES.name());
+    }
+}
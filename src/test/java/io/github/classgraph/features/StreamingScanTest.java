@@ -0,0 +1,135 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassGraphException;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.MethodInfo;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.test.accepted.Cls;
+import io.github.classgraph.test.accepted.ClsSub;
+
+/**
+ * Test.
+ */
+public class StreamingScanTest {
+    /** An annotation. */
+    @Retention(RetentionPolicy.RUNTIME)
+    private @interface Marker {
+        /**
+         * The value.
+         *
+         * @return the value
+         */
+        String value();
+    }
+
+    /** A superclass. */
+    private static class Base {
+    }
+
+    /** A subclass. */
+    private static class Sub extends Base {
+    }
+
+    /** An annotated class with a field and an annotated method. */
+    @Marker("class")
+    private static class Annotated extends Sub implements Runnable {
+        /** A field. */
+        @Marker("field")
+        int count;
+
+        @Override
+        @Marker("method")
+        public void run() {
+            count++;
+        }
+    }
+
+    /**
+     * Describe a class, using accessors that require the class to have a scan result.
+     *
+     * @param classInfo
+     *            the class
+     * @return the description
+     */
+    private static String describe(final ClassInfo classInfo) {
+        final StringBuilder buf = new StringBuilder(classInfo.getName());
+        buf.append(" superclass ").append(classInfo.getSuperclass() == null ? null
+                : classInfo.getSuperclass().getName());
+        buf.append(" direct superclasses ").append(classInfo.getSuperclasses().directOnly().getNames());
+        buf.append(" interfaces ").append(classInfo.getInterfaces().getNames());
+        buf.append(" annotations ").append(classInfo.getAnnotationInfo().directOnly());
+        buf.append(" fields ").append(classInfo.getDeclaredFieldInfo());
+        for (final MethodInfo methodInfo : classInfo.getDeclaredMethodInfo()) {
+            buf.append(" method ").append(methodInfo).append(" of ").append(methodInfo.getClassInfo().getName())
+                    .append(" annotations ").append(methodInfo.getAnnotationInfo().directOnly());
+        }
+        buf.append(" package ").append(classInfo.getPackageInfo().getName());
+        return buf.toString();
+    }
+
+    /** Test that a streaming scan finds the same classes as a regular scan. */
+    @Test
+    public void scanStreaming() {
+        final String pkg = Cls.class.getPackage().getName();
+        final Map<String, ClassInfo> streamed = new HashMap<>();
+        new ClassGraph().acceptPackagesNonRecursive(pkg)
+                .scanStreaming(classInfo -> assertThat(streamed.put(classInfo.getName(), classInfo)).isNull());
+        final List<String> expected;
+        try (ScanResult scanResult = new ClassGraph().acceptPackagesNonRecursive(pkg).enableClassInfo().scan()) {
+            expected = scanResult.getAllClasses().getNames();
+        }
+        assertThat(new ArrayList<>(streamed.keySet())).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(streamed.get(ClsSub.class.getName()).getSuperclass().getName()).isEqualTo(Cls.class.getName());
+    }
+
+    /** Test that exceptions thrown by the processor abort the scan. */
+    @Test
+    public void processorException() {
+        assertThatThrownBy(() -> new ClassGraph().acceptPackagesNonRecursive(Cls.class.getPackage().getName())
+                .scanStreaming(classInfo -> {
+                    throw new IllegalStateException("abort");
+                })).isInstanceOf(ClassGraphException.class).hasRootCauseMessage("abort");
+    }
+
+    /** Test that the accessors of streamed classes work when all info is enabled. */
+    @Test
+    public void scanStreamingAllInfo() {
+        final String classNames = StreamingScanTest.class.getName() + "*";
+        final Map<String, String> streamed = new HashMap<>();
+        final Map<String, List<String>> streamedSuperclasses = new HashMap<>();
+        new ClassGraph().acceptClasses(classNames).enableAllInfo().ignoreClassVisibility()
+                .scanStreaming(classInfo -> {
+                    streamed.put(classInfo.getName(), describe(classInfo));
+                    streamedSuperclasses.put(classInfo.getName(), classInfo.getSuperclasses().getNames());
+                });
+        try (ScanResult scanResult = new ClassGraph().acceptClasses(classNames).enableAllInfo()
+                .ignoreClassVisibility().scan()) {
+            assertThat(scanResult.getAllClasses().getNames()).contains(Annotated.class.getName());
+            assertThat(streamed.keySet()).containsExactlyInAnyOrderElementsOf(scanResult.getAllClasses().getNames());
+            for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+                assertThat(streamed.get(classInfo.getName())).isEqualTo(describe(classInfo));
+                // Only the direct superclass is known to a streamed class
+                final List<String> superclasses = classInfo.getSuperclasses().getNames();
+                assertThat(streamedSuperclasses.get(classInfo.getName()))
+                        .isEqualTo(superclasses.isEmpty() ? superclasses : superclasses.subList(0, 1));
+            }
+            assertThat(scanResult.getClassInfo(Annotated.class.getName()).getSuperclasses().getNames())
+                    .containsExactly(Sub.class.getName(), Base.class.getName());
+        }
+        assertThat(streamed.get(Annotated.class.getName())).contains("@" + Marker.class.getName() + "(\"class\")",
+                "@" + Marker.class.getName() + "(\"method\")", " of " + Annotated.class.getName());
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.classgraph.features;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassGraph.ScanListener;
+import io.github.classgraph.ScanResult;
+import io.github.classgraph.ScanStatistics.Phase;
+import nonapi.io.github.classgraph.fastzipfilereader.ZipFileCache;
+
+/**
+ * Test that the central directories and inflated nested jars kept in the process-wide zipfile cache give the same
+ * scan result as reading the jars again.
+ */
+public class ZipFileCacheTest {
+    /** The temporary directory. */
+    @TempDir
+    Path tempDir;
+
+    /** Clear the zipfile cache before each test. */
+    @BeforeEach
+    public void clearBefore() {
+        ClassGraph.clearZipFileCache();
+    }
+
+    /** Clear the zipfile cache after each test, and restore its maximum size. */
+    @AfterEach
+    public void clearAfter() {
+        ClassGraph.clearZipFileCache();
+        ClassGraph.setZipFileCacheMaxSize(ZipFileCache.DEFAULT_MAX_CACHED_BYTES);
+    }
+
+    /**
+     * Write a jar containing text entries and a deflated nested lib jar.
+     *
+     * @param jar
+     *            the jar path
+     * @param entryPaths
+     *            the paths of text entries to add to the jar, and (with a "-lib" suffix) to the nested lib jar
+     * @throws Exception
+     *             if the jar could not be written
+     */
+    private static void writeJar(final Path jar, final String... entryPaths) throws Exception {
+        final ByteArrayOutputStream libJarBytes = new ByteArrayOutputStream();
+        try (ZipOutputStream libZipOutputStream = new ZipOutputStream(libJarBytes)) {
+            for (final String entryPath : entryPaths) {
+                libZipOutputStream.putNextEntry(new ZipEntry(entryPath.replace(".txt", "-lib.txt")));
+                libZipOutputStream.write(entryPath.getBytes(StandardCharsets.UTF_8));
+                libZipOutputStream.closeEntry();
+            }
+        }
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (final String entryPath : entryPaths) {
+                zipOutputStream.putNextEntry(new ZipEntry(entryPath));
+                zipOutputStream.write(entryPath.getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+            zipOutputStream.putNextEntry(new ZipEntry("BOOT-INF/lib/lib.jar"));
+            zipOutputStream.write(libJarBytes.toByteArray());
+            zipOutputStream.closeEntry();
+        }
+    }
+
+    /**
+     * Scan a jar.
+     *
+     * @param classGraph
+     *            the {@link ClassGraph} instance to scan with
+     * @param inflatedJars
+     *            the list to add the names of inflated jars to
+     * @return the paths of the resources found
+     */
+    private static Set<String> scan(final ClassGraph classGraph, final List<String> inflatedJars) {
+        try (ScanResult scanResult = classGraph.addScanListener(new ScanListener() {
+            @Override
+            public void onClasspathElementOpened(final String path, final long elapsedNanos) {
+            }
+
+            @Override
+            public void onJarInflated(final String path, final long numBytes, final long elapsedNanos) {
+                inflatedJars.add(path);
+            }
+
+            @Override
+            public void onClassfileParsed(final String path, final long numBytes, final long elapsedNanos) {
+            }
+
+            @Override
+            public void onPhaseComplete(final Phase phase, final long elapsedNanos) {
+            }
+        }).scan()) {
+            return new TreeSet<>(scanResult.getAllResources().getPaths());
+        }
+    }
+
+    /** Test that repeated scans of a cached jar give the same result, and reuse the inflated nested jar. */
+    @Test
+    public void repeatedScans() throws Exception {
+        final Path jar = tempDir.resolve("fat.jar");
+        writeJar(jar, "com/acme/a/x.txt", "com/acme/b/y.txt", "other/z.txt");
+        final String classpath = jar + File.pathSeparator + jar + "!/BOOT-INF/lib/lib.jar";
+
+        for (final String acceptPath : new String[] { "com/acme/a", "com/acme", "" }) {
+            final Set<String> expected = scan(new ClassGraph().overrideClasspath(classpath).acceptPaths(acceptPath),
+                    new CopyOnWriteArrayList<String>());
+            final List<String> inflatedJars = new CopyOnWriteArrayList<>();
+            assertThat(scan(new ClassGraph().overrideClasspath(classpath).acceptPaths(acceptPath)
+                    .enableZipFileCache(), inflatedJars)).isEqualTo(expected);
+            assertThat(ZipFileCache.size()).isGreaterThan(0);
+            if (acceptPath.equals("com/acme/a")) {
+                // Only the first cached scan inflates the nested jar
+                assertThat(inflatedJars).hasSize(1);
+                assertThat(expected).contains("com/acme/a/x.txt", "com/acme/a/x-lib.txt");
+            } else {
+                assertThat(inflatedJars).isEmpty();
+            }
+        }
+    }
+
+    /** Test that a jar that is modified after it was cached is read again. */
+    @Test
+    public void modifiedJar() throws Exception {
+        final Path jar = tempDir.resolve("fat.jar");
+        writeJar(jar, "com/acme/a/x.txt");
+        final String classpath = jar + File.pathSeparator + jar + "!/BOOT-INF/lib/lib.jar";
+        assertThat(scan(new ClassGraph().overrideClasspath(classpath).enableZipFileCache(),
+                new CopyOnWriteArrayList<String>())).contains("com/acme/a/x.txt", "com/acme/a/x-lib.txt");
+
+        writeJar(jar, "com/acme/a/x.txt", "com/acme/a/y.txt");
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 10000L));
+        final List<String> inflatedJars = new CopyOnWriteArrayList<>();
+        assertThat(scan(new ClassGraph().overrideClasspath(classpath).enableZipFileCache(), inflatedJars))
+                .contains("com/acme/a/y.txt", "com/acme/a/y-lib.txt");
+        assertThat(inflatedJars).hasSize(1);
+    }
+
+    /** Test that a jar reached through a symbolic link shares the cache entry of the jar itself. */
+    @Test
+    public void symlinkedJar() throws Exception {
+        final Path jar = tempDir.resolve("fat.jar");
+        writeJar(jar, "com/acme/a/x.txt");
+        final Path link;
+        try {
+            link = Files.createSymbolicLink(tempDir.resolve("link.jar"), jar);
+        } catch (final UnsupportedOperationException | IOException e) {
+            // Symbolic links are not supported
+            return;
+        }
+        scan(new ClassGraph().overrideClasspath(jar + "!/BOOT-INF/lib/lib.jar").enableZipFileCache(),
+                new CopyOnWriteArrayList<String>());
+        final List<String> inflatedJars = new CopyOnWriteArrayList<>();
+        assertThat(scan(new ClassGraph().overrideClasspath(link + "!/BOOT-INF/lib/lib.jar").enableZipFileCache(),
+                inflatedJars)).contains("com/acme/a/x-lib.txt");
+        assertThat(inflatedJars).isEmpty();
+    }
+
+    /** Test that nothing is cached if the maximum size of the cache is 0. */
+    @Test
+    public void maxSize() throws Exception {
+        final Path jar = tempDir.resolve("fat.jar");
+        writeJar(jar, "com/acme/a/x.txt");
+        final String classpath = jar + File.pathSeparator + jar + "!/BOOT-INF/lib/lib.jar";
+        scan(new ClassGraph().overrideClasspath(classpath).enableZipFileCache(), new CopyOnWriteArrayList<String>());
+        assertThat(ZipFileCache.size()).isGreaterThan(0);
+        ClassGraph.setZipFileCacheMaxSize(0L);
+        assertThat(ZipFileCache.size()).isEqualTo(0);
+        final List<String> inflatedJars = new CopyOnWriteArrayList<>();
+        assertThat(scan(new ClassGraph().overrideClasspath(classpath).enableZipFileCache(), inflatedJars))
+                .contains("com/acme/a/x.txt", "com/acme/a/x-lib.txt");
+        assertThat(inflatedJars).hasSize(1);
+        assertThat(ZipFileCache.size()).isEqualTo(0);
+    }
+}
@@ -2,6 +2,9 @@ package io.github.classgraph.json;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -293,4 +296,31 @@ public class JSONSerializationTest {
             assertThat(scanResultReserializedJSON).isEqualTo(scanResultJSON);
         }
     }
+
+    /**
+     * Test binary serialize then deserialize scan result.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testBinarySerializeThenDeserializeScanResult() throws IOException {
+        final String classfileURL = getClass().getClassLoader()
+                .getResource(JSONSerializationTest.class.getName().replace('.', '/') + ".class").toString();
+        final String classpathBase = classfileURL.substring(0,
+                classfileURL.length() - (JSONSerializationTest.class.getName().length() + 6));
+        try (ScanResult scanResult = new ClassGraph().overrideClasspath(classpathBase)
+                .acceptPackagesNonRecursive(JSONSerializationTest.class.getPackage().getName())
+                .ignoreClassVisibility().scan()) {
+            final String scanResultJSON = scanResult.toJSON(2);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            scanResult.writeTo(out);
+            assertThat(out.size()).isLessThan(scanResult.toJSON().length());
+            try (ScanResult scanResultDeserialized = ScanResult
+                    .readFrom(new ByteArrayInputStream(out.toByteArray()))) {
+                assertThat(scanResultDeserialized.isObtainedFromDeserialization()).isTrue();
+                assertThat(scanResultDeserialized.toJSON(2)).isEqualTo(scanResultJSON);
+            }
+        }
+    }
 }
@@ -0,0 +1,191 @@
+package nonapi.io.github.classgraph.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import nonapi.io.github.classgraph.concurrency.WorkQueue.WorkUnitProcessor;
+import nonapi.io.github.classgraph.concurrency.WorkQueue.WorkerStatistics;
+import nonapi.io.github.classgraph.utils.LogNode;
+
+/**
+ * Test.
+ */
+public class WorkQueueTest {
+    /** The number of worker threads. */
+    private static final int NUM_THREADS = 8;
+
+    /**
+     * Run a work queue over the initial work units 0 to 999, where each work unit {@code i < 500} adds the work
+     * unit {@code i + 1000}.
+     *
+     * @param workStealing
+     *            whether to use work stealing
+     * @return the work units that were processed
+     * @throws Exception
+     *             if the work queue failed
+     */
+    private static Set<Integer> runWorkQueue(final boolean workStealing) throws Exception {
+        final List<Integer> initialWorkUnits = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            initialWorkUnits.add(i);
+        }
+        final Set<Integer> processed = ConcurrentHashMap.newKeySet();
+        final WorkerStatistics workerStatistics = new WorkerStatistics();
+        try (AutoCloseableExecutorService executorService = new AutoCloseableExecutorService(NUM_THREADS)) {
+            WorkQueue.runWorkQueue(initialWorkUnits, executorService, executorService.interruptionChecker,
+                    NUM_THREADS, /* log = */ null, workStealing, workerStatistics, new WorkUnitProcessor<Integer>() {
+                        @Override
+                        public void processWorkUnit(final Integer workUnit, final WorkQueue<Integer> workQueue,
+                                final LogNode log) {
+                            assertThat(processed.add(workUnit)).isTrue();
+                            if (workUnit < 500) {
+                                workQueue.addWorkUnit(workUnit + 1000);
+                            }
+                        }
+                    });
+        }
+        assertThat(workerStatistics.numWorkUnitsProcessed.get()).isEqualTo(1500L);
+        assertThat(workerStatistics.maxNumWorkers.get()).isEqualTo(NUM_THREADS);
+        return processed;
+    }
+
+    /** Test that the shared queue and work stealing both process each work unit exactly once. */
+    @Test
+    public void allWorkUnitsProcessedOnce() throws Exception {
+        final Set<Integer> sharedQueue = runWorkQueue(/* workStealing = */ false);
+        assertThat(sharedQueue).hasSize(1500);
+        assertThat(runWorkQueue(/* workStealing = */ true)).isEqualTo(sharedQueue);
+    }
+
+    /**
+     * Test that a work unit added by a worker in work-stealing mode goes to the worker's own deque, so that the
+     * worker processes it itself if all the other workers are busy.
+     */
+    @Test
+    public void workUnitsAddedToOwnDeque() throws Exception {
+        final List<Integer> initialWorkUnits = new ArrayList<>();
+        for (int i = 0; i < NUM_THREADS; i++) {
+            initialWorkUnits.add(i);
+        }
+        // Keep every worker busy until all workers have added their work unit, and then until all workers have
+        // taken the next work unit, so that no worker can steal another worker's work unit
+        final CyclicBarrier barrier = new CyclicBarrier(NUM_THREADS);
+        final Map<Integer, Thread> workUnitToThread = new ConcurrentHashMap<>();
+        try (AutoCloseableExecutorService executorService = new AutoCloseableExecutorService(NUM_THREADS)) {
+            WorkQueue.runWorkQueue(initialWorkUnits, executorService, executorService.interruptionChecker,
+                    NUM_THREADS, /* log = */ null, /* workStealing = */ true, /* workerStatistics = */ null,
+                    new WorkUnitProcessor<Integer>() {
+                        @Override
+                        public void processWorkUnit(final Integer workUnit, final WorkQueue<Integer> workQueue,
+                                final LogNode log) throws InterruptedException {
+                            workUnitToThread.put(workUnit, Thread.currentThread());
+                            if (workUnit < NUM_THREADS) {
+                                workQueue.addWorkUnit(workUnit + NUM_THREADS);
+                            }
+                            try {
+                                barrier.await(10, TimeUnit.SECONDS);
+                            } catch (final BrokenBarrierException | TimeoutException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                    });
+        }
+        assertThat(workUnitToThread).hasSize(2 * NUM_THREADS);
+        for (int i = 0; i < NUM_THREADS; i++) {
+            assertThat(workUnitToThread.get(i + NUM_THREADS)).isSameAs(workUnitToThread.get(i));
+        }
+    }
+
+    /** Test that an exception thrown by a worker in work-stealing mode stops the other workers. */
+    @Test
+    public void workStealingException() {
+        final List<Integer> initialWorkUnits = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            initialWorkUnits.add(i);
+        }
+        assertThatThrownBy(() -> {
+            try (AutoCloseableExecutorService executorService = new AutoCloseableExecutorService(NUM_THREADS)) {
+                WorkQueue.runWorkQueue(initialWorkUnits, executorService, executorService.interruptionChecker,
+                        NUM_THREADS, /* log = */ null, /* workStealing = */ true, /* workerStatistics = */ null,
+                        new WorkUnitProcessor<Integer>() {
+                            @Override
+                            public void processWorkUnit(final Integer workUnit,
+                                    final WorkQueue<Integer> workQueue, final LogNode log) {
+                                if (workUnit == 123) {
+                                    throw new IllegalStateException("failed");
+                                }
+                            }
+                        });
+            }
+        }).isInstanceOf(ExecutionException.class).hasRootCauseMessage("failed");
+    }
+
+    /**
+     * Run a work queue in work-stealing mode with four workers, where one work unit processed after the first 100
+     * throws an error, while the other workers are still processing work units.
+     *
+     * @param onCallingThread
+     *            if true, throw the error on the thread that called runWorkQueue, otherwise on a worker thread
+     * @return what was thrown by runWorkQueue
+     */
+    private static Throwable runWorkQueueThrowingError(final boolean onCallingThread) {
+        final List<Integer> initialWorkUnits = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            initialWorkUnits.add(i);
+        }
+        final Thread callingThread = Thread.currentThread();
+        final AtomicInteger numProcessed = new AtomicInteger();
+        final AtomicBoolean errorThrown = new AtomicBoolean();
+        return catchThrowable(() -> {
+            try (AutoCloseableExecutorService executorService = new AutoCloseableExecutorService(4)) {
+                WorkQueue.runWorkQueue(initialWorkUnits, executorService, executorService.interruptionChecker, 4,
+                        /* log = */ null, /* workStealing = */ true, /* workerStatistics = */ null,
+                        new WorkUnitProcessor<Integer>() {
+                            @Override
+                            public void processWorkUnit(final Integer workUnit,
+                                    final WorkQueue<Integer> workQueue, final LogNode log)
+                                    throws InterruptedException {
+                                if (numProcessed.incrementAndGet() > 100
+                                        && (Thread.currentThread() == callingThread) == onCallingThread
+                                        && errorThrown.compareAndSet(false, true)) {
+                                    throw new AssertionError("failed");
+                                }
+                                Thread.sleep(1);
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * Test that an error thrown by a worker in work-stealing mode, while other workers are still processing work
+     * units, stops all the workers and is rethrown.
+     */
+    @Test
+    public void workStealingError() {
+        for (final boolean onCallingThread : new boolean[] { true, false }) {
+            final Throwable thrown = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                    () -> runWorkQueueThrowingError(onCallingThread));
+            assertThat(InterruptionChecker.getCause(thrown)).isInstanceOf(AssertionError.class)
+                    .hasMessage("failed");
+        }
+    }
+}
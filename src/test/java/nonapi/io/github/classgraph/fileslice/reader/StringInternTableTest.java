@@ -0,0 +1,50 @@
+package nonapi.io.github.classgraph.fileslice.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test.
+ */
+public class StringInternTableTest {
+    /** Test that repeated strings, including non-ASCII strings, are resolved to the same instance. */
+    @Test
+    public void repeatedStringsAreInterned() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dataOutputStream = new DataOutputStream(bytes)) {
+            dataOutputStream.writeUTF("Ljava/lang/Object;");
+            dataOutputStream.writeUTF("Ljava/lang/Object;");
+            dataOutputStream.writeUTF("caf\u00e9\u0000");
+            dataOutputStream.writeUTF("caf\u00e9\u0000");
+        }
+        final StringInternTable stringInternTable = new StringInternTable();
+        try (ClassfileReader reader = new ClassfileReader(new ByteArrayInputStream(bytes.toByteArray()),
+                /* resourceToClose = */ null)) {
+            final int[] offsets = new int[4];
+            final int[] lengths = new int[4];
+            for (int i = 0, offset = 0; i < 4; i++) {
+                lengths[i] = reader.readUnsignedShort(offset);
+                offsets[i] = offset + 2;
+                offset += 2 + lengths[i];
+            }
+
+            final String obj0 = stringInternTable.intern(reader, offsets[0], lengths[0], false, false);
+            assertThat(obj0).isEqualTo("Ljava/lang/Object;");
+            assertThat(stringInternTable.intern(reader, offsets[1], lengths[1], false, false)).isSameAs(obj0);
+            assertThat(stringInternTable.intern(new String("Ljava/lang/Object;"))).isSameAs(obj0);
+
+            final String obj1 = stringInternTable.intern(reader, offsets[0], lengths[0], true, true);
+            assertThat(obj1).isEqualTo("java.lang.Object");
+            assertThat(stringInternTable.intern(reader, offsets[1], lengths[1], true, true)).isSameAs(obj1);
+
+            final String cafe = stringInternTable.intern(reader, offsets[2], lengths[2], false, false);
+            assertThat(cafe).isEqualTo("caf\u00e9\u0000");
+            assertThat(stringInternTable.intern(reader, offsets[3], lengths[3], false, false)).isSameAs(cafe);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package nonapi.io.github.classgraph.recycler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test.
+ */
+public class BufferRecyclerTest {
+    /** Test that recycled buffers, including a grown output buffer, are reused. */
+    @Test
+    public void buffersAreReused() {
+        try (BufferRecycler bufferRecycler = new BufferRecycler()) {
+            final BufferRecycler.Buffers buffers = bufferRecycler.acquire();
+            final byte[] inputBuf = buffers.getInputBuf();
+            assertThat(inputBuf).hasSize(BufferRecycler.INPUT_BUF_SIZE);
+            final byte[] outputBuf = buffers.getOutputBuf(100);
+            assertThat(outputBuf).hasSize(100);
+            final byte[] grownOutputBuf = Arrays.copyOf(outputBuf, 200);
+            buffers.setOutputBuf(grownOutputBuf);
+            bufferRecycler.recycle(buffers);
+
+            final BufferRecycler.Buffers recycledBuffers = bufferRecycler.acquire();
+            assertThat(recycledBuffers).isSameAs(buffers);
+            assertThat(recycledBuffers.getInputBuf()).isSameAs(inputBuf);
+            assertThat(recycledBuffers.getOutputBuf(150)).isSameAs(grownOutputBuf);
+            assertThat(recycledBuffers.getOutputBuf(300)).hasSize(300);
+            bufferRecycler.recycle(recycledBuffers);
+        }
+    }
+
+    /** Test that a very large output buffer is not retained when the buffers are recycled. */
+    @Test
+    public void largeOutputBufIsDiscarded() {
+        try (BufferRecycler bufferRecycler = new BufferRecycler()) {
+            final BufferRecycler.Buffers buffers = bufferRecycler.acquire();
+            final byte[] largeOutputBuf = buffers.getOutputBuf(4 * 1024 * 1024);
+            bufferRecycler.recycle(buffers);
+            assertThat(bufferRecycler.acquire().getOutputBuf(1)).isNotSameAs(largeOutputBuf);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nonapi.io.github.classgraph.concurrency.InterruptionChecker;
+import nonapi.io.github.classgraph.fastzipfilereader.LogicalZipFile;
+import nonapi.io.github.classgraph.fastzipfilereader.NestedJarHandler;
+import nonapi.io.github.classgraph.reflection.ReflectionUtils;
+import nonapi.io.github.classgraph.scanspec.ScanSpec;
+
+/**
+ * Benchmark for opening a jarfile and looking up the entries in one package, comparing reading the central
+ * directory into RAM ({@code read}), memory-mapping only the central directory ({@code mapRange}), and
+ * memory-mapping the whole jarfile ({@code mapFile}).
+ */
+@State(Scope.Benchmark)
+public class CentralDirectoryBenchmark {
+    /** The number of entries in the generated jar. */
+    @Param({ "1000", "100000" })
+    public int numEntries;
+
+    /** How the central directory is accessed. */
+    @Param({ "read", "mapRange", "mapFile" })
+    public String mode;
+
+    /** The number of packages to spread the entries across. */
+    private static final int NUM_PACKAGES = 16;
+
+    /** The generated jar. */
+    private File jar;
+
+    /** The reflection utils. */
+    private ReflectionUtils reflectionUtils;
+
+    /**
+     * Write a jar containing empty entries.
+     *
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    @Setup
+    public void setUp() throws IOException {
+        jar = File.createTempFile("CentralDirectoryBenchmark", ".jar");
+        try (OutputStream fileOutputStream = Files.newOutputStream(jar.toPath());
+                ZipOutputStream zipOutputStream = new ZipOutputStream(fileOutputStream)) {
+            for (int i = 0; i < numEntries; i++) {
+                zipOutputStream.putNextEntry(new ZipEntry(
+                        "com/example/bench/pkg" + (i % NUM_PACKAGES) + "/GeneratedResource" + i + ".properties"));
+                zipOutputStream.closeEntry();
+            }
+        }
+        reflectionUtils = new ReflectionUtils();
+    }
+
+    /**
+     * Delete the generated jar.
+     *
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(jar.toPath());
+    }
+
+    /**
+     * Open the generated jar, and look up the entries in one package.
+     *
+     * @param blackhole
+     *            the blackhole
+     * @throws Exception
+     *             if the jar could not be read
+     */
+    @Benchmark
+    public void openAndLookUpPackage(final Blackhole blackhole) throws Exception {
+        final ScanSpec scanSpec = new ScanSpec();
+        scanSpec.enableMemoryMapping = "mapFile".equals(mode);
+        scanSpec.centralDirectoryMappingThreshold = "mapRange".equals(mode) ? 0 : Integer.MAX_VALUE;
+        final NestedJarHandler nestedJarHandler = new NestedJarHandler(scanSpec, new InterruptionChecker(),
+                reflectionUtils);
+        try {
+            final Entry<LogicalZipFile, String> logicalZipFileAndPackageRoot = //
+                    nestedJarHandler.nestedPathToLogicalZipFileAndPackageRootMap.get(jar.getPath(), null);
+            blackhole.consume(logicalZipFileAndPackageRoot.getKey()
+                    .getEntriesWithPathPrefixes(Collections.singleton("com/example/bench/pkg0/")).size());
+        } finally {
+            nestedJarHandler.close(null);
+        }
+    }
+}
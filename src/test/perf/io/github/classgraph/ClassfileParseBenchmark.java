@@ -0,0 +1,180 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nonapi.io.github.classgraph.fileslice.reader.StringInternTable;
+import nonapi.io.github.classgraph.scanspec.ScanSpec;
+
+/**
+ * Benchmark for parsing classfiles with only class info enabled, and with field, method and annotation info also
+ * enabled. Parses the (real, compiled) classfiles of ClassGraph itself, copied into a jar, single-threaded.
+ */
+@State(Scope.Benchmark)
+public class ClassfileParseBenchmark {
+    /** Which info to enable: "class" for class info only, or "all" for all info. */
+    @Param({ "class", "all" })
+    public String info;
+
+    /** Whether to deflate the classfiles in the jar, or store them uncompressed. */
+    @Param({ "true", "false" })
+    public boolean deflated;
+
+    /** The package of the classfiles to parse. */
+    private static final String PACKAGE = "io.github.classgraph";
+
+    /** The generated jar. */
+    private File jar;
+
+    /** The result of a scan of the generated jar. */
+    private ScanResult scanResult;
+
+    /** The classes found in the generated jar. */
+    private List<ClassInfo> scannedClasses;
+
+    /** The names of all classes in the generated jar. */
+    private Set<String> acceptedClassNames;
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Copy the classfiles of ClassGraph into a jar, and scan it.
+     *
+     * @throws IOException
+     *             if an I/O exception occurs
+     * @throws URISyntaxException
+     *             if the location of the ClassGraph classfiles could not be found
+     */
+    @Setup
+    public void setUp() throws IOException, URISyntaxException {
+        final Path classesDir = Paths
+                .get(ClassGraph.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final Path packageDir = classesDir.resolve(PACKAGE.replace('.', '/'));
+        final List<Path> classfilePaths = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(packageDir)) {
+            paths.filter(path -> path.toString().endsWith(".class")).sorted().forEach(classfilePaths::add);
+        }
+        jar = File.createTempFile("ClassfileParseBenchmark", ".jar");
+        try (OutputStream fileOutputStream = Files.newOutputStream(jar.toPath());
+                ZipOutputStream zipOutputStream = new ZipOutputStream(fileOutputStream)) {
+            for (final Path classfilePath : classfilePaths) {
+                final byte[] classfile = Files.readAllBytes(classfilePath);
+                final ZipEntry zipEntry = new ZipEntry(
+                        classesDir.relativize(classfilePath).toString().replace(File.separatorChar, '/'));
+                if (!deflated) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(classfile);
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(classfile.length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                zipOutputStream.putNextEntry(zipEntry);
+                zipOutputStream.write(classfile);
+                zipOutputStream.closeEntry();
+            }
+        }
+
+        ClassGraph classGraph = new ClassGraph().overrideClasspath(jar.getPath()).acceptPackagesNonRecursive(PACKAGE)
+                .ignoreClassVisibility().enableClassInfo();
+        if (info.equals("all")) {
+            classGraph = classGraph.enableFieldInfo().enableMethodInfo().enableAnnotationInfo()
+                    .ignoreFieldVisibility().ignoreMethodVisibility();
+        }
+        scanResult = classGraph.scan();
+        scannedClasses = new ArrayList<>();
+        acceptedClassNames = new HashSet<>();
+        for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+            scannedClasses.add(classInfo);
+            acceptedClassNames.add(classInfo.getName());
+        }
+    }
+
+    /**
+     * Close the scan result and delete the jar.
+     *
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        scanResult.close();
+        Files.delete(jar.toPath());
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Parse the classfiles in the generated jar.
+     *
+     * @param blackhole
+     *            the blackhole
+     * @throws IOException
+     *             if a classfile could not be parsed
+     */
+    @Benchmark
+    public void parseClassfiles(final Blackhole blackhole) throws IOException {
+        final ScanSpec scanSpec = scanResult.scanSpec;
+        // All classes are accepted, so scanning does not need to be extended upwards
+        scanSpec.extendScanningUpwardsToExternalClasses = false;
+        final StringInternTable stringInternTable = new StringInternTable();
+        final Set<String> classNamesScheduledForExtendedScanning = new HashSet<>();
+        for (final ClassInfo classInfo : scannedClasses) {
+            final Resource resource = classInfo.getResource();
+            blackhole.consume(new Classfile(classInfo.classpathElement,
+                    Collections.singletonList(classInfo.classpathElement), acceptedClassNames,
+                    classNamesScheduledForExtendedScanning, resource.getPath(), resource,
+                    /* isExternalClass = */ false, stringInternTable,
+                    /* constantPoolScratchRecycler = */ null, /* workQueue = */ null, scanSpec, /* log = */ null));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark for testing every scanned class against every scanned interface, with and without the class hierarchy
+ * index.
+ */
+@State(Scope.Benchmark)
+public class HierarchyQueryBenchmark {
+    /** Whether the class hierarchy is indexed. */
+    @Param({ "false", "true" })
+    public boolean indexed;
+
+    /** The scan result. */
+    private ScanResult scanResult;
+
+    /** The scanned classes. */
+    private ClassInfoList classes;
+
+    /** The names of the scanned interfaces. */
+    private String[] interfaceNames;
+
+    /** Scan the ClassGraph classes. */
+    @Setup
+    public void setUp() {
+        final ClassGraph classGraph = new ClassGraph().acceptPackages("io.github.classgraph", "nonapi")
+                .enableExternalClasses();
+        if (indexed) {
+            classGraph.enableClassHierarchyIndex();
+        }
+        scanResult = classGraph.scan();
+        classes = scanResult.getAllClasses();
+        interfaceNames = scanResult.getAllInterfaces().getNames().toArray(new String[0]);
+    }
+
+    /** Close the scan result. */
+    @TearDown
+    public void tearDown() {
+        scanResult.close();
+    }
+
+    /**
+     * Test every class against every interface.
+     *
+     * @return the number of classes that implement an interface, summed over the interfaces
+     */
+    @Benchmark
+    public int implementsInterface() {
+        int count = 0;
+        for (final ClassInfo classInfo : classes) {
+            for (final String interfaceName : interfaceNames) {
+                if (classInfo.implementsInterface(interfaceName)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
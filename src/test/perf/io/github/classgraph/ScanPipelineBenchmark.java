@@ -0,0 +1,399 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.classgraph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nonapi.io.github.classgraph.classpath.ClasspathFinder;
+import nonapi.io.github.classgraph.concurrency.InterruptionChecker;
+import nonapi.io.github.classgraph.fastzipfilereader.LogicalZipFile;
+import nonapi.io.github.classgraph.fastzipfilereader.NestedJarHandler;
+import nonapi.io.github.classgraph.fileslice.reader.StringInternTable;
+import nonapi.io.github.classgraph.reflection.ReflectionUtils;
+import nonapi.io.github.classgraph.scanspec.ScanSpec;
+
+/**
+ * Benchmarks for each phase of the scan pipeline, over a synthetic jar containing a configurable number of
+ * generated classes, forming a binary tree of subclasses, with every third class implementing an interface and
+ * every fifth class carrying an annotation.
+ * 
+ * <p>
+ * {@link #scanPaths(Blackhole)} measures a scan with classfile scanning disabled, so also includes classpath
+ * element opening and central directory reading. {@link #parseClassfiles(Blackhole)} and
+ * {@link #linkClassfiles(Blackhole)} run single-threaded, to measure the cost per classfile.
+ */
+@State(Scope.Benchmark)
+public class ScanPipelineBenchmark {
+    /** The number of generated classes. */
+    @Param({ "1000", "10000" })
+    public int numClasses;
+
+    /** The package of the generated classes. */
+    private static final String PACKAGE = "bench";
+
+    /** The number of subpackages to spread the generated classes across. */
+    private static final int NUM_SUBPACKAGES = 16;
+
+    /** The generated interface. */
+    private static final String IFACE = PACKAGE + "/Iface";
+
+    /** The generated annotation. */
+    private static final String ANN = PACKAGE + "/Ann";
+
+    /** The generated jar. */
+    private File jar;
+
+    /** The reflection utils. */
+    private ReflectionUtils reflectionUtils;
+
+    /** The result of a full scan of the generated jar. */
+    private ScanResult scanResult;
+
+    /** The classes found in the generated jar. */
+    private List<ClassInfo> scannedClasses;
+
+    /** The names of all classes in the generated jar. */
+    private Set<String> acceptedClassNames;
+
+    /** The classfiles in the generated jar, parsed once for the linking benchmark. */
+    private List<Classfile> parsedClassfiles;
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Get the internal name of a generated class.
+     *
+     * @param i
+     *            the index of the class
+     * @return the internal name
+     */
+    private static String className(final int i) {
+        return PACKAGE + "/p" + (i % NUM_SUBPACKAGES) + "/C" + i;
+    }
+
+    /**
+     * Generate a classfile with one field and one (native) method.
+     *
+     * @param name
+     *            the internal name of the class
+     * @param accessFlags
+     *            the access flags
+     * @param superName
+     *            the internal name of the superclass
+     * @param ifaceName
+     *            the internal name of the implemented interface, or null
+     * @param annotated
+     *            if true, annotate the class with the generated annotation
+     * @return the classfile bytes
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    private static byte[] classfile(final String name, final int accessFlags, final String superName,
+            final String ifaceName, final boolean annotated) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(52);
+        // Constant pool
+        out.writeShort(13);
+        final String[] utf8 = { name, null, superName, null, ifaceName == null ? IFACE : ifaceName, null, "f",
+                "I", "m", "()V", "RuntimeVisibleAnnotations", "L" + ANN + ";" };
+        for (int i = 0; i < utf8.length; i++) {
+            if (utf8[i] == null) {
+                // CONSTANT_Class, referring to the previous CONSTANT_Utf8
+                out.writeByte(7);
+                out.writeShort(i);
+            } else {
+                out.writeByte(1);
+                out.writeUTF(utf8[i]);
+            }
+        }
+        out.writeShort(accessFlags);
+        out.writeShort(2);
+        out.writeShort(4);
+        // Interfaces
+        if (ifaceName == null) {
+            out.writeShort(0);
+        } else {
+            out.writeShort(1);
+            out.writeShort(6);
+        }
+        // Fields
+        out.writeShort(1);
+        out.writeShort(0x0001);
+        out.writeShort(7);
+        out.writeShort(8);
+        out.writeShort(0);
+        // Methods
+        out.writeShort(1);
+        out.writeShort(0x0101);
+        out.writeShort(9);
+        out.writeShort(10);
+        out.writeShort(0);
+        // Attributes
+        if (annotated) {
+            out.writeShort(1);
+            out.writeShort(11);
+            out.writeInt(6);
+            out.writeShort(1);
+            out.writeShort(12);
+            out.writeShort(0);
+        } else {
+            out.writeShort(0);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Add a classfile to the jar.
+     *
+     * @param zipOutputStream
+     *            the zip output stream
+     * @param name
+     *            the internal name of the class
+     * @param classfile
+     *            the classfile bytes
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    private static void addClassfile(final ZipOutputStream zipOutputStream, final String name,
+            final byte[] classfile) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(name + ".class"));
+        zipOutputStream.write(classfile);
+        zipOutputStream.closeEntry();
+    }
+
+    /**
+     * Generate the jar, scan it, and parse its classfiles.
+     *
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    @Setup
+    public void setUp() throws IOException {
+        jar = File.createTempFile("ScanPipelineBenchmark", ".jar");
+        try (OutputStream fileOutputStream = Files.newOutputStream(jar.toPath());
+                ZipOutputStream zipOutputStream = new ZipOutputStream(fileOutputStream)) {
+            addClassfile(zipOutputStream, IFACE,
+                    classfile(IFACE, 0x0601, "java/lang/Object", /* ifaceName = */ null, false));
+            addClassfile(zipOutputStream, ANN,
+                    classfile(ANN, 0x2601, "java/lang/Object", "java/lang/annotation/Annotation", false));
+            for (int i = 0; i < numClasses; i++) {
+                final String name = className(i);
+                addClassfile(zipOutputStream, name, classfile(name, 0x0021,
+                        i == 0 ? "java/lang/Object" : className((i - 1) / 2), i % 3 == 0 ? IFACE : null,
+                        i % 5 == 0));
+            }
+        }
+
+        reflectionUtils = new ReflectionUtils();
+        scanResult = new ClassGraph().overrideClasspath(jar.getPath()).acceptPackages(PACKAGE).enableClassInfo()
+                .enableFieldInfo().enableMethodInfo().enableAnnotationInfo().scan();
+        scannedClasses = new ArrayList<>();
+        acceptedClassNames = new HashSet<>();
+        for (final ClassInfo classInfo : scanResult.getAllClasses()) {
+            scannedClasses.add(classInfo);
+            acceptedClassNames.add(classInfo.getName());
+        }
+        parsedClassfiles = new ArrayList<>();
+        parseClassfiles(parsedClassfiles);
+    }
+
+    /**
+     * Close the scan result and delete the jar.
+     *
+     * @throws IOException
+     *             if an I/O exception occurs
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        scanResult.close();
+        Files.delete(jar.toPath());
+    }
+
+    /**
+     * Parse all the classfiles in the generated jar.
+     *
+     * @param classfiles
+     *            the list to add the parsed classfiles to
+     * @throws IOException
+     *             if a classfile could not be parsed
+     */
+    private void parseClassfiles(final List<Classfile> classfiles) throws IOException {
+        final ScanSpec scanSpec = scanResult.scanSpec;
+        // All classes are accepted, so scanning does not need to be extended upwards
+        scanSpec.extendScanningUpwardsToExternalClasses = false;
+        final StringInternTable stringInternTable = new StringInternTable();
+        final Set<String> classNamesScheduledForExtendedScanning = new HashSet<>();
+        for (final ClassInfo classInfo : scannedClasses) {
+            final Resource resource = classInfo.getResource();
+            classfiles.add(new Classfile(classInfo.classpathElement,
+                    Collections.singletonList(classInfo.classpathElement), acceptedClassNames,
+                    classNamesScheduledForExtendedScanning, resource.getPath(), resource,
+                    /* isExternalClass = */ false, stringInternTable,
+                    /* constantPoolScratchRecycler = */ null, /* workQueue = */ null, scanSpec, /* log = */ null));
+        }
+    }
+
+    // -------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Find the classpath of the benchmark JVM.
+     *
+     * @param blackhole
+     *            the blackhole
+     */
+    @Benchmark
+    public void classpathDiscovery(final Blackhole blackhole) {
+        blackhole.consume(
+                new ClasspathFinder(new ScanSpec(), reflectionUtils, /* log = */ null).getClasspathOrder().getOrder());
+    }
+
+    /**
+     * Read the central directory of the generated jar.
+     *
+     * @param blackhole
+     *            the blackhole
+     * @throws Exception
+     *             if the jar could not be read
+     */
+    @Benchmark
+    public void readCentralDirectory(final Blackhole blackhole) throws Exception {
+        final NestedJarHandler nestedJarHandler = new NestedJarHandler(new ScanSpec(), new InterruptionChecker(),
+                reflectionUtils);
+        try {
+            final Entry<LogicalZipFile, String> logicalZipFileAndPackageRoot = //
+                    nestedJarHandler.nestedPathToLogicalZipFileAndPackageRootMap.get(jar.getPath(), null);
+            blackhole.consume(logicalZipFileAndPackageRoot.getKey().getEntries().size());
+        } finally {
+            nestedJarHandler.close(null);
+        }
+    }
+
+    /**
+     * Scan the paths within the generated jar, without scanning classfiles.
+     *
+     * @param blackhole
+     *            the blackhole
+     */
+    @Benchmark
+    public void scanPaths(final Blackhole blackhole) {
+        try (ScanResult pathScanResult = new ClassGraph().overrideClasspath(jar.getPath()).acceptPackages(PACKAGE)
+                .scan()) {
+            blackhole.consume(pathScanResult.getAllResources().size());
+        }
+    }
+
+    /**
+     * Parse the classfiles in the generated jar.
+     *
+     * @param blackhole
+     *            the blackhole
+     * @throws IOException
+     *             if a classfile could not be parsed
+     */
+    @Benchmark
+    public void parseClassfiles(final Blackhole blackhole) throws IOException {
+        final List<Classfile> classfiles = new ArrayList<>(scannedClasses.size());
+        parseClassfiles(classfiles);
+        blackhole.consume(classfiles);
+    }
+
+    /**
+     * Link the parsed classfiles from the generated jar.
+     *
+     * @param blackhole
+     *            the blackhole
+     */
+    @Benchmark
+    public void linkClassfiles(final Blackhole blackhole) {
+        final Map<String, ClassInfo> classNameToClassInfo = new ConcurrentHashMap<>();
+        final Map<String, PackageInfo> packageNameToPackageInfo = new HashMap<>();
+        final Map<String, ModuleInfo> moduleNameToModuleInfo = new HashMap<>();
+        for (final Classfile classfile : parsedClassfiles) {
+            classfile.link(classNameToClassInfo, packageNameToPackageInfo, moduleNameToModuleInfo);
+        }
+        blackhole.consume(classNameToClassInfo);
+    }
+
+    /**
+     * Perform a full scan of the generated jar, with classfile scanning enabled.
+     *
+     * @param blackhole
+     *            the blackhole
+     */
+    @Benchmark
+    public void fullScan(final Blackhole blackhole) {
+        try (ScanResult fullScanResult = new ClassGraph().overrideClasspath(jar.getPath()).acceptPackages(PACKAGE)
+                .enableClassInfo().enableFieldInfo().enableMethodInfo().enableAnnotationInfo().scan()) {
+            blackhole.consume(fullScanResult.getAllClasses().size());
+        }
+    }
+
+    /**
+     * Run common queries against the scan result.
+     *
+     * @param blackhole
+     *            the blackhole
+     */
+    @Benchmark
+    public void queries(final Blackhole blackhole) {
+        blackhole.consume(scanResult.getSubclasses(className(0).replace('/', '.')));
+        blackhole.consume(scanResult.getClassesImplementing(IFACE.replace('/', '.')));
+        blackhole.consume(scanResult.getClassesWithAnnotation(ANN.replace('/', '.')));
+        blackhole.consume(scanResult.getClassInfo(className(numClasses - 1).replace('/', '.')));
+        blackhole.consume(scanResult.getAllStandardClasses());
+    }
+}
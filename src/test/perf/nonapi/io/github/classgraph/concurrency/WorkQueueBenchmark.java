@@ -0,0 +1,113 @@
+/*
+ * This file is part of ClassGraph.
+ *
+ * Author: Luke Hutchison
+ *
+ * Hosted at: https://github.com/classgraph/classgraph
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Luke Hutchison
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package nonapi.io.github.classgraph.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nonapi.io.github.classgraph.concurrency.WorkQueue.WorkUnitProcessor;
+import nonapi.io.github.classgraph.utils.LogNode;
+
+/**
+ * Compares the shared {@link java.util.concurrent.BlockingQueue} scheduler of {@link WorkQueue} with work
+ * stealing, for a large number of small work units, similar to the classfile parsing phase of a scan of many small
+ * classfiles.
+ */
+@State(Scope.Benchmark)
+public class WorkQueueBenchmark {
+    /** The number of worker threads. */
+    @Param({ "4", "16", "64" })
+    public int numThreads;
+
+    /** Whether to use work stealing. */
+    @Param({ "false", "true" })
+    public boolean workStealing;
+
+    /** The number of work units. */
+    @Param({ "100000" })
+    public int numWorkUnits;
+
+    /** The amount of work done for each work unit, in JMH tokens. */
+    @Param({ "100" })
+    public int tokensPerWorkUnit;
+
+    /** The executor service. */
+    private AutoCloseableExecutorService executorService;
+
+    /** The work units. */
+    private List<Integer> workUnits;
+
+    /** Setup. */
+    @Setup
+    public void setUp() {
+        executorService = new AutoCloseableExecutorService(numThreads);
+        workUnits = new ArrayList<>(numWorkUnits);
+        for (int i = 0; i < numWorkUnits; i++) {
+            workUnits.add(i);
+        }
+    }
+
+    /** Tear down. */
+    @TearDown
+    public void tearDown() {
+        executorService.close();
+    }
+
+    /**
+     * Process all work units.
+     *
+     * @param blackhole
+     *            the blackhole
+     * @throws InterruptedException
+     *             if interrupted
+     * @throws ExecutionException
+     *             if a worker threw an exception
+     */
+    @Benchmark
+    public void processWorkUnits(final Blackhole blackhole) throws InterruptedException, ExecutionException {
+        WorkQueue.runWorkQueue(workUnits, executorService, executorService.interruptionChecker, numThreads,
+                /* log = */ null, workStealing, /* workerStatistics = */ null, new WorkUnitProcessor<Integer>() {
+                    @Override
+                    public void processWorkUnit(final Integer workUnit, final WorkQueue<Integer> workQueue,
+                            final LogNode log) {
+                        Blackhole.consumeCPU(tokensPerWorkUnit);
+                        blackhole.consume(workUnit);
+                    }
+                });
+    }
+}